@@ -13,6 +13,7 @@
 package ai.djl;
 
 import ai.djl.inference.Predictor;
+import ai.djl.ndarray.MappedDataInputStream;
 import ai.djl.ndarray.NDArray;
 import ai.djl.ndarray.NDList;
 import ai.djl.ndarray.NDManager;
@@ -339,12 +340,21 @@ public abstract class BaseModel implements Model {
     protected boolean readParameters(Path paramFile, Map<String, ?> options)
             throws IOException, MalformedModelException {
         logger.debug("Try to load model from {}", paramFile);
+        if (options != null && Boolean.parseBoolean(String.valueOf(options.get("mmap")))) {
+            return readParameters(new MappedDataInputStream(paramFile), options);
+        }
         return readParameters(Files.newInputStream(paramFile), options);
     }
 
     protected boolean readParameters(InputStream paramStream, Map<String, ?> options)
             throws IOException, MalformedModelException {
-        try (DataInputStream dis = new DataInputStream(new BufferedInputStream(paramStream))) {
+        DataInputStream input;
+        if (paramStream instanceof MappedDataInputStream) {
+            input = (DataInputStream) paramStream;
+        } else {
+            input = new DataInputStream(new BufferedInputStream(paramStream));
+        }
+        try (DataInputStream dis = input) {
             byte[] buf = new byte[4];
             dis.readFully(buf);
             if (!"DJL@".equals(new String(buf, StandardCharsets.US_ASCII))) {
@@ -0,0 +1,413 @@
+/*
+ * Copyright 2024 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ * with the License. A copy of the License is located at
+ *
+ * http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES
+ * OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package ai.djl.inference;
+
+import ai.djl.Device;
+import ai.djl.Model;
+import ai.djl.metric.Dimension;
+import ai.djl.metric.Metrics;
+import ai.djl.metric.Unit;
+import ai.djl.translate.TranslateException;
+import ai.djl.translate.Translator;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * A {@code BatchingPredictor} coalesces concurrent single item requests into batches.
+ *
+ * <p>Each call to {@link #predict(Object)} or {@link #predictAsync(Object)} is placed on a shared
+ * queue. A pool of worker threads, each owning its own {@link Predictor}, drains the queue into
+ * batches of at most {@code maxBatchSize} items, waiting at most {@code maxDelay} after the first
+ * item arrived. Every batch runs through a single {@link Predictor#batchPredict(List)} call, so the
+ * translator's {@link ai.djl.translate.Batchifier} is used to batchify and unbatchify the data.
+ *
+ * <pre>
+ * try (BatchingPredictor&lt;Image, Classifications&gt; predictor =
+ *         BatchingPredictor.builder(model, translator).optMaxBatchSize(8).build()) {
+ *     Classifications result = predictor.predict(image);
+ * }
+ * </pre>
+ *
+ * <p>If {@link Metrics} is set, the following metrics are recorded:
+ *
+ * <ul>
+ *   <li>{@code QueueDepth} - the number of pending requests when a batch is formed
+ *   <li>{@code BatchSize} - the size of each batch sent to the model
+ *   <li>{@code QueueWait} - the time each request spends in the queue in microseconds
+ * </ul>
+ *
+ * @param <I> the input type
+ * @param <O> the output type
+ */
+public class BatchingPredictor<I, O> implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(BatchingPredictor.class);
+
+    private BlockingQueue<Job<I, O>> queue;
+    private List<Worker> workers;
+    private int maxBatchSize;
+    private long maxDelayNanos;
+    private Metrics metrics;
+    private Dimension dimension;
+    private AtomicBoolean closed;
+    private ReadWriteLock closeLock;
+
+    BatchingPredictor(Builder<I, O> builder) {
+        maxBatchSize = builder.maxBatchSize;
+        maxDelayNanos = builder.maxDelayUnit.toNanos(builder.maxDelay);
+        metrics = builder.metrics;
+        dimension = new Dimension("Model", builder.model.getProperty("metric_dimension", "model"));
+        queue =
+                builder.maxQueueSize > 0
+                        ? new LinkedBlockingQueue<>(builder.maxQueueSize)
+                        : new LinkedBlockingQueue<>();
+        closed = new AtomicBoolean();
+        closeLock = new ReentrantReadWriteLock();
+        Device device = builder.device;
+        if (device == null) {
+            device = builder.model.getNDManager().getDevice();
+        }
+        String name = "batching-predictor-" + builder.model.getName() + '-';
+        workers = new ArrayList<>(builder.workers);
+        for (int i = 0; i < builder.workers; ++i) {
+            Predictor<I, O> predictor = builder.model.newPredictor(builder.translator, device);
+            predictor.setMetrics(metrics);
+            Worker worker = new Worker(predictor);
+            Thread thread = new Thread(worker, name + i);
+            thread.setDaemon(true);
+            worker.thread = thread;
+            workers.add(worker);
+            thread.start();
+        }
+    }
+
+    /**
+     * Creates a builder to build a {@code BatchingPredictor}.
+     *
+     * @param model the model to run inference on
+     * @param translator the translator used by each underlying {@link Predictor}
+     * @param <I> the input type
+     * @param <O> the output type
+     * @return a new builder
+     */
+    public static <I, O> Builder<I, O> builder(Model model, Translator<I, O> translator) {
+        return new Builder<>(model, translator);
+    }
+
+    /**
+     * Predicts an item for inference, blocking until its batch has finished.
+     *
+     * @param input the input
+     * @return the output object defined by the user
+     * @throws TranslateException if an error occurs during prediction
+     */
+    public O predict(I input) throws TranslateException {
+        try {
+            return predictAsync(input).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new TranslateException("Interrupted while waiting for prediction", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof TranslateException) {
+                throw (TranslateException) cause;
+            }
+            throw new TranslateException(cause);
+        }
+    }
+
+    /**
+     * Submits an item for inference and returns immediately.
+     *
+     * <p>The returned future fails with {@link IllegalStateException} if the predictor is closed or
+     * the queue is full, and with {@link TranslateException} if the batch fails.
+     *
+     * @param input the input
+     * @return a future that completes with the output of the item
+     */
+    public CompletableFuture<O> predictAsync(I input) {
+        Job<I, O> job = new Job<>(input);
+        // close() takes the write lock, so a job is either queued before the final drain or
+        // rejected
+        closeLock.readLock().lock();
+        try {
+            if (closed.get()) {
+                job.future.completeExceptionally(new IllegalStateException("Predictor is closed."));
+            } else if (!queue.offer(job)) {
+                job.future.completeExceptionally(
+                        new IllegalStateException("Prediction queue is full: " + queue.size()));
+            }
+        } finally {
+            closeLock.readLock().unlock();
+        }
+        return job.future;
+    }
+
+    /**
+     * Returns the number of requests waiting to be batched.
+     *
+     * @return the number of requests waiting to be batched
+     */
+    public int getQueueSize() {
+        return queue.size();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void close() {
+        closeLock.writeLock().lock();
+        try {
+            if (!closed.compareAndSet(false, true)) {
+                return;
+            }
+        } finally {
+            closeLock.writeLock().unlock();
+        }
+        for (Worker worker : workers) {
+            worker.thread.interrupt();
+        }
+        for (Worker worker : workers) {
+            try {
+                worker.thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        List<Job<I, O>> pending = new ArrayList<>();
+        queue.drainTo(pending);
+        IllegalStateException e = new IllegalStateException("Predictor is closed.");
+        for (Job<I, O> job : pending) {
+            job.future.completeExceptionally(e);
+        }
+    }
+
+    private List<Job<I, O>> nextBatch() throws InterruptedException {
+        Job<I, O> first = queue.poll(100, TimeUnit.MILLISECONDS);
+        if (first == null) {
+            return null;
+        }
+        List<Job<I, O>> batch = new ArrayList<>(maxBatchSize);
+        batch.add(first);
+        long deadline = first.begin + maxDelayNanos;
+        try {
+            while (batch.size() < maxBatchSize) {
+                if (queue.drainTo(batch, maxBatchSize - batch.size()) > 0) {
+                    continue;
+                }
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    break;
+                }
+                Job<I, O> job = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                if (job == null) {
+                    break;
+                }
+                batch.add(job);
+            }
+        } catch (InterruptedException e) {
+            // the jobs are no longer in the queue, so close() can't fail them
+            IllegalStateException cause = new IllegalStateException("Predictor is closed.");
+            for (Job<I, O> job : batch) {
+                job.future.completeExceptionally(cause);
+            }
+            throw e;
+        }
+        return batch;
+    }
+
+    private void runBatch(Predictor<I, O> predictor, List<Job<I, O>> batch) {
+        int size = batch.size();
+        List<I> inputs = new ArrayList<>(size);
+        long now = System.nanoTime();
+        for (Job<I, O> job : batch) {
+            inputs.add(job.input);
+            if (metrics != null) {
+                long wait = (now - job.begin) / 1000;
+                metrics.addMetric("QueueWait", wait, Unit.MICROSECONDS, dimension);
+            }
+        }
+        if (metrics != null) {
+            metrics.addMetric("QueueDepth", queue.size(), Unit.COUNT, dimension);
+            metrics.addMetric("BatchSize", size, Unit.COUNT, dimension);
+        }
+        try {
+            List<O> outputs = predictor.batchPredict(inputs);
+            if (outputs.size() != size) {
+                throw new TranslateException(
+                        "Expected " + size + " outputs, but got " + outputs.size());
+            }
+            for (int i = 0; i < size; ++i) {
+                batch.get(i).future.complete(outputs.get(i));
+            }
+        } catch (Throwable t) { // NOPMD
+            for (Job<I, O> job : batch) {
+                job.future.completeExceptionally(t);
+            }
+        }
+    }
+
+    private static final class Job<I, O> {
+
+        I input;
+        long begin;
+        CompletableFuture<O> future;
+
+        Job(I input) {
+            this.input = input;
+            begin = System.nanoTime();
+            future = new CompletableFuture<>();
+        }
+    }
+
+    private final class Worker implements Runnable {
+
+        Predictor<I, O> predictor;
+        Thread thread;
+
+        Worker(Predictor<I, O> predictor) {
+            this.predictor = predictor;
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public void run() {
+            try {
+                while (!closed.get()) {
+                    List<Job<I, O>> batch = nextBatch();
+                    if (batch != null) {
+                        runBatch(predictor, batch);
+                    }
+                }
+            } catch (InterruptedException e) {
+                logger.trace("Batching worker interrupted: {}", thread.getName());
+            } finally {
+                predictor.close();
+            }
+        }
+    }
+
+    /** The Builder to construct a {@link BatchingPredictor}. */
+    public static final class Builder<I, O> {
+
+        Model model;
+        Translator<I, O> translator;
+        Device device;
+        int maxBatchSize = 8;
+        long maxDelay = 10;
+        TimeUnit maxDelayUnit = TimeUnit.MILLISECONDS;
+        int maxQueueSize;
+        int workers = 1;
+        Metrics metrics;
+
+        Builder(Model model, Translator<I, O> translator) {
+            this.model = model;
+            this.translator = translator;
+        }
+
+        /**
+         * Sets the device to run inference on, defaults to the model's device.
+         *
+         * @param device the device to run inference on
+         * @return this builder
+         */
+        public Builder<I, O> optDevice(Device device) {
+            this.device = device;
+            return this;
+        }
+
+        /**
+         * Sets the maximum number of items in each batch, default is 8.
+         *
+         * @param maxBatchSize the maximum number of items in each batch
+         * @return this builder
+         */
+        public Builder<I, O> optMaxBatchSize(int maxBatchSize) {
+            this.maxBatchSize = maxBatchSize;
+            return this;
+        }
+
+        /**
+         * Sets how long the first item of a batch may wait for more items, default is 10 ms.
+         *
+         * @param maxDelay the maximum queue delay
+         * @param unit the unit of {@code maxDelay}
+         * @return this builder
+         */
+        public Builder<I, O> optMaxDelay(long maxDelay, TimeUnit unit) {
+            this.maxDelay = maxDelay;
+            this.maxDelayUnit = unit;
+            return this;
+        }
+
+        /**
+         * Sets the maximum number of pending requests, default is unbounded.
+         *
+         * @param maxQueueSize the maximum number of pending requests
+         * @return this builder
+         */
+        public Builder<I, O> optMaxQueueSize(int maxQueueSize) {
+            this.maxQueueSize = maxQueueSize;
+            return this;
+        }
+
+        /**
+         * Sets the number of worker threads, each with its own {@link Predictor}, default is 1.
+         *
+         * @param workers the number of worker threads
+         * @return this builder
+         */
+        public Builder<I, O> optWorkers(int workers) {
+            this.workers = workers;
+            return this;
+        }
+
+        /**
+         * Sets the {@link Metrics} to record batching and prediction metrics.
+         *
+         * @param metrics the {@link Metrics} to record into
+         * @return this builder
+         */
+        public Builder<I, O> optMetrics(Metrics metrics) {
+            this.metrics = metrics;
+            return this;
+        }
+
+        /**
+         * Builds a {@code BatchingPredictor} and starts its worker threads.
+         *
+         * @return a new {@code BatchingPredictor}
+         */
+        public BatchingPredictor<I, O> build() {
+            if (maxBatchSize < 1) {
+                throw new IllegalArgumentException("maxBatchSize must be greater than 0");
+            }
+            if (workers < 1) {
+                throw new IllegalArgumentException("workers must be greater than 0");
+            }
+            return new BatchingPredictor<>(this);
+        }
+    }
+}
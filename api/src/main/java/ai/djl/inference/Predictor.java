@@ -27,6 +27,7 @@ import ai.djl.ndarray.NDManager;
 import ai.djl.nn.Block;
 import ai.djl.training.ParameterStore;
 import ai.djl.translate.Batchifier;
+import ai.djl.translate.PaddingStackBatchifier;
 import ai.djl.translate.TranslateException;
 import ai.djl.translate.Translator;
 import ai.djl.translate.TranslatorContext;
@@ -34,11 +35,26 @@ import ai.djl.translate.TranslatorContext;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * The {@code Predictor} interface provides a session for model inference.
@@ -97,6 +113,10 @@ public class Predictor<I, O> implements AutoCloseable {
     protected ParameterStore parameterStore;
     protected Dimension dimension;
 
+    private Executor processExecutor;
+    private Executor inferenceExecutor;
+    private ExecutorService defaultInferenceExecutor;
+
     /**
      * Creates a new instance of {@code BasePredictor} with the given {@link Model} and {@link
      * Translator}.
@@ -119,6 +139,7 @@ public class Predictor<I, O> implements AutoCloseable {
         block = model.getBlock();
         parameterStore = new ParameterStore(manager, copy);
         dimension = new Dimension("Model", model.getProperty("metric_dimension", "model"));
+        processExecutor = ForkJoinPool.commonPool();
     }
 
     /**
@@ -157,10 +178,7 @@ public class Predictor<I, O> implements AutoCloseable {
     public List<O> batchPredict(List<I> inputs) throws TranslateException {
         long begin = System.nanoTime();
         try (PredictorContext context = new PredictorContext()) {
-            if (!prepared) {
-                translator.prepare(context);
-                prepared = true;
-            }
+            prepareTranslator(context);
             Batchifier batchifier = translator.getBatchifier();
             if (batchifier == null) {
                 List<O> ret = new ArrayList<>(inputs.size());
@@ -183,8 +201,9 @@ public class Predictor<I, O> implements AutoCloseable {
             NDList inputBatch = processInputs(context, inputs);
             preprocessEnd(inputBatch);
 
+            String bucket = batchifier.getBucket(inputBatch);
             NDList result = predictInternal(context, inputBatch);
-            predictEnd(result);
+            predictEnd(result, bucket);
 
             List<O> ret = processOutputs(context, result);
             postProcessEnd(begin);
@@ -196,6 +215,147 @@ public class Predictor<I, O> implements AutoCloseable {
         }
     }
 
+    /**
+     * Runs a sample input through the model, so that the first requests don't pay for the
+     * initialization of the engine.
+     *
+     * <p>If the batchifier is a {@link PaddingStackBatchifier}, the sample is run through each of
+     * its buckets with {@link PaddingStackBatchifier#warmup(Model, NDList)}. Otherwise, it is
+     * predicted once.
+     *
+     * @param input the sample input
+     * @throws TranslateException if an error occurs during prediction
+     */
+    @SuppressWarnings("PMD.AvoidRethrowingException")
+    public void warmup(I input) throws TranslateException {
+        Batchifier batchifier = translator.getBatchifier();
+        if (!(batchifier instanceof PaddingStackBatchifier)) {
+            predict(input);
+            return;
+        }
+        try (PredictorContext context = new PredictorContext()) {
+            prepareTranslator(context);
+            NDList sample = translator.processInput(context, input);
+            Map<String, Long> latencies =
+                    ((PaddingStackBatchifier) batchifier).warmup(model, sample);
+            logger.debug("Warmup latencies of {}: {}", model.getName(), latencies);
+        } catch (TranslateException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new TranslateException(e);
+        }
+    }
+
+    /**
+     * Predicts an item for inference asynchronously.
+     *
+     * @param input the input
+     * @return a future that completes with the output object defined by the user
+     * @see #batchPredictAsync(List)
+     */
+    public CompletableFuture<O> predictAsync(I input) {
+        CompletableFuture<List<O>> batch = batchPredictAsync(Collections.singletonList(input));
+        CompletableFuture<O> future = batch.thenApply(list -> list.get(0));
+        future.whenComplete(
+                (r, t) -> {
+                    if (t instanceof CancellationException) {
+                        batch.cancel(false);
+                    }
+                });
+        return future;
+    }
+
+    /**
+     * Predicts a batch for inference asynchronously.
+     *
+     * <p>The pre-processing and post-processing of the {@link Translator} run on the process
+     * executor, and the inference runs on the inference executor. Unless other executors are set,
+     * these are the common {@link ForkJoinPool} and a single thread owned by this predictor. While
+     * a batch is in inference, the next batches can be pre-processed and the previous ones
+     * post-processed.
+     *
+     * <p>The returned future fails with a {@link java.util.concurrent.CompletionException} caused
+     * by a {@link TranslateException} if an error occurs during prediction.
+     *
+     * <p>Cancelling the returned future skips the stages that have not started yet. A stage that is
+     * already running, such as the inference, is not interrupted.
+     *
+     * @param inputs a list of inputs
+     * @return a future that completes with the list of output objects defined by the user
+     * @see #setProcessExecutor(Executor)
+     * @see #setInferenceExecutor(Executor)
+     */
+    public CompletableFuture<List<O>> batchPredictAsync(List<I> inputs) {
+        return new AsyncPrediction().start(inputs);
+    }
+
+    /**
+     * Predicts all the inputs in batches, and returns the outputs in the order of the inputs.
+     *
+     * @param inputs the inputs
+     * @param batchSize the maximum number of inputs of each batch
+     * @return a lazy stream of the outputs
+     * @see #predictAll(Iterator, int, int)
+     */
+    public Stream<O> predictAll(Iterator<I> inputs, int batchSize) {
+        return predictAll(inputs, batchSize, 3);
+    }
+
+    /**
+     * Predicts all the inputs in batches, and returns the outputs in the order of the inputs.
+     *
+     * <p>The batches are predicted with {@link #batchPredictAsync(List)}, so the pre-processing,
+     * inference and post-processing of consecutive batches overlap. The inputs are read when the
+     * stream is consumed, and at most {@code maxInFlight} batches are predicted ahead of the
+     * consumer.
+     *
+     * <p>Closing the stream cancels the batches in flight, as described in {@link
+     * #batchPredictAsync(List)}, and stops reading the inputs.
+     *
+     * <p>The stream throws a {@link java.util.concurrent.CompletionException} caused by a {@link
+     * TranslateException} if an error occurs during prediction.
+     *
+     * @param inputs the inputs
+     * @param batchSize the maximum number of inputs of each batch
+     * @param maxInFlight the maximum number of batches predicted ahead of the consumer
+     * @return a lazy stream of the outputs
+     */
+    public Stream<O> predictAll(Iterator<I> inputs, int batchSize, int maxInFlight) {
+        if (batchSize < 1 || maxInFlight < 1) {
+            throw new IllegalArgumentException("batchSize and maxInFlight must be greater than 0");
+        }
+        PipelineIterator it = new PipelineIterator(inputs, batchSize, maxInFlight);
+        Spliterator<O> spliterator =
+                Spliterators.spliteratorUnknownSize(it, Spliterator.ORDERED | Spliterator.NONNULL);
+        return StreamSupport.stream(spliterator, false).onClose(it::cancel);
+    }
+
+    /**
+     * Sets the executor running the pre-processing and post-processing of {@link
+     * #batchPredictAsync(List)}, defaults to the common {@link ForkJoinPool}.
+     *
+     * <p>On Java 21 and later, an executor of virtual threads avoids blocking the common pool with
+     * translators that do I/O.
+     *
+     * @param processExecutor the executor running the translator
+     */
+    public void setProcessExecutor(Executor processExecutor) {
+        this.processExecutor = processExecutor;
+    }
+
+    /**
+     * Sets the executor running the inference of {@link #batchPredictAsync(List)}, defaults to a
+     * single thread owned by this predictor.
+     *
+     * <p>The inference executor may be shared by the predictors of a model to serialize their
+     * inference. The executor set is not shut down by {@link #close()}.
+     *
+     * @param inferenceExecutor the executor running the inference
+     */
+    public void setInferenceExecutor(Executor inferenceExecutor) {
+        this.inferenceExecutor = inferenceExecutor;
+    }
+
     /**
      * Predicts an item for inference.
      *
@@ -216,10 +376,7 @@ public class Predictor<I, O> implements AutoCloseable {
 
         try {
             PredictorContext context = new PredictorContext();
-            if (!prepared) {
-                translator.prepare(context);
-                prepared = true;
-            }
+            prepareTranslator(context);
             Batchifier batchifier = translator.getBatchifier();
             if (batchifier == null) {
                 NDList ndList = translator.processInput(context, input);
@@ -240,8 +397,12 @@ public class Predictor<I, O> implements AutoCloseable {
                             .map(
                                     result -> {
                                         NDList[] unbatched =
-                                                translator.getBatchifier().unbatchify(result);
-                                        if (unbatched.length != 1) {
+                                                translator
+                                                        .getBatchifier()
+                                                        .unbatchify(context, result);
+                                        // the batchifier may have padded the batch to a
+                                        // bucket size
+                                        if (unbatched.length < 1) {
                                             throw new IllegalStateException(
                                                     "Unexpected number of outputs from model");
                                         }
@@ -284,6 +445,31 @@ public class Predictor<I, O> implements AutoCloseable {
         this.metrics = metrics;
     }
 
+    private synchronized Executor getInferenceExecutor() {
+        if (inferenceExecutor != null) {
+            return inferenceExecutor;
+        }
+        if (defaultInferenceExecutor == null) {
+            String name = "predictor-inference-" + model.getName();
+            defaultInferenceExecutor =
+                    Executors.newSingleThreadExecutor(
+                            r -> {
+                                Thread thread = new Thread(r, name);
+                                thread.setDaemon(true);
+                                return thread;
+                            });
+        }
+        return defaultInferenceExecutor;
+    }
+
+    @SuppressWarnings("PMD.SignatureDeclareThrowsException")
+    private synchronized void prepareTranslator(TranslatorContext ctx) throws Exception {
+        if (!prepared) {
+            translator.prepare(ctx);
+            prepared = true;
+        }
+    }
+
     private void waitToRead(NDList list) {
         for (NDArray array : list) {
             if (array instanceof LazyNDArray) {
@@ -299,15 +485,19 @@ public class Predictor<I, O> implements AutoCloseable {
         for (int i = 0; i < batchSize; ++i) {
             preprocessed[i] = translator.processInput(ctx, inputs.get(i));
         }
-        return translator.getBatchifier().batchify(preprocessed);
+        ctx.setAttachment(PaddingStackBatchifier.BATCH_SIZE, batchSize);
+        return translator.getBatchifier().batchify(ctx, preprocessed);
     }
 
     @SuppressWarnings("PMD.SignatureDeclareThrowsException")
     private List<O> processOutputs(TranslatorContext ctx, NDList list) throws Exception {
-        NDList[] unbatched = translator.getBatchifier().unbatchify(list);
-        List<O> outputs = new ArrayList<>(unbatched.length);
-        for (NDList output : unbatched) {
-            outputs.add(translator.processOutput(ctx, output));
+        NDList[] unbatched = translator.getBatchifier().unbatchify(ctx, list);
+        // the batchifier may have padded the batch to a bucket size
+        Integer batchSize = (Integer) ctx.getAttachment(PaddingStackBatchifier.BATCH_SIZE);
+        int size = batchSize == null ? unbatched.length : Math.min(batchSize, unbatched.length);
+        List<O> outputs = new ArrayList<>(size);
+        for (int i = 0; i < size; ++i) {
+            outputs.add(translator.processOutput(ctx, unbatched[i]));
         }
         return outputs;
     }
@@ -323,12 +513,24 @@ public class Predictor<I, O> implements AutoCloseable {
     }
 
     private void predictEnd(NDList list) {
+        predictEnd(list, null);
+    }
+
+    private void predictEnd(NDList list, String bucket) {
         if (metrics != null) {
             waitToRead(list);
             long tmp = System.nanoTime();
             long duration = (tmp - timestamp) / 1000;
             timestamp = tmp;
             metrics.addMetric("Inference", duration, Unit.MICROSECONDS, dimension);
+            bucketEnd(bucket, duration);
+        }
+    }
+
+    private void bucketEnd(String bucket, long duration) {
+        if (bucket != null) {
+            Dimension dim = new Dimension("Bucket", bucket);
+            metrics.addMetric("BucketInference", duration, Unit.MICROSECONDS, dim);
         }
     }
 
@@ -346,6 +548,11 @@ public class Predictor<I, O> implements AutoCloseable {
     /** {@inheritDoc} */
     @Override
     public void close() {
+        synchronized (this) {
+            if (defaultInferenceExecutor != null) {
+                defaultInferenceExecutor.shutdown();
+            }
+        }
         manager.close();
     }
 
@@ -362,6 +569,199 @@ public class Predictor<I, O> implements AutoCloseable {
         super.finalize();
     }
 
+    /** Reads the outputs of the batches in flight, and submits new batches as they complete. */
+    private final class PipelineIterator implements Iterator<O> {
+
+        private Iterator<I> inputs;
+        private int batchSize;
+        private int maxInFlight;
+        private Deque<CompletableFuture<List<O>>> inFlight;
+        private Iterator<O> current;
+
+        PipelineIterator(Iterator<I> inputs, int batchSize, int maxInFlight) {
+            this.inputs = inputs;
+            this.batchSize = batchSize;
+            this.maxInFlight = maxInFlight;
+            inFlight = new ArrayDeque<>(maxInFlight);
+            current = Collections.emptyIterator();
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public boolean hasNext() {
+            while (!current.hasNext()) {
+                fill();
+                CompletableFuture<List<O>> future = inFlight.poll();
+                if (future == null) {
+                    return false;
+                }
+                current = future.join().iterator();
+            }
+            return true;
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public O next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            O output = current.next();
+            fill();
+            return output;
+        }
+
+        void cancel() {
+            inputs = Collections.emptyIterator();
+            for (CompletableFuture<List<O>> future : inFlight) {
+                future.cancel(false);
+            }
+            inFlight.clear();
+            current = Collections.emptyIterator();
+        }
+
+        private void fill() {
+            while (inFlight.size() < maxInFlight && inputs.hasNext()) {
+                List<I> batch = new ArrayList<>(batchSize);
+                while (batch.size() < batchSize && inputs.hasNext()) {
+                    batch.add(inputs.next());
+                }
+                inFlight.add(batchPredictAsync(batch));
+            }
+        }
+    }
+
+    /** The stages of an asynchronous prediction, that may run on different threads. */
+    private final class AsyncPrediction {
+
+        private CompletableFuture<List<O>> result;
+        private PredictorContext context;
+        private long begin;
+        private long timestamp;
+        private String bucket;
+
+        AsyncPrediction() {
+            begin = System.nanoTime();
+            result = new CompletableFuture<>();
+        }
+
+        CompletableFuture<List<O>> start(List<I> inputs) {
+            // the stages are not chained to the result, so that cancelling the result doesn't
+            // skip closing the context after the running stage
+            CompletableFuture.supplyAsync(() -> preprocess(inputs), processExecutor)
+                    .thenApplyAsync(this::predict, getInferenceExecutor())
+                    .thenApplyAsync(this::postprocess, processExecutor)
+                    .whenComplete(
+                            (r, t) -> {
+                                close();
+                                if (t == null) {
+                                    result.complete(r);
+                                } else {
+                                    result.completeExceptionally(t);
+                                }
+                            });
+            return result;
+        }
+
+        List<NDList> preprocess(List<I> inputs) {
+            checkCancelled();
+            try {
+                timestamp = System.nanoTime();
+                context = new PredictorContext();
+                prepareTranslator(context);
+                Batchifier batchifier = translator.getBatchifier();
+                List<NDList> list;
+                if (batchifier == null) {
+                    list = new ArrayList<>(inputs.size());
+                    for (I input : inputs) {
+                        list.add(translator.processInput(context, input));
+                    }
+                } else {
+                    NDList batch = processInputs(context, inputs);
+                    bucket = batchifier.getBucket(batch);
+                    list = Collections.singletonList(batch);
+                }
+                stageEnd("Preprocess", list);
+                return list;
+            } catch (Exception e) {
+                throw toCompletionException(e);
+            }
+        }
+
+        List<NDList> predict(List<NDList> inputs) {
+            checkCancelled();
+            try {
+                List<NDList> list = new ArrayList<>(inputs.size());
+                for (NDList input : inputs) {
+                    list.add(predictInternal(context, input));
+                }
+                long duration = stageEnd("Inference", list);
+                if (metrics != null) {
+                    bucketEnd(bucket, duration);
+                }
+                return list;
+            } catch (Exception e) {
+                throw toCompletionException(e);
+            }
+        }
+
+        List<O> postprocess(List<NDList> results) {
+            checkCancelled();
+            try {
+                List<O> outputs;
+                if (translator.getBatchifier() == null) {
+                    outputs = new ArrayList<>(results.size());
+                    for (NDList result : results) {
+                        outputs.add(translator.processOutput(context, result));
+                    }
+                } else {
+                    outputs = processOutputs(context, results.get(0));
+                }
+                stageEnd("Postprocess", null);
+                if (metrics != null) {
+                    long prediction = (timestamp - begin) / 1000;
+                    metrics.addMetric("Prediction", prediction, Unit.MICROSECONDS, dimension);
+                }
+                return outputs;
+            } catch (Exception e) {
+                throw toCompletionException(e);
+            }
+        }
+
+        void close() {
+            if (context != null) {
+                context.close();
+            }
+        }
+
+        private void checkCancelled() {
+            if (result.isCancelled()) {
+                throw new CancellationException();
+            }
+        }
+
+        private long stageEnd(String stage, List<NDList> list) {
+            if (metrics == null) {
+                return -1;
+            }
+            if (list != null) {
+                list.forEach(Predictor.this::waitToRead);
+            }
+            long tmp = System.nanoTime();
+            long duration = (tmp - timestamp) / 1000;
+            timestamp = tmp;
+            metrics.addMetric(stage, duration, Unit.MICROSECONDS, dimension);
+            return duration;
+        }
+
+        private CompletionException toCompletionException(Exception e) {
+            if (e instanceof TranslateException) {
+                return new CompletionException(e);
+            }
+            return new CompletionException(new TranslateException(e));
+        }
+    }
+
     protected class PredictorContext implements TranslatorContext {
 
         private NDManager ctxManager;
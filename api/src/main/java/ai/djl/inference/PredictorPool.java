@@ -0,0 +1,484 @@
+/*
+ * Copyright 2024 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ * with the License. A copy of the License is located at
+ *
+ * http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES
+ * OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package ai.djl.inference;
+
+import ai.djl.Device;
+import ai.djl.Model;
+import ai.djl.metric.Dimension;
+import ai.djl.metric.Metrics;
+import ai.djl.metric.Unit;
+import ai.djl.ndarray.NDManager;
+import ai.djl.training.ParameterStore;
+import ai.djl.translate.TranslateException;
+import ai.djl.translate.Translator;
+
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A {@code PredictorPool} hands out {@link Predictor}s that share a single {@link ParameterStore}.
+ *
+ * <p>A {@link Predictor} is not thread safe, and each {@link Predictor} created with {@link
+ * Model#newPredictor(Translator, Device)} copies the parameters it needs when the device differs
+ * from the model's device. The predictors of a pool share their parameters, which are copied at
+ * most once, and keep their {@link NDManager} between uses. At most {@code maxSize} predictors are
+ * created, when no idle predictor is available, and the other callers wait for a predictor to be
+ * released.
+ *
+ * <p>Closing the pool rejects new borrows and closes the idle predictors right away. The borrowed
+ * predictors stay usable until they are released, and the shared parameters are closed with the
+ * last of them.
+ *
+ * <pre>
+ * try (PredictorPool&lt;Image, Classifications&gt; pool =
+ *         PredictorPool.builder(model, translator).optMaxSize(8).build()) {
+ *     Classifications result = pool.predict(image);
+ * }
+ * </pre>
+ *
+ * <p>If {@link Metrics} is set, the following metrics are recorded:
+ *
+ * <ul>
+ *   <li>{@code PoolWait} - the time waiting for a predictor in microseconds
+ *   <li>{@code PoolActive} - the number of borrowed predictors after each borrow
+ * </ul>
+ *
+ * @param <I> the input type
+ * @param <O> the output type
+ */
+public class PredictorPool<I, O> implements AutoCloseable {
+
+    private static final long POLL_INTERVAL = TimeUnit.MILLISECONDS.toNanos(100);
+
+    private Model model;
+    private Translator<I, O> translator;
+    private Device device;
+    private NDManager manager;
+    private ParameterStore parameterStore;
+    private int maxSize;
+    private long timeoutNanos;
+    private I warmupInput;
+    private Metrics metrics;
+    private Dimension dimension;
+
+    private LinkedBlockingDeque<Predictor<I, O>> idle;
+    private Set<Predictor<I, O>> predictors;
+    private Set<Predictor<I, O>> borrowed;
+    private AtomicInteger size;
+    private AtomicInteger active;
+    private LongAdder borrowCount;
+    private LongAdder waitTime;
+    private AtomicBoolean closed;
+
+    PredictorPool(Builder<I, O> builder) throws TranslateException {
+        model = builder.model;
+        translator = builder.translator;
+        device = builder.device;
+        if (device == null) {
+            device = model.getNDManager().getDevice();
+        }
+        maxSize = builder.maxSize;
+        timeoutNanos = builder.timeoutUnit.toNanos(builder.timeout);
+        warmupInput = builder.warmupInput;
+        metrics = builder.metrics;
+        dimension = new Dimension("Model", model.getProperty("metric_dimension", "model"));
+
+        manager = model.getNDManager().newSubManager(device);
+        manager.setName("predictorPool");
+        // Always copy during device changes
+        boolean copy = !device.equals(model.getNDManager().getDevice());
+        parameterStore = new ParameterStore(manager, copy);
+
+        idle = new LinkedBlockingDeque<>();
+        predictors = ConcurrentHashMap.newKeySet();
+        borrowed = Collections.newSetFromMap(new IdentityHashMap<>());
+        size = new AtomicInteger();
+        active = new AtomicInteger();
+        borrowCount = new LongAdder();
+        waitTime = new LongAdder();
+        closed = new AtomicBoolean();
+        try {
+            for (int i = 0; i < builder.minSize; ++i) {
+                idle.offerFirst(tryCreate());
+            }
+        } catch (TranslateException | RuntimeException e) {
+            close();
+            throw e;
+        }
+    }
+
+    /**
+     * Creates a builder to build a {@code PredictorPool}.
+     *
+     * @param model the model to run inference on
+     * @param translator the translator used by each {@link Predictor}
+     * @param <I> the input type
+     * @param <O> the output type
+     * @return a new builder
+     */
+    public static <I, O> Builder<I, O> builder(Model model, Translator<I, O> translator) {
+        return new Builder<>(model, translator);
+    }
+
+    /**
+     * Takes a {@link Predictor} from the pool, and waits until one is released if the pool has
+     * reached its maximum size.
+     *
+     * <p>The {@link Predictor} must be returned with {@link #release(Predictor)} and must not be
+     * closed. It stays usable after the pool is closed, until it is released.
+     *
+     * @return a {@link Predictor}
+     * @throws TranslateException if the warmup of a new predictor failed, or the wait is
+     *     interrupted or timed out
+     * @throws IllegalStateException if the pool is closed
+     */
+    public Predictor<I, O> borrow() throws TranslateException {
+        if (closed.get()) {
+            throw new IllegalStateException("PredictorPool is closed.");
+        }
+        long begin = System.nanoTime();
+        Predictor<I, O> predictor = idle.pollFirst();
+        if (predictor == null) {
+            predictor = tryCreate();
+        }
+        while (predictor == null) {
+            if (closed.get()) {
+                throw new IllegalStateException("PredictorPool is closed.");
+            }
+            long wait = POLL_INTERVAL;
+            if (timeoutNanos > 0) {
+                long remaining = begin + timeoutNanos - System.nanoTime();
+                if (remaining <= 0) {
+                    waitTime.add(timeoutNanos - remaining);
+                    throw new TranslateException("Timed out waiting for a predictor");
+                }
+                wait = Math.min(wait, remaining);
+            }
+            try {
+                predictor = idle.pollFirst(wait, TimeUnit.NANOSECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new TranslateException("Interrupted while waiting for a predictor", e);
+            }
+        }
+        boolean rejected;
+        synchronized (this) {
+            rejected = closed.get();
+            if (!rejected) {
+                borrowed.add(predictor);
+            }
+        }
+        if (rejected) {
+            // the pool was closed while this predictor was handed out
+            predictor.close();
+            throw new IllegalStateException("PredictorPool is closed.");
+        }
+
+        int activeCount = active.incrementAndGet();
+        long elapsed = System.nanoTime() - begin;
+        borrowCount.increment();
+        waitTime.add(elapsed);
+        if (metrics != null) {
+            metrics.addMetric("PoolWait", elapsed / 1000, Unit.MICROSECONDS, dimension);
+            metrics.addMetric("PoolActive", activeCount, Unit.COUNT, dimension);
+        }
+        return predictor;
+    }
+
+    /**
+     * Returns a {@link Predictor} taken with {@link #borrow()} to the pool.
+     *
+     * <p>If the pool is closed, the {@link Predictor} is closed instead.
+     *
+     * @param predictor the {@link Predictor} to return
+     * @throws IllegalArgumentException if the predictor doesn't belong to this pool
+     * @throws IllegalStateException if the predictor is not borrowed, such as when it is released
+     *     twice
+     */
+    public void release(Predictor<I, O> predictor) {
+        boolean drained;
+        synchronized (this) {
+            if (!borrowed.remove(predictor)) {
+                if (predictors.contains(predictor)) {
+                    throw new IllegalStateException("The predictor is not borrowed.");
+                }
+                throw new IllegalArgumentException("The predictor doesn't belong to this pool.");
+            }
+            active.decrementAndGet();
+            if (!closed.get()) {
+                // the most recently used predictor is reused first
+                idle.offerFirst(predictor);
+                return;
+            }
+            drained = borrowed.isEmpty();
+        }
+        predictor.close();
+        if (drained) {
+            manager.close();
+        }
+    }
+
+    /**
+     * Predicts an item for inference with a {@link Predictor} of the pool.
+     *
+     * @param input the input
+     * @return the output object defined by the user
+     * @throws TranslateException if an error occurs during prediction
+     */
+    public O predict(I input) throws TranslateException {
+        Predictor<I, O> predictor = borrow();
+        try {
+            return predictor.predict(input);
+        } finally {
+            release(predictor);
+        }
+    }
+
+    /**
+     * Predicts a batch for inference with a {@link Predictor} of the pool.
+     *
+     * @param inputs a list of inputs
+     * @return a list of output objects defined by the user
+     * @throws TranslateException if an error occurs during prediction
+     */
+    public List<O> batchPredict(List<I> inputs) throws TranslateException {
+        Predictor<I, O> predictor = borrow();
+        try {
+            return predictor.batchPredict(inputs);
+        } finally {
+            release(predictor);
+        }
+    }
+
+    /**
+     * Returns the maximum number of predictors of the pool.
+     *
+     * @return the maximum number of predictors of the pool
+     */
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    /**
+     * Returns the number of predictors created by the pool.
+     *
+     * @return the number of predictors created by the pool
+     */
+    public int getSize() {
+        return size.get();
+    }
+
+    /**
+     * Returns the number of borrowed predictors.
+     *
+     * @return the number of borrowed predictors
+     */
+    public int getActiveCount() {
+        return active.get();
+    }
+
+    /**
+     * Returns the fraction of the maximum number of predictors that are borrowed.
+     *
+     * @return the fraction of the maximum number of predictors that are borrowed, from 0 to 1
+     */
+    public double getUtilization() {
+        return (double) active.get() / maxSize;
+    }
+
+    /**
+     * Returns the number of {@link #borrow()}.
+     *
+     * @return the number of {@link #borrow()}
+     */
+    public long getBorrowCount() {
+        return borrowCount.sum();
+    }
+
+    /**
+     * Returns the total time spent waiting in {@link #borrow()}.
+     *
+     * @param unit the unit of the result
+     * @return the total time spent waiting in {@link #borrow()}
+     */
+    public long getWaitTime(TimeUnit unit) {
+        return unit.convert(waitTime.sum(), TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Closes the pool.
+     *
+     * <p>New borrows are rejected and the idle predictors are closed. The borrowed predictors are
+     * closed when they are released, and the shared parameters when the last one is released.
+     */
+    @Override
+    public void close() {
+        boolean drained;
+        synchronized (this) {
+            if (closed.getAndSet(true)) {
+                return;
+            }
+            drained = borrowed.isEmpty();
+        }
+        Predictor<I, O> predictor;
+        while ((predictor = idle.pollFirst()) != null) {
+            predictor.close();
+        }
+        if (drained) {
+            manager.close();
+        }
+    }
+
+    private Predictor<I, O> tryCreate() throws TranslateException {
+        int count;
+        do {
+            count = size.get();
+            if (count >= maxSize) {
+                return null;
+            }
+        } while (!size.compareAndSet(count, count + 1));
+
+        Predictor<I, O> predictor = null;
+        try {
+            predictor = model.newPredictor(translator, device);
+            predictor.parameterStore = parameterStore;
+            if (warmupInput != null) {
+                predictor.predict(warmupInput);
+            }
+            // metrics are set after the warmup to not record it
+            predictor.setMetrics(metrics);
+            predictors.add(predictor);
+            return predictor;
+        } catch (TranslateException | RuntimeException e) {
+            size.decrementAndGet();
+            if (predictor != null) {
+                predictor.close();
+            }
+            throw e;
+        }
+    }
+
+    /** The Builder to construct a {@link PredictorPool}. */
+    public static final class Builder<I, O> {
+
+        Model model;
+        Translator<I, O> translator;
+        Device device;
+        int minSize;
+        int maxSize = Runtime.getRuntime().availableProcessors();
+        long timeout;
+        TimeUnit timeoutUnit = TimeUnit.MILLISECONDS;
+        I warmupInput;
+        Metrics metrics;
+
+        Builder(Model model, Translator<I, O> translator) {
+            this.model = model;
+            this.translator = translator;
+        }
+
+        /**
+         * Sets the device to run inference on, defaults to the model's device.
+         *
+         * @param device the device to run inference on
+         * @return this builder
+         */
+        public Builder<I, O> optDevice(Device device) {
+            this.device = device;
+            return this;
+        }
+
+        /**
+         * Sets the number of predictors created with the pool, default is 0.
+         *
+         * @param minSize the number of predictors created with the pool
+         * @return this builder
+         */
+        public Builder<I, O> optMinSize(int minSize) {
+            this.minSize = minSize;
+            return this;
+        }
+
+        /**
+         * Sets the maximum number of predictors, default is the number of processors.
+         *
+         * @param maxSize the maximum number of predictors
+         * @return this builder
+         */
+        public Builder<I, O> optMaxSize(int maxSize) {
+            this.maxSize = maxSize;
+            return this;
+        }
+
+        /**
+         * Sets how long {@link #borrow()} waits for a predictor, default is no limit.
+         *
+         * @param timeout the maximum wait, or 0 for no limit
+         * @param unit the unit of {@code timeout}
+         * @return this builder
+         */
+        public Builder<I, O> optTimeout(long timeout, TimeUnit unit) {
+            this.timeout = timeout;
+            this.timeoutUnit = unit;
+            return this;
+        }
+
+        /**
+         * Sets an input predicted once by each new predictor, before it is handed out.
+         *
+         * <p>The warmup moves the parameters to the device and runs the engine specific
+         * optimizations out of the latency of the first requests.
+         *
+         * @param warmupInput the input to predict with each new predictor
+         * @return this builder
+         */
+        public Builder<I, O> optWarmupInput(I warmupInput) {
+            this.warmupInput = warmupInput;
+            return this;
+        }
+
+        /**
+         * Sets the {@link Metrics} to record pool and prediction metrics.
+         *
+         * @param metrics the {@link Metrics} to record into
+         * @return this builder
+         */
+        public Builder<I, O> optMetrics(Metrics metrics) {
+            this.metrics = metrics;
+            return this;
+        }
+
+        /**
+         * Builds a {@code PredictorPool}, and creates its first {@code minSize} predictors.
+         *
+         * @return a new {@code PredictorPool}
+         * @throws TranslateException if the warmup of a predictor failed
+         */
+        public PredictorPool<I, O> build() throws TranslateException {
+            if (maxSize < 1) {
+                throw new IllegalArgumentException("maxSize must be greater than 0");
+            }
+            if (minSize < 0 || minSize > maxSize) {
+                throw new IllegalArgumentException("minSize must be between 0 and maxSize");
+            }
+            return new PredictorPool<>(this);
+        }
+    }
+}
@@ -0,0 +1,294 @@
+/*
+ * Copyright 2024 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ * with the License. A copy of the License is located at
+ *
+ * http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES
+ * OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package ai.djl.metric;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A lock-free, fixed-memory histogram with logarithmic buckets.
+ *
+ * <p>Values are bucketed by their binary exponent and the top bits of their mantissa, so each
+ * bucket covers a range with a relative width of {@code 1/64}. Percentiles are therefore accurate
+ * to within about 1%, regardless of how many values are recorded. Recording a value is a single
+ * atomic increment on a bucket in one of several stripes, so threads recording concurrently rarely
+ * contend with each other.
+ *
+ * <p>Magnitudes between {@code 2^-24} and {@code 2^41} are tracked, smaller values are counted as
+ * zero and larger values are counted in the last bucket. The exact minimum and maximum are kept to
+ * bound the reported percentiles.
+ */
+public class Histogram {
+
+    private static final int SUB_BITS = 6;
+    private static final int SUB_COUNT = 1 << SUB_BITS;
+    private static final int SUB_MASK = SUB_COUNT - 1;
+    private static final int MIN_EXP = -24;
+    private static final int MAX_EXP = 40;
+    private static final int BUCKETS_PER_SIGN = (MAX_EXP - MIN_EXP + 1) << SUB_BITS;
+    private static final int ZERO = BUCKETS_PER_SIGN;
+    private static final int BUCKETS = BUCKETS_PER_SIGN * 2 + 1;
+    private static final int STRIPES = stripeCount();
+
+    private AtomicReferenceArray<AtomicLongArray> stripes;
+    private LongAdder count;
+    private DoubleAdder sum;
+    private AtomicLong min;
+    private AtomicLong max;
+
+    /** Constructs an empty {@code Histogram}. */
+    public Histogram() {
+        stripes = new AtomicReferenceArray<>(STRIPES);
+        count = new LongAdder();
+        sum = new DoubleAdder();
+        min = new AtomicLong(Double.doubleToLongBits(Double.POSITIVE_INFINITY));
+        max = new AtomicLong(Double.doubleToLongBits(Double.NEGATIVE_INFINITY));
+    }
+
+    /**
+     * Records a value.
+     *
+     * @param value the value to record
+     */
+    public void record(double value) {
+        if (Double.isNaN(value)) {
+            return;
+        }
+        stripe().getAndIncrement(indexOf(value));
+        count.increment();
+        sum.add(value);
+        updateMin(value);
+        updateMax(value);
+    }
+
+    /**
+     * Returns the number of recorded values.
+     *
+     * @return the number of recorded values
+     */
+    public long getCount() {
+        return count.sum();
+    }
+
+    /**
+     * Returns the average of the recorded values.
+     *
+     * @return the average of the recorded values, or {@code NaN} if empty
+     */
+    public double mean() {
+        long n = count.sum();
+        return n == 0 ? Double.NaN : sum.sum() / n;
+    }
+
+    /**
+     * Returns the approximate value at the specified percentile.
+     *
+     * @param percentile the percentile, between 0 and 100
+     * @return the approximate value at the specified percentile, or {@code NaN} if empty
+     */
+    public double percentile(double percentile) {
+        return snapshot().percentile(percentile);
+    }
+
+    /**
+     * Returns an immutable copy of the current state of the histogram.
+     *
+     * @return an immutable copy of the current state of the histogram
+     */
+    public Snapshot snapshot() {
+        long[] counts = new long[BUCKETS];
+        long total = 0;
+        for (int i = 0; i < STRIPES; ++i) {
+            AtomicLongArray stripe = stripes.get(i);
+            if (stripe == null) {
+                continue;
+            }
+            for (int j = 0; j < BUCKETS; ++j) {
+                long c = stripe.get(j);
+                counts[j] += c;
+                total += c;
+            }
+        }
+        double minValue = Double.longBitsToDouble(min.get());
+        double maxValue = Double.longBitsToDouble(max.get());
+        return new Snapshot(counts, total, sum.sum(), minValue, maxValue);
+    }
+
+    /**
+     * Removes the values of a previous snapshot from this histogram.
+     *
+     * <p>Values recorded after the snapshot was taken are kept, which allows a histogram to be cut
+     * into intervals without losing concurrently recorded values.
+     *
+     * @param snapshot a snapshot previously taken from this histogram
+     */
+    public void subtract(Snapshot snapshot) {
+        AtomicLongArray stripe = stripe();
+        for (int i = 0; i < BUCKETS; ++i) {
+            long c = snapshot.counts[i];
+            if (c != 0) {
+                stripe.addAndGet(i, -c);
+            }
+        }
+        count.add(-snapshot.count);
+        sum.add(-snapshot.sum);
+        min.set(Double.doubleToLongBits(Double.POSITIVE_INFINITY));
+        max.set(Double.doubleToLongBits(Double.NEGATIVE_INFINITY));
+    }
+
+    private AtomicLongArray stripe() {
+        int index = (int) Thread.currentThread().getId() & (STRIPES - 1);
+        AtomicLongArray stripe = stripes.get(index);
+        if (stripe == null) {
+            stripe = new AtomicLongArray(BUCKETS);
+            if (!stripes.compareAndSet(index, null, stripe)) {
+                stripe = stripes.get(index);
+            }
+        }
+        return stripe;
+    }
+
+    private void updateMin(double value) {
+        long current = min.get();
+        while (value < Double.longBitsToDouble(current)) {
+            if (min.compareAndSet(current, Double.doubleToLongBits(value))) {
+                return;
+            }
+            current = min.get();
+        }
+    }
+
+    private void updateMax(double value) {
+        long current = max.get();
+        while (value > Double.longBitsToDouble(current)) {
+            if (max.compareAndSet(current, Double.doubleToLongBits(value))) {
+                return;
+            }
+            current = max.get();
+        }
+    }
+
+    static int indexOf(double value) {
+        double abs = Math.abs(value);
+        int exp = Math.getExponent(abs);
+        if (exp < MIN_EXP) {
+            return ZERO;
+        }
+        int bucket;
+        if (exp > MAX_EXP) {
+            bucket = BUCKETS_PER_SIGN - 1;
+        } else {
+            long bits = Double.doubleToRawLongBits(abs);
+            int sub = (int) (bits >>> (52 - SUB_BITS)) & SUB_MASK;
+            bucket = ((exp - MIN_EXP) << SUB_BITS) | sub;
+        }
+        return value > 0 ? ZERO + 1 + bucket : ZERO - 1 - bucket;
+    }
+
+    static double valueOf(int index) {
+        if (index == ZERO) {
+            return 0;
+        }
+        int bucket = index > ZERO ? index - ZERO - 1 : ZERO - 1 - index;
+        int exp = (bucket >> SUB_BITS) + MIN_EXP;
+        double lower = Math.scalb(1.0 + (bucket & SUB_MASK) / (double) SUB_COUNT, exp);
+        double mid = lower + Math.scalb(0.5 / SUB_COUNT, exp);
+        return index > ZERO ? mid : -mid;
+    }
+
+    private static int stripeCount() {
+        int cpus = Math.min(Runtime.getRuntime().availableProcessors(), 16);
+        int stripes = 1;
+        while (stripes < cpus) {
+            stripes <<= 1;
+        }
+        return stripes;
+    }
+
+    /** An immutable point-in-time copy of a {@link Histogram}. */
+    public static final class Snapshot {
+
+        long[] counts;
+        long count;
+        double sum;
+        double min;
+        double max;
+
+        Snapshot(long[] counts, long count, double sum, double min, double max) {
+            this.counts = counts;
+            this.count = count;
+            this.sum = sum;
+            this.min = min;
+            this.max = max;
+        }
+
+        /**
+         * Returns the number of values in the snapshot.
+         *
+         * @return the number of values in the snapshot
+         */
+        public long getCount() {
+            return count;
+        }
+
+        /**
+         * Returns the sum of the values in the snapshot.
+         *
+         * @return the sum of the values in the snapshot
+         */
+        public double getSum() {
+            return sum;
+        }
+
+        /**
+         * Returns the average of the values in the snapshot.
+         *
+         * @return the average of the values, or {@code NaN} if empty
+         */
+        public double mean() {
+            return count == 0 ? Double.NaN : sum / count;
+        }
+
+        /**
+         * Returns the approximate value at the specified percentile.
+         *
+         * @param percentile the percentile, between 0 and 100
+         * @return the approximate value at the specified percentile, or {@code NaN} if empty
+         */
+        public double percentile(double percentile) {
+            if (count == 0) {
+                return Double.NaN;
+            }
+            long rank = (long) (count * percentile / 100);
+            if (rank >= count) {
+                rank = count - 1;
+            }
+            long seen = 0;
+            for (int i = 0; i < counts.length; ++i) {
+                seen += counts[i];
+                if (seen > rank) {
+                    double value = valueOf(i);
+                    if (min > max) {
+                        // min and max are unknown after an interval was subtracted
+                        return value;
+                    }
+                    return Math.max(min, Math.min(value, max));
+                }
+            }
+            return max;
+        }
+    }
+}
@@ -15,10 +15,12 @@ package ai.djl.metric;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.BiConsumer;
 import java.util.stream.Collectors;
 
@@ -35,6 +37,12 @@ import java.util.stream.Collectors;
  * performance indicators (KPIs) during inference and training runs. These KPIs include various
  * latencies, CPU and GPU memory consumption, losses, etc.
  *
+ * <p>By default every recorded {@code Metric} is kept in memory. For high frequency metrics, such
+ * as the per request latencies recorded by a {@link ai.djl.inference.Predictor}, {@link
+ * #useHistogram(String)} can be used to aggregate a metric into a fixed-memory {@link Histogram}
+ * instead. Only the latest {@code Metric} is kept for such metrics, and {@link #percentile(String,
+ * int)} and {@link #mean(String)} are answered from the histogram.
+ *
  * <p>For more details about using the metrics, see the <a
  * href="https://github.com/deepjavalibrary/djl/blob/master/docs/how_to_collect_metrics.md">metrics
  * tutorial</a>.
@@ -42,17 +50,24 @@ import java.util.stream.Collectors;
 public class Metrics {
 
     private Map<String, List<Metric>> metrics;
+    private Map<String, HistogramMetric> histograms;
     private int limit;
     private BiConsumer<Metrics, String> onLimit;
 
     /** Constructs an empty {@code Metrics} instance. */
     public Metrics() {
         metrics = new ConcurrentHashMap<>();
+        histograms = new ConcurrentHashMap<>();
     }
 
     /**
      * Sets the max size for each metric.
      *
+     * <p>For metrics that use a {@link Histogram}, the limit is the number of values in each
+     * interval. When an interval is complete, it is removed from the histogram and the {@code
+     * onLimit} callback is invoked, the interval is then returned by {@link
+     * #getIntervalSnapshot(String)}.
+     *
      * @param limit the max size for each metric
      */
     public void setLimit(int limit) {
@@ -68,23 +83,75 @@ public class Metrics {
         this.onLimit = onLimit;
     }
 
+    /**
+     * Aggregates the specified metric into a lock-free, fixed-memory {@link Histogram}.
+     *
+     * <p>Values that were already recorded for the metric are moved into the histogram.
+     *
+     * @param metricName the name of the metric
+     */
+    public void useHistogram(String metricName) {
+        HistogramMetric hm = histograms.computeIfAbsent(metricName, k -> new HistogramMetric());
+        // the histogram is published before the list is removed, see addMetric()
+        List<Metric> list = metrics.remove(metricName);
+        if (list == null) {
+            return;
+        }
+        synchronized (list) {
+            Metric last = null;
+            for (Metric m : list) {
+                hm.histogram.record(m.getValue());
+                last = m;
+            }
+            if (hm.latest == null) {
+                hm.latest = last;
+            }
+        }
+    }
+
+    /**
+     * Returns the snapshot of the last completed interval of a histogram metric.
+     *
+     * @param metricName the name of the metric
+     * @return the snapshot of the last completed interval, or {@code null} if there is none
+     * @see #setLimit(int)
+     */
+    public Histogram.Snapshot getIntervalSnapshot(String metricName) {
+        HistogramMetric hm = histograms.get(metricName);
+        return hm == null ? null : hm.interval;
+    }
+
     /**
      * Adds a {@link Metric} to the collection.
      *
      * @param metric the {@link Metric} to be added
      */
     public void addMetric(Metric metric) {
-        List<Metric> list =
-                metrics.computeIfAbsent(
-                        metric.getMetricName(),
-                        v -> Collections.synchronizedList(new ArrayList<>()));
-        if (limit > 0 && list.size() >= limit) {
-            if (onLimit != null) {
-                onLimit.accept(this, metric.getMetricName());
+        String name = metric.getMetricName();
+        while (true) {
+            HistogramMetric hm = histograms.get(name);
+            if (hm != null) {
+                addHistogramMetric(hm, metric);
+                return;
+            }
+            List<Metric> list =
+                    metrics.computeIfAbsent(
+                            name, v -> Collections.synchronizedList(new ArrayList<>()));
+            if (limit > 0 && list.size() >= limit) {
+                if (onLimit != null) {
+                    onLimit.accept(this, name);
+                }
+                list.clear();
             }
-            list.clear();
+            synchronized (list) {
+                // the list may have been moved into a histogram by useHistogram() meanwhile
+                if (!histograms.containsKey(name)) {
+                    list.add(metric);
+                    return;
+                }
+            }
+            metrics.remove(name, list);
         }
-        list.add(metric);
     }
 
     /**
@@ -116,16 +183,27 @@ public class Metrics {
      * @return {@code true} if the metrics object has a metric with the given name
      */
     public boolean hasMetric(String name) {
+        HistogramMetric hm = histograms.get(name);
+        if (hm != null) {
+            return hm.latest != null;
+        }
         return metrics.containsKey(name);
     }
 
     /**
      * Returns all {@link Metric}s with the specified metric name.
      *
+     * <p>For metrics that use a {@link Histogram}, only the latest {@link Metric} is returned.
+     *
      * @param name the name of the metric
      * @return a list of {@link Metric} with the specified metric name
      */
     public List<Metric> getMetric(String name) {
+        HistogramMetric hm = histograms.get(name);
+        if (hm != null) {
+            Metric latest = hm.latest;
+            return latest == null ? Collections.emptyList() : Collections.singletonList(latest);
+        }
         List<Metric> list = metrics.get(name);
         if (list == null) {
             return Collections.emptyList();
@@ -139,7 +217,16 @@ public class Metrics {
      * @return a set of {@link String} metric names
      */
     public Set<String> getMetricNames() {
-        return metrics.keySet();
+        if (histograms.isEmpty()) {
+            return metrics.keySet();
+        }
+        Set<String> names = new HashSet<>(metrics.keySet());
+        for (Map.Entry<String, HistogramMetric> entry : histograms.entrySet()) {
+            if (entry.getValue().latest != null) {
+                names.add(entry.getKey());
+            }
+        }
+        return names;
     }
 
     /**
@@ -150,6 +237,13 @@ public class Metrics {
      * @throws IllegalArgumentException if the given name is not found
      */
     public Metric latestMetric(String name) {
+        HistogramMetric hm = histograms.get(name);
+        if (hm != null) {
+            if (hm.latest == null) {
+                throw new IllegalArgumentException("Could not find metric: " + name);
+            }
+            return hm.latest;
+        }
         List<Metric> list = metrics.get(name);
         if (list == null || list.isEmpty()) {
             throw new IllegalArgumentException("Could not find metric: " + name);
@@ -165,6 +259,19 @@ public class Metrics {
      * @return the {@link Metric} object at specified {@code percentile}
      */
     public Metric percentile(String metricName, int percentile) {
+        HistogramMetric hm = histograms.get(metricName);
+        if (hm != null) {
+            Metric latest = hm.latest;
+            if (latest == null) {
+                throw new IllegalArgumentException("Metric name not found: " + metricName);
+            }
+            double value = hm.histogram.percentile(percentile);
+            return new Metric(
+                    metricName + "_p" + percentile,
+                    value,
+                    latest.getUnit(),
+                    latest.getDimensions());
+        }
         List<Metric> metric = metrics.get(metricName);
         if (metric == null || metrics.isEmpty()) {
             throw new IllegalArgumentException("Metric name not found: " + metricName);
@@ -184,6 +291,13 @@ public class Metrics {
      * @return the average value of the specified metric
      */
     public double mean(String metricName) {
+        HistogramMetric hm = histograms.get(metricName);
+        if (hm != null) {
+            if (hm.latest == null) {
+                throw new IllegalArgumentException("Metric name not found: " + metricName);
+            }
+            return hm.histogram.mean();
+        }
         List<Metric> metric = metrics.get(metricName);
         if (metric == null || metrics.isEmpty()) {
             throw new IllegalArgumentException("Metric name not found: " + metricName);
@@ -191,4 +305,25 @@ public class Metrics {
 
         return metric.stream().collect(Collectors.averagingDouble(Metric::getValue));
     }
+
+    private void addHistogramMetric(HistogramMetric hm, Metric metric) {
+        hm.histogram.record(metric.getValue());
+        hm.latest = metric;
+        if (limit > 0 && hm.total.incrementAndGet() % limit == 0) {
+            Histogram.Snapshot snapshot = hm.histogram.snapshot();
+            hm.histogram.subtract(snapshot);
+            hm.interval = snapshot;
+            if (onLimit != null) {
+                onLimit.accept(this, metric.getMetricName());
+            }
+        }
+    }
+
+    private static final class HistogramMetric {
+
+        Histogram histogram = new Histogram();
+        AtomicLong total = new AtomicLong();
+        volatile Metric latest;
+        volatile Histogram.Snapshot interval;
+    }
 }
@@ -13,6 +13,8 @@
 package ai.djl.modality;
 
 import ai.djl.ndarray.NDArray;
+import ai.djl.ndarray.NDList;
+import ai.djl.ndarray.NDManager;
 import ai.djl.ndarray.types.DataType;
 import ai.djl.translate.Ensembleable;
 import ai.djl.util.JsonSerializable;
@@ -23,16 +25,15 @@ import com.google.gson.JsonElement;
 import com.google.gson.JsonSerializationContext;
 import com.google.gson.JsonSerializer;
 
+import java.io.Serializable;
 import java.lang.reflect.Type;
 import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
+import java.util.AbstractList;
 import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.Collections;
-import java.util.Comparator;
 import java.util.Iterator;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.RandomAccess;
 
 /**
  * {@code Classifications} is the container that stores the classification results for
@@ -67,6 +68,19 @@ public class Classifications implements JsonSerializable, Ensembleable<Classific
         this.topK = 5;
     }
 
+    /**
+     * Constructs a {@code Classifications} using a list of classNames parallel to an array of
+     * probabilities.
+     *
+     * <p>The probabilities are kept in the given array without boxing.
+     *
+     * @param classNames the names of the classes
+     * @param probabilities the probabilities for each class for the input
+     */
+    public Classifications(List<String> classNames, double[] probabilities) {
+        this(classNames, new DoubleArrayList(probabilities));
+    }
+
     /**
      * Constructs a {@code Classifications} using list of classNames parallel to an NDArray of
      * probabilities.
@@ -88,19 +102,64 @@ public class Classifications implements JsonSerializable, Ensembleable<Classific
      */
     public Classifications(List<String> classNames, NDArray probabilities, int topK) {
         this.classNames = classNames;
+        this.probabilities = new DoubleArrayList(toDoubleArray(probabilities));
+        this.topK = topK;
+    }
+
+    /**
+     * Selects the top {@code k} classes of each input on the engine, and only copies those to Java.
+     *
+     * <p>This is cheaper than constructing a {@code Classifications} from the full probabilities
+     * when there are many classes. The returned {@code Classifications} only contain the selected
+     * classes, in order of best to worst.
+     *
+     * @param classNames the names of the classes
+     * @param probabilities the probabilities for each class, of shape (classes) or (batch, classes)
+     * @param k the number of classes to keep for each input
+     * @return a {@code Classifications} for each input
+     */
+    public static List<Classifications> topK(
+            List<String> classNames, NDArray probabilities, int k) {
+        int dimension = probabilities.getShape().dimension();
+        int numClasses = Math.toIntExact(probabilities.getShape().get(dimension - 1));
+        int count = Math.min(k, numClasses);
+        long[] index;
+        double[] values;
+        try (NDManager manager = probabilities.getManager().newSubManager()) {
+            probabilities.tempAttach(manager);
+            NDList top = probabilities.topK(count, -1, true, true);
+            values = toDoubleArray(top.get(0));
+            index = top.get(1).toLongArray();
+        }
+
+        List<Classifications> ret = new ArrayList<>(index.length / Math.max(count, 1));
+        for (int offset = 0; offset < index.length; offset += count) {
+            List<String> names = new ArrayList<>(count);
+            double[] probs = new double[count];
+            for (int i = 0; i < count; ++i) {
+                names.add(classNames.get((int) index[offset + i]));
+                probs[i] = values[offset + i];
+            }
+            Classifications classifications = new Classifications(names, probs);
+            classifications.setTopK(count);
+            ret.add(classifications);
+        }
+        return ret;
+    }
+
+    private static double[] toDoubleArray(NDArray probabilities) {
         if (probabilities.getDataType() == DataType.FLOAT32) {
             // Avoid converting float32 to float64 as this is not supported on MPS device
-            this.probabilities = new ArrayList<>();
-            for (float prob : probabilities.toFloatArray()) {
-                this.probabilities.add((double) prob);
+            float[] values = probabilities.toFloatArray();
+            double[] ret = new double[values.length];
+            for (int i = 0; i < values.length; ++i) {
+                ret[i] = values[i];
             }
-        } else {
-            NDArray array = probabilities.toType(DataType.FLOAT64, false);
-            this.probabilities =
-                    Arrays.stream(array.toDoubleArray()).boxed().collect(Collectors.toList());
-            array.close();
+            return ret;
+        }
+        try (NDArray array = probabilities.toType(DataType.FLOAT64, false)) {
+            return array.toDoubleArray();
         }
-        this.topK = topK;
     }
 
     /**
@@ -175,10 +234,33 @@ public class Classifications implements JsonSerializable, Ensembleable<Classific
      * @return the list of classification items for the best classes in order of best to worst
      */
     public <T extends Classification> List<T> topK(int k) {
-        List<T> items = items();
-        items.sort(Comparator.comparingDouble(Classification::getProbability).reversed());
-        int count = Math.min(items.size(), k);
-        return items.subList(0, count);
+        double[] probs = getProbabilityArray();
+        int count = Math.max(0, Math.min(probs.length, k));
+        // bounded min-heap of the best indices, the worst one is at the root
+        int[] heap = new int[count];
+        int size = 0;
+        for (int i = 0; i < probs.length && count > 0; ++i) {
+            if (size < count) {
+                heap[size] = i;
+                siftUp(probs, heap, size++);
+            } else if (isBetter(probs, i, heap[0])) {
+                heap[0] = i;
+                siftDown(probs, heap, size, 0);
+            }
+        }
+        int[] order = new int[size];
+        while (size > 0) {
+            order[size - 1] = heap[0];
+            heap[0] = heap[--size];
+            siftDown(probs, heap, size, 0);
+        }
+
+        // only creates items for the selected classes
+        List<T> list = new ArrayList<>(order.length);
+        for (int index : order) {
+            list.add(item(index));
+        }
+        return list;
     }
 
     /**
@@ -188,7 +270,14 @@ public class Classifications implements JsonSerializable, Ensembleable<Classific
      * @return the classification item
      */
     public <T extends Classification> T best() {
-        return item(probabilities.indexOf(Collections.max(probabilities)));
+        double[] probs = getProbabilityArray();
+        int best = 0;
+        for (int i = 1; i < probs.length; ++i) {
+            if (Double.compare(probs[i], probs[best]) > 0) {
+                best = i;
+            }
+        }
+        return item(best);
     }
 
     /**
@@ -241,15 +330,14 @@ public class Classifications implements JsonSerializable, Ensembleable<Classific
     /** {@inheritDoc} */
     @Override
     public Classifications ensembleWith(Iterator<Classifications> it) {
-        int size = probabilities.size();
-        List<Double> newProbabilities = new ArrayList<>(size);
-        newProbabilities.addAll(probabilities);
+        double[] newProbabilities = getProbabilityArray().clone();
         int count = 1;
         while (it.hasNext()) {
             ++count;
             Classifications c = it.next();
-            for (int i = 0; i < size; ++i) {
-                newProbabilities.set(i, newProbabilities.get(i) + c.probabilities.get(i));
+            double[] probs = c.getProbabilityArray();
+            for (int i = 0; i < newProbabilities.length; ++i) {
+                newProbabilities[i] += probs[i];
             }
             if (!c.classNames.equals(classNames)) {
                 throw new IllegalArgumentException(
@@ -257,11 +345,62 @@ public class Classifications implements JsonSerializable, Ensembleable<Classific
                                 + " should have the same classNames, but some were different");
             }
         }
-        final int total = count;
-        newProbabilities.replaceAll(p -> p / total);
+        for (int i = 0; i < newProbabilities.length; ++i) {
+            newProbabilities[i] /= count;
+        }
         return new Classifications(classNames, newProbabilities);
     }
 
+    private double[] getProbabilityArray() {
+        if (probabilities instanceof DoubleArrayList) {
+            return ((DoubleArrayList) probabilities).values;
+        }
+        double[] ret = new double[probabilities.size()];
+        for (int i = 0; i < ret.length; ++i) {
+            ret[i] = probabilities.get(i);
+        }
+        return ret;
+    }
+
+    /** Returns whether class {@code a} ranks before class {@code b}, ties keep the class order. */
+    private static boolean isBetter(double[] probs, int a, int b) {
+        int cmp = Double.compare(probs[a], probs[b]);
+        return cmp > 0 || (cmp == 0 && a < b);
+    }
+
+    private static void siftUp(double[] probs, int[] heap, int pos) {
+        int index = heap[pos];
+        while (pos > 0) {
+            int parent = (pos - 1) >>> 1;
+            if (!isBetter(probs, heap[parent], index)) {
+                break;
+            }
+            heap[pos] = heap[parent];
+            pos = parent;
+        }
+        heap[pos] = index;
+    }
+
+    private static void siftDown(double[] probs, int[] heap, int size, int pos) {
+        if (size == 0) {
+            return;
+        }
+        int index = heap[pos];
+        int half = size >>> 1;
+        while (pos < half) {
+            int child = 2 * pos + 1;
+            if (child + 1 < size && isBetter(probs, heap[child], heap[child + 1])) {
+                ++child;
+            }
+            if (!isBetter(probs, index, heap[child])) {
+                break;
+            }
+            heap[pos] = heap[child];
+            pos = child;
+        }
+        heap[pos] = index;
+    }
+
     /**
      * A {@code Classification} stores the classification result for a single class on a single
      * input.
@@ -318,6 +457,39 @@ public class Classifications implements JsonSerializable, Ensembleable<Classific
         }
     }
 
+    /** A {@code List<Double>} view over a primitive array, which boxes values only on access. */
+    private static final class DoubleArrayList extends AbstractList<Double>
+            implements RandomAccess, Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        double[] values;
+
+        DoubleArrayList(double[] values) {
+            this.values = values;
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public Double get(int index) {
+            return values[index];
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public Double set(int index, Double element) {
+            double old = values[index];
+            values[index] = element;
+            return old;
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public int size() {
+            return values.length;
+        }
+    }
+
     /** A customized Gson serializer to serialize the {@code Classifications} object. */
     public static final class ClassificationsSerializer implements JsonSerializer<Classifications> {
 
@@ -246,40 +246,64 @@ public class BufferedImageFactory extends ImageFactory {
                 channel = 3;
             }
 
-            ByteBuffer bb = manager.allocateDirect(channel * height * width);
+            byte[] data = new byte[channel * height * width];
             if (image.getType() == BufferedImage.TYPE_BYTE_GRAY) {
-                int[] data = new int[width * height];
-                image.getData().getPixels(0, 0, width, height, data);
-                for (int gray : data) {
-                    byte b = (byte) gray;
-                    bb.put(b);
-                    if (flag != Flag.GRAYSCALE) {
-                        bb.put(b);
-                        bb.put(b);
+                int[] pixels = new int[width * height];
+                image.getData().getPixels(0, 0, width, height, pixels);
+                for (int i = 0, j = 0; i < pixels.length; ++i) {
+                    byte b = (byte) pixels[i];
+                    data[j++] = b;
+                    if (channel == 3) {
+                        data[j++] = b;
+                        data[j++] = b;
                     }
                 }
             } else {
                 // get an array of integer pixels in the default RGB color mode
                 int[] pixels = image.getRGB(0, 0, width, height, null, 0, width);
-                for (int rgb : pixels) {
+                for (int i = 0, j = 0; i < pixels.length; ++i) {
+                    int rgb = pixels[i];
                     int red = (rgb >> 16) & 0xFF;
                     int green = (rgb >> 8) & 0xFF;
                     int blue = rgb & 0xFF;
 
-                    if (flag == Flag.GRAYSCALE) {
+                    if (channel == 1) {
                         int gray = Math.round(0.299f * red + 0.587f * green + 0.114f * blue);
-                        bb.put((byte) gray);
+                        data[j++] = (byte) gray;
                     } else {
-                        bb.put((byte) red);
-                        bb.put((byte) green);
-                        bb.put((byte) blue);
+                        data[j++] = (byte) red;
+                        data[j++] = (byte) green;
+                        data[j++] = (byte) blue;
                     }
                 }
             }
+            ByteBuffer bb = manager.allocateDirect(data.length);
+            bb.put(data);
             bb.rewind();
             return manager.create(bb, new Shape(height, width, channel), DataType.UINT8);
         }
 
+        /** {@inheritDoc} */
+        @Override
+        public NDArray toTensor(NDManager manager, Flag flag, float[] mean, float[] std) {
+            int width = image.getWidth();
+            int height = image.getHeight();
+            boolean grayscale = flag == Flag.GRAYSCALE;
+            if (image.getType() == BufferedImage.TYPE_BYTE_GRAY) {
+                int[] pixels = new int[width * height];
+                image.getData().getPixels(0, 0, width, height, pixels);
+                for (int i = 0; i < pixels.length; ++i) {
+                    int gray = pixels[i] & 0xFF;
+                    pixels[i] = (gray << 16) | (gray << 8) | gray;
+                }
+                return NDImageUtils.toNormalizedTensor(
+                        manager, pixels, width, height, mean, std, grayscale);
+            }
+            int[] pixels = image.getRGB(0, 0, width, height, null, 0, width);
+            return NDImageUtils.toNormalizedTensor(
+                    manager, pixels, width, height, mean, std, grayscale);
+        }
+
         /** {@inheritDoc} */
         @Override
         public void save(OutputStream os, String type) throws IOException {
@@ -15,6 +15,7 @@ package ai.djl.modality.cv;
 import ai.djl.modality.cv.output.BoundingBox;
 import ai.djl.modality.cv.output.DetectedObjects;
 import ai.djl.modality.cv.output.Joints;
+import ai.djl.modality.cv.util.NDImageUtils;
 import ai.djl.ndarray.NDArray;
 import ai.djl.ndarray.NDManager;
 
@@ -104,6 +105,28 @@ public interface Image {
      */
     NDArray toNDArray(NDManager manager, Flag flag);
 
+    /**
+     * Converts image to a normalized {@link ai.djl.ndarray.types.DataType#FLOAT32} tensor of shape
+     * CHW.
+     *
+     * <p>This fuses {@link #toNDArray(NDManager, Flag)}, {@link NDImageUtils#toTensor(NDArray)} and
+     * {@link NDImageUtils#normalize(NDArray, float[], float[])} into a single conversion.
+     *
+     * @param manager a {@link NDManager} to create the new NDArray with
+     * @param flag the color mode
+     * @param mean the mean to normalize with for each channel, or {@code null} to skip the
+     *     normalization
+     * @param std the standard deviation to normalize with for each channel, or {@code null} to skip
+     *     the normalization
+     * @return {@link NDArray}
+     * @see NDImageUtils#toNormalizedTensor(NDArray, float[], float[], boolean)
+     */
+    default NDArray toTensor(NDManager manager, Flag flag, float[] mean, float[] std) {
+        try (NDArray array = toNDArray(manager, flag)) {
+            return NDImageUtils.toNormalizedTensor(array, mean, std, false);
+        }
+    }
+
     /**
      * Save the image to file.
      *
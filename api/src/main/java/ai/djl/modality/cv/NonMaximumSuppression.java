@@ -0,0 +1,371 @@
+/*
+ * Copyright 2024 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ * with the License. A copy of the License is located at
+ *
+ * http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES
+ * OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package ai.djl.modality.cv;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * {@code NonMaximumSuppression} removes overlapping detections on the Java side, working directly
+ * on primitive arrays.
+ *
+ * <p>Detections are described by three parallel arrays: the boxes as {@code [x_min, y_min, x_max,
+ * y_max]} quadruples, the scores and, optionally, the class ids. Candidates above the score
+ * threshold are sorted by score once and then bucketed by class in a single stable pass, so every
+ * class is suppressed independently (batched NMS) without rescanning the input. Suppression within
+ * a bucket is tracked with a bitmap, and stops as soon as the maximum number of detections has been
+ * kept.
+ *
+ * <p>With {@link Builder#optClassAgnostic(boolean)} all detections are suppressed against each
+ * other regardless of class. With {@link Builder#optSoftNmsSigma(float)} the scores of overlapping
+ * detections are decayed with a Gaussian penalty instead of being removed (Soft-NMS).
+ *
+ * <p>Instances are immutable and can be shared across threads.
+ */
+public class NonMaximumSuppression {
+
+    private float iouThreshold;
+    private float scoreThreshold;
+    private boolean classAgnostic;
+    private float softNmsSigma;
+    private int maxDetections;
+
+    NonMaximumSuppression(Builder builder) {
+        iouThreshold = builder.iouThreshold;
+        scoreThreshold = builder.scoreThreshold;
+        classAgnostic = builder.classAgnostic;
+        softNmsSigma = builder.softNmsSigma;
+        maxDetections = builder.maxDetections;
+    }
+
+    /**
+     * Creates a builder to build a {@code NonMaximumSuppression}.
+     *
+     * @return a new builder
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Applies non-maximum suppression to all the detections in the arrays.
+     *
+     * @param boxes the boxes as {@code [x_min, y_min, x_max, y_max]} quadruples
+     * @param scores the score of each box
+     * @param classIds the class id of each box, or {@code null} if all boxes share one class
+     * @return the indices of the kept detections, sorted by descending score
+     * @see #apply(float[], float[], int[], int)
+     */
+    public int[] apply(float[] boxes, float[] scores, int[] classIds) {
+        return apply(boxes, scores, classIds, scores.length);
+    }
+
+    /**
+     * Applies non-maximum suppression to the first {@code count} detections in the arrays.
+     *
+     * <p>The arrays may be larger than {@code count}, which allows callers to reuse decoding
+     * buffers. In Soft-NMS mode the decayed scores are written back into {@code scores}.
+     *
+     * @param boxes the boxes as {@code [x_min, y_min, x_max, y_max]} quadruples
+     * @param scores the score of each box
+     * @param classIds the class id of each box, or {@code null} if all boxes share one class
+     * @param count the number of detections to consider
+     * @return the indices of the kept detections, sorted by descending score
+     */
+    public int[] apply(float[] boxes, float[] scores, int[] classIds, int count) {
+        if (boxes.length < count * 4 || scores.length < count) {
+            throw new IllegalArgumentException("Expected " + count + " boxes and scores.");
+        }
+        if (classIds != null && classIds.length < count) {
+            throw new IllegalArgumentException("Expected " + count + " class ids.");
+        }
+        int[] order = sortByScore(scores, count);
+        if (order.length == 0) {
+            return order;
+        }
+
+        // stable counting sort by class keeps each bucket in descending score order
+        int[] buckets;
+        int[] offsets;
+        if (classAgnostic || classIds == null) {
+            buckets = order;
+            offsets = new int[] {0, order.length};
+        } else {
+            int maxClass = 0;
+            for (int index : order) {
+                if (classIds[index] < 0) {
+                    throw new IllegalArgumentException("Invalid class id: " + classIds[index]);
+                }
+                maxClass = Math.max(maxClass, classIds[index]);
+            }
+            offsets = new int[maxClass + 2];
+            for (int index : order) {
+                offsets[classIds[index] + 1]++;
+            }
+            for (int i = 1; i < offsets.length; ++i) {
+                offsets[i] += offsets[i - 1];
+            }
+            int[] next = Arrays.copyOf(offsets, offsets.length - 1);
+            buckets = new int[order.length];
+            for (int index : order) {
+                buckets[next[classIds[index]]++] = index;
+            }
+        }
+
+        int[] kept = new int[order.length];
+        int size = 0;
+        for (int b = 0; b < offsets.length - 1; ++b) {
+            if (softNmsSigma > 0) {
+                size +=
+                        softSuppress(
+                                boxes, scores, buckets, offsets[b], offsets[b + 1], kept, size);
+            } else {
+                size += suppress(boxes, buckets, offsets[b], offsets[b + 1], kept, size);
+            }
+        }
+        if (offsets.length == 2 && softNmsSigma <= 0) {
+            // a single bucket is already in score order
+            return Arrays.copyOf(kept, Math.min(size, maxDetections));
+        }
+        int[] result = sortByScore(scores, kept, size);
+        return result.length > maxDetections ? Arrays.copyOf(result, maxDetections) : result;
+    }
+
+    /**
+     * Applies non-maximum suppression to every image of a batch in parallel.
+     *
+     * @param boxes the boxes of each image
+     * @param scores the scores of each image
+     * @param classIds the class ids of each image, or {@code null} if all boxes share one class
+     * @return the indices of the kept detections of each image
+     */
+    public int[][] apply(List<float[]> boxes, List<float[]> scores, List<int[]> classIds) {
+        int batchSize = scores.size();
+        if (boxes.size() != batchSize || (classIds != null && classIds.size() != batchSize)) {
+            throw new IllegalArgumentException("Batch sizes of boxes, scores and classes differ.");
+        }
+        int[][] results = new int[batchSize][];
+        IntStream.range(0, batchSize)
+                .parallel()
+                .forEach(
+                        i ->
+                                results[i] =
+                                        apply(
+                                                boxes.get(i),
+                                                scores.get(i),
+                                                classIds == null ? null : classIds.get(i)));
+        return results;
+    }
+
+    /**
+     * Computes the intersection over union of two boxes.
+     *
+     * @param boxes the boxes as {@code [x_min, y_min, x_max, y_max]} quadruples
+     * @param a the index of the first box
+     * @param b the index of the second box
+     * @return the intersection over union
+     */
+    public static float iou(float[] boxes, int a, int b) {
+        int i = a * 4;
+        int j = b * 4;
+        float w = Math.min(boxes[i + 2], boxes[j + 2]) - Math.max(boxes[i], boxes[j]);
+        if (w <= 0) {
+            return 0;
+        }
+        float h = Math.min(boxes[i + 3], boxes[j + 3]) - Math.max(boxes[i + 1], boxes[j + 1]);
+        if (h <= 0) {
+            return 0;
+        }
+        float inter = w * h;
+        float areaA = (boxes[i + 2] - boxes[i]) * (boxes[i + 3] - boxes[i + 1]);
+        float areaB = (boxes[j + 2] - boxes[j]) * (boxes[j + 3] - boxes[j + 1]);
+        return inter / (areaA + areaB - inter);
+    }
+
+    private int suppress(float[] boxes, int[] bucket, int from, int to, int[] kept, int pos) {
+        long[] suppressed = new long[((to - from) >> 6) + 1];
+        int count = 0;
+        for (int i = from; i < to && count < maxDetections; ++i) {
+            int bit = i - from;
+            if ((suppressed[bit >> 6] & (1L << bit)) != 0) {
+                continue;
+            }
+            int index = bucket[i];
+            kept[pos + count++] = index;
+            if (count == maxDetections) {
+                break;
+            }
+            for (int j = i + 1; j < to; ++j) {
+                int other = j - from;
+                if ((suppressed[other >> 6] & (1L << other)) == 0
+                        && iou(boxes, index, bucket[j]) >= iouThreshold) {
+                    suppressed[other >> 6] |= 1L << other;
+                }
+            }
+        }
+        return count;
+    }
+
+    private int softSuppress(
+            float[] boxes, float[] scores, int[] bucket, int from, int to, int[] kept, int pos) {
+        int end = to;
+        int count = 0;
+        // bucket[from, end) holds the remaining candidates, selected by their decayed score
+        for (int i = from; i < end && count < maxDetections; ++i) {
+            int best = i;
+            for (int j = i + 1; j < end; ++j) {
+                if (scores[bucket[j]] > scores[bucket[best]]) {
+                    best = j;
+                }
+            }
+            int index = bucket[best];
+            bucket[best] = bucket[i];
+            bucket[i] = index;
+            kept[pos + count++] = index;
+            for (int j = i + 1; j < end; ++j) {
+                float iou = iou(boxes, index, bucket[j]);
+                if (iou > 0) {
+                    int other = bucket[j];
+                    scores[other] *= (float) Math.exp(-iou * iou / softNmsSigma);
+                    if (scores[other] <= scoreThreshold) {
+                        bucket[j--] = bucket[--end];
+                        bucket[end] = other;
+                    }
+                }
+            }
+        }
+        return count;
+    }
+
+    private int[] sortByScore(float[] scores, int count) {
+        long[] keys = new long[count];
+        int size = 0;
+        for (int i = 0; i < count; ++i) {
+            if (scores[i] > scoreThreshold) {
+                keys[size++] = sortKey(scores[i], i);
+            }
+        }
+        return toIndices(keys, size);
+    }
+
+    private static int[] sortByScore(float[] scores, int[] indices, int count) {
+        long[] keys = new long[count];
+        for (int i = 0; i < count; ++i) {
+            keys[i] = sortKey(scores[indices[i]], indices[i]);
+        }
+        return toIndices(keys, count);
+    }
+
+    private static int[] toIndices(long[] keys, int size) {
+        Arrays.sort(keys, 0, size);
+        int[] indices = new int[size];
+        for (int i = 0; i < size; ++i) {
+            indices[i] = (int) keys[i];
+        }
+        return indices;
+    }
+
+    /**
+     * Packs a score and an index into a long that sorts by descending score, then ascending index.
+     */
+    private static long sortKey(float score, int index) {
+        int bits = Float.floatToIntBits(score);
+        bits ^= (bits >> 31) & 0x7fffffff;
+        return ((long) ~bits << 32) | index;
+    }
+
+    /** The builder for {@link NonMaximumSuppression}. */
+    public static final class Builder {
+
+        float iouThreshold = 0.45f;
+        float scoreThreshold = Float.NEGATIVE_INFINITY;
+        boolean classAgnostic;
+        float softNmsSigma;
+        int maxDetections = Integer.MAX_VALUE;
+
+        Builder() {}
+
+        /**
+         * Sets the intersection over union above which a box is suppressed by a higher scoring one.
+         * Defaults to 0.45.
+         *
+         * @param iouThreshold the intersection over union threshold
+         * @return this builder
+         */
+        public Builder optIouThreshold(float iouThreshold) {
+            this.iouThreshold = iouThreshold;
+            return this;
+        }
+
+        /**
+         * Sets the score a detection must exceed to be considered. By default, all detections are
+         * considered.
+         *
+         * @param scoreThreshold the score threshold
+         * @return this builder
+         */
+        public Builder optScoreThreshold(float scoreThreshold) {
+            this.scoreThreshold = scoreThreshold;
+            return this;
+        }
+
+        /**
+         * Sets whether to suppress detections regardless of their class. Defaults to {@code false}.
+         *
+         * @param classAgnostic whether to suppress detections regardless of their class
+         * @return this builder
+         */
+        public Builder optClassAgnostic(boolean classAgnostic) {
+            this.classAgnostic = classAgnostic;
+            return this;
+        }
+
+        /**
+         * Enables Soft-NMS with the given Gaussian sigma. Overlapping detections get their score
+         * multiplied by {@code exp(-iou^2 / sigma)} and are only dropped once it falls below the
+         * score threshold. The IoU threshold is not used in this mode. Defaults to 0, which
+         * disables Soft-NMS.
+         *
+         * @param softNmsSigma the Gaussian sigma, 0 to disable Soft-NMS
+         * @return this builder
+         */
+        public Builder optSoftNmsSigma(float softNmsSigma) {
+            this.softNmsSigma = softNmsSigma;
+            return this;
+        }
+
+        /**
+         * Sets the maximum number of detections to keep. By default, there is no limit.
+         *
+         * @param maxDetections the maximum number of detections to keep
+         * @return this builder
+         */
+        public Builder optMaxDetections(int maxDetections) {
+            this.maxDetections = maxDetections;
+            return this;
+        }
+
+        /**
+         * Builds a {@link NonMaximumSuppression}.
+         *
+         * @return the new {@link NonMaximumSuppression}
+         */
+        public NonMaximumSuppression build() {
+            if (maxDetections <= 0) {
+                throw new IllegalArgumentException("maxDetections must be positive.");
+            }
+            return new NonMaximumSuppression(this);
+        }
+    }
+}
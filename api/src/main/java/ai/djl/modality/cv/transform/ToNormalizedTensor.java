@@ -0,0 +1,62 @@
+/*
+ * Copyright 2024 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ * with the License. A copy of the License is located at
+ *
+ * http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES
+ * OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package ai.djl.modality.cv.transform;
+
+import ai.djl.modality.cv.util.NDImageUtils;
+import ai.djl.ndarray.NDArray;
+import ai.djl.translate.Transform;
+
+/**
+ * A {@link Transform} that converts an image {@link NDArray} of shape HWC or NHWC in the range
+ * {@code [0, 255]} to a normalized {@link ai.djl.ndarray.types.DataType#FLOAT32} tensor of shape
+ * CHW or NCHW.
+ *
+ * <p>It replaces a {@link ToTensor} followed by a {@link Normalize} in a {@link
+ * ai.djl.translate.Pipeline} with a single pass over the image.
+ */
+public class ToNormalizedTensor implements Transform {
+
+    private float[] mean;
+    private float[] std;
+    private boolean grayscale;
+
+    /**
+     * Creates a {@code ToNormalizedTensor} {@link Transform}.
+     *
+     * @param mean the mean to normalize with for each channel
+     * @param std the standard deviation to normalize with for each channel
+     */
+    public ToNormalizedTensor(float[] mean, float[] std) {
+        this(mean, std, false);
+    }
+
+    /**
+     * Creates a {@code ToNormalizedTensor} {@link Transform}.
+     *
+     * @param mean the mean to normalize with for each output channel
+     * @param std the standard deviation to normalize with for each output channel
+     * @param grayscale true to convert RGB images to a single channel
+     * @see NDImageUtils#toNormalizedTensor(NDArray, float[], float[], boolean)
+     */
+    public ToNormalizedTensor(float[] mean, float[] std, boolean grayscale) {
+        this.mean = mean;
+        this.std = std;
+        this.grayscale = grayscale;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray transform(NDArray array) {
+        return NDImageUtils.toNormalizedTensor(array, mean, std, grayscale);
+    }
+}
@@ -43,7 +43,7 @@ public class SingleShotDetectionTranslator extends ObjectDetectionTranslator {
     public DetectedObjects processOutput(TranslatorContext ctx, NDList list) {
         float[] classIds = list.get(0).toFloatArray();
         float[] probabilities = list.get(1).toFloatArray();
-        NDArray boundingBoxes = list.get(2);
+        float[] boundingBoxes = list.get(2).toFloatArray();
 
         List<String> retNames = new ArrayList<>();
         List<Double> retProbs = new ArrayList<>();
@@ -58,12 +58,21 @@ public class SingleShotDetectionTranslator extends ObjectDetectionTranslator {
                     throw new AssertionError("Unexpected index: " + classId);
                 }
                 String className = classes.get(classId);
-                float[] box = boundingBoxes.get(i).toFloatArray();
+                int box = i * 4;
                 // rescale box coordinates by imageWidth and imageHeight
-                double x = imageWidth > 0 ? box[0] / imageWidth : box[0];
-                double y = imageHeight > 0 ? box[1] / imageHeight : box[1];
-                double w = imageWidth > 0 ? box[2] / imageWidth - x : box[2] - x;
-                double h = imageHeight > 0 ? box[3] / imageHeight - y : box[3] - y;
+                double x = imageWidth > 0 ? boundingBoxes[box] / imageWidth : boundingBoxes[box];
+                double y =
+                        imageHeight > 0
+                                ? boundingBoxes[box + 1] / imageHeight
+                                : boundingBoxes[box + 1];
+                double w =
+                        imageWidth > 0
+                                ? boundingBoxes[box + 2] / imageWidth - x
+                                : boundingBoxes[box + 2] - x;
+                double h =
+                        imageHeight > 0
+                                ? boundingBoxes[box + 3] / imageHeight - y
+                                : boundingBoxes[box + 3] - y;
                 Rectangle rect;
                 if (applyRatio) {
                     rect =
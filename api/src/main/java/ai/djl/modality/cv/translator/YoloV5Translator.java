@@ -12,6 +12,7 @@
  */
 package ai.djl.modality.cv.translator;
 
+import ai.djl.modality.cv.NonMaximumSuppression;
 import ai.djl.modality.cv.output.BoundingBox;
 import ai.djl.modality.cv.output.DetectedObjects;
 import ai.djl.modality.cv.output.Rectangle;
@@ -24,7 +25,6 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
-import java.util.PriorityQueue;
 
 /**
  * A translator for YoloV5 models. This was tested with ONNX exported Yolo models. For details check
@@ -33,7 +33,7 @@ import java.util.PriorityQueue;
 public class YoloV5Translator extends ObjectDetectionTranslator {
 
     private YoloOutputType yoloOutputLayerType;
-    private float nmsThreshold;
+    private NonMaximumSuppression nms;
 
     /**
      * Constructs an ImageTranslator with the provided builder.
@@ -43,7 +43,7 @@ public class YoloV5Translator extends ObjectDetectionTranslator {
     protected YoloV5Translator(Builder builder) {
         super(builder);
         yoloOutputLayerType = builder.outputType;
-        nmsThreshold = builder.nmsThreshold;
+        nms = NonMaximumSuppression.builder().optIouThreshold(builder.nmsThreshold).build();
     }
 
     /**
@@ -97,54 +97,50 @@ public class YoloV5Translator extends ObjectDetectionTranslator {
     }
 
     protected DetectedObjects nms(List<IntermediateResult> list) {
-        List<String> retClasses = new ArrayList<>();
-        List<Double> retProbs = new ArrayList<>();
-        List<BoundingBox> retBB = new ArrayList<>();
-
-        for (int k = 0; k < classes.size(); k++) {
-            // 1.find max confidence per class
-            PriorityQueue<IntermediateResult> pq =
-                    new PriorityQueue<>(
-                            50,
-                            (lhs, rhs) -> {
-                                // Intentionally reversed to put high confidence at the head of the
-                                // queue.
-                                return Double.compare(rhs.getConfidence(), lhs.getConfidence());
-                            });
-
-            for (IntermediateResult intermediateResult : list) {
-                if (intermediateResult.getDetectedClass() == k) {
-                    pq.add(intermediateResult);
-                }
-            }
+        int size = list.size();
+        float[] boxes = new float[size * 4];
+        float[] scores = new float[size];
+        int[] classIds = new int[size];
+        for (int i = 0; i < size; ++i) {
+            IntermediateResult result = list.get(i);
+            Rectangle rect = result.location;
+            boxes[i * 4] = (float) rect.getX();
+            boxes[i * 4 + 1] = (float) rect.getY();
+            boxes[i * 4 + 2] = (float) (rect.getX() + rect.getWidth());
+            boxes[i * 4 + 3] = (float) (rect.getY() + rect.getHeight());
+            scores[i] = (float) result.confidence;
+            classIds[i] = result.detectedClass;
+        }
+        return nms(boxes, scores, classIds, size);
+    }
 
-            // 2.do non maximum suppression
-            while (pq.size() > 0) {
-                // insert detection with max confidence
-                IntermediateResult[] a = new IntermediateResult[pq.size()];
-                IntermediateResult[] detections = pq.toArray(a);
-                Rectangle rec = detections[0].getLocation();
-                retClasses.add(detections[0].id);
-                retProbs.add(detections[0].confidence);
-                if (applyRatio) {
-                    retBB.add(
-                            new Rectangle(
-                                    rec.getX() / imageWidth,
-                                    rec.getY() / imageHeight,
-                                    rec.getWidth() / imageWidth,
-                                    rec.getHeight() / imageHeight));
-                } else {
-                    retBB.add(
-                            new Rectangle(rec.getX(), rec.getY(), rec.getWidth(), rec.getHeight()));
-                }
-                pq.clear();
-                for (int j = 1; j < detections.length; j++) {
-                    IntermediateResult detection = detections[j];
-                    Rectangle location = detection.getLocation();
-                    if (boxIou(rec, location) < nmsThreshold) {
-                        pq.add(detection);
-                    }
-                }
+    /**
+     * Applies non-maximum suppression to the decoded detections and converts the kept ones.
+     *
+     * @param boxes the boxes as {@code [x_min, y_min, x_max, y_max]} quadruples
+     * @param scores the score of each box
+     * @param classIds the class index of each box
+     * @param count the number of decoded detections
+     * @return the kept {@link DetectedObjects}
+     */
+    protected DetectedObjects nms(float[] boxes, float[] scores, int[] classIds, int count) {
+        int[] kept = nms.apply(boxes, scores, classIds, count);
+        List<String> retClasses = new ArrayList<>(kept.length);
+        List<Double> retProbs = new ArrayList<>(kept.length);
+        List<BoundingBox> retBB = new ArrayList<>(kept.length);
+        for (int i : kept) {
+            double x = boxes[i * 4];
+            double y = boxes[i * 4 + 1];
+            double w = boxes[i * 4 + 2] - x;
+            double h = boxes[i * 4 + 3] - y;
+            retClasses.add(classes.get(classIds[i]));
+            retProbs.add((double) scores[i]);
+            if (applyRatio) {
+                retBB.add(
+                        new Rectangle(
+                                x / imageWidth, y / imageHeight, w / imageWidth, h / imageHeight));
+            } else {
+                retBB.add(new Rectangle(x, y, w, h));
             }
         }
         return new DetectedObjects(retClasses, retProbs, retBB);
@@ -162,10 +158,13 @@ public class YoloV5Translator extends ObjectDetectionTranslator {
 
     protected DetectedObjects processFromBoxOutput(NDList list) {
         float[] flattened = list.get(0).toFloatArray();
-        ArrayList<IntermediateResult> intermediateResults = new ArrayList<>();
         int sizeClasses = classes.size();
         int stride = 5 + sizeClasses;
         int size = flattened.length / stride;
+        float[] boxes = new float[size * 4];
+        float[] scores = new float[size];
+        int[] classIds = new int[size];
+        int count = 0;
         for (int i = 0; i < size; i++) {
             int indexBase = i * stride;
             float maxClass = 0;
@@ -182,13 +181,17 @@ public class YoloV5Translator extends ObjectDetectionTranslator {
                 float yPos = flattened[indexBase + 1];
                 float w = flattened[indexBase + 2];
                 float h = flattened[indexBase + 3];
-                Rectangle rect =
-                        new Rectangle(Math.max(0, xPos - w / 2), Math.max(0, yPos - h / 2), w, h);
-                intermediateResults.add(
-                        new IntermediateResult(classes.get(maxIndex), score, maxIndex, rect));
+                float x = Math.max(0, xPos - w / 2);
+                float y = Math.max(0, yPos - h / 2);
+                boxes[count * 4] = x;
+                boxes[count * 4 + 1] = y;
+                boxes[count * 4 + 2] = x + w;
+                boxes[count * 4 + 3] = y + h;
+                scores[count] = score;
+                classIds[count++] = maxIndex;
             }
         }
-        return nms(intermediateResults);
+        return nms(boxes, scores, classIds, count);
     }
 
     private DetectedObjects processFromDetectOutput() {
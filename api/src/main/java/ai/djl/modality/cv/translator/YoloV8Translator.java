@@ -13,14 +13,13 @@
 package ai.djl.modality.cv.translator;
 
 import ai.djl.modality.cv.output.DetectedObjects;
-import ai.djl.modality.cv.output.Rectangle;
 import ai.djl.ndarray.NDArray;
 import ai.djl.ndarray.NDList;
 import ai.djl.ndarray.types.DataType;
 import ai.djl.ndarray.types.Shape;
 import ai.djl.translate.ArgumentsUtil;
 
-import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Map;
 
 /**
@@ -59,45 +58,54 @@ public class YoloV8Translator extends YoloV5Translator {
     @Override
     protected DetectedObjects processFromBoxOutput(NDList list) {
         NDArray rawResult = list.get(0);
-        NDArray reshapedResult = rawResult.transpose();
-        Shape shape = reshapedResult.getShape();
-        float[] buf = reshapedResult.toFloatArray();
-        int numberRows = Math.toIntExact(shape.get(0));
-        int nClasses = Math.toIntExact(shape.get(1));
+        Shape shape = rawResult.getShape();
+        // the output is laid out as (4 + classes, rows), read it without transposing
+        float[] buf = rawResult.toFloatArray();
+        int nClasses = Math.toIntExact(shape.get(shape.dimension() - 2));
+        int numberRows = Math.toIntExact(shape.get(shape.dimension() - 1));
         int padding = nClasses - classes.size();
         if (padding != 0 && padding != 4) {
             throw new IllegalStateException(
                     "Expected classes: " + (nClasses - 4) + ", got " + classes.size());
         }
 
-        ArrayList<IntermediateResult> intermediateResults = new ArrayList<>();
-        // reverse order search in heap; searches through #maxBoxes for optimization when set
-        for (int i = numberRows - 1; i > numberRows - maxBoxes; --i) {
-            int index = i * nClasses;
-            float maxClassProb = -1f;
-            int maxIndex = -1;
-            for (int c = 4; c < nClasses; c++) {
-                float classProb = buf[index + c];
-                if (classProb > maxClassProb) {
-                    maxClassProb = classProb;
-                    maxIndex = c;
+        // searches through #maxBoxes for optimization when set
+        int from = Math.max(0, numberRows - maxBoxes + 1);
+        float[] maxClassProbs = new float[numberRows];
+        int[] maxIndices = new int[numberRows];
+        Arrays.fill(maxClassProbs, -1f);
+        Arrays.fill(maxIndices, -1);
+        for (int c = 4; c < nClasses; c++) {
+            int offset = c * numberRows;
+            for (int i = from; i < numberRows; ++i) {
+                if (buf[offset + i] > maxClassProbs[i]) {
+                    maxClassProbs[i] = buf[offset + i];
+                    maxIndices[i] = c;
                 }
             }
-            maxIndex -= padding;
+        }
 
-            if (maxClassProb > threshold) {
-                float xPos = buf[index]; // center x
-                float yPos = buf[index + 1]; // center y
-                float w = buf[index + 2];
-                float h = buf[index + 3];
-                Rectangle rect =
-                        new Rectangle(Math.max(0, xPos - w / 2), Math.max(0, yPos - h / 2), w, h);
-                intermediateResults.add(
-                        new IntermediateResult(
-                                classes.get(maxIndex), maxClassProb, maxIndex, rect));
+        float[] boxes = new float[(numberRows - from) * 4];
+        float[] scores = new float[numberRows - from];
+        int[] classIds = new int[numberRows - from];
+        int count = 0;
+        for (int i = from; i < numberRows; ++i) {
+            if (maxClassProbs[i] > threshold) {
+                float xPos = buf[i]; // center x
+                float yPos = buf[numberRows + i]; // center y
+                float w = buf[numberRows * 2 + i];
+                float h = buf[numberRows * 3 + i];
+                float x = Math.max(0, xPos - w / 2);
+                float y = Math.max(0, yPos - h / 2);
+                boxes[count * 4] = x;
+                boxes[count * 4 + 1] = y;
+                boxes[count * 4 + 2] = x + w;
+                boxes[count * 4 + 3] = y + h;
+                scores[count] = maxClassProbs[i];
+                classIds[count++] = maxIndices[i] - padding;
             }
         }
-        return nms(intermediateResults);
+        return nms(boxes, scores, classIds, count);
     }
 
     /** The builder for {@link YoloV8Translator}. */
@@ -14,15 +14,24 @@ package ai.djl.modality.cv.util;
 
 import ai.djl.modality.cv.Image;
 import ai.djl.ndarray.NDArray;
+import ai.djl.ndarray.NDManager;
+import ai.djl.ndarray.types.DataType;
 import ai.djl.ndarray.types.Shape;
 import ai.djl.util.RandomUtils;
 
+import java.nio.ByteBuffer;
+import java.nio.FloatBuffer;
+
 /**
  * {@code NDImageUtils} is an image processing utility to load, reshape, and convert images using
  * {@link NDArray} images.
  */
 public final class NDImageUtils {
 
+    private static final float GRAY_R = 0.299f;
+    private static final float GRAY_G = 0.587f;
+    private static final float GRAY_B = 0.114f;
+
     private NDImageUtils() {}
 
     /**
@@ -130,6 +139,139 @@ public final class NDImageUtils {
         return image.getNDArrayInternal().toTensor();
     }
 
+    /**
+     * Converts an image NDArray of shape HWC or NHWC in the range {@code [0, 255]} to a normalized
+     * {@link DataType#FLOAT32} tensor of shape CHW or NCHW in a single pass.
+     *
+     * <p>This is equivalent to {@link #toTensor(NDArray)} followed by {@link #normalize(NDArray,
+     * float[], float[])}, optionally preceded by a grayscale conversion, but it does not create any
+     * intermediate NDArray. The computation runs on the JVM and writes straight into a direct
+     * buffer, so it works the same way for every engine.
+     *
+     * @param image the image to convert
+     * @param mean the mean to normalize with for each output channel, or {@code null} to skip the
+     *     normalization
+     * @param std the standard deviation to normalize with for each output channel, or {@code null}
+     *     to skip the normalization
+     * @param grayscale true to convert a 3 channel RGB image to a single channel
+     * @return the converted image
+     */
+    public static NDArray toNormalizedTensor(
+            NDArray image, float[] mean, float[] std, boolean grayscale) {
+        Shape shape = image.getShape();
+        int dim = shape.dimension();
+        if (dim != 3 && dim != 4) {
+            throw new IllegalArgumentException(
+                    "toNormalizedTensor requires HWC or NHWC format, but got: " + shape);
+        }
+        int batch = dim == 4 ? Math.toIntExact(shape.get(0)) : 1;
+        int height = Math.toIntExact(shape.get(dim - 3));
+        int width = Math.toIntExact(shape.get(dim - 2));
+        int channel = Math.toIntExact(shape.get(dim - 1));
+        if (channel != 1 && channel != 3) {
+            throw new IllegalArgumentException(
+                    "toNormalizedTensor requires 1 or 3 channels in HWC format, but got: " + shape);
+        }
+        int outChannel = grayscale ? 1 : channel;
+        float[] scale = new float[outChannel];
+        float[] shift = new float[outChannel];
+        initScale(mean, std, scale, shift);
+
+        int hw = height * width;
+        NDManager manager = image.getManager();
+        ByteBuffer bb = manager.allocateDirect(batch * outChannel * hw * 4);
+        FloatBuffer out = bb.asFloatBuffer();
+        DataType dataType = image.getDataType();
+        if (dataType == DataType.UINT8 || dataType == DataType.INT8) {
+            ByteBuffer data = image.toByteBuffer();
+            for (int n = 0; n < batch; ++n) {
+                fuse(data, n * hw * channel, channel, out, n * hw * outChannel, hw, scale, shift);
+            }
+        } else {
+            NDArray floats = image.toType(DataType.FLOAT32, false);
+            FloatBuffer data = floats.toByteBuffer().asFloatBuffer();
+            for (int n = 0; n < batch; ++n) {
+                fuse(data, n * hw * channel, channel, out, n * hw * outChannel, hw, scale, shift);
+            }
+            if (floats != image) {
+                floats.close();
+            }
+        }
+
+        Shape outShape =
+                dim == 4
+                        ? new Shape(batch, outChannel, height, width)
+                        : new Shape(outChannel, height, width);
+        return manager.create(bb, outShape, DataType.FLOAT32);
+    }
+
+    /**
+     * Converts packed {@code 0xAARRGGBB} pixels to a normalized {@link DataType#FLOAT32} tensor of
+     * shape CHW in a single pass.
+     *
+     * <p>This is the fused counterpart of decoding an image to HWC and then calling {@link
+     * #toNormalizedTensor(NDArray, float[], float[], boolean)}. The alpha channel is ignored.
+     *
+     * @param manager the {@link NDManager} to create the tensor with
+     * @param pixels the packed pixels in row-major order
+     * @param width the width of the image
+     * @param height the height of the image
+     * @param mean the mean to normalize with for each output channel, or {@code null} to skip the
+     *     normalization
+     * @param std the standard deviation to normalize with for each output channel, or {@code null}
+     *     to skip the normalization
+     * @param grayscale true to convert the image to a single channel
+     * @return the converted image
+     */
+    public static NDArray toNormalizedTensor(
+            NDManager manager,
+            int[] pixels,
+            int width,
+            int height,
+            float[] mean,
+            float[] std,
+            boolean grayscale) {
+        int hw = width * height;
+        if (pixels.length < hw) {
+            throw new IllegalArgumentException(
+                    "Expected " + hw + " pixels, but got: " + pixels.length);
+        }
+        int outChannel = grayscale ? 1 : 3;
+        float[] scale = new float[outChannel];
+        float[] shift = new float[outChannel];
+        initScale(mean, std, scale, shift);
+
+        ByteBuffer bb = manager.allocateDirect(outChannel * hw * 4);
+        FloatBuffer out = bb.asFloatBuffer();
+        if (grayscale) {
+            float wr = GRAY_R * scale[0];
+            float wg = GRAY_G * scale[0];
+            float wb = GRAY_B * scale[0];
+            float s = shift[0];
+            for (int i = 0; i < hw; ++i) {
+                int rgb = pixels[i];
+                out.put(
+                        i,
+                        ((rgb >> 16) & 0xFF) * wr
+                                + ((rgb >> 8) & 0xFF) * wg
+                                + (rgb & 0xFF) * wb
+                                + s);
+            }
+        } else {
+            // one pass per channel keeps every loop a plain strided gather the JIT can unroll
+            for (int c = 0; c < 3; ++c) {
+                int bits = 16 - c * 8;
+                float a = scale[c];
+                float b = shift[c];
+                int offset = c * hw;
+                for (int i = 0; i < hw; ++i) {
+                    out.put(offset + i, ((pixels[i] >> bits) & 0xFF) * a + b);
+                }
+            }
+        }
+        return manager.create(bb, new Shape(outChannel, height, width), DataType.FLOAT32);
+    }
+
     /**
      * Crops an image to a square of size {@code min(width, height)}.
      *
@@ -336,4 +478,90 @@ public final class NDImageUtils {
         }
         throw new IllegalArgumentException("Image is neither CHW nor HWC");
     }
+
+    private static void initScale(float[] mean, float[] std, float[] scale, float[] shift) {
+        if ((mean == null) != (std == null)) {
+            throw new IllegalArgumentException("mean and std must be both set or both null");
+        }
+        for (int c = 0; c < scale.length; ++c) {
+            if (mean == null) {
+                scale[c] = 1f / 255;
+                continue;
+            }
+            if (mean.length < scale.length || std.length < scale.length) {
+                throw new IllegalArgumentException(
+                        "Expected mean and std for " + scale.length + " channels");
+            }
+            // (x / 255 - mean) / std == x * scale + shift
+            scale[c] = 1f / (255 * std[c]);
+            shift[c] = -mean[c] / std[c];
+        }
+    }
+
+    private static void fuse(
+            ByteBuffer data,
+            int src,
+            int channel,
+            FloatBuffer out,
+            int dst,
+            int hw,
+            float[] scale,
+            float[] shift) {
+        if (channel == 3 && scale.length == 1) {
+            float wr = GRAY_R * scale[0];
+            float wg = GRAY_G * scale[0];
+            float wb = GRAY_B * scale[0];
+            float s = shift[0];
+            for (int i = 0; i < hw; ++i) {
+                int p = src + i * 3;
+                out.put(
+                        dst + i,
+                        (data.get(p) & 0xFF) * wr
+                                + (data.get(p + 1) & 0xFF) * wg
+                                + (data.get(p + 2) & 0xFF) * wb
+                                + s);
+            }
+            return;
+        }
+        for (int c = 0; c < channel; ++c) {
+            float a = scale[c];
+            float b = shift[c];
+            int offset = dst + c * hw;
+            for (int i = 0; i < hw; ++i) {
+                out.put(offset + i, (data.get(src + i * channel + c) & 0xFF) * a + b);
+            }
+        }
+    }
+
+    private static void fuse(
+            FloatBuffer data,
+            int src,
+            int channel,
+            FloatBuffer out,
+            int dst,
+            int hw,
+            float[] scale,
+            float[] shift) {
+        if (channel == 3 && scale.length == 1) {
+            float wr = GRAY_R * scale[0];
+            float wg = GRAY_G * scale[0];
+            float wb = GRAY_B * scale[0];
+            float s = shift[0];
+            for (int i = 0; i < hw; ++i) {
+                int p = src + i * 3;
+                out.put(
+                        dst + i,
+                        data.get(p) * wr + data.get(p + 1) * wg + data.get(p + 2) * wb + s);
+            }
+            return;
+        }
+        for (int c = 0; c < channel; ++c) {
+            float a = scale[c];
+            float b = shift[c];
+            int offset = dst + c * hw;
+            for (int i = 0; i < hw; ++i) {
+                out.put(offset + i, data.get(src + i * channel + c) * a + b);
+            }
+        }
+    }
 }
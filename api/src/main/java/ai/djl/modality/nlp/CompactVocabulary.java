@@ -0,0 +1,300 @@
+/*
+ * Copyright 2024 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ * with the License. A copy of the License is located at
+ *
+ * http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES
+ * OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package ai.djl.modality.nlp;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * A memory compact implementation of {@link Vocabulary}.
+ *
+ * <p>All the tokens are stored in a single char array, and are looked up through an open addressing
+ * hash table of token indices. Compared to {@link DefaultVocabulary}, this avoids a {@code String}
+ * and a map entry per token, at the cost of creating a {@code String} in {@link #getToken(long)}.
+ *
+ * <p>A {@code CompactVocabulary} is built with {@link DefaultVocabulary.Builder#buildCompact()} or
+ * from any {@link Vocabulary} with {@link #of(Vocabulary, String)}, and can be saved in a binary
+ * format that loads without parsing the tokens.
+ */
+public final class CompactVocabulary implements Vocabulary {
+
+    private static final String MAGIC_NUMBER = "DJLV";
+    private static final int VERSION = 1;
+
+    private char[] chars;
+    private int[] offsets;
+    private int[] hashes;
+    private int[] table;
+    private int unknownIndex;
+
+    private CompactVocabulary(char[] chars, int[] offsets, int unknownIndex) {
+        this.chars = chars;
+        this.offsets = offsets;
+        this.unknownIndex = unknownIndex;
+        int size = offsets.length - 1;
+        hashes = new int[size];
+        table = new int[Math.max(16, Integer.highestOneBit(Math.max(1, size) * 2 - 1) << 1)];
+        int mask = table.length - 1;
+        for (int i = 0; i < size; ++i) {
+            int hash = hash(i);
+            hashes[i] = hash;
+            int slot = mix(hash) & mask;
+            while (table[slot] != 0) {
+                if (equals(table[slot] - 1, hash, i)) {
+                    throw new IllegalArgumentException("Duplicated token: " + getToken(i));
+                }
+                slot = (slot + 1) & mask;
+            }
+            table[slot] = i + 1;
+        }
+    }
+
+    /**
+     * Creates a {@code CompactVocabulary} with the tokens of a {@link Vocabulary}.
+     *
+     * @param vocabulary the {@link Vocabulary} to copy the tokens from, with indices from 0 to its
+     *     size
+     * @param unknownToken the token returned for unknown indices, and whose index is returned for
+     *     unknown tokens, or {@code null} for none
+     * @return a new {@code CompactVocabulary}
+     */
+    public static CompactVocabulary of(Vocabulary vocabulary, String unknownToken) {
+        int size = Math.toIntExact(vocabulary.size());
+        int[] offsets = new int[size + 1];
+        String[] tokens = new String[size];
+        for (int i = 0; i < size; ++i) {
+            tokens[i] = vocabulary.getToken(i);
+            offsets[i + 1] = Math.addExact(offsets[i], tokens[i].length());
+        }
+        char[] chars = new char[offsets[size]];
+        for (int i = 0; i < size; ++i) {
+            tokens[i].getChars(0, tokens[i].length(), chars, offsets[i]);
+        }
+        CompactVocabulary compact = new CompactVocabulary(chars, offsets, -1);
+        if (unknownToken != null) {
+            compact.unknownIndex = compact.find(unknownToken);
+            if (compact.unknownIndex < 0) {
+                throw new IllegalArgumentException(
+                        "Unknown token not in vocabulary: " + unknownToken);
+            }
+        }
+        return compact;
+    }
+
+    /**
+     * Loads a {@code CompactVocabulary} saved with {@link #save(Path)}.
+     *
+     * @param path the file to load
+     * @return the {@code CompactVocabulary}
+     * @throws IOException if the file cannot be read or is not a saved vocabulary
+     */
+    public static CompactVocabulary load(Path path) throws IOException {
+        try (InputStream is = new BufferedInputStream(Files.newInputStream(path))) {
+            return load(is);
+        }
+    }
+
+    /**
+     * Loads a {@code CompactVocabulary} saved with {@link #save(OutputStream)}.
+     *
+     * @param is the stream to read from
+     * @return the {@code CompactVocabulary}
+     * @throws IOException if the stream cannot be read or is not a saved vocabulary
+     */
+    public static CompactVocabulary load(InputStream is) throws IOException {
+        DataInputStream dis = new DataInputStream(is);
+        if (!MAGIC_NUMBER.equals(dis.readUTF())) {
+            throw new IllegalArgumentException("Malformed vocabulary data");
+        }
+        int version = dis.readInt();
+        if (version != VERSION) {
+            throw new IllegalArgumentException("Unexpected vocabulary version: " + version);
+        }
+        int size = dis.readInt();
+        int unknownIndex = dis.readInt();
+        int length = dis.readInt();
+        if (size < 0 || length < 0 || unknownIndex < -1 || unknownIndex >= size) {
+            throw new IllegalArgumentException("Malformed vocabulary data");
+        }
+        byte[] buf = new byte[Math.multiplyExact(size + 1, 4)];
+        dis.readFully(buf);
+        int[] offsets = new int[size + 1];
+        ByteBuffer.wrap(buf).asIntBuffer().get(offsets);
+        for (int i = 0; i < size; ++i) {
+            if (offsets[i] > offsets[i + 1]) {
+                throw new IllegalArgumentException("Malformed vocabulary data");
+            }
+        }
+        if (offsets[0] != 0 || offsets[size] != length) {
+            throw new IllegalArgumentException("Malformed vocabulary data");
+        }
+        buf = new byte[Math.multiplyExact(length, 2)];
+        dis.readFully(buf);
+        char[] chars = new char[length];
+        ByteBuffer.wrap(buf).asCharBuffer().get(chars);
+        return new CompactVocabulary(chars, offsets, unknownIndex);
+    }
+
+    /**
+     * Saves this vocabulary in a binary format.
+     *
+     * @param path the file to write
+     * @throws IOException if the file cannot be written
+     */
+    public void save(Path path) throws IOException {
+        try (OutputStream os = new BufferedOutputStream(Files.newOutputStream(path))) {
+            save(os);
+        }
+    }
+
+    /**
+     * Saves this vocabulary in a binary format.
+     *
+     * @param os the stream to write to
+     * @throws IOException if the stream cannot be written
+     */
+    public void save(OutputStream os) throws IOException {
+        DataOutputStream dos = new DataOutputStream(os);
+        dos.writeUTF(MAGIC_NUMBER);
+        dos.writeInt(VERSION);
+        dos.writeInt(offsets.length - 1);
+        dos.writeInt(unknownIndex);
+        dos.writeInt(chars.length);
+        ByteBuffer bb = ByteBuffer.allocate(offsets.length * 4);
+        bb.asIntBuffer().put(offsets);
+        dos.write(bb.array());
+        bb = ByteBuffer.allocate(chars.length * 2);
+        bb.asCharBuffer().put(chars);
+        dos.write(bb.array());
+        dos.flush();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public String getToken(long index) {
+        if (index < 0 || index >= offsets.length - 1) {
+            return unknownIndex < 0 ? null : getToken(unknownIndex);
+        }
+        int i = (int) index;
+        return new String(chars, offsets[i], offsets[i + 1] - offsets[i]);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public boolean contains(String token) {
+        return find(token) >= 0;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public long getIndex(String token) {
+        int index = find(token);
+        if (index >= 0) {
+            return index;
+        }
+        if (unknownIndex >= 0) {
+            return unknownIndex;
+        }
+        throw new IllegalStateException(
+                "Unexpected token in getIndex. Define an unknownToken for the vocabulary to enable"
+                        + " support for unknown tokens.");
+    }
+
+    /**
+     * Returns the indices of the tokens.
+     *
+     * @param tokens the tokens
+     * @return the indices of the tokens
+     * @see #getIndex(String)
+     */
+    public long[] getIndices(List<String> tokens) {
+        long[] indices = new long[tokens.size()];
+        for (int i = 0; i < indices.length; ++i) {
+            indices[i] = getIndex(tokens.get(i));
+        }
+        return indices;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public long size() {
+        return offsets.length - 1;
+    }
+
+    private int find(String token) {
+        // String caches its hash code, and the arena hash uses the same function
+        int hash = token.hashCode();
+        int mask = table.length - 1;
+        for (int slot = mix(hash) & mask; table[slot] != 0; slot = (slot + 1) & mask) {
+            int index = table[slot] - 1;
+            if (hashes[index] == hash && equals(index, token)) {
+                return index;
+            }
+        }
+        return -1;
+    }
+
+    private int hash(int index) {
+        int hash = 0;
+        for (int i = offsets[index]; i < offsets[index + 1]; ++i) {
+            hash = 31 * hash + chars[i];
+        }
+        return hash;
+    }
+
+    private boolean equals(int index, String token) {
+        int start = offsets[index];
+        int length = offsets[index + 1] - start;
+        if (length != token.length()) {
+            return false;
+        }
+        for (int i = 0; i < length; ++i) {
+            if (chars[start + i] != token.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean equals(int index, int hash, int other) {
+        if (hashes[index] != hash) {
+            return false;
+        }
+        int start = offsets[index];
+        int length = offsets[index + 1] - start;
+        int otherStart = offsets[other];
+        if (length != offsets[other + 1] - otherStart) {
+            return false;
+        }
+        for (int i = 0; i < length; ++i) {
+            if (chars[start + i] != chars[otherStart + i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int mix(int hash) {
+        int h = hash * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
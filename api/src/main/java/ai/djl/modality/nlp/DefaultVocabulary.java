@@ -360,6 +360,18 @@ public class DefaultVocabulary implements Vocabulary {
             }
             return new DefaultVocabulary(this);
         }
+
+        /**
+         * Builds a {@link CompactVocabulary} with the set arguments.
+         *
+         * <p>The tokens and their indices are the same as in the {@link DefaultVocabulary} built by
+         * {@link #build()}.
+         *
+         * @return the {@link CompactVocabulary} object built
+         */
+        public CompactVocabulary buildCompact() {
+            return CompactVocabulary.of(build(), unknownToken);
+        }
     }
 
     /**
@@ -12,11 +12,15 @@
  */
 package ai.djl.modality.nlp.bert;
 
+import ai.djl.modality.nlp.CompactVocabulary;
+import ai.djl.modality.nlp.DefaultVocabulary;
 import ai.djl.modality.nlp.Vocabulary;
 import ai.djl.modality.nlp.preprocess.SimpleTokenizer;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.stream.Collectors;
 
 /**
  * WordpieceTokenizer tokenizes a piece of text into its word pieces.
@@ -30,15 +34,21 @@ import java.util.List;
  * ["un", "##aff", "##able"]
  * </pre>
  *
+ * <p>For a {@link DefaultVocabulary} or a {@link CompactVocabulary}, the word pieces are matched
+ * against a character trie of the vocabulary built once, without creating candidate strings.
+ *
  * <p>Reference implementation: <a
  * href="https://github.com/google-research/bert/blob/master/tokenization.py#L300">Google Research
  * Bert Tokenizer</a>
  */
 public class WordpieceTokenizer extends SimpleTokenizer {
 
+    private static final int UNKNOWN = -1;
+
     private String unknown;
     private int maxInputChars;
     private Vocabulary vocabulary;
+    private Trie trie;
 
     /**
      * Creates an instance of {@code WordpieceTokenizer}.
@@ -51,11 +61,123 @@ public class WordpieceTokenizer extends SimpleTokenizer {
         this.unknown = unknown;
         this.maxInputChars = maxInputChars;
         this.vocabulary = vocabulary;
+        if (vocabulary instanceof DefaultVocabulary || vocabulary instanceof CompactVocabulary) {
+            trie = new Trie(vocabulary);
+        }
     }
 
     /** {@inheritDoc} */
     @Override
     public List<String> tokenize(String sentence) {
+        if (trie == null) {
+            return tokenizeWithVocabulary(sentence);
+        }
+        IntList ids = new IntList();
+        match(sentence, ids);
+        List<String> outputTokens = new ArrayList<>(ids.size);
+        for (int i = 0; i < ids.size; ++i) {
+            int id = ids.data[i];
+            outputTokens.add(id == UNKNOWN ? unknown : vocabulary.getToken(id));
+        }
+        return outputTokens;
+    }
+
+    /**
+     * Tokenizes the sentence into the indices of the word pieces in the vocabulary.
+     *
+     * <p>This is equivalent to getting the index of each token of {@link #tokenize(String)}.
+     *
+     * @param sentence the sentence to tokenize
+     * @return the indices of the word pieces in the vocabulary
+     */
+    public int[] encode(String sentence) {
+        if (trie == null) {
+            return tokenizeWithVocabulary(sentence).stream()
+                    .mapToInt(token -> Math.toIntExact(vocabulary.getIndex(token)))
+                    .toArray();
+        }
+        IntList ids = new IntList();
+        match(sentence, ids);
+        int unknownId = UNKNOWN;
+        for (int i = 0; i < ids.size; ++i) {
+            if (ids.data[i] == UNKNOWN) {
+                if (unknownId == UNKNOWN) {
+                    unknownId = Math.toIntExact(vocabulary.getIndex(unknown));
+                }
+                ids.data[i] = unknownId;
+            }
+        }
+        return Arrays.copyOf(ids.data, ids.size);
+    }
+
+    /**
+     * Tokenizes the sentences in parallel.
+     *
+     * @param sentences the sentences to tokenize
+     * @return the tokens of each sentence, in the same order as the sentences
+     */
+    public List<List<String>> tokenizeBatch(List<String> sentences) {
+        return sentences.parallelStream().map(this::tokenize).collect(Collectors.toList());
+    }
+
+    /**
+     * Tokenizes the sentences into the indices of the word pieces in parallel.
+     *
+     * @param sentences the sentences to tokenize
+     * @return the indices of the word pieces of each sentence, in the same order as the sentences
+     * @see #encode(String)
+     */
+    public List<int[]> encodeBatch(List<String> sentences) {
+        return sentences.parallelStream().map(this::encode).collect(Collectors.toList());
+    }
+
+    private void match(String sentence, IntList ids) {
+        String text = sentence.trim();
+        int length = text.length();
+        int wordStart = 0;
+        while (wordStart < length) {
+            int wordEnd = text.indexOf(' ', wordStart);
+            if (wordEnd < 0) {
+                wordEnd = length;
+            }
+            if (wordEnd - wordStart > maxInputChars) {
+                ids.add(UNKNOWN);
+            } else {
+                matchWord(sentence, text, wordStart, wordEnd, ids);
+            }
+            wordStart = wordEnd + 1;
+        }
+    }
+
+    private void matchWord(String sentence, String text, int wordStart, int wordEnd, IntList ids) {
+        int mark = ids.size;
+        int start = wordStart;
+        while (start < wordEnd) {
+            // longest match first: keep the last vocabulary token on the trie path
+            int node = start == wordStart ? Trie.ROOT : trie.continuation;
+            int matchId = UNKNOWN;
+            int matchEnd = start;
+            for (int i = start; i < wordEnd && node != Trie.NONE; ++i) {
+                node = trie.child(node, text.charAt(i));
+                if (node != Trie.NONE && trie.ids[node] != UNKNOWN) {
+                    matchId = trie.ids[node];
+                    matchEnd = i + 1;
+                }
+            }
+            if (matchId == UNKNOWN) {
+                ids.size = mark;
+                ids.add(UNKNOWN);
+                return;
+            }
+            ids.add(matchId);
+            if (ids.size - mark > maxInputChars) {
+                throw new IllegalStateException("Too many subTokens for: '" + sentence + '\'');
+            }
+            start = matchEnd;
+        }
+    }
+
+    private List<String> tokenizeWithVocabulary(String sentence) {
         StringBuilder sb = new StringBuilder();
         List<String> subTokens = new ArrayList<>();
         List<String> outputTokens = new ArrayList<>();
@@ -104,4 +226,128 @@ public class WordpieceTokenizer extends SimpleTokenizer {
         }
         return outputTokens;
     }
+
+    /** A growable list of primitive ints. */
+    private static final class IntList {
+
+        int[] data = new int[32];
+        int size;
+
+        void add(int value) {
+            if (size == data.length) {
+                data = Arrays.copyOf(data, size * 2);
+            }
+            data[size++] = value;
+        }
+    }
+
+    /**
+     * A character trie of the vocabulary tokens.
+     *
+     * <p>The edges are stored in an open addressing hash table keyed by the parent node and the
+     * character, so the whole trie is kept in a few primitive arrays.
+     */
+    private static final class Trie {
+
+        static final int ROOT = 0;
+        static final int NONE = -1;
+
+        int[] ids;
+        int continuation;
+        private long[] keys;
+        private int[] children;
+        private int nodes;
+        private int edges;
+
+        Trie(Vocabulary vocabulary) {
+            keys = new long[1024];
+            children = new int[1024];
+            ids = new int[512];
+            Arrays.fill(ids, UNKNOWN);
+            nodes = 1;
+            long size = vocabulary.size();
+            for (int i = 0; i < size; ++i) {
+                String token = vocabulary.getToken(i);
+                if (token != null) {
+                    insert(token, i);
+                }
+            }
+            continuation = child(child(ROOT, '#'), '#');
+        }
+
+        int child(int node, char c) {
+            if (node == NONE) {
+                return NONE;
+            }
+            long key = key(node, c);
+            int mask = keys.length - 1;
+            for (int i = hash(key) & mask; ; i = (i + 1) & mask) {
+                long k = keys[i];
+                if (k == key) {
+                    return children[i];
+                } else if (k == 0) {
+                    return NONE;
+                }
+            }
+        }
+
+        private void insert(String token, int id) {
+            int node = ROOT;
+            for (int i = 0; i < token.length(); ++i) {
+                char c = token.charAt(i);
+                int next = child(node, c);
+                if (next == NONE) {
+                    next = newNode();
+                    put(key(node, c), next);
+                }
+                node = next;
+            }
+            if (ids[node] == UNKNOWN) {
+                ids[node] = id;
+            }
+        }
+
+        private int newNode() {
+            if (nodes == ids.length) {
+                int length = ids.length;
+                ids = Arrays.copyOf(ids, length * 2);
+                Arrays.fill(ids, length, ids.length, UNKNOWN);
+            }
+            return nodes++;
+        }
+
+        private void put(long key, int child) {
+            if (++edges * 2 > keys.length) {
+                long[] oldKeys = keys;
+                int[] oldChildren = children;
+                keys = new long[oldKeys.length * 2];
+                children = new int[oldKeys.length * 2];
+                for (int i = 0; i < oldKeys.length; ++i) {
+                    if (oldKeys[i] != 0) {
+                        insertEdge(oldKeys[i], oldChildren[i]);
+                    }
+                }
+            }
+            insertEdge(key, child);
+        }
+
+        private void insertEdge(long key, int child) {
+            int mask = keys.length - 1;
+            int i = hash(key) & mask;
+            while (keys[i] != 0) {
+                i = (i + 1) & mask;
+            }
+            keys[i] = key;
+            children[i] = child;
+        }
+
+        private static long key(int node, char c) {
+            // 0 marks an empty slot
+            return ((long) node << 16 | c) + 1;
+        }
+
+        private static int hash(long key) {
+            return (int) ((key * 0x9E3779B97F4A7C15L) >>> 32);
+        }
+    }
 }
@@ -0,0 +1,488 @@
+/*
+ * Copyright 2024 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ * with the License. A copy of the License is located at
+ *
+ * http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES
+ * OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package ai.djl.modality.nlp.generate;
+
+import ai.djl.inference.streaming.ChunkedBytesSupplier;
+import ai.djl.metric.Metrics;
+import ai.djl.metric.Unit;
+import ai.djl.ndarray.NDArray;
+import ai.djl.ndarray.NDList;
+import ai.djl.ndarray.NDManager;
+import ai.djl.ndarray.types.Shape;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * A {@code ContinuousBatchScheduler} runs autoregressive generation of concurrent requests on a
+ * single {@link SeqBatchScheduler} with continuous batching.
+ *
+ * <p>A scheduling thread owns the {@link SeqBatcher}. Before each decoding step, queued requests
+ * are admitted into the running batch as long as the batch has less than {@code maxBatchSize}
+ * sequences and the step stays within the {@code tokenBudget}, where each running sequence costs
+ * one token and each admitted prompt costs its padded length. Sequences that reach the exit
+ * criteria are evicted right after the step that finished them, so their slots are reused on the
+ * next step.
+ *
+ * <p>The generated tokens are streamed to the {@link ChunkedBytesSupplier} returned by {@link
+ * #submit(long[])}, one chunk per token holding the token id as an 8 bytes big-endian long. The
+ * last chunk is empty. If the generation fails, the stream is ended early.
+ *
+ * <pre>
+ * try (ContinuousBatchScheduler generator =
+ *         ContinuousBatchScheduler.builder(scheduler, manager).optMaxBatchSize(16).build()) {
+ *     ChunkedBytesSupplier tokens = generator.submit(inputIds);
+ *     while (tokens.hasNext()) {
+ *         byte[] chunk = tokens.nextChunk(1, TimeUnit.MINUTES);
+ *     }
+ * }
+ * </pre>
+ *
+ * <p>If {@link Metrics} is set, the following metrics are recorded:
+ *
+ * <ul>
+ *   <li>{@code TimeToFirstToken} - the time from submission to the first token in microseconds
+ *   <li>{@code InterTokenLatency} - the time between two tokens of a request in microseconds
+ *   <li>{@code StepLatency} - the time of each decoding step in microseconds
+ *   <li>{@code BatchSize} - the number of sequences in each decoding step
+ *   <li>{@code PrefillTokens} - the number of prompt tokens admitted before each step
+ * </ul>
+ */
+public class ContinuousBatchScheduler implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(ContinuousBatchScheduler.class);
+
+    private SeqBatchScheduler scheduler;
+    private NDManager manager;
+    private BlockingQueue<Request> queue;
+    private Map<Long, Request> active;
+    private int maxBatchSize;
+    private int tokenBudget;
+    private Metrics metrics;
+    private long nextUid;
+    private AtomicBoolean closed;
+    private ReadWriteLock closeLock;
+    private Thread thread;
+
+    ContinuousBatchScheduler(Builder builder) {
+        scheduler = builder.scheduler;
+        manager = builder.manager.newSubManager();
+        maxBatchSize = builder.maxBatchSize;
+        tokenBudget = builder.tokenBudget;
+        metrics = builder.metrics;
+        queue =
+                builder.maxQueueSize > 0
+                        ? new LinkedBlockingQueue<>(builder.maxQueueSize)
+                        : new LinkedBlockingQueue<>();
+        active = new HashMap<>();
+        closed = new AtomicBoolean();
+        closeLock = new ReentrantReadWriteLock();
+        thread = new Thread(this::run, "continuous-batch-scheduler");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Creates a builder to build a {@code ContinuousBatchScheduler}.
+     *
+     * @param scheduler the {@link SeqBatchScheduler} that runs the search steps, it must not be
+     *     used by other threads
+     * @param manager the {@link NDManager} to create the search state with
+     * @return a new builder
+     */
+    public static Builder builder(SeqBatchScheduler scheduler, NDManager manager) {
+        return new Builder(scheduler, manager);
+    }
+
+    /**
+     * Submits a request for generation and returns immediately.
+     *
+     * @param inputIds the prompt token ids
+     * @return the stream of generated token ids
+     * @throws IllegalStateException if the scheduler is closed or the queue is full
+     */
+    public ChunkedBytesSupplier submit(long[] inputIds) {
+        if (inputIds.length == 0) {
+            throw new IllegalArgumentException("inputIds must not be empty");
+        }
+        Request request = new Request(inputIds);
+        // close() drains the queue after taking the write lock, so no request is left behind
+        closeLock.readLock().lock();
+        try {
+            if (closed.get()) {
+                throw new IllegalStateException("Scheduler is closed.");
+            }
+            if (!queue.offer(request)) {
+                throw new IllegalStateException("Generation queue is full: " + queue.size());
+            }
+        } finally {
+            closeLock.readLock().unlock();
+        }
+        return request.output;
+    }
+
+    /**
+     * Returns the number of requests waiting to be admitted.
+     *
+     * @return the number of requests waiting to be admitted
+     */
+    public int getQueueSize() {
+        return queue.size();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void close() {
+        closeLock.writeLock().lock();
+        try {
+            if (!closed.compareAndSet(false, true)) {
+                return;
+            }
+        } finally {
+            closeLock.writeLock().unlock();
+        }
+        thread.interrupt();
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        List<Request> pending = new ArrayList<>();
+        queue.drainTo(pending);
+        for (Request request : pending) {
+            request.complete();
+        }
+        manager.close();
+    }
+
+    private void run() {
+        try {
+            while (!closed.get()) {
+                if (active.isEmpty()) {
+                    Request first = queue.poll(100, TimeUnit.MILLISECONDS);
+                    if (first == null) {
+                        continue;
+                    }
+                    admit(first);
+                } else {
+                    admit(null);
+                }
+                if (!active.isEmpty()) {
+                    step();
+                }
+            }
+        } catch (InterruptedException e) {
+            logger.trace("Continuous batch scheduler interrupted.");
+        } finally {
+            for (Request request : active.values()) {
+                request.complete();
+            }
+            active.clear();
+            reset();
+        }
+    }
+
+    /**
+     * Moves the queued requests that fit into the next step into the running batch.
+     *
+     * @param first the request that is admitted regardless of the token budget, or {@code null}
+     */
+    private void admit(Request first) {
+        List<Request> admitted = new ArrayList<>();
+        int seqLength = 0;
+        if (first != null) {
+            admitted.add(first);
+            seqLength = first.inputIds.length;
+        }
+        while (active.size() + admitted.size() < maxBatchSize) {
+            Request request = queue.peek();
+            if (request == null) {
+                break;
+            }
+            int length = Math.max(seqLength, request.inputIds.length);
+            long tokens = active.size() + (long) length * (admitted.size() + 1);
+            if (tokens > tokenBudget && (!active.isEmpty() || !admitted.isEmpty())) {
+                break;
+            }
+            // only this thread consumes the queue
+            queue.poll();
+            admitted.add(request);
+            seqLength = length;
+        }
+        if (admitted.isEmpty()) {
+            return;
+        }
+
+        // left padding
+        int size = admitted.size();
+        long[] ids = new long[size * seqLength];
+        long[] uids = new long[size];
+        Arrays.fill(ids, scheduler.config.getPadTokenId());
+        for (int i = 0; i < size; ++i) {
+            long[] inputIds = admitted.get(i).inputIds;
+            System.arraycopy(
+                    inputIds, 0, ids, (i + 1) * seqLength - inputIds.length, inputIds.length);
+            uids[i] = nextUid++;
+        }
+        if (metrics != null) {
+            metrics.addMetric("PrefillTokens", ids.length, Unit.COUNT);
+        }
+
+        SeqBatcher seqBatcher = scheduler.seqBatcher;
+        NDArray inputIds = manager.create(ids, new Shape(size, seqLength));
+        NDArray batchUids = manager.create(uids, new Shape(size, 1));
+        try {
+            SeqBatcher added = scheduler.initForward(inputIds, batchUids);
+            if (seqBatcher == null || seqBatcher.getData() == null) {
+                if (seqBatcher != null) {
+                    seqBatcher.manager.close();
+                }
+                scheduler.seqBatcher = added;
+            } else {
+                Set<NDArray> before = state(seqBatcher);
+                before.addAll(state(added));
+                seqBatcher.addBatch(added);
+                release(before, state(seqBatcher));
+                added.manager.close();
+            }
+        } catch (Throwable t) { // NOPMD
+            logger.warn("Failed to add {} requests to the batch", size, t);
+            inputIds.close();
+            batchUids.close();
+            for (Request request : admitted) {
+                request.complete();
+            }
+            return;
+        }
+        for (int i = 0; i < size; ++i) {
+            active.put(uids[i], admitted.get(i));
+        }
+    }
+
+    /** Runs one decoding step, streams the new tokens and evicts the finished sequences. */
+    private void step() {
+        SeqBatcher seqBatcher = scheduler.seqBatcher;
+        Set<NDArray> before = state(seqBatcher);
+        long begin = System.nanoTime();
+        try {
+            NDArray outputIds = scheduler.inferenceCall();
+            long[] tokens = outputIds.toLongArray();
+            long[] uids = seqBatcher.batchUid.toLongArray();
+            long now = System.nanoTime();
+            for (int i = 0; i < uids.length; ++i) {
+                Request request = active.get(uids[i]);
+                if (request != null) {
+                    request.emit(tokens[i], now);
+                }
+            }
+            if (seqBatcher.sequenceComplete()) {
+                for (Map.Entry<Long, NDArray> entry : seqBatcher.collectAndTrim().entrySet()) {
+                    Request request = active.remove(entry.getKey());
+                    if (request != null) {
+                        request.complete();
+                    }
+                    entry.getValue().close();
+                }
+            }
+            before.add(outputIds);
+            release(before, state(seqBatcher));
+            if (metrics != null) {
+                long duration = (System.nanoTime() - begin) / 1000;
+                metrics.addMetric("StepLatency", duration, Unit.MICROSECONDS);
+                metrics.addMetric("BatchSize", uids.length, Unit.COUNT);
+            }
+        } catch (Throwable t) { // NOPMD
+            logger.warn("Generation step failed, dropping {} requests", active.size(), t);
+            for (Request request : active.values()) {
+                request.complete();
+            }
+            active.clear();
+            reset();
+        }
+    }
+
+    /** Drops the search state. */
+    private void reset() {
+        SeqBatcher seqBatcher = scheduler.seqBatcher;
+        if (seqBatcher != null) {
+            release(state(seqBatcher), Collections.emptySet());
+            seqBatcher.manager.close();
+            scheduler.seqBatcher = null;
+        }
+    }
+
+    /**
+     * Returns the arrays that are referenced by the search state.
+     *
+     * @param seqBatcher the {@link SeqBatcher}
+     * @return the arrays that are referenced by the search state
+     */
+    private static Set<NDArray> state(SeqBatcher seqBatcher) {
+        Set<NDArray> set = Collections.newSetFromMap(new IdentityHashMap<>());
+        set.add(seqBatcher.batchUid);
+        set.add(seqBatcher.offSets);
+        BatchTensorList data = seqBatcher.getData();
+        if (data != null) {
+            set.addAll(data.getList());
+            set.add(data.getPastOutputIds());
+            set.add(data.getPastAttentionMask());
+            NDList pastKeyValues = data.getPastKeyValues();
+            if (pastKeyValues != null) {
+                set.addAll(pastKeyValues);
+            }
+        }
+        set.remove(null);
+        return set;
+    }
+
+    /**
+     * Closes the arrays that are no longer referenced by the search state.
+     *
+     * @param before the arrays referenced before an operation
+     * @param after the arrays referenced after the operation
+     */
+    private static void release(Set<NDArray> before, Set<NDArray> after) {
+        for (NDArray array : before) {
+            if (!after.contains(array)) {
+                array.close();
+            }
+        }
+    }
+
+    private final class Request {
+
+        long[] inputIds;
+        ChunkedBytesSupplier output;
+        long begin;
+        long last;
+
+        Request(long[] inputIds) {
+            this.inputIds = inputIds;
+            output = new ChunkedBytesSupplier();
+            begin = System.nanoTime();
+        }
+
+        void emit(long token, long now) {
+            byte[] buf = new byte[8];
+            ByteBuffer.wrap(buf).putLong(token);
+            output.appendContent(buf, false);
+            if (metrics != null) {
+                if (last == 0) {
+                    long ttft = (now - begin) / 1000;
+                    metrics.addMetric("TimeToFirstToken", ttft, Unit.MICROSECONDS);
+                } else {
+                    long itl = (now - last) / 1000;
+                    metrics.addMetric("InterTokenLatency", itl, Unit.MICROSECONDS);
+                }
+            }
+            last = now;
+        }
+
+        void complete() {
+            output.appendContent(new byte[0], true);
+        }
+    }
+
+    /** The Builder to construct a {@link ContinuousBatchScheduler}. */
+    public static final class Builder {
+
+        SeqBatchScheduler scheduler;
+        NDManager manager;
+        int maxBatchSize = 32;
+        int tokenBudget = 2048;
+        int maxQueueSize;
+        Metrics metrics;
+
+        Builder(SeqBatchScheduler scheduler, NDManager manager) {
+            this.scheduler = scheduler;
+            this.manager = manager;
+        }
+
+        /**
+         * Sets the maximum number of sequences in the running batch, default is 32.
+         *
+         * @param maxBatchSize the maximum number of sequences in the running batch
+         * @return this builder
+         */
+        public Builder optMaxBatchSize(int maxBatchSize) {
+            this.maxBatchSize = maxBatchSize;
+            return this;
+        }
+
+        /**
+         * Sets the maximum number of tokens processed by each step, default is 2048.
+         *
+         * <p>A prompt longer than the budget is still admitted when the batch is empty.
+         *
+         * @param tokenBudget the maximum number of tokens processed by each step
+         * @return this builder
+         */
+        public Builder optTokenBudget(int tokenBudget) {
+            this.tokenBudget = tokenBudget;
+            return this;
+        }
+
+        /**
+         * Sets the maximum number of pending requests, default is unbounded.
+         *
+         * @param maxQueueSize the maximum number of pending requests
+         * @return this builder
+         */
+        public Builder optMaxQueueSize(int maxQueueSize) {
+            this.maxQueueSize = maxQueueSize;
+            return this;
+        }
+
+        /**
+         * Sets the {@link Metrics} to record the latency and throughput metrics.
+         *
+         * @param metrics the {@link Metrics} to record into
+         * @return this builder
+         */
+        public Builder optMetrics(Metrics metrics) {
+            this.metrics = metrics;
+            return this;
+        }
+
+        /**
+         * Builds a {@code ContinuousBatchScheduler} and starts its scheduling thread.
+         *
+         * @return a new {@code ContinuousBatchScheduler}
+         */
+        public ContinuousBatchScheduler build() {
+            if (maxBatchSize < 1) {
+                throw new IllegalArgumentException("maxBatchSize must be greater than 0");
+            }
+            if (tokenBudget < 1) {
+                throw new IllegalArgumentException("tokenBudget must be greater than 0");
+            }
+            return new ContinuousBatchScheduler(this);
+        }
+    }
+}
@@ -16,7 +16,6 @@ import ai.djl.inference.Predictor;
 import ai.djl.ndarray.NDArray;
 import ai.djl.ndarray.NDList;
 import ai.djl.ndarray.NDManager;
-import ai.djl.ndarray.index.NDIndex;
 import ai.djl.ndarray.types.DataType;
 import ai.djl.ndarray.types.Shape;
 import ai.djl.translate.TranslateException;
@@ -24,6 +23,7 @@ import ai.djl.translate.TranslateException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.Arrays;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 
@@ -110,7 +110,8 @@ public abstract class SeqBatchScheduler {
      */
     public void addRequest(NDArray inputIds, NDArray batchUids) throws TranslateException {
         SeqBatcher seqBatcherNew = initForward(inputIds, batchUids);
-        if (seqBatcher == null) {
+        if (seqBatcher == null || seqBatcher.getData() == null) {
+            // all the previous sequences have been collected
             seqBatcher = seqBatcherNew;
         } else {
             seqBatcher.addBatch(seqBatcherNew);
@@ -136,59 +137,60 @@ public abstract class SeqBatchScheduler {
      * @return the offsets NDArray
      */
     static NDArray computeOffSets(NDArray inputIds, SearchConfig config) {
+        long[] offSetsArray = offSets(inputIds, config);
+        NDManager manager = inputIds.getManager();
+        return manager.create(offSetsArray, new Shape(offSetsArray.length, 1));
+    }
+
+    /**
+     * Computes the attention mask by linear search from the left.
+     *
+     * @param inputIds input token ids
+     * @param config search configuration
+     * @return the attention mask NDArray
+     */
+    static NDArray computeAttentionMask(NDArray inputIds, SearchConfig config) {
         int numBatch = Math.toIntExact(inputIds.getShape().get(0));
         int initSeqSize = Math.toIntExact(inputIds.getShape().get(1));
+        long[] offSetsArray = offSets(inputIds, config);
 
-        // Linear search from left to find the first position that's not padTokenId.
-        long[] offSetsArray = new long[numBatch];
+        // The left padding is masked out
+        long[] mask = new long[numBatch * initSeqSize];
         for (int i = 0; i < numBatch; i++) {
-            long[] aSequence = inputIds.get("{},:", i).toLongArray();
-            int idx = 0;
-            while (idx < initSeqSize) {
-                if (aSequence[idx] != config.getPadTokenId()) {
-                    break;
-                }
-                idx++;
-            }
-            offSetsArray[i] = idx;
+            int from = i * initSeqSize;
+            Arrays.fill(mask, from + (int) offSetsArray[i], from + initSeqSize, 1L);
         }
 
+        // [batch, pastSeq]
         NDManager manager = inputIds.getManager();
-        return manager.create(offSetsArray).reshape(-1, 1);
+        return manager.create(mask, new Shape(numBatch, initSeqSize));
     }
 
     /**
-     * Computes the attention mask by linear search from the left.
+     * Finds the first position that's not padTokenId of each sequence, with a single copy of the
+     * input token ids.
      *
      * @param inputIds input token ids
      * @param config search configuration
-     * @return the attention mask NDArray
+     * @return the offset of each sequence
      */
-    static NDArray computeAttentionMask(NDArray inputIds, SearchConfig config) {
+    private static long[] offSets(NDArray inputIds, SearchConfig config) {
         int numBatch = Math.toIntExact(inputIds.getShape().get(0));
         int initSeqSize = Math.toIntExact(inputIds.getShape().get(1));
+        long[] ids = inputIds.toLongArray();
+        long padTokenId = config.getPadTokenId();
 
-        NDManager manager = inputIds.getManager();
-        NDArray attentionMask =
-                manager.ones(new Shape(1, inputIds.getShape().getLastDimension()), DataType.INT64)
-                        .reshape(1, -1)
-                        .repeat(0, numBatch);
-
-        // Linear search to find the offset and set the mask
+        // Linear search from left to find the first position that's not padTokenId.
+        long[] offSetsArray = new long[numBatch];
         for (int i = 0; i < numBatch; i++) {
-            long[] aSequence = inputIds.get("{},:", i).toLongArray();
+            int from = i * initSeqSize;
             int idx = 0;
-            while (idx < initSeqSize) {
-                if (aSequence[idx] != config.getPadTokenId()) {
-                    break;
-                }
+            while (idx < initSeqSize && ids[from + idx] == padTokenId) {
                 idx++;
             }
-            attentionMask.set(new NDIndex("{},{}:{}", i, 0, idx), 0);
+            offSetsArray[i] = idx;
         }
-
-        // [batch, pastSeq]
-        return attentionMask;
+        return offSetsArray;
     }
 
     /**
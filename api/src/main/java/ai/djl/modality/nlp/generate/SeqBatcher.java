@@ -17,6 +17,7 @@ import ai.djl.ndarray.NDList;
 import ai.djl.ndarray.NDManager;
 import ai.djl.ndarray.NDScope;
 import ai.djl.ndarray.index.NDIndex;
+import ai.djl.ndarray.index.NDIndexTemplate;
 import ai.djl.ndarray.types.Shape;
 
 import java.util.HashSet;
@@ -31,6 +32,8 @@ import java.util.concurrent.ConcurrentHashMap;
  */
 public class SeqBatcher {
 
+    private static final NDIndexTemplate SEQUENCE = NDIndex.compile("{}, {}:{}");
+
     NDManager manager;
     long batchSize;
     long seqLength;
@@ -210,7 +213,7 @@ public class SeqBatcher {
                 long offSet = offSets.getLong(batchIndex);
                 NDArray output =
                         data.getPastOutputIds()
-                                .get("{}, {}:{}", batchIndex, offSet, seqEndPosition);
+                                .get(SEQUENCE.bind(batchIndex, offSet, seqEndPosition));
                 finishedSequences.put(uid, output);
                 exitIndices.add(batchIndex);
 
@@ -248,32 +251,24 @@ public class SeqBatcher {
             NDList list = data.getList();
             NDList newList = new NDList(list.size());
             long[] seqDimOrder = data.getSeqDimOrder();
+            NDIndex keepIndex = new NDIndex("{}", manager.create(keepIndices));
             for (int i = 0; i < list.size(); i++) {
                 NDArray batch = list.get(i);
-                if (trimSeq == 0) {
-                    // no need to trim
-                    ndIndex = new NDIndex("{}, ...", manager.create(keepIndices));
-                    newList.add(batch.get(ndIndex));
-                    continue;
-                }
-
-                // Get the ndIndex used to keep the entries and trim the rest
-                // Find the ordinal number of the sequence dimension
-                if (seqDimOrder[i] > 0) {
-                    // Has a valid sequence dimension
-                    ndIndex = new NDIndex("{}", manager.create(keepIndices));
+                if (trimSeq > 0 && seqDimOrder[i] > 0) {
+                    // Find the ordinal number of the sequence dimension and trim it first, so that
+                    // the take below only copies the kept tokens
+                    ndIndex = new NDIndex(":");
                     int order = 1;
                     while (order < seqDimOrder[i]) {
                         ndIndex = ndIndex.addAllDim();
                         order++;
                     }
                     ndIndex = ndIndex.addSliceDim(trimSeq, seqLength).addEllipseDim();
-                } else {
-                    // Only batch dimension, no valid sequence dimension
-                    ndIndex = new NDIndex("{}, ...", manager.create(keepIndices));
+                    batch = batch.get(ndIndex);
                 }
-                // Keep the indexed entries and trim the rest
-                newList.add(batch.get(ndIndex));
+                // Keep the indexed entries, the slice and the take are separate gets so that
+                // every engine supports them
+                newList.add(batch.get(keepIndex));
             }
             data = data.fromList(newList, data.getSeqDimOrder());
 
@@ -15,6 +15,7 @@ package ai.djl.modality.nlp.generate;
 import ai.djl.ndarray.NDArray;
 import ai.djl.ndarray.NDList;
 import ai.djl.ndarray.index.NDIndex;
+import ai.djl.ndarray.index.NDIndexTemplate;
 import ai.djl.ndarray.types.DataType;
 import ai.djl.ndarray.types.Shape;
 
@@ -24,6 +25,8 @@ import ai.djl.ndarray.types.Shape;
  */
 public final class StepGeneration {
 
+    private static final NDIndexTemplate PAST_SLICE = NDIndex.compile("{}, :, {}:{}");
+
     private StepGeneration() {}
 
     /**
@@ -69,7 +72,7 @@ public final class StepGeneration {
         // Deactivate entries (batch_idx, :, zero_attention_idx_slice) in max{cosSim} step
         long[] offSetsArray = offSets.toLongArray();
         for (int i = 0; i < offSetsArray.length; i++) {
-            cosSimilarity.set(new NDIndex("{}, :, {}:{}", i, 0, offSetsArray[i]), -1);
+            cosSimilarity.set(PAST_SLICE.bind(i, 0, offSetsArray[i]), -1);
         }
 
         // [batch, topK, past_seq] -> [batch, topK]
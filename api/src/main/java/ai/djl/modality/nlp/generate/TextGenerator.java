@@ -18,6 +18,7 @@ import ai.djl.ndarray.NDList;
 import ai.djl.ndarray.NDManager;
 import ai.djl.ndarray.NDScope;
 import ai.djl.ndarray.index.NDIndex;
+import ai.djl.ndarray.index.NDIndexTemplate;
 import ai.djl.ndarray.types.DataType;
 import ai.djl.ndarray.types.Shape;
 import ai.djl.translate.TranslateException;
@@ -35,6 +36,8 @@ import java.util.stream.Collectors;
  */
 public class TextGenerator {
 
+    private static final NDIndexTemplate ROW = NDIndex.compile("{},:");
+
     private String searchName;
     private SearchConfig config;
     private Predictor<NDList, CausalLMOutput> predictor;
@@ -522,7 +525,7 @@ public class TextGenerator {
         // Linear search from left to find the first position that's not padTokenId.
         long[][] offset = new long[numBatch][1];
         for (int i = 0; i < numBatch; i++) {
-            long[] aSequence = inputIds.get("{},:", i).toLongArray();
+            long[] aSequence = inputIds.get(ROW.bind(i)).toLongArray();
             int idx = 0;
             while (idx < initSeqSize) {
                 if (suffixPadding && aSequence[idx] == config.getPadTokenId()
@@ -91,7 +91,7 @@ public class CrossEncoderServingTranslator implements NoBatchifyTranslator<Input
         Batchifier batchifier = translator.getBatchifier();
         if (batchifier != null) {
             NDList[] batch = {ret};
-            return batchifier.batchify(batch);
+            return batchifier.batchify(ctx, batch);
         }
         return ret;
     }
@@ -106,7 +106,7 @@ public class CrossEncoderServingTranslator implements NoBatchifyTranslator<Input
         } else {
             Batchifier batchifier = translator.getBatchifier();
             if (batchifier != null) {
-                list = batchifier.unbatchify(list)[0];
+                list = batchifier.unbatchify(ctx, list)[0];
             }
             output.add(BytesSupplier.wrapAsJson(translator.processOutput(ctx, list)));
         }
@@ -96,7 +96,7 @@ public class QaServingTranslator implements NoBatchifyTranslator<Input, Output>
         Batchifier batchifier = translator.getBatchifier();
         if (batchifier != null) {
             NDList[] batch = {ret};
-            return batchifier.batchify(batch);
+            return batchifier.batchify(ctx, batch);
         }
         return ret;
     }
@@ -111,7 +111,7 @@ public class QaServingTranslator implements NoBatchifyTranslator<Input, Output>
         } else {
             Batchifier batchifier = translator.getBatchifier();
             if (batchifier != null) {
-                list = batchifier.unbatchify(list)[0];
+                list = batchifier.unbatchify(ctx, list)[0];
             }
             output.add(translator.processOutput(ctx, list));
         }
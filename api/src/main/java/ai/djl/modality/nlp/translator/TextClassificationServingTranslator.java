@@ -68,7 +68,7 @@ public class TextClassificationServingTranslator implements NoBatchifyTranslator
         Batchifier batchifier = translator.getBatchifier();
         if (batchifier != null) {
             NDList[] batch = {ret};
-            return batchifier.batchify(batch);
+            return batchifier.batchify(ctx, batch);
         }
         return ret;
     }
@@ -83,7 +83,7 @@ public class TextClassificationServingTranslator implements NoBatchifyTranslator
         } else {
             Batchifier batchifier = translator.getBatchifier();
             if (batchifier != null) {
-                list = batchifier.unbatchify(list)[0];
+                list = batchifier.unbatchify(ctx, list)[0];
             }
             output.add(translator.processOutput(ctx, list));
         }
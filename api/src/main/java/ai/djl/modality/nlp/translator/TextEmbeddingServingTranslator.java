@@ -64,7 +64,7 @@ public class TextEmbeddingServingTranslator implements NoBatchifyTranslator<Inpu
         Batchifier batchifier = translator.getBatchifier();
         if (batchifier != null) {
             NDList[] batch = {ret};
-            return batchifier.batchify(batch);
+            return batchifier.batchify(ctx, batch);
         }
         return ret;
     }
@@ -79,7 +79,7 @@ public class TextEmbeddingServingTranslator implements NoBatchifyTranslator<Inpu
         } else {
             Batchifier batchifier = translator.getBatchifier();
             if (batchifier != null) {
-                list = batchifier.unbatchify(list)[0];
+                list = batchifier.unbatchify(ctx, list)[0];
             }
             output.add(BytesSupplier.wrapAsJson(translator.processOutput(ctx, list)));
         }
@@ -67,7 +67,7 @@ public class TokenClassificationServingTranslator implements NoBatchifyTranslato
         Batchifier batchifier = translator.getBatchifier();
         if (batchifier != null) {
             NDList[] batch = {ret};
-            return batchifier.batchify(batch);
+            return batchifier.batchify(ctx, batch);
         }
         return ret;
     }
@@ -82,7 +82,7 @@ public class TokenClassificationServingTranslator implements NoBatchifyTranslato
         } else {
             Batchifier batchifier = translator.getBatchifier();
             if (batchifier != null) {
-                list = batchifier.unbatchify(list)[0];
+                list = batchifier.unbatchify(ctx, list)[0];
             }
             output.add(BytesSupplier.wrapAsJson(translator.processOutput(ctx, list)));
         }
@@ -24,6 +24,7 @@ import org.slf4j.LoggerFactory;
 
 import java.nio.Buffer;
 import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 import java.nio.DoubleBuffer;
 import java.nio.FloatBuffer;
 import java.nio.IntBuffer;
@@ -32,9 +33,13 @@ import java.nio.ShortBuffer;
 import java.nio.charset.Charset;
 import java.nio.file.Path;
 import java.util.List;
+import java.util.Queue;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -43,6 +48,18 @@ public abstract class BaseNDManager implements NDManager {
 
     private static final Logger logger = LoggerFactory.getLogger(BaseNDManager.class);
 
+    // resources are attached and detached under a lock striped by resource id, so that threads
+    // working with different arrays of a shared manager don't contend
+    private static final Object[] LOCKS = new Object[64];
+    private static final String UID_PREFIX = UUID.randomUUID().toString().substring(0, 24);
+    private static final AtomicLong UID_COUNTER = new AtomicLong();
+
+    static {
+        for (int i = 0; i < LOCKS.length; ++i) {
+            LOCKS[i] = new Object();
+        }
+    }
+
     protected NDManager parent;
     protected NDManager alternativeManager;
     protected String uid;
@@ -52,6 +69,9 @@ public abstract class BaseNDManager implements NDManager {
     protected ConcurrentHashMap<String, TempResource> tempResources;
     protected AtomicBoolean closed = new AtomicBoolean(false);
     protected AtomicBoolean capped = new AtomicBoolean(false);
+    private LongAdder liveArrays = new LongAdder();
+    private DirectBufferPool bufferPool;
+    private Queue<ByteBuffer> leasedBuffers;
 
     @SuppressWarnings("this-escape")
     protected BaseNDManager(NDManager parent, Device device) {
@@ -59,7 +79,10 @@ public abstract class BaseNDManager implements NDManager {
         this.device = device == null ? defaultDevice() : device;
         resources = new ConcurrentHashMap<>();
         tempResources = new ConcurrentHashMap<>();
-        uid = UUID.randomUUID().toString();
+        uid = newUid();
+        if (parent instanceof BaseNDManager) {
+            setBufferPool(((BaseNDManager) parent).bufferPool);
+        }
         Engine engine = getEngine().getAlternativeEngine();
         if (engine != null) {
             alternativeManager = engine.newBaseManager(Device.cpu());
@@ -72,6 +95,44 @@ public abstract class BaseNDManager implements NDManager {
         return getEngine().defaultDevice();
     }
 
+    /** {@inheritDoc} */
+    @Override
+    public ByteBuffer allocateDirect(int capacity) {
+        if (bufferPool == null || closed.get()) {
+            return ByteBuffer.allocateDirect(capacity).order(ByteOrder.nativeOrder());
+        }
+        ByteBuffer buf = bufferPool.acquire(capacity);
+        leasedBuffers.add(buf);
+        ByteBuffer view = buf.duplicate();
+        view.limit(capacity);
+        return view.slice().order(ByteOrder.nativeOrder());
+    }
+
+    /**
+     * Returns the {@link DirectBufferPool} used by {@link #allocateDirect(int)}.
+     *
+     * @return the {@link DirectBufferPool}, or {@code null} if buffers are not pooled
+     */
+    public DirectBufferPool getBufferPool() {
+        return bufferPool;
+    }
+
+    /**
+     * Sets the {@link DirectBufferPool} used by {@link #allocateDirect(int)} of this manager and
+     * the sub-managers created afterwards.
+     *
+     * <p>The buffers are returned to the pool when this manager is closed, see {@link
+     * DirectBufferPool} for the restrictions this implies on the {@link NDArray}s.
+     *
+     * @param bufferPool the {@link DirectBufferPool}, or {@code null} to not pool buffers
+     */
+    public void setBufferPool(DirectBufferPool bufferPool) {
+        if (bufferPool != null && leasedBuffers == null) {
+            leasedBuffers = new ConcurrentLinkedQueue<>();
+        }
+        this.bufferPool = bufferPool;
+    }
+
     /** {@inheritDoc} */
     @Override
     public NDArray create(String[] data, Charset charset, Shape shape) {
@@ -304,7 +365,7 @@ public abstract class BaseNDManager implements NDManager {
 
     /** {@inheritDoc} */
     @Override
-    public synchronized void attachInternal(String resourceId, AutoCloseable... resources) {
+    public void attachInternal(String resourceId, AutoCloseable... resources) {
         if (capped.get()) {
             throw new IllegalStateException("NDManager is capped for addition of resources.");
         }
@@ -316,26 +377,22 @@ public abstract class BaseNDManager implements NDManager {
 
     /** {@inheritDoc} */
     @Override
-    public synchronized void attachUncappedInternal(String resourceId, AutoCloseable resource) {
+    public void attachUncappedInternal(String resourceId, AutoCloseable resource) {
         if (closed.get()) {
             throw new IllegalStateException("NDManager has been closed already.");
         }
-        tempResources.compute(
-                resourceId,
-                (key, tempResource) -> {
-                    if (tempResource != null) {
-                        // This state occurs when this manager (manA) tempAttaches a resource that
-                        // is later
-                        // tempAttached to another manager (manB)
-                        // When manB is closed, it will use attach to return the resource to this
-                        // (manA)
-                        // In that case, it should stay as a tempResource in this (manA)
-                        tempResource.detached = false;
-                    } else {
-                        resources.put(resourceId, resource);
-                    }
-                    return tempResource;
-                });
+        synchronized (lock(resourceId)) {
+            TempResource tempResource = tempResources.get(resourceId);
+            if (tempResource != null) {
+                // This state occurs when this manager (manA) tempAttaches a resource that is later
+                // tempAttached to another manager (manB)
+                // When manB is closed, it will use attach to return the resource to this (manA)
+                // In that case, it should stay as a tempResource in this (manA)
+                tempResource.detached = false;
+            } else if (resources.put(resourceId, resource) == null && resource instanceof NDArray) {
+                liveArrays.increment();
+            }
+        }
     }
 
     /** {@inheritDoc} */
@@ -354,18 +411,52 @@ public abstract class BaseNDManager implements NDManager {
 
     /** {@inheritDoc} */
     @Override
-    public synchronized void detachInternal(String resourceId) {
+    public void detachInternal(String resourceId) {
         if (closed.get()) {
             // This may happen in the middle of BaseNDManager.close()
             return;
         }
-        tempResources.computeIfPresent(
-                resourceId,
-                (key, tempResource) -> {
-                    tempResource.detached = true;
-                    return tempResource;
-                });
-        resources.remove(resourceId);
+        synchronized (lock(resourceId)) {
+            TempResource tempResource = tempResources.get(resourceId);
+            if (tempResource != null) {
+                tempResource.detached = true;
+            }
+            if (resources.remove(resourceId) instanceof NDArray) {
+                liveArrays.decrement();
+            }
+        }
+    }
+
+    /**
+     * Returns the number of {@link NDArray}s attached to this manager, excluding the arrays of the
+     * sub-managers.
+     *
+     * @return the number of {@link NDArray}s attached to this manager
+     */
+    public long getLiveArrayCount() {
+        return liveArrays.sum();
+    }
+
+    /**
+     * Returns the total size in bytes of the {@link NDArray}s attached to this manager, excluding
+     * the arrays of the sub-managers.
+     *
+     * <p>The size is computed from the shape and data type of each array when this method is
+     * called.
+     *
+     * @return the total size in bytes of the {@link NDArray}s attached to this manager
+     */
+    public long getLiveBytes() {
+        long bytes = 0;
+        for (AutoCloseable resource : resources.values()) {
+            if (resource instanceof NDArray) {
+                NDArray array = (NDArray) resource;
+                if (!array.isReleased()) {
+                    bytes += array.size() * array.getDataType().getNumOfBytes();
+                }
+            }
+        }
+        return bytes;
     }
 
     /** {@inheritDoc} */
@@ -403,6 +494,13 @@ public abstract class BaseNDManager implements NDManager {
             parent.detachInternal(uid);
             resources.clear();
             tempResources.clear();
+            liveArrays.reset();
+            if (leasedBuffers != null && bufferPool != null) {
+                ByteBuffer buf;
+                while ((buf = leasedBuffers.poll()) != null) {
+                    bufferPool.release(buf);
+                }
+            }
         }
     }
 
@@ -429,6 +527,27 @@ public abstract class BaseNDManager implements NDManager {
         }
     }
 
+    /**
+     * Returns a new unique id for a manager or an {@link NDArray}.
+     *
+     * <p>The ids have the format of a {@link UUID}, but are generated from a counter, which is a
+     * lot cheaper than {@link UUID#randomUUID()} for short-lived arrays.
+     *
+     * @return a new unique id
+     */
+    public static String newUid() {
+        String counter = Long.toHexString(UID_COUNTER.incrementAndGet());
+        StringBuilder sb = new StringBuilder(36).append(UID_PREFIX);
+        for (int i = counter.length(); i < 12; ++i) {
+            sb.append('0');
+        }
+        return sb.append(counter).toString();
+    }
+
+    private static Object lock(String resourceId) {
+        return LOCKS[resourceId.hashCode() & (LOCKS.length - 1)];
+    }
+
     NDManager getAlternativeManager() {
         return alternativeManager;
     }
@@ -0,0 +1,228 @@
+/*
+ * Copyright 2024 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ * with the License. A copy of the License is located at
+ *
+ * http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES
+ * OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package ai.djl.ndarray;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A pool of direct {@link ByteBuffer}s bucketed by power of two size classes.
+ *
+ * <p>Allocating a direct buffer is expensive, and its memory is only released when the buffer is
+ * garbage collected. A {@code DirectBufferPool} set on a {@link BaseNDManager} with {@link
+ * BaseNDManager#setBufferPool(DirectBufferPool)} serves {@link NDManager#allocateDirect(int)} of
+ * the manager and its sub-managers, and takes the buffers back when the manager that allocated them
+ * is closed.
+ *
+ * <p>Depending on the engine, an {@link NDArray} created from a direct buffer may share its memory.
+ * With a pool, the {@link NDArray}s created from the buffers of a manager must not outlive this
+ * manager, for example by being attached to another manager.
+ */
+public final class DirectBufferPool {
+
+    private static final int MIN_SIZE_CLASS = 6;
+
+    private long maxBytes;
+    private int maxSizeClass;
+    private List<ConcurrentLinkedDeque<ByteBuffer>> buckets;
+    private AtomicLong pooledBytes;
+    private AtomicLong outstandingBytes;
+    private LongAdder hits;
+    private LongAdder misses;
+
+    DirectBufferPool(Builder builder) {
+        maxBytes = builder.maxBytes;
+        maxSizeClass = sizeClass(builder.maxBufferSize);
+        buckets = new ArrayList<>(maxSizeClass + 1);
+        for (int i = 0; i <= maxSizeClass; ++i) {
+            buckets.add(new ConcurrentLinkedDeque<>());
+        }
+        pooledBytes = new AtomicLong();
+        outstandingBytes = new AtomicLong();
+        hits = new LongAdder();
+        misses = new LongAdder();
+    }
+
+    /**
+     * Takes a buffer of at least the capacity from the pool, or allocates a new one.
+     *
+     * <p>The first {@code capacity} bytes of the buffer are zero, like for a newly allocated direct
+     * buffer. The buffer should be returned with {@link #release(ByteBuffer)}.
+     *
+     * @param capacity the minimum capacity of the buffer, in bytes
+     * @return a buffer of at least the capacity
+     */
+    public ByteBuffer acquire(int capacity) {
+        int sizeClass = sizeClass(capacity);
+        if (sizeClass > maxSizeClass) {
+            misses.increment();
+            outstandingBytes.addAndGet(capacity);
+            return ByteBuffer.allocateDirect(capacity).order(ByteOrder.nativeOrder());
+        }
+        int size = 1 << sizeClass;
+        outstandingBytes.addAndGet(size);
+        ByteBuffer buf = buckets.get(sizeClass).pollFirst();
+        if (buf == null) {
+            misses.increment();
+            return ByteBuffer.allocateDirect(size).order(ByteOrder.nativeOrder());
+        }
+        hits.increment();
+        pooledBytes.addAndGet(-size);
+        buf.clear();
+        int i = 0;
+        for (; i + 8 <= capacity; i += 8) {
+            buf.putLong(i, 0);
+        }
+        for (; i < capacity; ++i) {
+            buf.put(i, (byte) 0);
+        }
+        return buf;
+    }
+
+    /**
+     * Returns a buffer taken with {@link #acquire(int)} to the pool.
+     *
+     * <p>The buffer is dropped if it doesn't fit in a size class, or if the pool would exceed its
+     * memory cap.
+     *
+     * @param buf the buffer to return
+     */
+    public void release(ByteBuffer buf) {
+        int size = buf.capacity();
+        outstandingBytes.addAndGet(-size);
+        int sizeClass = sizeClass(size);
+        if (sizeClass > maxSizeClass || size != 1 << sizeClass) {
+            return;
+        }
+        if (pooledBytes.addAndGet(size) > maxBytes) {
+            pooledBytes.addAndGet(-size);
+            return;
+        }
+        buckets.get(sizeClass).offerFirst(buf);
+    }
+
+    /**
+     * Returns the number of {@link #acquire(int)} served from the pool.
+     *
+     * @return the number of {@link #acquire(int)} served from the pool
+     */
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    /**
+     * Returns the number of {@link #acquire(int)} that allocated a new buffer.
+     *
+     * @return the number of {@link #acquire(int)} that allocated a new buffer
+     */
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    /**
+     * Returns the size in bytes of the buffers taken from the pool and not returned yet.
+     *
+     * @return the size in bytes of the buffers taken from the pool and not returned yet
+     */
+    public long getOutstandingBytes() {
+        return outstandingBytes.get();
+    }
+
+    /**
+     * Returns the size in bytes of the idle buffers kept in the pool.
+     *
+     * @return the size in bytes of the idle buffers kept in the pool
+     */
+    public long getPooledBytes() {
+        return pooledBytes.get();
+    }
+
+    /** Drops all the idle buffers of the pool. */
+    public void clear() {
+        for (ConcurrentLinkedDeque<ByteBuffer> bucket : buckets) {
+            ByteBuffer buf;
+            while ((buf = bucket.pollFirst()) != null) {
+                pooledBytes.addAndGet(-buf.capacity());
+            }
+        }
+    }
+
+    private static int sizeClass(int capacity) {
+        if (capacity <= 1 << MIN_SIZE_CLASS) {
+            return MIN_SIZE_CLASS;
+        }
+        return 32 - Integer.numberOfLeadingZeros(capacity - 1);
+    }
+
+    /**
+     * Creates a builder to build a {@code DirectBufferPool}.
+     *
+     * @return a new builder
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /** The Builder to construct a {@link DirectBufferPool}. */
+    public static final class Builder {
+
+        long maxBytes = 256L * 1024 * 1024;
+        int maxBufferSize = 64 * 1024 * 1024;
+
+        Builder() {}
+
+        /**
+         * Sets the maximum size in bytes of the idle buffers kept in the pool, 256MB by default.
+         *
+         * @param maxBytes the maximum size in bytes of the idle buffers kept in the pool
+         * @return this builder
+         */
+        public Builder optMaxBytes(long maxBytes) {
+            this.maxBytes = maxBytes;
+            return this;
+        }
+
+        /**
+         * Sets the size of the largest buffer kept in the pool, 64MB by default.
+         *
+         * <p>Larger buffers are allocated and dropped as without pool.
+         *
+         * @param maxBufferSize the size of the largest buffer kept in the pool, in bytes
+         * @return this builder
+         */
+        public Builder optMaxBufferSize(int maxBufferSize) {
+            this.maxBufferSize = maxBufferSize;
+            return this;
+        }
+
+        /**
+         * Builds the {@link DirectBufferPool}.
+         *
+         * @return the new {@link DirectBufferPool}
+         */
+        public DirectBufferPool build() {
+            if (maxBytes < 0) {
+                throw new IllegalArgumentException("maxBytes must not be negative: " + maxBytes);
+            }
+            if (maxBufferSize <= 0 || maxBufferSize > 1 << 30) {
+                throw new IllegalArgumentException("Invalid maxBufferSize: " + maxBufferSize);
+            }
+            return new DirectBufferPool(this);
+        }
+    }
+}
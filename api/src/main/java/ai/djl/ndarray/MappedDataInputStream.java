@@ -0,0 +1,290 @@
+/*
+ * Copyright 2024 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ * with the License. A copy of the License is located at
+ *
+ * http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES
+ * OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package ai.djl.ndarray;
+
+import ai.djl.ndarray.types.DataType;
+import ai.djl.ndarray.types.Shape;
+
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * A {@link DataInputStream} over a file that memory maps the {@link NDArray} data instead of
+ * copying it to the java heap.
+ *
+ * <p>The headers are read through a small buffer, while the data of each {@link NDArray} is mapped
+ * with {@link FileChannel#map(FileChannel.MapMode, long, long)} and handed to {@link
+ * NDManager#create(java.nio.Buffer, Shape, DataType)} as is. Decoding methods such as {@link
+ * NDList#decode(NDManager, InputStream)}, {@link NDManager#decode(InputStream)} and {@link
+ * ai.djl.nn.Block#loadParameters(NDManager, DataInputStream)} detect this stream and take the
+ * zero-copy path. The mapped regions remain valid after the stream is closed.
+ */
+public class MappedDataInputStream extends DataInputStream {
+
+    /**
+     * Opens a {@code MappedDataInputStream} for the file.
+     *
+     * @param file the file to read
+     * @throws IOException if the file cannot be opened
+     */
+    public MappedDataInputStream(Path file) throws IOException {
+        super(new ChannelInputStream(FileChannel.open(file, StandardOpenOption.READ)));
+    }
+
+    /**
+     * Returns the position of the next byte to read in the file.
+     *
+     * @return the position of the next byte to read in the file
+     */
+    public long position() {
+        return channel().position();
+    }
+
+    /**
+     * Moves the stream to the position in the file.
+     *
+     * @param position the new position
+     */
+    public void seek(long position) {
+        channel().seek(position);
+    }
+
+    /**
+     * Returns the size of the file.
+     *
+     * @return the size of the file
+     * @throws IOException if the size cannot be read
+     */
+    public long length() throws IOException {
+        return channel().channel.size();
+    }
+
+    /**
+     * Maps a region of the file into memory in read-only mode, without moving the stream.
+     *
+     * @param position the position of the region in the file
+     * @param length the length of the region in bytes
+     * @return the mapped region
+     * @throws IOException if the region is outside the file or cannot be mapped
+     */
+    public ByteBuffer map(long position, long length) throws IOException {
+        if (position < 0 || length < 0 || position + length > length()) {
+            throw new EOFException(
+                    "Region [" + position + ", " + (position + length) + ") is out of file bounds");
+        }
+        return channel().channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+    }
+
+    /**
+     * Reads the header of the next encoded {@link NDArray} and maps its data, without creating the
+     * {@link NDArray}.
+     *
+     * <p>This allows to defer the copy into the engine until the {@link NDArray} is actually used.
+     *
+     * @param manager the {@link NDManager} to create the {@link NDArray} with
+     * @return the mapped {@link NDArray}
+     * @throws IOException if the data is malformed
+     */
+    public MappedArray readArray(NDManager manager) throws IOException {
+        return NDSerializer.decodeMapped(manager, this);
+    }
+
+    private ChannelInputStream channel() {
+        return (ChannelInputStream) in;
+    }
+
+    /** An encoded {@link NDArray} whose data is mapped, but not yet loaded into the engine. */
+    public static final class MappedArray {
+
+        private NDManager manager;
+        private String name;
+        private Shape shape;
+        private DataType dataType;
+        private ByteBuffer data;
+
+        MappedArray(
+                NDManager manager, String name, Shape shape, DataType dataType, ByteBuffer data) {
+            this.manager = manager;
+            this.name = name;
+            this.shape = shape;
+            this.dataType = dataType;
+            this.data = data;
+        }
+
+        /**
+         * Returns the name of the {@link NDArray}.
+         *
+         * @return the name of the {@link NDArray}
+         */
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * Returns the shape of the {@link NDArray}.
+         *
+         * @return the shape of the {@link NDArray}
+         */
+        public Shape getShape() {
+            return shape;
+        }
+
+        /**
+         * Returns the data type of the {@link NDArray}.
+         *
+         * @return the data type of the {@link NDArray}
+         */
+        public DataType getDataType() {
+            return dataType;
+        }
+
+        /**
+         * Creates the {@link NDArray} over the mapped data.
+         *
+         * @return the {@link NDArray}
+         */
+        public NDArray toNDArray() {
+            ByteOrder order = data.order();
+            ByteBuffer bb = data.duplicate();
+            bb.order(order);
+            NDArray array = manager.create(bb, shape, dataType);
+            array.setName(name);
+            return array;
+        }
+    }
+
+    /** A buffered {@link InputStream} over a {@link FileChannel} that supports seeking. */
+    private static final class ChannelInputStream extends InputStream {
+
+        private static final int BUFFER_SIZE = 8192;
+
+        FileChannel channel;
+        private ByteBuffer buf;
+        private long end;
+        private long mark;
+
+        ChannelInputStream(FileChannel channel) {
+            this.channel = channel;
+            buf = ByteBuffer.allocate(BUFFER_SIZE);
+            buf.limit(0);
+        }
+
+        long position() {
+            return end - buf.remaining();
+        }
+
+        void seek(long position) {
+            long start = end - buf.limit();
+            if (position >= start && position <= end) {
+                buf.position((int) (position - start));
+            } else {
+                buf.limit(0);
+                end = position;
+            }
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public int read() throws IOException {
+            if (!buf.hasRemaining() && fill() <= 0) {
+                return -1;
+            }
+            return buf.get() & 0xFF;
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (len == 0) {
+                return 0;
+            }
+            if (!buf.hasRemaining()) {
+                if (len >= BUFFER_SIZE) {
+                    // large reads bypass the buffer
+                    int n = channel.read(ByteBuffer.wrap(b, off, len), end);
+                    if (n > 0) {
+                        buf.limit(0);
+                        end += n;
+                    }
+                    return n;
+                }
+                if (fill() <= 0) {
+                    return -1;
+                }
+            }
+            int n = Math.min(len, buf.remaining());
+            buf.get(b, off, n);
+            return n;
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public long skip(long n) throws IOException {
+            if (n <= 0) {
+                return 0;
+            }
+            long position = position();
+            long skipped = Math.min(n, Math.max(0, channel.size() - position));
+            seek(position + skipped);
+            return skipped;
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public int available() throws IOException {
+            long remaining = channel.size() - position();
+            return (int) Math.min(Integer.MAX_VALUE, Math.max(0, remaining));
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public boolean markSupported() {
+            return true;
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public synchronized void mark(int readLimit) {
+            mark = position();
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public synchronized void reset() {
+            seek(mark);
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+
+        private int fill() throws IOException {
+            buf.clear();
+            int n = channel.read(buf, end);
+            buf.flip();
+            if (n > 0) {
+                end += n;
+            }
+            return n;
+        }
+    }
+}
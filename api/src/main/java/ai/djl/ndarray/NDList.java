@@ -21,6 +21,7 @@ import ai.djl.util.Pair;
 import com.google.gson.JsonObject;
 import com.google.gson.annotations.SerializedName;
 
+import java.io.BufferedInputStream;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.DataInputStream;
@@ -33,6 +34,8 @@ import java.nio.BufferUnderflowException;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
@@ -54,6 +57,7 @@ import java.util.zip.ZipOutputStream;
 public class NDList extends ArrayList<NDArray> implements NDResource, BytesSupplier {
 
     private static final long serialVersionUID = 1L;
+    private static final int HEADER_ALIGN = 64;
 
     /** Constructs an empty NDList. */
     public NDList() {}
@@ -137,10 +141,19 @@ public class NDList extends ArrayList<NDArray> implements NDResource, BytesSuppl
         try {
             DataInputStream dis = new DataInputStream(is);
             byte[] magic = new byte[9];
-            dis.readFully(magic);
-
-            PushbackInputStream pis = new PushbackInputStream(is, 9);
-            pis.unread(magic);
+            InputStream pis;
+            if (is instanceof MappedDataInputStream) {
+                // keep the stream type so that the NDArrays can be mapped
+                is.mark(magic.length);
+                dis.readFully(magic);
+                is.reset();
+                pis = is;
+            } else {
+                dis.readFully(magic);
+                PushbackInputStream pushback = new PushbackInputStream(is, 9);
+                pushback.unread(magic);
+                pis = pushback;
+            }
             if (magic[0] == 'P' && magic[1] == 'K') {
                 // assume this is npz file
                 return decodeNumpy(manager, pis);
@@ -153,7 +166,11 @@ public class NDList extends ArrayList<NDArray> implements NDResource, BytesSuppl
                 return decodeSafetensors(manager, pis);
             }
 
-            dis = new DataInputStream(pis);
+            if (pis instanceof DataInputStream) {
+                dis = (DataInputStream) pis;
+            } else {
+                dis = new DataInputStream(pis);
+            }
             int size = dis.readInt();
             if (size < 0) {
                 throw new IllegalArgumentException("Invalid NDList size: " + size);
@@ -168,6 +185,31 @@ public class NDList extends ArrayList<NDArray> implements NDResource, BytesSuppl
         }
     }
 
+    /**
+     * Loads NDList from a file.
+     *
+     * <p>When {@code mmap} is enabled, the file is memory mapped and the {@link NDArray}s are
+     * created directly over the mapped regions of the file instead of being copied to the java heap
+     * first. This applies to the ndlist and safetensors formats, npz and npy files are always read
+     * through a stream.
+     *
+     * @param manager manager assigned to {@link NDArray}
+     * @param path the file to load from
+     * @param mmap true to memory map the file
+     * @return {@code NDList}
+     * @throws IOException if the file cannot be read
+     */
+    public static NDList load(NDManager manager, Path path, boolean mmap) throws IOException {
+        if (mmap) {
+            try (MappedDataInputStream mis = new MappedDataInputStream(path)) {
+                return decode(manager, mis);
+            }
+        }
+        try (InputStream is = new BufferedInputStream(Files.newInputStream(path))) {
+            return decode(manager, is);
+        }
+    }
+
     private static NDList decodeSafetensors(NDManager manager, InputStream is) throws IOException {
         DataInputStream dis;
         if (is instanceof DataInputStream) {
@@ -185,7 +227,7 @@ public class NDList extends ArrayList<NDArray> implements NDResource, BytesSuppl
         // rust implementation sort by name, our implementation preserve the order.
         JsonObject jsonObject = JsonUtils.GSON.fromJson(json, JsonObject.class);
         List<Pair<String, SafeTensor>> list = new ArrayList<>();
-        int max = 0;
+        long max = 0;
         for (String key : jsonObject.keySet()) {
             if ("__metadata__".equals(key)) {
                 continue;
@@ -197,8 +239,16 @@ public class NDList extends ArrayList<NDArray> implements NDResource, BytesSuppl
             max = Math.max(max, value.offsets[1]);
             list.add(new Pair<>(key, value));
         }
-        buf = new byte[max];
-        dis.readFully(buf);
+        MappedDataInputStream mis = null;
+        long base = 0;
+        if (is instanceof MappedDataInputStream) {
+            mis = (MappedDataInputStream) is;
+            base = mis.position();
+            mis.seek(base + max);
+        } else {
+            buf = new byte[Math.toIntExact(max)];
+            dis.readFully(buf);
+        }
         NDList ret = new NDList(list.size());
         for (Pair<String, SafeTensor> pair : list) {
             if ("__metadata__".equals(pair.getKey())) {
@@ -206,7 +256,12 @@ public class NDList extends ArrayList<NDArray> implements NDResource, BytesSuppl
             }
             SafeTensor st = pair.getValue();
             Shape shape = new Shape(st.shape);
-            ByteBuffer bb = ByteBuffer.wrap(buf, st.offsets[0], st.size());
+            ByteBuffer bb;
+            if (mis != null) {
+                bb = mis.map(base + st.offsets[0], st.size());
+            } else {
+                bb = ByteBuffer.wrap(buf, Math.toIntExact(st.offsets[0]), st.size());
+            }
             bb.order(ByteOrder.LITTLE_ENDIAN);
             DataType dataType = DataType.fromSafetensors(st.dtype);
             NDArray array = manager.create(bb, shape, dataType);
@@ -457,7 +512,7 @@ public class NDList extends ArrayList<NDArray> implements NDResource, BytesSuppl
         } else if (encoding == Encoding.SAFETENSORS) {
             Map<String, SafeTensor> map = new ConcurrentHashMap<>(size());
             int i = 0;
-            int offset = 0;
+            long offset = 0;
             for (NDArray nd : this) {
                 String name = nd.getName();
                 if (name == null) {
@@ -467,19 +522,23 @@ public class NDList extends ArrayList<NDArray> implements NDResource, BytesSuppl
                 SafeTensor st = new SafeTensor();
                 st.dtype = nd.getDataType().asSafetensors();
                 st.shape = nd.getShape().getShape();
-                long size = nd.getDataType().getNumOfBytes() * nd.size();
-                int limit = offset + Math.toIntExact(size);
-                st.offsets = new int[] {offset, limit};
+                long limit = offset + nd.getDataType().getNumOfBytes() * nd.size();
+                st.offsets = new long[] {offset, limit};
                 map.put(name, st);
                 offset = limit;
             }
             byte[] json = JsonUtils.GSON.toJson(map).getBytes(StandardCharsets.UTF_8);
+            // pad the header with spaces so the data is aligned when the file is memory mapped
+            int padding = (HEADER_ALIGN - (8 + json.length) % HEADER_ALIGN) % HEADER_ALIGN;
 
             ByteBuffer buf = ByteBuffer.allocate(8);
             buf.order(ByteOrder.LITTLE_ENDIAN);
-            buf.putLong(0, json.length);
+            buf.putLong(0, json.length + padding);
             os.write(buf.array());
             os.write(json);
+            for (int j = 0; j < padding; ++j) {
+                os.write(' ');
+            }
             for (NDArray nd : this) {
                 os.write(nd.toByteArray());
             }
@@ -555,10 +614,10 @@ public class NDList extends ArrayList<NDArray> implements NDResource, BytesSuppl
         long[] shape;
 
         @SerializedName("data_offsets")
-        int[] offsets;
+        long[] offsets;
 
         int size() {
-            return offsets[1] - offsets[0];
+            return Math.toIntExact(offsets[1] - offsets[0]);
         }
     }
 }
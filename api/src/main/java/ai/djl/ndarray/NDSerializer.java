@@ -194,6 +194,10 @@ final class NDSerializer {
      * @throws IOException data is not readable
      */
     static NDArray decode(NDManager manager, InputStream is) throws IOException {
+        if (is instanceof MappedDataInputStream) {
+            return decodeMapped(manager, (MappedDataInputStream) is).toNDArray();
+        }
+
         DataInputStream dis;
         if (is instanceof DataInputStream) {
             dis = (DataInputStream) is;
@@ -201,6 +205,36 @@ final class NDSerializer {
             dis = new DataInputStream(is);
         }
 
+        Header header = readHeader(dis);
+        ByteBuffer data = manager.allocateDirect(header.length);
+        data.order(header.order);
+        readData(dis, data, header.length);
+
+        NDArray array = manager.create(data, header.shape, header.dataType);
+        array.setName(header.name);
+        return array;
+    }
+
+    /**
+     * Decodes the header of {@link NDArray} and maps its data without copying.
+     *
+     * @param manager the {@link NDManager} assigned to the {@link NDArray}
+     * @param mis the mapped input stream to load from
+     * @return the mapped {@link NDArray}
+     * @throws IOException data is not readable
+     */
+    static MappedDataInputStream.MappedArray decodeMapped(
+            NDManager manager, MappedDataInputStream mis) throws IOException {
+        Header header = readHeader(mis);
+        long position = mis.position();
+        ByteBuffer data = mis.map(position, header.length);
+        data.order(header.order);
+        mis.seek(position + header.length);
+        return new MappedDataInputStream.MappedArray(
+                manager, header.name, header.shape, header.dataType, data);
+    }
+
+    private static Header readHeader(DataInputStream dis) throws IOException {
         if (!"NDAR".equals(dis.readUTF())) {
             throw new IllegalArgumentException("Malformed NDArray data");
         }
@@ -211,37 +245,30 @@ final class NDSerializer {
             throw new IllegalArgumentException("Unexpected NDArray encode version " + version);
         }
 
-        String name = null;
+        Header header = new Header();
         if (version > 1) {
             byte flag = dis.readByte();
             if (flag == 1) {
-                name = dis.readUTF();
+                header.name = dis.readUTF();
             }
         }
 
         dis.readUTF(); // ignore SparseFormat
 
         // DataType
-        DataType dataType = DataType.valueOf(dis.readUTF());
+        header.dataType = DataType.valueOf(dis.readUTF());
 
         // Shape
-        Shape shape = Shape.decode(dis);
+        header.shape = Shape.decode(dis);
 
         // Data
-        ByteOrder order;
         if (version > 2) {
-            order = dis.readByte() == '>' ? ByteOrder.BIG_ENDIAN : ByteOrder.LITTLE_ENDIAN;
+            header.order = dis.readByte() == '>' ? ByteOrder.BIG_ENDIAN : ByteOrder.LITTLE_ENDIAN;
         } else {
-            order = ByteOrder.nativeOrder();
+            header.order = ByteOrder.nativeOrder();
         }
-        int length = dis.readInt();
-        ByteBuffer data = manager.allocateDirect(length);
-        data.order(order);
-        readData(dis, data, length);
-
-        NDArray array = manager.create(data, shape, dataType);
-        array.setName(name);
-        return array;
+        header.length = dis.readInt();
+        return header;
     }
 
     static NDArray decodeNumpy(NDManager manager, InputStream is) throws IOException {
@@ -383,4 +410,12 @@ final class NDSerializer {
         }
         return new String(chars, 0, chararrCount);
     }
+
+    private static final class Header {
+        String name;
+        DataType dataType;
+        Shape shape;
+        ByteOrder order;
+        int length;
+    }
 }
@@ -17,15 +17,13 @@ import ai.djl.ndarray.index.dim.NDIndexAll;
 import ai.djl.ndarray.index.dim.NDIndexBooleans;
 import ai.djl.ndarray.index.dim.NDIndexElement;
 import ai.djl.ndarray.index.dim.NDIndexFixed;
-import ai.djl.ndarray.index.dim.NDIndexNull;
 import ai.djl.ndarray.index.dim.NDIndexPick;
 import ai.djl.ndarray.index.dim.NDIndexSlice;
-import ai.djl.ndarray.index.dim.NDIndexTake;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Stream;
 
 /**
@@ -48,14 +46,13 @@ import java.util.stream.Stream;
  */
 public class NDIndex {
 
-    /* Android regex requires escape } char as well */
-    private static final Pattern ITEM_PATTERN =
-            Pattern.compile(
-                    "(\\*)|((-?\\d+|\\{\\})?:(-?\\d+|\\{\\})?(:(-?\\d+|\\{\\}))?)|(-?\\d+|\\{\\})|null");
+    private static final int MAX_CACHED_TEMPLATES = 512;
+    private static final Map<String, NDIndexTemplate> TEMPLATES = new ConcurrentHashMap<>();
 
     private int rank;
     private List<NDIndexElement> indices;
     private int ellipsisIndex;
+    private NDIndexTemplate template;
 
     /** Creates an empty {@link NDIndex} to append values to. */
     public NDIndex() {
@@ -126,7 +123,11 @@ public class NDIndex {
      */
     public NDIndex(String indices, Object... args) {
         this();
-        addIndices(indices, args);
+        NDIndexTemplate compiled = compile(indices);
+        compiled.appendTo(this, args);
+        if (args.length == 0) {
+            template = compiled;
+        }
     }
 
     /**
@@ -157,6 +158,33 @@ public class NDIndex {
         return ind;
     }
 
+    /**
+     * Parses an index string into an {@link NDIndexTemplate}, that creates {@link NDIndex}es from
+     * arguments without parsing the string again.
+     *
+     * <pre>
+     *     NDIndexTemplate row = NDIndex.compile("{}, :");
+     *     for (int i = 0; i &lt; n; ++i) {
+     *         NDArray r = array.get(row.bind(i));
+     *     }
+     * </pre>
+     *
+     * <p>The templates are cached, so that the same string is only parsed once.
+     *
+     * @param indices a comma separated list of indices, see {@link #NDIndex(String, Object...)}
+     * @return the {@link NDIndexTemplate} of the index string
+     */
+    public static NDIndexTemplate compile(String indices) {
+        NDIndexTemplate template = TEMPLATES.get(indices);
+        if (template == null) {
+            template = new NDIndexTemplate(indices);
+            if (TEMPLATES.size() < MAX_CACHED_TEMPLATES) {
+                TEMPLATES.putIfAbsent(indices, template);
+            }
+        }
+        return template;
+    }
+
     /**
      * Returns the number of dimensions specified in the Index.
      *
@@ -194,6 +222,17 @@ public class NDIndex {
         return indices;
     }
 
+    /**
+     * Returns the {@link NDIndexTemplate} this index was created from.
+     *
+     * <p>It is only available for a template without argument, and until the index is updated.
+     *
+     * @return the {@link NDIndexTemplate} this index was created from, or {@code null}
+     */
+    public NDIndexTemplate getTemplate() {
+        return template;
+    }
+
     /**
      * Updates the NDIndex by appending indices to the array.
      *
@@ -204,27 +243,8 @@ public class NDIndex {
      * @see #NDIndex(String, Object...)
      */
     public final NDIndex addIndices(String indices, Object... args) {
-        String[] indexItems = indices.split(",");
-        rank += indexItems.length;
-        int argIndex = 0;
-        for (int i = 0; i < indexItems.length; ++i) {
-            if ("...".equals(indexItems[i].trim())) {
-                // make sure ellipsis appear only once
-                if (ellipsisIndex != -1) {
-                    throw new IllegalArgumentException(
-                            "an index can only have a single ellipsis (\"...\")");
-                }
-                ellipsisIndex = i;
-            } else {
-                argIndex = addIndexItem(indexItems[i], argIndex, args);
-            }
-        }
-        if (ellipsisIndex != -1) {
-            rank--;
-        }
-        if (argIndex != args.length) {
-            throw new IllegalArgumentException("Incorrect number of index arguments");
-        }
+        template = null;
+        compile(indices).appendTo(this, args);
         return this;
     }
 
@@ -236,6 +256,7 @@ public class NDIndex {
      * @return the updated {@link NDIndex}
      */
     public final NDIndex addIndices(long... indices) {
+        template = null;
         rank += indices.length;
         for (long i : indices) {
             this.indices.add(new NDIndexFixed(i));
@@ -253,6 +274,7 @@ public class NDIndex {
      * @return the updated {@link NDIndex}
      */
     public NDIndex addBooleanIndex(NDArray index) {
+        template = null;
         rank += index.getShape().dimension();
         indices.add(new NDIndexBooleans(index));
         return this;
@@ -264,6 +286,7 @@ public class NDIndex {
      * @return the updated {@link NDIndex}
      */
     public NDIndex addEllipseDim() {
+        template = null;
         ellipsisIndex = indices.size();
         return this;
     }
@@ -274,6 +297,7 @@ public class NDIndex {
      * @return the updated {@link NDIndex}
      */
     public NDIndex addAllDim() {
+        template = null;
         rank++;
         indices.add(new NDIndexAll());
         return this;
@@ -287,6 +311,7 @@ public class NDIndex {
      * @throws IllegalArgumentException if count is negative
      */
     public NDIndex addAllDim(int count) {
+        template = null;
         if (count < 0) {
             throw new IllegalArgumentException(
                     "The number of index dimensions to add can't be negative");
@@ -306,6 +331,7 @@ public class NDIndex {
      * @return the updated {@link NDIndex}
      */
     public NDIndex addSliceDim(long min, long max) {
+        template = null;
         rank++;
         indices.add(new NDIndexSlice(min, max, null));
         return this;
@@ -320,6 +346,7 @@ public class NDIndex {
      * @return the updated {@link NDIndex}
      */
     public NDIndex addSliceDim(long min, long max, long step) {
+        template = null;
         rank++;
         indices.add(new NDIndexSlice(min, max, step));
         return this;
@@ -335,6 +362,7 @@ public class NDIndex {
      * @return the updated {@link NDIndex}
      */
     public NDIndex addPickDim(NDArray index) {
+        template = null;
         rank++;
         indices.add(new NDIndexPick(index));
         return this;
@@ -349,96 +377,23 @@ public class NDIndex {
         return indices.stream();
     }
 
-    private int addIndexItem(String indexItem, int argIndex, Object[] args) {
-        indexItem = indexItem.trim();
-        Matcher m = ITEM_PATTERN.matcher(indexItem);
-        if (!m.matches()) {
-            throw new IllegalArgumentException("Invalid argument index: " + indexItem);
-        }
-        // "null" case
-        if ("null".equals(indexItem)) {
-            indices.add(new NDIndexNull());
-            return argIndex;
-        }
-        // "*" case
-        String star = m.group(1);
-        if (star != null) {
-            indices.add(new NDIndexAll());
-            return argIndex;
-        }
-        // "number" number only case
-        String digit = m.group(7);
-        if (digit != null) {
-            if ("{}".equals(digit)) {
-                Object arg = args[argIndex];
-                if (arg instanceof Integer) {
-                    indices.add(new NDIndexFixed((Integer) arg));
-                    return argIndex + 1;
-                } else if (arg instanceof Long) {
-                    indices.add(new NDIndexFixed((Long) arg));
-                    return argIndex + 1;
-                } else if (arg instanceof NDArray) {
-                    NDArray array = (NDArray) arg;
-                    if (array.getDataType().isBoolean()) {
-                        indices.add(new NDIndexBooleans(array));
-                        return argIndex + 1;
-                    } else if (array.getDataType().isInteger()
-                            || array.getDataType().isFloating()) {
-                        indices.add(new NDIndexTake(array));
-                        return argIndex + 1;
-                    }
-                } else if (arg == null) {
-                    indices.add(new NDIndexNull());
-                    return argIndex + 1;
-                }
-                throw new IllegalArgumentException("Unknown argument: " + arg);
-            } else {
-                indices.add(new NDIndexFixed(Long.parseLong(digit)));
-                return argIndex;
-            }
-        }
+    void setTemplate(NDIndexTemplate template) {
+        this.template = template;
+    }
 
-        // Slice
-        Long min = null;
-        Long max = null;
-        Long step = null;
-        if (m.group(3) != null) {
-            min = parseSliceItem(m.group(3), argIndex, args);
-            if ("{}".equals(m.group(3))) {
-                argIndex++;
-            }
-        }
-        if (m.group(4) != null) {
-            max = parseSliceItem(m.group(4), argIndex, args);
-            if ("{}".equals(m.group(4))) {
-                argIndex++;
-            }
-        }
-        if (m.group(6) != null) {
-            step = parseSliceItem(m.group(6), argIndex, args);
-            if ("{}".equals(m.group(6))) {
-                argIndex++;
-            }
-        }
-        if (min == null && max == null && step == null) {
-            indices.add(new NDIndexAll());
-        } else {
-            indices.add(new NDIndexSlice(min, max, step));
+    void setEllipsisIndex(int ellipsisIndex) {
+        if (this.ellipsisIndex != -1) {
+            throw new IllegalArgumentException(
+                    "an index can only have a single ellipsis (\"...\")");
         }
-        return argIndex;
+        this.ellipsisIndex = ellipsisIndex;
     }
 
-    private Long parseSliceItem(String sliceItem, int argIndex, Object... args) {
-        if ("{}".equals(sliceItem)) {
-            Object arg = args[argIndex];
-            if (arg instanceof Integer) {
-                return ((Integer) arg).longValue();
-            } else if (arg instanceof Long) {
-                return (Long) arg;
-            }
-            throw new IllegalArgumentException("Unknown slice argument: " + arg);
-        } else {
-            return Long.parseLong(sliceItem);
-        }
+    void addElement(NDIndexElement element) {
+        indices.add(element);
+    }
+
+    void addRank(int count) {
+        rank += count;
     }
 }
@@ -0,0 +1,262 @@
+/*
+ * Copyright 2024 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ * with the License. A copy of the License is located at
+ *
+ * http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES
+ * OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package ai.djl.ndarray.index;
+
+import ai.djl.ndarray.NDArray;
+import ai.djl.ndarray.index.dim.NDIndexAll;
+import ai.djl.ndarray.index.dim.NDIndexBooleans;
+import ai.djl.ndarray.index.dim.NDIndexElement;
+import ai.djl.ndarray.index.dim.NDIndexFixed;
+import ai.djl.ndarray.index.dim.NDIndexNull;
+import ai.djl.ndarray.index.dim.NDIndexSlice;
+import ai.djl.ndarray.index.dim.NDIndexTake;
+import ai.djl.ndarray.index.full.NDIndexFullSlice;
+import ai.djl.ndarray.types.Shape;
+
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * An index string parsed once by {@link NDIndex#compile(String)}, that creates {@link NDIndex}es
+ * from arguments without parsing the string again.
+ *
+ * <p>An {@code NDIndexTemplate} is immutable and can be shared between threads. For templates
+ * without argument, the {@link NDIndexFullSlice} is resolved only once for each target shape.
+ */
+public final class NDIndexTemplate {
+
+    /* Android regex requires escape } char as well */
+    private static final Pattern ITEM_PATTERN =
+            Pattern.compile(
+                    "(\\*)|((-?\\d+|\\{\\})?:(-?\\d+|\\{\\})?(:(-?\\d+|\\{\\}))?)|(-?\\d+|\\{\\})|null");
+    private static final Object[] NO_ARGS = {};
+    private static final int MAX_SHAPES = 16;
+
+    private String indices;
+    private Item[] items;
+    private int ellipsisIndex;
+    private int argCount;
+    private ConcurrentHashMap<Shape, Optional<NDIndexFullSlice>> fullSlices;
+
+    NDIndexTemplate(String indices) {
+        this.indices = indices;
+        String[] indexItems = indices.split(",");
+        items = new Item[indexItems.length];
+        ellipsisIndex = -1;
+        for (int i = 0; i < indexItems.length; ++i) {
+            String indexItem = indexItems[i].trim();
+            if ("...".equals(indexItem)) {
+                // make sure ellipsis appear only once
+                if (ellipsisIndex != -1) {
+                    throw new IllegalArgumentException(
+                            "an index can only have a single ellipsis (\"...\")");
+                }
+                ellipsisIndex = i;
+            } else {
+                items[i] = parseItem(indexItem);
+                argCount += items[i].argCount;
+            }
+        }
+        if (argCount == 0) {
+            fullSlices = new ConcurrentHashMap<>();
+        }
+    }
+
+    /**
+     * Returns the number of arguments to bind, one for each "{}" in the index string.
+     *
+     * @return the number of arguments to bind
+     */
+    public int getArgCount() {
+        return argCount;
+    }
+
+    /**
+     * Creates a new {@link NDIndex} with the arguments.
+     *
+     * @param args arguments to replace the variable "{}" in the indices string. Can be an integer,
+     *     long, boolean {@link NDArray}, or integer {@link NDArray}.
+     * @return a new {@link NDIndex}
+     * @see NDIndex#NDIndex(String, Object...)
+     */
+    public NDIndex bind(Object... args) {
+        NDIndex index = new NDIndex();
+        appendTo(index, args);
+        if (argCount == 0) {
+            index.setTemplate(this);
+        }
+        return index;
+    }
+
+    /**
+     * Returns the {@link NDIndexFullSlice} of this template for the target shape.
+     *
+     * @param target the shape of the array to index
+     * @return the full slice representation or nothing if it can't represent the index
+     * @throws IllegalStateException if the template has arguments
+     * @see NDIndexFullSlice#fromIndex(NDIndex, Shape)
+     */
+    public Optional<NDIndexFullSlice> getFullSlice(Shape target) {
+        if (argCount != 0) {
+            throw new IllegalStateException("The index has arguments: " + indices);
+        }
+        Optional<NDIndexFullSlice> fullSlice = fullSlices.get(target);
+        if (fullSlice == null) {
+            NDIndex index = new NDIndex();
+            appendTo(index, NO_ARGS);
+            fullSlice = NDIndexFullSlice.fromIndex(index, target);
+            if (fullSlices.size() < MAX_SHAPES) {
+                fullSlices.put(target, fullSlice);
+            }
+        }
+        return fullSlice;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public String toString() {
+        return indices;
+    }
+
+    void appendTo(NDIndex index, Object[] args) {
+        if (args.length != argCount) {
+            throw new IllegalArgumentException("Incorrect number of index arguments");
+        }
+        if (ellipsisIndex != -1) {
+            index.setEllipsisIndex(ellipsisIndex);
+        }
+        int argIndex = 0;
+        for (Item item : items) {
+            if (item != null) {
+                index.addElement(item.bind(args, argIndex));
+                argIndex += item.argCount;
+            }
+        }
+        index.addRank(ellipsisIndex == -1 ? items.length : items.length - 1);
+    }
+
+    private static Item parseItem(String indexItem) {
+        Matcher m = ITEM_PATTERN.matcher(indexItem);
+        if (!m.matches()) {
+            throw new IllegalArgumentException("Invalid argument index: " + indexItem);
+        }
+        // "null" case
+        if ("null".equals(indexItem)) {
+            return new Item(new NDIndexNull());
+        }
+        // "*" case
+        if (m.group(1) != null) {
+            return new Item(new NDIndexAll());
+        }
+        // "number" number only case
+        String digit = m.group(7);
+        if (digit != null) {
+            if ("{}".equals(digit)) {
+                return new Item();
+            }
+            return new Item(new NDIndexFixed(Long.parseLong(digit)));
+        }
+        // Slice
+        String min = m.group(3);
+        String max = m.group(4);
+        String step = m.group(6);
+        if (min == null && max == null && step == null) {
+            return new Item(new NDIndexAll());
+        }
+        return new Item(min, max, step);
+    }
+
+    /** A parsed item of the index string. */
+    private static final class Item {
+
+        // the element of the literal items, null for the items with arguments
+        NDIndexElement element;
+        int argCount;
+        boolean isSlice;
+        String[] slice;
+
+        Item(NDIndexElement element) {
+            this.element = element;
+        }
+
+        Item() {
+            argCount = 1;
+        }
+
+        Item(String min, String max, String step) {
+            isSlice = true;
+            slice = new String[] {min, max, step};
+            for (String s : slice) {
+                if ("{}".equals(s)) {
+                    argCount++;
+                }
+            }
+            if (argCount == 0) {
+                element =
+                        new NDIndexSlice(
+                                min == null ? null : Long.parseLong(min),
+                                max == null ? null : Long.parseLong(max),
+                                step == null ? null : Long.parseLong(step));
+            }
+        }
+
+        NDIndexElement bind(Object[] args, int argIndex) {
+            if (element != null) {
+                return element;
+            }
+            if (!isSlice) {
+                return bindArgument(args[argIndex]);
+            }
+            Long[] values = new Long[3];
+            for (int i = 0; i < 3; ++i) {
+                String s = slice[i];
+                if (s == null) {
+                    continue;
+                }
+                if ("{}".equals(s)) {
+                    Object arg = args[argIndex++];
+                    if (arg instanceof Integer) {
+                        values[i] = ((Integer) arg).longValue();
+                    } else if (arg instanceof Long) {
+                        values[i] = (Long) arg;
+                    } else {
+                        throw new IllegalArgumentException("Unknown slice argument: " + arg);
+                    }
+                } else {
+                    values[i] = Long.parseLong(s);
+                }
+            }
+            return new NDIndexSlice(values[0], values[1], values[2]);
+        }
+
+        private static NDIndexElement bindArgument(Object arg) {
+            if (arg instanceof Integer) {
+                return new NDIndexFixed((Integer) arg);
+            } else if (arg instanceof Long) {
+                return new NDIndexFixed((Long) arg);
+            } else if (arg instanceof NDArray) {
+                NDArray array = (NDArray) arg;
+                if (array.getDataType().isBoolean()) {
+                    return new NDIndexBooleans(array);
+                } else if (array.getDataType().isInteger() || array.getDataType().isFloating()) {
+                    return new NDIndexTake(array);
+                }
+            } else if (arg == null) {
+                return new NDIndexNull();
+            }
+            throw new IllegalArgumentException("Unknown argument: " + arg);
+        }
+    }
+}
@@ -13,6 +13,7 @@
 package ai.djl.ndarray.index.full;
 
 import ai.djl.ndarray.index.NDIndex;
+import ai.djl.ndarray.index.NDIndexTemplate;
 import ai.djl.ndarray.index.dim.NDIndexAll;
 import ai.djl.ndarray.index.dim.NDIndexElement;
 import ai.djl.ndarray.index.dim.NDIndexFixed;
@@ -65,6 +66,11 @@ public final class NDIndexFullSlice {
      * @return the full slice representation or nothing if it can't represent the index
      */
     public static Optional<NDIndexFullSlice> fromIndex(NDIndex index, Shape target) {
+        NDIndexTemplate template = index.getTemplate();
+        if (template != null) {
+            // resolved once per shape for the indices without argument
+            return template.getFullSlice(target);
+        }
         if (!index.stream()
                 .allMatch(
                         ie ->
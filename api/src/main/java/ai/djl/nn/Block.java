@@ -293,6 +293,9 @@ public interface Block {
     /**
      * Loads the parameters from the given input stream.
      *
+     * <p>If the input stream is a {@link ai.djl.ndarray.MappedDataInputStream}, the parameter data
+     * is memory mapped and each parameter array is only created when it is first used.
+     *
      * @param manager an NDManager to create the parameter arrays
      * @param is the inputstream that stream the parameter values
      * @throws IOException if an I/O error occurs
@@ -13,6 +13,7 @@
 package ai.djl.nn;
 
 import ai.djl.MalformedModelException;
+import ai.djl.ndarray.MappedDataInputStream;
 import ai.djl.ndarray.NDArray;
 import ai.djl.ndarray.NDManager;
 import ai.djl.ndarray.types.DataType;
@@ -46,7 +47,8 @@ public class Parameter implements AutoCloseable {
     private Shape shape;
     private Type type;
     private Initializer initializer;
-    private NDArray array;
+    private volatile NDArray array;
+    private volatile MappedDataInputStream.MappedArray mapped;
     private boolean requiresGrad;
 
     Parameter(Builder builder) {
@@ -132,7 +134,11 @@ public class Parameter implements AutoCloseable {
             throw new UninitializedParameterException(
                     "The array for parameter \"" + getName() + "\" has not been initialized");
         }
-        return array;
+        NDArray ret = array;
+        if (ret == null) {
+            ret = materialize();
+        }
+        return ret;
     }
 
     /**
@@ -157,9 +163,9 @@ public class Parameter implements AutoCloseable {
      */
     public void freeze(boolean freeze) {
         requiresGrad = !freeze;
-        if (array != null) {
+        if (isInitialized()) {
             // array can be null if block is loaded and then cleared
-            array.setRequiresGradient(requiresGrad);
+            getArray().setRequiresGradient(requiresGrad);
         }
     }
 
@@ -169,7 +175,7 @@ public class Parameter implements AutoCloseable {
      * @return {@code true} if this {@code Parameter} is initialized
      */
     public boolean isInitialized() {
-        return array != null;
+        return array != null || mapped != null;
     }
 
     /**
@@ -213,7 +219,7 @@ public class Parameter implements AutoCloseable {
         }
 
         if (requiresGradient()) {
-            array.setRequiresGradient(true);
+            getArray().setRequiresGradient(true);
         }
     }
 
@@ -232,7 +238,7 @@ public class Parameter implements AutoCloseable {
         dos.writeChar('P');
         dos.writeByte(VERSION);
         dos.writeUTF(getName());
-        dos.write(array.encode());
+        dos.write(getArray().encode());
     }
 
     /**
@@ -241,6 +247,9 @@ public class Parameter implements AutoCloseable {
      * <p>Currently, we cannot deserialize into the exact subclass of NDArray. The SparseNDArray
      * will be loaded as NDArray only.
      *
+     * <p>If the input is a {@link MappedDataInputStream}, the data is only mapped and the NDArray
+     * is created on the first call to {@link #getArray()}.
+     *
      * @param manager the NDManager
      * @param dis the InputStream
      * @throws IOException if failed to read
@@ -268,6 +277,13 @@ public class Parameter implements AutoCloseable {
                     "Unexpected parameter name: " + parameterName + ", expected: " + name);
         }
 
+        if (dis instanceof MappedDataInputStream) {
+            MappedDataInputStream.MappedArray loaded =
+                    ((MappedDataInputStream) dis).readArray(manager);
+            setMapped(loaded);
+            shape = loaded.getShape();
+            return;
+        }
         array = manager.decode(dis);
         // set the shape of the parameter and prepare() can be skipped
         shape = array.getShape();
@@ -275,11 +291,35 @@ public class Parameter implements AutoCloseable {
 
     /** {@inheritDoc} */
     @Override
-    public void close() {
+    public synchronized void close() {
+        mapped = null;
+        if (array != null) {
+            array.close();
+            array = null;
+        }
+    }
+
+    private synchronized void setMapped(MappedDataInputStream.MappedArray loaded) {
+        // the array of an initialized block would hide the loaded values
         if (array != null) {
             array.close();
             array = null;
         }
+        mapped = loaded;
+    }
+
+    private synchronized NDArray materialize() {
+        if (array == null) {
+            // re-check, the parameter may have been closed since getArray()
+            if (mapped == null) {
+                throw new UninitializedParameterException(
+                        "The array for parameter \"" + getName() + "\" has been closed");
+            }
+            NDArray ret = mapped.toNDArray();
+            mapped = null;
+            array = ret;
+        }
+        return array;
     }
 
     /**
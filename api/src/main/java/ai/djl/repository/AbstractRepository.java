@@ -24,6 +24,7 @@ import org.slf4j.LoggerFactory;
 import java.io.BufferedInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InterruptedIOException;
 import java.io.UnsupportedEncodingException;
 import java.net.URI;
 import java.net.URLDecoder;
@@ -34,8 +35,20 @@ import java.nio.file.StandardCopyOption;
 import java.security.DigestInputStream;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.Queue;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.zip.GZIPInputStream;
 import java.util.zip.ZipInputStream;
 
@@ -49,6 +62,15 @@ public abstract class AbstractRepository implements Repository {
 
     private static final Logger logger = LoggerFactory.getLogger(AbstractRepository.class);
 
+    private static final long DEFAULT_CHUNK_SIZE = 64L * 1024 * 1024;
+    private static final ExecutorService EXECUTOR =
+            Executors.newCachedThreadPool(
+                    r -> {
+                        Thread thread = new Thread(r, "djl-download");
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+
     protected String name;
     protected URI uri;
     protected Map<String, String> arguments;
@@ -122,11 +144,77 @@ public abstract class AbstractRepository implements Repository {
     @Override
     public void prepare(Artifact artifact, Progress progress) throws IOException {
         Path resourceDir = getResourceDirectory(artifact);
-        if (Files.exists(resourceDir)) {
-            logger.debug("Files have been downloaded already: {}", resourceDir);
+        ArtifactCache cache = getCache(resourceDir);
+        if (cache == null) {
+            if (Files.exists(resourceDir)) {
+                logger.debug("Files have been downloaded already: {}", resourceDir);
+                return;
+            }
+            download(artifact, resourceDir, progress);
             return;
         }
 
+        ArtifactCache.Lock lock = cache.lock(resourceDir);
+        try {
+            if (Files.exists(resourceDir)) {
+                logger.debug("Files have been downloaded already: {}", resourceDir);
+                cache.touch(resourceDir);
+            } else {
+                download(artifact, resourceDir, progress);
+                cache.add(resourceDir, getHashes(artifact, resourceDir));
+            }
+            try {
+                cache.evict();
+            } catch (IOException e) {
+                logger.warn("Failed to evict cache: {}", getCacheDirectory(), e);
+            }
+        } finally {
+            lock.close();
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public ArtifactCache.Lock use(Artifact artifact) throws IOException {
+        Path resourceDir = getResourceDirectory(artifact);
+        ArtifactCache cache = getCache(resourceDir);
+        if (cache == null) {
+            return null;
+        }
+        return cache.use(resourceDir);
+    }
+
+    private ArtifactCache getCache(Path resourceDir) throws IOException {
+        long maxSize = ArtifactCache.getDefaultMaxSize();
+        if (maxSize <= 0) {
+            // nothing is evicted, so the cache directory doesn't need to be writable
+            return null;
+        }
+        ArtifactCache cache = new ArtifactCache(getCacheDirectory(), maxSize);
+        if (!cache.contains(resourceDir)) {
+            return null;
+        }
+        return cache;
+    }
+
+    private static Map<Path, String> getHashes(Artifact artifact, Path resourceDir) {
+        // the files that are saved as downloaded have the checksum of the download
+        Map<Path, String> hashes = new HashMap<>();
+        for (Artifact.Item item : artifact.getFiles().values()) {
+            String extension = item.getExtension();
+            String sha1 = item.getSha1Hash();
+            if (sha1 != null
+                    && !"dir".equals(item.getType())
+                    && !"zip".equals(extension)
+                    && !"gzip".equals(extension)) {
+                hashes.put(resourceDir.resolve(item.getName()).toAbsolutePath(), sha1);
+            }
+        }
+        return hashes;
+    }
+
+    private void download(Artifact artifact, Path resourceDir, Progress progress)
+            throws IOException {
         Metadata metadata = artifact.getMetadata();
         URI baseUri = metadata.getRepositoryUri();
         Map<String, Artifact.Item> files = artifact.getFiles();
@@ -146,12 +234,13 @@ public abstract class AbstractRepository implements Repository {
             progress.reset("Downloading", totalSize);
         }
 
+        DownloadProgress downloadProgress =
+                progress == null ? null : new DownloadProgress(progress);
         try {
             logger.debug("Items to download: {}", files.size());
-            for (Artifact.Item item : files.values()) {
-                download(tmp, baseUri, item, progress);
-            }
+            downloadAll(tmp, baseUri, files.values(), downloadProgress);
             Utils.moveQuietly(tmp, resourceDir);
+            Utils.deleteQuietly(getDownloadDirectory(artifact));
         } finally {
             Utils.deleteQuietly(tmp);
             if (progress != null) {
@@ -187,11 +276,33 @@ public abstract class AbstractRepository implements Repository {
         }
 
         logger.debug("Downloading artifact: {} ...", fileUri);
-        try (InputStream is = new BufferedInputStream(fileUri.toURL().openStream())) {
+        try (InputStream is = openDownloadStream(fileUri, item)) {
             save(is, tmp, item, progress);
         }
     }
 
+    /**
+     * Opens the stream to download an item.
+     *
+     * <p>HTTP downloads use range requests when the server supports them: large files are fetched
+     * in parallel chunks, and the bytes received before a failure are kept so that the next {@link
+     * #prepare(Artifact, Progress)} resumes the download.
+     *
+     * @param uri the URI of the file to download
+     * @param item the item to download
+     * @return the stream of the file
+     * @throws IOException if the download failed
+     */
+    protected InputStream openDownloadStream(URI uri, Artifact.Item item) throws IOException {
+        if (!HttpDownloader.isHttp(uri)) {
+            return new BufferedInputStream(uri.toURL().openStream());
+        }
+        Path partDir = getDownloadDirectory(item.getArtifact());
+        HttpDownloader downloader =
+                new HttpDownloader(partDir, EXECUTOR, getDownloadThreads(), getChunkSize());
+        return downloader.openStream(uri);
+    }
+
     protected void save(InputStream is, Path tmp, Artifact.Item item, Progress progress)
             throws IOException {
         ProgressInputStream pis = new ProgressInputStream(is, progress);
@@ -230,6 +341,78 @@ public abstract class AbstractRepository implements Repository {
         pis.validateChecksum(item);
     }
 
+    private void downloadAll(
+            Path tmp, URI baseUri, Collection<Artifact.Item> items, Progress progress)
+            throws IOException {
+        int threads = Math.min(getDownloadThreads(), items.size());
+        if (threads <= 1) {
+            for (Artifact.Item item : items) {
+                download(tmp, baseUri, item, progress);
+            }
+            return;
+        }
+
+        Queue<Artifact.Item> queue = new ConcurrentLinkedQueue<>(items);
+        AtomicBoolean failed = new AtomicBoolean();
+        List<Future<?>> futures = new ArrayList<>(threads);
+        for (int i = 0; i < threads; ++i) {
+            futures.add(
+                    EXECUTOR.submit(
+                            () -> {
+                                Artifact.Item item;
+                                while (!failed.get() && (item = queue.poll()) != null) {
+                                    try {
+                                        download(tmp, baseUri, item, progress);
+                                    } catch (IOException | RuntimeException e) {
+                                        failed.set(true);
+                                        throw e;
+                                    }
+                                }
+                                return null;
+                            }));
+        }
+
+        Throwable error = null;
+        for (Future<?> future : futures) {
+            try {
+                future.get();
+            } catch (InterruptedException e) {
+                failed.set(true);
+                for (Future<?> f : futures) {
+                    f.cancel(true);
+                }
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Download is interrupted.");
+            } catch (ExecutionException e) {
+                if (error == null) {
+                    error = e.getCause();
+                }
+            }
+        }
+        if (error instanceof IOException) {
+            throw (IOException) error;
+        } else if (error instanceof RuntimeException) {
+            throw (RuntimeException) error;
+        } else if (error != null) {
+            throw new IOException("Failed to download artifact.", error);
+        }
+    }
+
+    private Path getDownloadDirectory(Artifact artifact) throws IOException {
+        Path resourceDir = getResourceDirectory(artifact).toAbsolutePath();
+        return resourceDir.resolveSibling(resourceDir.toFile().getName() + ".download");
+    }
+
+    private static int getDownloadThreads() {
+        String threads = Utils.getEnvOrSystemProperty("DJL_DOWNLOAD_THREADS", "4");
+        return Math.max(1, Integer.parseInt(threads));
+    }
+
+    private static long getChunkSize() {
+        String size = Utils.getEnvOrSystemProperty("DJL_DOWNLOAD_CHUNK_SIZE");
+        return size == null ? DEFAULT_CHUNK_SIZE : Math.max(1, Long.parseLong(size));
+    }
+
     private static Map<String, String> parseQueryString(URI uri) {
         try {
             Map<String, String> map = new ConcurrentHashMap<>();
@@ -295,7 +478,7 @@ public abstract class AbstractRepository implements Repository {
         @Override
         public int read(byte[] b, int off, int len) throws IOException {
             int size = dis.read(b, off, len);
-            if (progress != null) {
+            if (progress != null && size > 0) {
                 progress.increment(size);
             }
             return size;
@@ -327,4 +510,64 @@ public abstract class AbstractRepository implements Repository {
             dis.close();
         }
     }
+
+    /**
+     * A {@link Progress} shared by the concurrent downloads of an artifact, that reports the
+     * aggregate throughput.
+     */
+    private static final class DownloadProgress implements Progress {
+
+        private static final long REFRESH_INTERVAL = 500_000_000L;
+
+        private Progress progress;
+        private long value;
+        private long startTime;
+        private long lastRefresh;
+        private String throughput;
+
+        DownloadProgress(Progress progress) {
+            this.progress = progress;
+            startTime = System.nanoTime();
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public synchronized void reset(String message, long max, String trailingMessage) {
+            progress.reset(message, max, trailingMessage);
+            value = 0;
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public synchronized void start(long initialProgress) {
+            value = initialProgress;
+            progress.start(initialProgress);
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public void end() {
+            // ended by prepare() once all the items are downloaded
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public synchronized void increment(long increment) {
+            value += increment;
+            long now = System.nanoTime();
+            if (now - lastRefresh > REFRESH_INTERVAL) {
+                lastRefresh = now;
+                double mbps = value * 1e9 / (now - startTime) / (1024 * 1024);
+                throughput = String.format(Locale.ROOT, "%.1f MB/s", mbps);
+            }
+            progress.update(value, throughput);
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public synchronized void update(long progress, String message) {
+            value = progress;
+            this.progress.update(progress, message);
+        }
+    }
 }
@@ -0,0 +1,517 @@
+/*
+ * Copyright 2024 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ * with the License. A copy of the License is located at
+ *
+ * http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES
+ * OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package ai.djl.repository;
+
+import ai.djl.util.Hex;
+import ai.djl.util.Utils;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * A managed cache of the resource directories of a {@link Repository}.
+ *
+ * <p>The {@code ArtifactCache} keeps the last access time of each resource directory prepared in
+ * the cache, and evicts the least recently used ones when the cache grows over its maximum size.
+ * When the cache has a maximum size, identical files of different resource directories are stored
+ * once: they are hard links to a single file named after its SHA-1 hash, when the file system
+ * supports it.
+ *
+ * <p>The resource directories are protected by file locks, so several processes can share a cache
+ * directory. A resource directory is never evicted while it is locked, or while it is in use, see
+ * {@link #use(Path)}.
+ */
+public final class ArtifactCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(ArtifactCache.class);
+
+    private static final long MIN_SHARED_SIZE = 64 * 1024;
+    private static final Map<Path, ReentrantLock> LOCKS = new ConcurrentHashMap<>();
+
+    private Path cacheDir;
+    private long maxSize;
+    private boolean hardLinks;
+
+    /**
+     * Constructs an {@code ArtifactCache} in a directory.
+     *
+     * @param cacheDir the cache directory
+     * @param maxSize the maximum size of the cache in bytes, or 0 for no limit
+     */
+    public ArtifactCache(Path cacheDir, long maxSize) {
+        this.cacheDir = cacheDir.toAbsolutePath();
+        this.maxSize = maxSize;
+        // unused shared files are found with the link count
+        hardLinks = FileSystems.getDefault().supportedFileAttributeViews().contains("unix");
+    }
+
+    /**
+     * Returns the maximum size of the cache set by the {@code DJL_CACHE_MAX_SIZE} environment
+     * variable or system property.
+     *
+     * @return the maximum size of the cache in bytes, or 0 for no limit
+     */
+    public static long getDefaultMaxSize() {
+        String size = Utils.getEnvOrSystemProperty("DJL_CACHE_MAX_SIZE");
+        if (size == null || size.isEmpty()) {
+            return 0;
+        }
+        return Long.parseLong(size);
+    }
+
+    /**
+     * Returns if a resource directory is in the cache directory.
+     *
+     * @param resourceDir the resource directory
+     * @return true if the resource directory is in the cache directory
+     */
+    public boolean contains(Path resourceDir) {
+        Path dir = resourceDir.toAbsolutePath().normalize();
+        return !dir.equals(cacheDir) && dir.startsWith(cacheDir);
+    }
+
+    /**
+     * Locks a resource directory, and waits until other threads and processes unlock it.
+     *
+     * @param resourceDir the resource directory
+     * @return the lock, to close to unlock the resource directory
+     * @throws IOException if the lock file cannot be created
+     */
+    public Lock lock(Path resourceDir) throws IOException {
+        return lock(resourceDir, false);
+    }
+
+    /**
+     * Marks a resource directory as in use, and waits until other threads and processes unlock it.
+     *
+     * <p>A resource directory can be used by several threads and processes at the same time, and is
+     * not evicted until all of them have closed their {@code Lock}. The resource directory doesn't
+     * need to exist yet, so it can be marked as in use before it is downloaded.
+     *
+     * @param resourceDir the resource directory
+     * @return the lock, to close when the resource directory is not used anymore
+     * @throws IOException if the lock file cannot be created
+     */
+    public Lock use(Path resourceDir) throws IOException {
+        Path uses = getUses(resourceDir);
+        Path lockFile = resourceDir.resolveSibling(resourceDir.toFile().getName() + ".lock");
+        ReentrantLock held = LOCKS.get(lockFile.toAbsolutePath());
+        // the uses are registered under the lock of the resource directory, as evict() checks them
+        Lock dirLock = held != null && held.isHeldByCurrentThread() ? null : lock(resourceDir);
+        try {
+            Files.createDirectories(uses);
+            Path file = uses.resolve(UUID.randomUUID() + ".lock");
+            FileChannel channel =
+                    FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+            try {
+                channel.lock();
+            } catch (IOException | RuntimeException e) {
+                channel.close();
+                Files.deleteIfExists(file);
+                throw e;
+            }
+            return new Lock(null, channel, file);
+        } finally {
+            if (dirLock != null) {
+                dirLock.close();
+            }
+        }
+    }
+
+    /**
+     * Adds a resource directory to the cache, and shares its files with identical files of the
+     * cache.
+     *
+     * @param resourceDir the resource directory
+     * @throws IOException if the resource directory cannot be read
+     */
+    public void add(Path resourceDir) throws IOException {
+        add(resourceDir, Collections.emptyMap());
+    }
+
+    /**
+     * Adds a resource directory to the cache, and shares its files with identical files of the
+     * cache.
+     *
+     * @param resourceDir the resource directory
+     * @param hashes the known SHA-1 hashes of files of the resource directory, the other files are
+     *     hashed when they are shared
+     * @throws IOException if the resource directory cannot be read
+     */
+    public void add(Path resourceDir, Map<Path, String> hashes) throws IOException {
+        // the shared files are only deleted by evict(), so they are only used with a maximum size
+        if (hardLinks && maxSize > 0) {
+            Path blobs = cacheDir.resolve(".blobs");
+            Files.createDirectories(blobs);
+            List<Path> files;
+            try (Stream<Path> stream = Files.walk(resourceDir)) {
+                files = stream.filter(Files::isRegularFile).collect(Collectors.toList());
+            }
+            for (Path file : files) {
+                if (Files.size(file) >= MIN_SHARED_SIZE) {
+                    String sha1 = hashes.get(file.toAbsolutePath());
+                    share(file, blobs, sha1 == null ? sha1(file) : sha1);
+                }
+            }
+        }
+        touch(resourceDir);
+    }
+
+    /**
+     * Records an access to a resource directory of the cache.
+     *
+     * @param resourceDir the resource directory
+     * @throws IOException if the access cannot be recorded
+     */
+    public void touch(Path resourceDir) throws IOException {
+        Path entry = getEntry(resourceDir);
+        if (Files.notExists(entry)) {
+            Files.createDirectories(entry.getParent());
+            String path = cacheDir.relativize(resourceDir.toAbsolutePath()).toString();
+            Files.write(entry, path.getBytes(StandardCharsets.UTF_8));
+        } else {
+            Files.setLastModifiedTime(entry, FileTime.fromMillis(System.currentTimeMillis()));
+        }
+    }
+
+    /**
+     * Returns the size in bytes of the resource directories of the cache.
+     *
+     * @return the size in bytes of the resource directories of the cache
+     * @throws IOException if the cache cannot be read
+     */
+    public long getSize() throws IOException {
+        Map<Object, long[]> files = new HashMap<>();
+        for (Entry entry : listEntries()) {
+            entry.scan(files);
+        }
+        long size = 0;
+        for (long[] file : files.values()) {
+            size += file[0];
+        }
+        return size;
+    }
+
+    /**
+     * Deletes the least recently used resource directories until the cache fits in its maximum
+     * size.
+     *
+     * <p>The resource directories locked or used by this thread, another thread, or another process
+     * are kept.
+     *
+     * @return the deleted resource directories
+     * @throws IOException if the cache cannot be read
+     */
+    public List<Path> evict() throws IOException {
+        if (maxSize <= 0) {
+            return Collections.emptyList();
+        }
+        Lock evictLock = lock(cacheDir.resolve(".evict"), false);
+        try {
+            List<Entry> entries = listEntries();
+            // file key -> [size, number of resource directories]
+            Map<Object, long[]> files = new HashMap<>();
+            for (Entry entry : entries) {
+                entry.scan(files);
+            }
+            long size = 0;
+            for (long[] file : files.values()) {
+                size += file[0];
+            }
+            if (size <= maxSize) {
+                return Collections.emptyList();
+            }
+
+            entries.sort(Comparator.comparingLong(e -> e.lastAccess));
+            List<Path> evicted = new ArrayList<>();
+            for (Entry entry : entries) {
+                if (size <= maxSize) {
+                    break;
+                }
+                try (Lock lock = lock(entry.dir, true)) {
+                    if (lock == null || isInUse(entry.dir)) {
+                        continue;
+                    }
+                    logger.debug("Evicting {} from cache", entry.dir);
+                    Utils.deleteQuietly(entry.dir);
+                    Files.deleteIfExists(entry.file);
+                    evicted.add(entry.dir);
+                }
+                for (Object key : entry.keys) {
+                    long[] file = files.get(key);
+                    if (--file[1] == 0) {
+                        size -= file[0];
+                    }
+                }
+            }
+            deleteUnusedBlobs();
+            return evicted;
+        } finally {
+            evictLock.close();
+        }
+    }
+
+    private Lock lock(Path path, boolean tryLock) throws IOException {
+        Path lockFile = path.resolveSibling(path.toFile().getName() + ".lock");
+        ReentrantLock lock =
+                LOCKS.computeIfAbsent(lockFile.toAbsolutePath(), k -> new ReentrantLock());
+        if (tryLock) {
+            if (lock.isHeldByCurrentThread() || !lock.tryLock()) {
+                return null;
+            }
+        } else {
+            lock.lock();
+        }
+        FileChannel channel = null;
+        try {
+            Files.createDirectories(lockFile.getParent());
+            channel =
+                    FileChannel.open(lockFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+            FileLock fileLock = tryLock ? channel.tryLock() : channel.lock();
+            if (fileLock == null) {
+                channel.close();
+                lock.unlock();
+                return null;
+            }
+            return new Lock(lock, channel, null);
+        } catch (IOException | RuntimeException e) {
+            if (channel != null) {
+                channel.close();
+            }
+            lock.unlock();
+            throw e;
+        }
+    }
+
+    private boolean isInUse(Path resourceDir) throws IOException {
+        Path uses = getUses(resourceDir);
+        if (Files.notExists(uses)) {
+            return false;
+        }
+        List<Path> list;
+        try (Stream<Path> stream = Files.list(uses)) {
+            list = stream.collect(Collectors.toList());
+        }
+        boolean inUse = false;
+        for (Path file : list) {
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+                FileLock fileLock = channel.tryLock();
+                if (fileLock == null) {
+                    inUse = true;
+                } else {
+                    // left over by a process that exited without closing the lock
+                    Files.deleteIfExists(file);
+                }
+            } catch (OverlappingFileLockException e) {
+                // used by this process
+                inUse = true;
+            } catch (IOException e) {
+                // released by another process
+                logger.trace("Failed to check cache use: {}", file, e);
+            }
+        }
+        return inUse;
+    }
+
+    private void share(Path file, Path blobs, String sha1) throws IOException {
+        Path blob = blobs.resolve(sha1);
+        if (Files.notExists(blob)) {
+            try {
+                Files.createLink(blob, file);
+                return;
+            } catch (FileAlreadyExistsException e) {
+                // added by another process
+            } catch (IOException | UnsupportedOperationException e) {
+                logger.debug("Failed to share {} in cache", file, e);
+                return;
+            }
+        }
+        if (Files.isSameFile(blob, file) || Files.size(blob) != Files.size(file)) {
+            return;
+        }
+        Path link = file.resolveSibling(file.toFile().getName() + ".link");
+        try {
+            Files.deleteIfExists(link);
+            Files.createLink(link, blob);
+            Files.move(link, file, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException | UnsupportedOperationException e) {
+            logger.debug("Failed to share {} in cache", file, e);
+            Files.deleteIfExists(link);
+        }
+    }
+
+    private void deleteUnusedBlobs() throws IOException {
+        Path blobs = cacheDir.resolve(".blobs");
+        if (!hardLinks || Files.notExists(blobs)) {
+            return;
+        }
+        List<Path> list;
+        try (Stream<Path> stream = Files.list(blobs)) {
+            list = stream.collect(Collectors.toList());
+        }
+        for (Path blob : list) {
+            if (((Number) Files.getAttribute(blob, "unix:nlink")).intValue() == 1) {
+                Files.deleteIfExists(blob);
+            }
+        }
+    }
+
+    private Path getEntry(Path resourceDir) {
+        String path = cacheDir.relativize(resourceDir.toAbsolutePath()).toString();
+        return cacheDir.resolve(".entries").resolve(Utils.hash(path));
+    }
+
+    private Path getUses(Path resourceDir) {
+        String path = cacheDir.relativize(resourceDir.toAbsolutePath()).toString();
+        return cacheDir.resolve(".uses").resolve(Utils.hash(path));
+    }
+
+    private List<Entry> listEntries() throws IOException {
+        Path dir = cacheDir.resolve(".entries");
+        if (Files.notExists(dir)) {
+            return new ArrayList<>();
+        }
+        List<Path> list;
+        try (Stream<Path> stream = Files.list(dir)) {
+            list = stream.collect(Collectors.toList());
+        }
+        List<Entry> entries = new ArrayList<>();
+        for (Path file : list) {
+            try {
+                String path = new String(Files.readAllBytes(file), StandardCharsets.UTF_8);
+                Path resourceDir = cacheDir.resolve(path);
+                if (contains(resourceDir) && Files.isDirectory(resourceDir)) {
+                    long lastAccess = Files.getLastModifiedTime(file).toMillis();
+                    entries.add(new Entry(file, resourceDir, lastAccess));
+                } else {
+                    Files.deleteIfExists(file);
+                }
+            } catch (IOException e) {
+                // deleted by another process
+                logger.trace("Failed to read cache entry: {}", file, e);
+            }
+        }
+        return entries;
+    }
+
+    private static String sha1(Path file) throws IOException {
+        MessageDigest md;
+        try {
+            md = MessageDigest.getInstance("SHA1");
+        } catch (NoSuchAlgorithmException e) {
+            throw new AssertionError("SHA1 algorithm not found.", e);
+        }
+        byte[] buf = new byte[8192];
+        try (InputStream is = Files.newInputStream(file)) {
+            int read;
+            while ((read = is.read(buf)) != -1) {
+                md.update(buf, 0, read);
+            }
+        }
+        return Hex.toHexString(md.digest());
+    }
+
+    /** A resource directory of the cache. */
+    private static final class Entry {
+
+        Path file;
+        Path dir;
+        long lastAccess;
+        Set<Object> keys;
+
+        Entry(Path file, Path dir, long lastAccess) {
+            this.file = file;
+            this.dir = dir;
+            this.lastAccess = lastAccess;
+            keys = new HashSet<>();
+        }
+
+        void scan(Map<Object, long[]> files) throws IOException {
+            List<Path> list;
+            try (Stream<Path> stream = Files.walk(dir)) {
+                list = stream.collect(Collectors.toList());
+            }
+            for (Path path : list) {
+                BasicFileAttributes attrs = Files.readAttributes(path, BasicFileAttributes.class);
+                if (!attrs.isRegularFile()) {
+                    continue;
+                }
+                // hard links share the same file key
+                Object key = attrs.fileKey() == null ? path : attrs.fileKey();
+                if (keys.add(key)) {
+                    files.computeIfAbsent(key, k -> new long[] {attrs.size(), 0})[1]++;
+                }
+            }
+        }
+    }
+
+    /** A lock of a resource directory, that is released when closed. */
+    public static final class Lock implements AutoCloseable {
+
+        private ReentrantLock lock;
+        private FileChannel channel;
+        private Path file;
+
+        Lock(ReentrantLock lock, FileChannel channel, Path file) {
+            this.lock = lock;
+            this.channel = channel;
+            this.file = file;
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public void close() throws IOException {
+            try {
+                // closing the channel releases the file lock
+                channel.close();
+                if (file != null) {
+                    Files.deleteIfExists(file);
+                }
+            } finally {
+                if (lock != null) {
+                    lock.unlock();
+                }
+            }
+        }
+    }
+}
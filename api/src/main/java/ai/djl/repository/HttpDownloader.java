@@ -0,0 +1,380 @@
+/*
+ * Copyright 2024 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ * with the License. A copy of the License is located at
+ *
+ * http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES
+ * OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package ai.djl.repository;
+
+import ai.djl.util.Utils;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.io.SequenceInputStream;
+import java.net.HttpURLConnection;
+import java.net.URI;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * Downloads a HTTP resource with range requests, so that an interrupted download is resumed.
+ *
+ * <p>The resource is split in up to {@code maxChunks} chunks of at least {@code chunkSize} bytes.
+ * The first chunk is streamed to the reader while the other chunks are fetched in the background.
+ * The bytes received are kept in part files until the stream has been read to the end, and the next
+ * download of the same URI only requests the missing bytes.
+ *
+ * <p>The part files are keyed by the strong ETag, or else the Last-Modified date, of the resource,
+ * and each range request carries it in an {@code If-Range} header, so the bytes of a resource that
+ * has changed are never mixed with the new ones. A resource without such a validator is downloaded
+ * in chunks, but isn't resumed.
+ */
+final class HttpDownloader {
+
+    private static final Logger logger = LoggerFactory.getLogger(HttpDownloader.class);
+
+    private Path partDir;
+    private ExecutorService executor;
+    private int maxChunks;
+    private long chunkSize;
+
+    HttpDownloader(Path partDir, ExecutorService executor, int maxChunks, long chunkSize) {
+        this.partDir = partDir;
+        this.executor = executor;
+        this.maxChunks = maxChunks;
+        this.chunkSize = chunkSize;
+    }
+
+    static boolean isHttp(URI uri) {
+        String scheme = uri.getScheme();
+        return "http".equalsIgnoreCase(scheme) || "https".equalsIgnoreCase(scheme);
+    }
+
+    InputStream openStream(URI uri) throws IOException {
+        if (Utils.isOfflineMode()) {
+            throw new IOException("Offline model is enabled.");
+        }
+        Resource resource = getResource(uri);
+        if (resource == null) {
+            logger.debug("Range request is not supported, download without resume: {}", uri);
+            return new BufferedInputStream(uri.toURL().openStream());
+        }
+
+        Files.createDirectories(partDir);
+        long length = resource.length;
+        int count = (int) Math.max(1, Math.min(maxChunks, length / chunkSize));
+        long size = (length + count - 1) / count;
+        String uriHash = Utils.hash(uri.toString()) + '-';
+        String prefix = uriHash + Utils.hash(resource.validator + '-' + length) + '.';
+        deleteStaleParts(uriHash, resource.validator == null ? null : prefix);
+        Chunk[] chunks = new Chunk[count];
+        for (int i = 0; i < count; ++i) {
+            long start = i * size;
+            long end = Math.min(length, start + size);
+            Path file = partDir.resolve(prefix + i + ".part");
+            chunks[i] = new Chunk(uri, resource.validator, file, start, end);
+        }
+        for (int i = 1; i < count; ++i) {
+            Chunk chunk = chunks[i];
+            chunk.future =
+                    executor.submit(
+                            () -> {
+                                chunk.fetch();
+                                return null;
+                            });
+        }
+        logger.debug("Downloading {} bytes in {} chunks: {}", length, count, uri);
+        return new BufferedInputStream(new ChunkedInputStream(chunks, length));
+    }
+
+    /**
+     * Deletes the part files of the URI that were downloaded from another version of the resource.
+     *
+     * @param uriHash the prefix of all the part files of the URI
+     * @param prefix the prefix of the part files to keep, or {@code null} to delete all of them
+     * @throws IOException if a part file can't be deleted
+     */
+    private void deleteStaleParts(String uriHash, String prefix) throws IOException {
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(partDir, uriHash + '*')) {
+            for (Path file : stream) {
+                String name = file.toFile().getName();
+                if (prefix == null || !name.startsWith(prefix)) {
+                    Files.deleteIfExists(file);
+                }
+            }
+        }
+    }
+
+    private static Resource getResource(URI uri) throws IOException {
+        HttpURLConnection conn = (HttpURLConnection) uri.toURL().openConnection();
+        try {
+            conn.setRequestMethod("HEAD");
+            long length = conn.getContentLengthLong();
+            if (conn.getResponseCode() != HttpURLConnection.HTTP_OK
+                    || !"bytes".equalsIgnoreCase(conn.getHeaderField("Accept-Ranges"))
+                    || length < 0) {
+                return null;
+            }
+            // If-Range only accepts a strong validator
+            String validator = conn.getHeaderField("ETag");
+            if (validator == null || validator.startsWith("W/")) {
+                validator = conn.getHeaderField("Last-Modified");
+            }
+            return new Resource(length, validator);
+        } finally {
+            conn.disconnect();
+        }
+    }
+
+    /** The length and the validator of a resource that supports range requests. */
+    private static final class Resource {
+
+        long length;
+        String validator;
+
+        Resource(long length, String validator) {
+            this.length = length;
+            this.validator = validator;
+        }
+    }
+
+    /** A byte range of the resource, and the part file that holds the bytes received. */
+    private static final class Chunk {
+
+        URI uri;
+        String validator;
+        Path file;
+        long start;
+        long end;
+        Future<?> future;
+
+        Chunk(URI uri, String validator, Path file, long start, long end) {
+            this.uri = uri;
+            this.validator = validator;
+            this.file = file;
+            this.start = start;
+            this.end = end;
+        }
+
+        long getReceived() throws IOException {
+            if (Files.notExists(file)) {
+                return 0;
+            }
+            long received = Files.size(file);
+            if (received > end - start) {
+                Files.delete(file);
+                return 0;
+            }
+            return received;
+        }
+
+        InputStream openRemote(long offset) throws IOException {
+            HttpURLConnection conn = (HttpURLConnection) uri.toURL().openConnection();
+            conn.setRequestProperty("Range", "bytes=" + offset + '-' + (end - 1));
+            if (validator != null) {
+                conn.setRequestProperty("If-Range", validator);
+            }
+            int code = conn.getResponseCode();
+            if (code != HttpURLConnection.HTTP_PARTIAL) {
+                conn.disconnect();
+                if (code == HttpURLConnection.HTTP_OK) {
+                    // the resource has changed since the download started
+                    Files.deleteIfExists(file);
+                }
+                throw new IOException("Range request failed with status: " + code + ", " + uri);
+            }
+            return conn.getInputStream();
+        }
+
+        void fetch() throws IOException {
+            long received = getReceived();
+            if (start + received == end) {
+                return;
+            }
+            try (InputStream is = openRemote(start + received);
+                    OutputStream os = newPartStream()) {
+                byte[] buf = new byte[8192];
+                int read;
+                while ((read = is.read(buf)) != -1) {
+                    if (Thread.interrupted()) {
+                        throw new InterruptedIOException("Download is cancelled: " + uri);
+                    }
+                    os.write(buf, 0, read);
+                }
+            }
+        }
+
+        InputStream openStream() throws IOException {
+            long received = getReceived();
+            InputStream local =
+                    received == 0
+                            ? new ByteArrayInputStream(new byte[0])
+                            : Files.newInputStream(file);
+            if (start + received == end) {
+                return local;
+            }
+            try {
+                InputStream remote = openRemote(start + received);
+                return new SequenceInputStream(local, new TeeInputStream(remote, newPartStream()));
+            } catch (IOException e) {
+                local.close();
+                throw e;
+            }
+        }
+
+        private OutputStream newPartStream() throws IOException {
+            return Files.newOutputStream(
+                    file, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        }
+    }
+
+    /** Reads the chunks in order, and deletes the part files once all the bytes are read. */
+    private static final class ChunkedInputStream extends InputStream {
+
+        private Chunk[] chunks;
+        private long length;
+        private int current;
+        private InputStream is;
+        private long position;
+        private boolean completed;
+
+        ChunkedInputStream(Chunk[] chunks, long length) {
+            this.chunks = chunks;
+            this.length = length;
+            current = -1;
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public int read() throws IOException {
+            byte[] buf = new byte[1];
+            int read = read(buf, 0, 1);
+            return read == -1 ? -1 : buf[0] & 0xFF;
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            while (!completed) {
+                if (is == null) {
+                    if (current + 1 == chunks.length) {
+                        if (position != length) {
+                            throw new IOException(
+                                    "Unexpected end of download: " + position + " / " + length);
+                        }
+                        completed = true;
+                        break;
+                    }
+                    is = openNext();
+                }
+                int read = is.read(b, off, len);
+                if (read != -1) {
+                    position += read;
+                    return read;
+                }
+                is.close();
+                is = null;
+            }
+            return -1;
+        }
+
+        private InputStream openNext() throws IOException {
+            Chunk chunk = chunks[++current];
+            if (chunk.future == null) {
+                return chunk.openStream();
+            }
+            try {
+                chunk.future.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Download is interrupted.");
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof IOException) {
+                    throw (IOException) cause;
+                }
+                throw new IOException("Failed to download chunk: " + chunk.file, cause);
+            }
+            return Files.newInputStream(chunk.file);
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public void close() throws IOException {
+            if (is != null) {
+                is.close();
+                is = null;
+            }
+            for (Chunk chunk : chunks) {
+                if (chunk.future != null) {
+                    chunk.future.cancel(true);
+                }
+            }
+            if (completed) {
+                for (Chunk chunk : chunks) {
+                    Files.deleteIfExists(chunk.file);
+                }
+            }
+        }
+    }
+
+    /** Writes the bytes read from an {@link InputStream} to a part file. */
+    private static final class TeeInputStream extends InputStream {
+
+        private InputStream is;
+        private OutputStream os;
+
+        TeeInputStream(InputStream is, OutputStream os) {
+            this.is = is;
+            this.os = os;
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public int read() throws IOException {
+            int ret = is.read();
+            if (ret != -1) {
+                os.write(ret);
+            }
+            return ret;
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int read = is.read(b, off, len);
+            if (read > 0) {
+                os.write(b, off, read);
+            }
+            return read;
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public void close() throws IOException {
+            try {
+                is.close();
+            } finally {
+                os.close();
+            }
+        }
+    }
+}
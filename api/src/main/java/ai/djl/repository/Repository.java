@@ -258,6 +258,19 @@ public interface Repository {
      */
     void prepare(Artifact artifact, Progress progress) throws IOException;
 
+    /**
+     * Marks the artifact as in use, so that it is not evicted from the cache until the returned
+     * lock is closed.
+     *
+     * @param artifact the artifact to use
+     * @return the lock to close when the artifact is not used anymore, or {@code null} if the
+     *     artifact is not in a managed cache
+     * @throws IOException if it failed to lock the artifact
+     */
+    default ArtifactCache.Lock use(Artifact artifact) throws IOException {
+        return null;
+    }
+
     /**
      * Returns the cache directory for the repository.
      *
@@ -17,9 +17,11 @@ import ai.djl.Device;
 import ai.djl.MalformedModelException;
 import ai.djl.Model;
 import ai.djl.engine.Engine;
+import ai.djl.inference.Predictor;
 import ai.djl.nn.Block;
 import ai.djl.nn.BlockFactory;
 import ai.djl.repository.Artifact;
+import ai.djl.repository.ArtifactCache;
 import ai.djl.repository.MRL;
 import ai.djl.translate.DefaultTranslatorFactory;
 import ai.djl.translate.TranslateException;
@@ -86,6 +88,7 @@ public class BaseModelLoader implements ModelLoader {
         Map<String, Object> arguments = artifact.getArguments(criteria.getArguments());
         Map<String, String> options = artifact.getOptions(criteria.getOptions());
 
+        ArtifactCache.Lock cacheLock = null;
         try {
             TranslatorFactory factory = getTranslatorFactory(criteria, arguments);
             Class<I> input = criteria.getInputClass();
@@ -97,6 +100,8 @@ public class BaseModelLoader implements ModelLoader {
                 }
             }
 
+            // the artifact is kept in the cache until the model is closed
+            cacheLock = mrl.getRepository().use(artifact);
             mrl.prepare(artifact, progress);
             if (progress != null) {
                 progress.reset("Loading", 2);
@@ -165,16 +170,41 @@ public class BaseModelLoader implements ModelLoader {
                             engine);
             model.load(modelPath, null, options);
             Translator<I, O> translator = factory.newInstance(input, output, model, arguments);
-            return new ZooModel<>(model, translator);
+            ZooModel<I, O> zooModel = new ZooModel<>(model, translator);
+            Object warmupInput = arguments.get("warmup");
+            if (warmupInput != null) {
+                warmup(zooModel, input, warmupInput);
+            }
+            zooModel.setCacheLock(cacheLock);
+            cacheLock = null;
+            return zooModel;
         } catch (TranslateException e) {
             throw new ModelNotFoundException("No matching translator found", e);
         } finally {
+            if (cacheLock != null) {
+                cacheLock.close();
+            }
             if (progress != null) {
                 progress.end();
             }
         }
     }
 
+    private static <I, O> void warmup(ZooModel<I, O> model, Class<I> type, Object input)
+            throws MalformedModelException {
+        if (!type.isInstance(input)) {
+            model.close();
+            throw new IllegalArgumentException(
+                    "The warmup input must be a " + type.getName() + ", but found " + input);
+        }
+        try (Predictor<I, O> predictor = model.newPredictor()) {
+            predictor.warmup(type.cast(input));
+        } catch (TranslateException e) {
+            model.close();
+            throw new MalformedModelException("Failed to warm up the model", e);
+        }
+    }
+
     /** {@inheritDoc} */
     @Override
     public List<Artifact> listModels() throws IOException {
@@ -614,6 +614,9 @@ public class Criteria<I, O> {
         /**
          * Sets the optional model loading argument for this criteria.
          *
+         * <p>The {@code warmup} argument, a sample input of the input type, is run through the
+         * model once it is loaded, see {@link ai.djl.inference.Predictor#warmup(Object)}.
+         *
          * @param key the model loading argument key
          * @param value the model loading argument value
          * @return this {@code Builder}
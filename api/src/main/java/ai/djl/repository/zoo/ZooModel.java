@@ -15,15 +15,21 @@ package ai.djl.repository.zoo;
 import ai.djl.Device;
 import ai.djl.Model;
 import ai.djl.inference.Predictor;
+import ai.djl.inference.PredictorPool;
 import ai.djl.ndarray.NDManager;
 import ai.djl.ndarray.types.DataType;
 import ai.djl.ndarray.types.Shape;
 import ai.djl.nn.Block;
+import ai.djl.repository.ArtifactCache;
 import ai.djl.training.Trainer;
 import ai.djl.training.TrainingConfig;
+import ai.djl.translate.TranslateException;
 import ai.djl.translate.Translator;
 import ai.djl.util.PairList;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.URL;
@@ -40,8 +46,11 @@ import java.util.function.Function;
  */
 public class ZooModel<I, O> implements Model {
 
+    private static final Logger logger = LoggerFactory.getLogger(ZooModel.class);
+
     private Model model;
     private Translator<I, O> translator;
+    private ArtifactCache.Lock cacheLock;
 
     /**
      * Constructs a {@code ZooModel} given the model and translator.
@@ -54,6 +63,10 @@ public class ZooModel<I, O> implements Model {
         this.translator = translator;
     }
 
+    void setCacheLock(ArtifactCache.Lock cacheLock) {
+        this.cacheLock = cacheLock;
+    }
+
     /** {@inheritDoc} */
     @Override
     public void load(Path modelPath, String prefix, Map<String, ?> options) {
@@ -149,6 +162,19 @@ public class ZooModel<I, O> implements Model {
         return model.newPredictor(translator, device);
     }
 
+    /**
+     * Creates a new {@link PredictorPool} with the default translator, whose predictors share the
+     * parameters of the model.
+     *
+     * @param maxSize the maximum number of predictors
+     * @return a new {@link PredictorPool}
+     * @throws TranslateException if the warmup of a predictor failed
+     * @see PredictorPool#builder(Model, Translator)
+     */
+    public PredictorPool<I, O> newPredictorPool(int maxSize) throws TranslateException {
+        return PredictorPool.builder(this, translator).optMaxSize(maxSize).build();
+    }
+
     /** {@inheritDoc} */
     @Override
     public <P, Q> Predictor<P, Q> newPredictor(Translator<P, Q> translator, Device device) {
@@ -228,5 +254,13 @@ public class ZooModel<I, O> implements Model {
     @Override
     public void close() {
         model.close();
+        if (cacheLock != null) {
+            try {
+                cacheLock.close();
+            } catch (IOException e) {
+                logger.warn("Failed to release the model from the cache", e);
+            }
+            cacheLock = null;
+        }
     }
 }
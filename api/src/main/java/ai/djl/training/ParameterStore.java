@@ -19,9 +19,6 @@ import ai.djl.ndarray.NDArray;
 import ai.djl.ndarray.NDManager;
 import ai.djl.nn.Parameter;
 
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 
@@ -105,44 +102,56 @@ public class ParameterStore {
         ParameterData data =
                 parameterMap.computeIfAbsent(parameterId, k -> new ParameterData(parameter));
 
-        if (data.isEmpty()) {
-            NDArray array = parameter.getArray();
-
-            if (parameterServer != null) {
-                // initialize on parameter store for first time
-                parameterServer.init(parameterId, new NDArray[] {array});
-                NDArray[] arrays = new NDArray[deviceMap.size()];
-                for (Map.Entry<Device, Integer> entry : deviceMap.entrySet()) {
-                    Device dev = entry.getKey();
-                    int i = entry.getValue();
-                    if (i == index && array.getDevice().equals(dev)) {
-                        arrays[i] = array;
-                    } else {
-                        arrays[i] = array.toDevice(dev, true);
-                        arrays[i].attach(manager);
-                        // some parameter doesn't require grad
-                        // for example running_mean in BatchNorm
-                        if (parameter.requiresGradient()) {
-                            arrays[i].setRequiresGradient(true);
-                        }
-                    }
-                    data.add(arrays[i]);
+        // the store may be shared by several predictors, the mirrors are created once and only
+        // read after they are published
+        NDArray[] arrays = data.arrays;
+        if (arrays == null) {
+            synchronized (data) {
+                arrays = data.arrays;
+                if (arrays == null) {
+                    arrays = createMirrors(parameter, index, device, training);
+                    data.arrays = arrays;
                 }
-            } else {
-                if (copy || !array.getDevice().equals(device)) {
-                    array = array.toDevice(device, true);
-                    array.attach(manager);
+            }
+        }
+        return arrays[index];
+    }
+
+    private NDArray[] createMirrors(
+            Parameter parameter, int index, Device device, boolean training) {
+        NDArray array = parameter.getArray();
+
+        if (parameterServer != null) {
+            // initialize on parameter store for first time
+            parameterServer.init(parameter.getId(), new NDArray[] {array});
+            NDArray[] arrays = new NDArray[deviceMap.size()];
+            for (Map.Entry<Device, Integer> entry : deviceMap.entrySet()) {
+                Device dev = entry.getKey();
+                int i = entry.getValue();
+                if (i == index && array.getDevice().equals(dev)) {
+                    arrays[i] = array;
+                } else {
+                    arrays[i] = array.toDevice(dev, true);
+                    arrays[i].attach(manager);
                     // some parameter doesn't require grad
                     // for example running_mean in BatchNorm
-                    if (parameter.requiresGradient() && training) {
-                        array.setRequiresGradient(true);
+                    if (parameter.requiresGradient()) {
+                        arrays[i].setRequiresGradient(true);
                     }
                 }
-                data.add(array);
             }
+            return arrays;
         }
-
-        return data.get(index);
+        if (copy || !array.getDevice().equals(device)) {
+            array = array.toDevice(device, true);
+            array.attach(manager);
+            // some parameter doesn't require grad
+            // for example running_mean in BatchNorm
+            if (parameter.requiresGradient() && training) {
+                array.setRequiresGradient(true);
+            }
+        }
+        return new NDArray[] {array};
     }
 
     /**
@@ -165,27 +174,15 @@ public class ParameterStore {
     private final class ParameterData {
 
         private Parameter parameter;
-        private List<NDArray> list;
+        private volatile NDArray[] arrays;
 
         private ParameterData(Parameter parameter) {
             this.parameter = parameter;
-            list = Collections.synchronizedList(new ArrayList<>());
-        }
-
-        private boolean isEmpty() {
-            return list.isEmpty();
-        }
-
-        private void add(NDArray array) {
-            list.add(array);
-        }
-
-        private NDArray get(int index) {
-            return list.get(index);
         }
 
         private NDArray[] toArray() {
-            return list.toArray(new NDArray[0]);
+            NDArray[] ret = arrays;
+            return ret == null ? new NDArray[0] : ret.clone();
         }
 
         private boolean requireGradient() {
@@ -195,9 +192,10 @@ public class ParameterStore {
         private void sync() {
             NDArray array = parameter.getArray();
             Device device = array.getDevice();
-            if (!deviceMap.containsKey(device)) {
+            NDArray[] mirrors = arrays;
+            if (mirrors != null && !deviceMap.containsKey(device)) {
                 // model's parameters maybe loaded on different device than any of training devices.
-                list.get(0).copyTo(array);
+                mirrors[0].copyTo(array);
             }
         }
     }
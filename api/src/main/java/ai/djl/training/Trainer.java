@@ -23,6 +23,7 @@ import ai.djl.ndarray.types.Shape;
 import ai.djl.nn.Parameter;
 import ai.djl.nn.UninitializedParameterException;
 import ai.djl.training.dataset.Batch;
+import ai.djl.training.dataset.DataIterable;
 import ai.djl.training.dataset.Dataset;
 import ai.djl.training.evaluator.Evaluator;
 import ai.djl.training.listener.EpochTrainingListener;
@@ -142,13 +143,20 @@ public class Trainer implements AutoCloseable {
     /**
      * Fetches an iterator that can iterate through the given {@link Dataset}.
      *
+     * <p>The data loading time of each stage is recorded to the {@link Metrics} of this trainer if
+     * the dataset is iterated with a {@link DataIterable}.
+     *
      * @param dataset the dataset to iterate through
      * @return an {@link Iterable} of {@link Batch} that contains batches of data from the dataset
      * @throws IOException for various exceptions depending on the dataset
      * @throws TranslateException if there is an error while processing input
      */
     public Iterable<Batch> iterateDataset(Dataset dataset) throws IOException, TranslateException {
-        return dataset.getData(getManager(), executorService);
+        Iterable<Batch> iterable = dataset.getData(getManager(), executorService);
+        if (metrics != null && iterable instanceof DataIterable) {
+            ((DataIterable) iterable).setMetrics(metrics);
+        }
+        return iterable;
     }
 
     /**
@@ -73,6 +73,7 @@ public class BulkDataIterable extends DataIterable {
         subManager.setName("dataIter fetch");
         int batchSize = indices.size();
 
+        long begin = System.nanoTime();
         Batch raw;
         if (isRange(indices)) {
             long fromIndex = indices.get(0);
@@ -83,6 +84,8 @@ public class BulkDataIterable extends DataIterable {
             raw = ((ArrayDataset) dataset).getByIndices(subManager, indicesArr);
         }
 
+        begin = addMetric("data-read", begin);
+
         NDList batchData = raw.getData();
         // apply transform
         if (pipeline != null) {
@@ -95,10 +98,14 @@ public class BulkDataIterable extends DataIterable {
         if (targetPipeline != null) {
             batchLabels = targetPipeline.transform(batchLabels);
         }
+        if (pipeline != null || targetPipeline != null) {
+            begin = addMetric("data-transform", begin);
+        }
         // pin to a specific device
         if (device != null) {
             batchData = batchData.toDevice(device, false);
             batchLabels = batchLabels.toDevice(device, false);
+            addMetric("data-device", begin);
         }
         return new Batch(
                 subManager,
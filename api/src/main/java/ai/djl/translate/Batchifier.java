@@ -44,6 +44,8 @@ public interface Batchifier extends Serializable {
                 return STACK;
             case "padding":
                 return new SimplePaddingStackBatchifier();
+            case "packing":
+                return PackingBatchifier.builder().build();
             case "none":
                 return null;
             default:
@@ -75,6 +77,47 @@ public interface Batchifier extends Serializable {
      */
     NDList[] unbatchify(NDList inputs);
 
+    /**
+     * Converts an array of {@link NDList}s into a combined batch {@link NDList}, and keeps what is
+     * needed to split the outputs in the {@link TranslatorContext}.
+     *
+     * <p>Batchifiers that can't split the outputs from the outputs alone override this method and
+     * {@link #unbatchify(TranslatorContext, NDList)}.
+     *
+     * @param ctx the context of the prediction
+     * @param inputs the input array of {@link NDList}
+     * @return the batchified {@link NDList}
+     */
+    default NDList batchify(TranslatorContext ctx, NDList[] inputs) {
+        return batchify(inputs);
+    }
+
+    /**
+     * Splits the outputs of a batch created by {@link #batchify(TranslatorContext, NDList[])} into
+     * the outputs of each input.
+     *
+     * @param ctx the context of the prediction
+     * @param inputs the {@link NDList} that needs to be 'unbatchified'
+     * @return an array of NDLists, one for each input of the batch
+     */
+    default NDList[] unbatchify(TranslatorContext ctx, NDList inputs) {
+        return unbatchify(inputs);
+    }
+
+    /**
+     * Returns the bucket of a batch created by this batchifier.
+     *
+     * <p>Batchifiers that pad their batches to a fixed set of shapes return a label of the shape,
+     * which the {@link ai.djl.inference.Predictor} uses to break down the inference latency by
+     * shape.
+     *
+     * @param batch the batch created by {@link #batchify(NDList[])}
+     * @return the bucket of the batch, or {@code null} if the batchifier doesn't use buckets
+     */
+    default String getBucket(NDList batch) {
+        return null;
+    }
+
     /**
      * Partitions the given {@link ai.djl.training.dataset.Batch} {@link NDList} into multiple
      * {@link ai.djl.training.dataset.Batch} lists with smaller batch size.
@@ -0,0 +1,314 @@
+/*
+ * Copyright 2024 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ * with the License. A copy of the License is located at
+ *
+ * http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES
+ * OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package ai.djl.translate;
+
+import ai.djl.ndarray.NDArray;
+import ai.djl.ndarray.NDList;
+import ai.djl.ndarray.NDManager;
+import ai.djl.ndarray.index.NDIndex;
+import ai.djl.ndarray.types.DataType;
+import ai.djl.ndarray.types.Shape;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The packing batchifier concatenates several token sequences into each row of the batch, instead
+ * of padding every sequence to the longest one.
+ *
+ * <p>Each input is an {@link NDList} of 1-D token arrays, such as the input ids, the attention mask
+ * and the token type ids of a tokenizer encoding. The sequences are packed into rows with a
+ * first-fit decreasing strategy. The attention mask of the batch is replaced by a block-diagonal
+ * mask of shape (rows, length, length), so that the tokens of a sequence only attend to the tokens
+ * of the same sequence, and position ids that restart at 0 for each sequence are appended to the
+ * batch. The model must accept such a 3-D attention mask and the position ids, as the HuggingFace
+ * BERT-like models do.
+ *
+ * <p>Unbatchifying needs the layout of the batch, which is kept in the {@link TranslatorContext},
+ * so {@link #batchify(TranslatorContext, NDList[])} and {@link #unbatchify(TranslatorContext,
+ * NDList)} must be used. The token level outputs, of shape (rows, length, ...), are split back to
+ * each input, without the padded tokens. They are set with {@link Builder#optTokenOutputs(int...)},
+ * the first output by default. Other outputs, such as a pooled output, can't be attributed to a
+ * single sequence and are dropped.
+ */
+public final class PackingBatchifier implements Batchifier {
+
+    private static final long serialVersionUID = 1L;
+
+    private static final String LAYOUT = "packingLayout";
+
+    private int maxLength;
+    private int maskIndex;
+    private boolean includePositionIds;
+    private int[] tokenOutputs;
+
+    private PackingBatchifier(Builder builder) {
+        maxLength = builder.maxLength;
+        maskIndex = builder.maskIndex;
+        includePositionIds = builder.includePositionIds;
+        tokenOutputs = builder.tokenOutputs;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDList batchify(NDList[] inputs) {
+        return pack(inputs).batch;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDList batchify(TranslatorContext ctx, NDList[] inputs) {
+        Packing packing = pack(inputs);
+        ctx.setAttachment(LAYOUT, packing.segments);
+        return packing.batch;
+    }
+
+    /**
+     * Unsupported, the layout of the batch is only available from the {@link TranslatorContext}.
+     *
+     * @param inputs the {@link NDList} that needs to be 'unbatchified'
+     * @return nothing
+     * @throws UnsupportedOperationException always
+     * @see #unbatchify(TranslatorContext, NDList)
+     */
+    @Override
+    public NDList[] unbatchify(NDList inputs) {
+        throw new UnsupportedOperationException(
+                "PackingBatchifier requires the TranslatorContext to unbatchify");
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDList[] unbatchify(TranslatorContext ctx, NDList inputs) {
+        int[][] segments = (int[][]) ctx.getAttachment(LAYOUT);
+        if (segments == null) {
+            throw new IllegalStateException("The batch was not packed with this context");
+        }
+        NDList[] split = new NDList[segments.length];
+        Arrays.setAll(split, i -> new NDList());
+        for (int output : tokenOutputs) {
+            if (output >= inputs.size()) {
+                throw new IllegalArgumentException(
+                        "The model has no output " + output + ", only " + inputs.size());
+            }
+            NDArray array = inputs.get(output);
+            Shape shape = array.getShape();
+            if (shape.dimension() < 2 || shape.get(1) != segments[0][3]) {
+                throw new IllegalArgumentException(
+                        "Output " + output + " is not a token level output: " + shape);
+            }
+            for (int i = 0; i < segments.length; ++i) {
+                int[] segment = segments[i];
+                NDIndex index =
+                        new NDIndex("{}, {}:{}", segment[0], segment[1], segment[1] + segment[2]);
+                NDArray unpacked = array.get(index);
+                unpacked.setName(array.getName());
+                split[i].add(unpacked);
+            }
+        }
+        return split;
+    }
+
+    /**
+     * Unsupported, the layout of the batch is only available from the {@link TranslatorContext}.
+     *
+     * @param list the {@link NDList} that needs to be split
+     * @param numOfSlices the number of slices the list must be sliced into
+     * @param evenSplit whether each slice must have the same shape
+     * @return nothing
+     * @throws UnsupportedOperationException always
+     */
+    @Override
+    public NDList[] split(NDList list, int numOfSlices, boolean evenSplit) {
+        throw new UnsupportedOperationException("PackingBatchifier can't split a packed batch");
+    }
+
+    private Packing pack(NDList[] inputs) {
+        int size = inputs.length;
+        int[] lengths = new int[size];
+        int length = maxLength;
+        for (int i = 0; i < size; ++i) {
+            long[] mask = toLongArray(inputs[i].get(maskIndex));
+            for (long value : mask) {
+                if (value != 0) {
+                    ++lengths[i];
+                }
+            }
+            length = Math.max(length, lengths[i]);
+        }
+
+        // first-fit decreasing, each segment is {row, offset, length, row length}
+        Integer[] order = new Integer[size];
+        Arrays.setAll(order, i -> i);
+        Arrays.sort(order, (a, b) -> Integer.compare(lengths[b], lengths[a]));
+        List<Integer> used = new ArrayList<>();
+        int[][] segments = new int[size][];
+        for (int i : order) {
+            int row = 0;
+            while (row < used.size() && used.get(row) + lengths[i] > length) {
+                ++row;
+            }
+            if (row == used.size()) {
+                used.add(0);
+            }
+            segments[i] = new int[] {row, used.get(row), lengths[i], length};
+            used.set(row, used.get(row) + lengths[i]);
+        }
+        int rows = used.size();
+
+        NDManager manager = inputs[0].head().getManager();
+        NDList batch = new NDList();
+        for (int j = 0; j < inputs[0].size(); ++j) {
+            NDArray first = inputs[0].get(j);
+            long[] data;
+            Shape shape;
+            if (j == maskIndex) {
+                data = new long[rows * length * length];
+                for (int[] segment : segments) {
+                    for (int a = segment[1]; a < segment[1] + segment[2]; ++a) {
+                        int offset = (segment[0] * length + a) * length;
+                        Arrays.fill(data, offset + segment[1], offset + segment[1] + segment[2], 1);
+                    }
+                }
+                shape = new Shape(rows, length, length);
+            } else {
+                data = new long[rows * length];
+                for (int i = 0; i < size; ++i) {
+                    int[] segment = segments[i];
+                    long[] tokens = toLongArray(inputs[i].get(j));
+                    int offset = segment[0] * length + segment[1];
+                    System.arraycopy(tokens, 0, data, offset, segment[2]);
+                }
+                shape = new Shape(rows, length);
+            }
+            NDArray array = manager.create(data, shape).toType(first.getDataType(), false);
+            array.setName(first.getName());
+            batch.add(array);
+        }
+        if (includePositionIds) {
+            long[] data = new long[rows * length];
+            for (int[] segment : segments) {
+                int offset = segment[0] * length + segment[1];
+                for (int i = 0; i < segment[2]; ++i) {
+                    data[offset + i] = i;
+                }
+            }
+            NDArray positionIds = manager.create(data, new Shape(rows, length));
+            positionIds.setName("position_ids");
+            batch.add(positionIds);
+        }
+        return new Packing(batch, segments);
+    }
+
+    private static long[] toLongArray(NDArray array) {
+        if (array.getShape().dimension() != 1) {
+            throw new IllegalArgumentException(
+                    "PackingBatchifier only supports 1-D token arrays, but found "
+                            + array.getShape());
+        }
+        return array.toType(DataType.INT64, false).toLongArray();
+    }
+
+    /**
+     * Returns a {@link PackingBatchifier.Builder}.
+     *
+     * @return a {@link PackingBatchifier.Builder}
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    private static final class Packing {
+
+        NDList batch;
+        int[][] segments;
+
+        Packing(NDList batch, int[][] segments) {
+            this.batch = batch;
+            this.segments = segments;
+        }
+    }
+
+    /** Builder to build a {@link PackingBatchifier}. */
+    public static final class Builder {
+
+        private int maxLength = -1;
+        private int maskIndex = 1;
+        private boolean includePositionIds = true;
+        private int[] tokenOutputs = {0};
+
+        Builder() {}
+
+        /**
+         * Sets the length of the rows of the batch.
+         *
+         * <p>By default, the rows are as long as the longest sequence. A sequence longer than the
+         * rows is never split, it makes the rows longer.
+         *
+         * @param maxLength the length of the rows
+         * @return this builder
+         */
+        public Builder optMaxLength(int maxLength) {
+            this.maxLength = maxLength;
+            return this;
+        }
+
+        /**
+         * Sets the index of the attention mask in the input {@link NDList}.
+         *
+         * @param maskIndex the index of the attention mask, 1 by default
+         * @return this builder
+         */
+        public Builder optMaskIndex(int maskIndex) {
+            this.maskIndex = maskIndex;
+            return this;
+        }
+
+        /**
+         * Sets whether to append the position ids to the batch.
+         *
+         * @param includePositionIds true to append the position ids, the default
+         * @return this builder
+         */
+        public Builder optIncludePositionIds(boolean includePositionIds) {
+            this.includePositionIds = includePositionIds;
+            return this;
+        }
+
+        /**
+         * Sets the indices of the token level outputs of the model, which are split back to each
+         * input.
+         *
+         * <p>The token level outputs must have the shape (rows, length, ...). The other outputs are
+         * dropped.
+         *
+         * @param tokenOutputs the indices of the token level outputs, only the first output by
+         *     default
+         * @return this builder
+         */
+        public Builder optTokenOutputs(int... tokenOutputs) {
+            this.tokenOutputs = tokenOutputs;
+            return this;
+        }
+
+        /**
+         * Builds the {@link PackingBatchifier}.
+         *
+         * @return the constructed {@link PackingBatchifier}
+         */
+        public PackingBatchifier build() {
+            return new PackingBatchifier(this);
+        }
+    }
+}
@@ -12,6 +12,8 @@
  */
 package ai.djl.translate;
 
+import ai.djl.Model;
+import ai.djl.inference.Predictor;
 import ai.djl.ndarray.NDArray;
 import ai.djl.ndarray.NDList;
 import ai.djl.ndarray.NDManager;
@@ -19,14 +21,29 @@ import ai.djl.ndarray.index.NDIndex;
 import ai.djl.ndarray.types.Shape;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * The padding stack batchifier is a {@link StackBatchifier} that also pads elements to reach the
  * same length.
+ *
+ * <p>With sequence or batch buckets, the padded dimensions and the batch dimension are rounded up
+ * to the next bucket size. Like the buckets of {@code FixedBucketSampler}, this bounds the number
+ * of distinct shapes a dynamic-shape model sees, so that engines that plan per input shape can
+ * reuse their plans. The extra rows of the batch repeat the last input, and {@link
+ * Predictor#batchPredict(List)} drops their outputs.
  */
 public final class PaddingStackBatchifier implements Batchifier {
 
+    /**
+     * The key of the {@link TranslatorContext} attachment that holds the number of inputs of a
+     * batch, before the batch is padded to a bucket size.
+     */
+    public static final String BATCH_SIZE = PaddingStackBatchifier.class.getName() + ".batchSize";
+
     private static final long serialVersionUID = 1L;
 
     @SuppressWarnings("serial")
@@ -41,6 +58,8 @@ public final class PaddingStackBatchifier implements Batchifier {
     private List<Integer> paddingSizes;
 
     private boolean includeValidLengths;
+    private int[] sequenceBuckets;
+    private int[] batchBuckets;
 
     private PaddingStackBatchifier(Builder builder) {
         arraysToPad = builder.arraysToPad;
@@ -48,12 +67,16 @@ public final class PaddingStackBatchifier implements Batchifier {
         paddingSuppliers = builder.paddingSuppliers;
         paddingSizes = builder.paddingSizes;
         includeValidLengths = builder.includeValidLengths;
+        sequenceBuckets = builder.sequenceBuckets;
+        batchBuckets = builder.batchBuckets;
     }
 
     /** {@inheritDoc} */
     @Override
     public NDList batchify(NDList[] inputs) {
-        NDList validLengths = new NDList(inputs.length);
+        int batchSize = inputs.length;
+        int bucketSize = (int) toBucket(batchBuckets, batchSize);
+        long[][] validLengths = new long[arraysToPad.size()][];
         NDManager manager = inputs[0].get(0).getManager();
         for (int i = 0; i < arraysToPad.size(); i++) {
             int arrayIndex = arraysToPad.get(i);
@@ -65,17 +88,109 @@ public final class PaddingStackBatchifier implements Batchifier {
                 throw new IllegalArgumentException(
                         "The batchifier padding size is too small " + maxSize + " " + paddingSize);
             }
-            maxSize = Math.max(maxSize, paddingSize);
+            maxSize = toBucket(sequenceBuckets, Math.max(maxSize, paddingSize));
             long[] arrayValidLengths = padArrays(inputs, arrayIndex, dimIndex, padding, maxSize);
-            validLengths.add(manager.create(arrayValidLengths));
+            validLengths[i] = Arrays.copyOf(arrayValidLengths, bucketSize);
+            Arrays.fill(validLengths[i], batchSize, bucketSize, arrayValidLengths[batchSize - 1]);
         }
         NDList result = Batchifier.STACK.batchify(inputs);
+        if (bucketSize > batchSize) {
+            for (int i = 0; i < result.size(); i++) {
+                NDArray array = result.get(i);
+                NDArray last = array.get(NDIndex.sliceAxis(0, batchSize - 1, batchSize));
+                NDArray extra =
+                        last.broadcast(Shape.update(array.getShape(), 0, bucketSize - batchSize));
+                NDArray padded = array.concat(extra, 0);
+                padded.setName(array.getName());
+                result.set(i, padded);
+            }
+        }
         if (includeValidLengths) {
-            result.addAll(validLengths);
+            for (long[] arrayValidLengths : validLengths) {
+                result.add(manager.create(arrayValidLengths));
+            }
         }
         return result;
     }
 
+    /**
+     * Returns the bucket of a batch created by this batchifier.
+     *
+     * <p>The bucket is the batch size followed by the size of each padded dimension, for example
+     * {@code "8x128"}.
+     *
+     * @param batch the batch created by {@link #batchify(NDList[])}
+     * @return the bucket of the batch, or {@code null} if no bucket sizes are configured
+     */
+    @Override
+    public String getBucket(NDList batch) {
+        if (sequenceBuckets.length == 0 && batchBuckets.length == 0) {
+            return null;
+        }
+        StringBuilder sb = new StringBuilder();
+        sb.append(batch.head().getShape().get(0));
+        for (int i = 0; i < arraysToPad.size(); i++) {
+            Shape shape = batch.get(arraysToPad.get(i)).getShape();
+            sb.append('x').append(shape.get(dimsToPad.get(i) + 1));
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Runs a dummy batch through the model for every bucket.
+     *
+     * <p>This is meant to be called once after the model is loaded, so that the engine plans all
+     * bucket shapes before the first request. The sample is truncated or padded to each sequence
+     * bucket, and repeated to each batch bucket.
+     *
+     * @param model the model to warm up
+     * @param sample a pre-processed input, as returned by {@link Translator#processInput}
+     * @return the latency in microseconds of each bucket
+     * @throws TranslateException if an error occurs during prediction
+     */
+    public Map<String, Long> warmup(Model model, NDList sample) throws TranslateException {
+        int[] sequences = sequenceBuckets.length == 0 ? new int[] {-1} : sequenceBuckets;
+        int[] batches = batchBuckets.length == 0 ? new int[] {1} : batchBuckets;
+        Map<String, Long> latencies = new LinkedHashMap<>();
+        try (NDManager manager = sample.getManager().newSubManager();
+                Predictor<NDList, NDList> predictor =
+                        model.newPredictor(new NoopTranslator(this))) {
+            for (int sequence : sequences) {
+                NDList item = sample.toDevice(sample.head().getDevice(), true);
+                item.attach(manager);
+                for (int i = 0; sequence > 0 && i < arraysToPad.size(); i++) {
+                    int arrayIndex = arraysToPad.get(i);
+                    int dimIndex = dimsToPad.get(i);
+                    NDArray array = item.get(arrayIndex);
+                    if (array.getShape().get(dimIndex) > sequence) {
+                        NDArray truncated = array.get(NDIndex.sliceAxis(dimIndex, 0, sequence));
+                        truncated.setName(array.getName());
+                        item.set(arrayIndex, truncated);
+                    }
+                    NDArray padding = paddingSuppliers.get(i).get(manager);
+                    padArrays(new NDList[] {item}, arrayIndex, dimIndex, padding, sequence);
+                }
+                for (int batch : batches) {
+                    List<NDList> inputs = new ArrayList<>(batch);
+                    StringBuilder bucket = new StringBuilder().append(batch);
+                    for (int i = 0; i < batch; i++) {
+                        inputs.add(new NDList(item));
+                    }
+                    for (int i = 0; i < arraysToPad.size(); i++) {
+                        long size = item.get(arraysToPad.get(i)).getShape().get(dimsToPad.get(i));
+                        size = Math.max(size, paddingSizes.get(i));
+                        bucket.append('x').append(toBucket(sequenceBuckets, size));
+                    }
+                    long begin = System.nanoTime();
+                    predictor.batchPredict(inputs);
+                    long duration = (System.nanoTime() - begin) / 1000;
+                    latencies.put(bucket.toString(), duration);
+                }
+            }
+        }
+        return latencies;
+    }
+
     /** {@inheritDoc} */
     @Override
     public NDList[] unbatchify(NDList inputs) {
@@ -208,6 +323,15 @@ public final class PaddingStackBatchifier implements Batchifier {
         return arrayValidLengths;
     }
 
+    private static long toBucket(int[] buckets, long size) {
+        for (int bucket : buckets) {
+            if (bucket >= size) {
+                return bucket;
+            }
+        }
+        return size;
+    }
+
     /**
      * Returns a {@link PaddingStackBatchifier.Builder}.
      *
@@ -225,6 +349,8 @@ public final class PaddingStackBatchifier implements Batchifier {
         private List<NDArraySupplier> paddingSuppliers;
         private List<Integer> paddingSizes;
         private boolean includeValidLengths;
+        private int[] sequenceBuckets = {};
+        private int[] batchBuckets = {};
 
         private Builder() {
             arraysToPad = new ArrayList<>();
@@ -244,6 +370,34 @@ public final class PaddingStackBatchifier implements Batchifier {
             return this;
         }
 
+        /**
+         * Sets the bucket sizes of the padded dimensions.
+         *
+         * <p>Each padded dimension is padded up to the smallest bucket that fits it. Dimensions
+         * larger than all buckets keep their size.
+         *
+         * @param buckets the bucket sizes
+         * @return this builder
+         */
+        public Builder optSequenceBuckets(int... buckets) {
+            this.sequenceBuckets = toBuckets(buckets);
+            return this;
+        }
+
+        /**
+         * Sets the bucket sizes of the batch dimension.
+         *
+         * <p>Each batch is padded up to the smallest bucket that fits it, by repeating its last
+         * element. Batches larger than all buckets keep their size.
+         *
+         * @param buckets the bucket sizes
+         * @return this builder
+         */
+        public Builder optBatchBuckets(int... buckets) {
+            this.batchBuckets = toBuckets(buckets);
+            return this;
+        }
+
         /**
          * Adds a new dimension to be padded in the input {@link NDList}.
          *
@@ -286,5 +440,14 @@ public final class PaddingStackBatchifier implements Batchifier {
         public PaddingStackBatchifier build() {
             return new PaddingStackBatchifier(this);
         }
+
+        private static int[] toBuckets(int[] buckets) {
+            int[] sorted = buckets.clone();
+            Arrays.sort(sorted);
+            if (sorted.length > 0 && sorted[0] <= 0) {
+                throw new IllegalArgumentException("Bucket sizes must be positive");
+            }
+            return sorted;
+        }
     }
 }
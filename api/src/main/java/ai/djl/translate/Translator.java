@@ -143,17 +143,22 @@ public interface Translator<I, O> extends PreProcessor<I>, PostProcessor<O> {
                 for (int i = 0; i < inputs.length; ++i) {
                     preprocessed[i] = Translator.this.processInput(ctx, inputs[i]);
                 }
-                return batchifier.batchify(preprocessed);
+                ctx.setAttachment(PaddingStackBatchifier.BATCH_SIZE, inputs.length);
+                return batchifier.batchify(ctx, preprocessed);
             }
 
             /** {@inheritDoc} */
             @Override
             @SuppressWarnings({"PMD.SignatureDeclareThrowsException", "unchecked"})
             public O[] processOutput(TranslatorContext ctx, NDList list) throws Exception {
-                NDList[] unbatched = batchifier.unbatchify(list);
-                List<O> outputs = new ArrayList<>(unbatched.length);
-                for (NDList output : unbatched) {
-                    outputs.add(Translator.this.processOutput(ctx, output));
+                NDList[] unbatched = batchifier.unbatchify(ctx, list);
+                // the batchifier may have padded the batch to a bucket size
+                Integer batchSize = (Integer) ctx.getAttachment(PaddingStackBatchifier.BATCH_SIZE);
+                int size = batchSize == null ? unbatched.length : batchSize;
+                size = Math.min(size, unbatched.length);
+                List<O> outputs = new ArrayList<>(size);
+                for (int i = 0; i < size; ++i) {
+                    outputs.add(Translator.this.processOutput(ctx, unbatched[i]));
                 }
                 O[] type = (O[]) Array.newInstance(outputs.get(0).getClass(), 0);
                 return outputs.toArray(type);
@@ -0,0 +1,98 @@
+/*
+ * Copyright 2024 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ * with the License. A copy of the License is located at
+ *
+ * http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES
+ * OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package ai.djl.inference;
+
+import ai.djl.Model;
+import ai.djl.metric.Metrics;
+import ai.djl.ndarray.NDList;
+import ai.djl.ndarray.NDManager;
+import ai.djl.nn.LambdaBlock;
+import ai.djl.translate.Batchifier;
+import ai.djl.translate.NoopTranslator;
+import ai.djl.translate.TranslateException;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+public class BatchingPredictorTest {
+
+    @Test
+    public void testBatchingPredictor() throws TranslateException {
+        try (Model model = Model.newInstance("identity");
+                NDManager manager = NDManager.newBaseManager()) {
+            model.setBlock(new LambdaBlock(list -> new NDList(list.singletonOrThrow().mul(2))));
+            Metrics metrics = new Metrics();
+            NoopTranslator translator = new NoopTranslator(Batchifier.STACK);
+            try (BatchingPredictor<NDList, NDList> predictor =
+                    BatchingPredictor.builder(model, translator)
+                            .optMaxBatchSize(4)
+                            .optMaxDelay(50, TimeUnit.MILLISECONDS)
+                            .optMetrics(metrics)
+                            .build()) {
+                List<CompletableFuture<NDList>> futures = new ArrayList<>();
+                for (int i = 0; i < 8; ++i) {
+                    futures.add(predictor.predictAsync(new NDList(manager.create((float) i))));
+                }
+                for (int i = 0; i < 8; ++i) {
+                    NDList output = futures.get(i).join();
+                    Assert.assertEquals(output.singletonOrThrow().getFloat(), i * 2f);
+                }
+
+                NDList single = predictor.predict(new NDList(manager.create(3f)));
+                Assert.assertEquals(single.singletonOrThrow().getFloat(), 6f);
+
+                Assert.assertTrue(metrics.hasMetric("BatchSize"));
+                Assert.assertTrue(metrics.hasMetric("QueueWait"));
+                Assert.assertTrue(metrics.getMetric("BatchSize").size() < 9);
+            }
+            Assert.assertThrows(
+                    () -> {
+                        BatchingPredictor<NDList, NDList> closed =
+                                BatchingPredictor.builder(model, translator).build();
+                        closed.close();
+                        closed.predict(new NDList(manager.create(1f)));
+                    });
+        }
+    }
+
+    @Test
+    public void testCloseWhileBatching() throws InterruptedException {
+        try (Model model = Model.newInstance("identity");
+                NDManager manager = NDManager.newBaseManager()) {
+            model.setBlock(new LambdaBlock(list -> list));
+            NoopTranslator translator = new NoopTranslator(Batchifier.STACK);
+            List<CompletableFuture<NDList>> futures = new ArrayList<>();
+            try (BatchingPredictor<NDList, NDList> predictor =
+                    BatchingPredictor.builder(model, translator)
+                            .optMaxBatchSize(4)
+                            .optMaxDelay(1, TimeUnit.MINUTES)
+                            .build()) {
+                for (int i = 0; i < 2; ++i) {
+                    futures.add(predictor.predictAsync(new NDList(manager.create((float) i))));
+                }
+                // let the worker take the jobs from the queue and wait for more
+                while (predictor.getQueueSize() > 0) {
+                    Thread.sleep(10);
+                }
+            }
+            for (CompletableFuture<NDList> future : futures) {
+                Assert.assertTrue(future.isCompletedExceptionally());
+            }
+        }
+    }
+}
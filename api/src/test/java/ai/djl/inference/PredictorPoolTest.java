@@ -0,0 +1,119 @@
+/*
+ * Copyright 2024 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ * with the License. A copy of the License is located at
+ *
+ * http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES
+ * OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package ai.djl.inference;
+
+import ai.djl.Model;
+import ai.djl.metric.Metrics;
+import ai.djl.ndarray.NDList;
+import ai.djl.ndarray.NDManager;
+import ai.djl.nn.LambdaBlock;
+import ai.djl.translate.NoopTranslator;
+import ai.djl.translate.TranslateException;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class PredictorPoolTest {
+
+    @Test
+    public void testPredictorPool() throws Exception {
+        try (Model model = Model.newInstance("identity");
+                NDManager manager = NDManager.newBaseManager()) {
+            AtomicInteger calls = new AtomicInteger();
+            model.setBlock(
+                    new LambdaBlock(
+                            list -> {
+                                calls.incrementAndGet();
+                                return new NDList(list.singletonOrThrow().mul(2));
+                            }));
+            Metrics metrics = new Metrics();
+            NDList warmup = new NDList(manager.create(0f));
+            ExecutorService executor = Executors.newFixedThreadPool(8);
+            try (PredictorPool<NDList, NDList> pool =
+                    PredictorPool.builder(model, new NoopTranslator())
+                            .optMaxSize(2)
+                            .optWarmupInput(warmup)
+                            .optMetrics(metrics)
+                            .build()) {
+                List<Future<Float>> futures = new ArrayList<>();
+                for (int i = 0; i < 32; ++i) {
+                    float value = i;
+                    futures.add(
+                            executor.submit(
+                                    () -> {
+                                        NDList input = new NDList(manager.create(value));
+                                        return pool.predict(input).singletonOrThrow().getFloat();
+                                    }));
+                }
+                for (int i = 0; i < 32; ++i) {
+                    Assert.assertEquals(futures.get(i).get(), i * 2f);
+                }
+
+                Assert.assertTrue(pool.getSize() <= 2);
+                Assert.assertEquals(pool.getActiveCount(), 0);
+                Assert.assertEquals(pool.getBorrowCount(), 32);
+                Assert.assertEquals(calls.get(), 32 + pool.getSize());
+                Assert.assertEquals(metrics.getMetric("PoolWait").size(), 32);
+
+                Predictor<NDList, NDList> first = pool.borrow();
+                Predictor<NDList, NDList> second = pool.borrow();
+                Assert.assertSame(first.parameterStore, second.parameterStore);
+                Assert.assertEquals(pool.getUtilization(), 1.0);
+                pool.release(first);
+                Assert.assertSame(pool.borrow(), first);
+                pool.release(first);
+                pool.release(second);
+            }
+
+            try (PredictorPool<NDList, NDList> pool =
+                    PredictorPool.builder(model, new NoopTranslator())
+                            .optMaxSize(1)
+                            .optTimeout(10, TimeUnit.MILLISECONDS)
+                            .build()) {
+                Predictor<NDList, NDList> predictor = pool.borrow();
+                Assert.assertThrows(TranslateException.class, pool::borrow);
+                Assert.assertTrue(pool.getWaitTime(TimeUnit.MILLISECONDS) >= 10);
+                pool.release(predictor);
+                Assert.assertThrows(IllegalStateException.class, () -> pool.release(predictor));
+                try (Predictor<NDList, NDList> other = model.newPredictor(new NoopTranslator())) {
+                    Assert.assertThrows(IllegalArgumentException.class, () -> pool.release(other));
+                }
+            }
+
+            PredictorPool<NDList, NDList> pool =
+                    PredictorPool.builder(model, new NoopTranslator()).optMaxSize(2).build();
+            Predictor<NDList, NDList> first = pool.borrow();
+            Predictor<NDList, NDList> second = pool.borrow();
+            pool.release(second);
+            pool.close();
+            // the borrowed predictor is still usable, the idle one is closed
+            Assert.assertFalse(second.manager.isOpen());
+            NDList output = first.predict(new NDList(manager.create(2f)));
+            Assert.assertEquals(output.singletonOrThrow().getFloat(), 4f);
+            Assert.assertThrows(IllegalStateException.class, pool::borrow);
+            Assert.assertTrue(first.parameterStore.getManager().isOpen());
+            pool.release(first);
+            Assert.assertFalse(first.manager.isOpen());
+            Assert.assertFalse(first.parameterStore.getManager().isOpen());
+            executor.shutdown();
+        }
+    }
+}
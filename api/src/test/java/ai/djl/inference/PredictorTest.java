@@ -0,0 +1,294 @@
+/*
+ * Copyright 2024 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ * with the License. A copy of the License is located at
+ *
+ * http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES
+ * OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package ai.djl.inference;
+
+import ai.djl.Model;
+import ai.djl.ModelException;
+import ai.djl.metric.Metric;
+import ai.djl.metric.Metrics;
+import ai.djl.ndarray.NDList;
+import ai.djl.ndarray.NDManager;
+import ai.djl.ndarray.types.Shape;
+import ai.djl.nn.Block;
+import ai.djl.nn.LambdaBlock;
+import ai.djl.repository.zoo.Criteria;
+import ai.djl.repository.zoo.ZooModel;
+import ai.djl.translate.Batchifier;
+import ai.djl.translate.NoopTranslator;
+import ai.djl.translate.PaddingStackBatchifier;
+import ai.djl.translate.TranslateException;
+import ai.djl.util.Utils;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+public class PredictorTest {
+
+    @Test
+    public void testPredictAsync() {
+        try (Model model = Model.newInstance("identity");
+                NDManager manager = NDManager.newBaseManager()) {
+            Set<String> threads = ConcurrentHashMap.newKeySet();
+            model.setBlock(
+                    new LambdaBlock(
+                            list -> {
+                                threads.add(Thread.currentThread().getName());
+                                return new NDList(list.singletonOrThrow().mul(2));
+                            }));
+            Metrics metrics = new Metrics();
+            try (Predictor<NDList, NDList> predictor =
+                    model.newPredictor(new NoopTranslator(Batchifier.STACK))) {
+                predictor.setMetrics(metrics);
+                List<CompletableFuture<NDList>> futures = new ArrayList<>();
+                for (int i = 0; i < 8; ++i) {
+                    futures.add(predictor.predictAsync(new NDList(manager.create((float) i))));
+                }
+                for (int i = 0; i < 8; ++i) {
+                    Assert.assertEquals(
+                            futures.get(i).join().singletonOrThrow().getFloat(), i * 2f);
+                }
+                Assert.assertEquals(threads.size(), 1);
+                Assert.assertTrue(threads.iterator().next().startsWith("predictor-inference-"));
+                Assert.assertEquals(metrics.getMetric("Inference").size(), 8);
+                Assert.assertEquals(metrics.getMetric("Prediction").size(), 8);
+
+                List<NDList> inputs =
+                        Arrays.asList(
+                                new NDList(manager.create(1f)), new NDList(manager.create(2f)));
+                List<NDList> outputs = predictor.batchPredictAsync(inputs).join();
+                Assert.assertEquals(outputs.get(1).singletonOrThrow().getFloat(), 4f);
+
+                // mismatched shapes can't be stacked
+                inputs =
+                        Arrays.asList(
+                                new NDList(manager.create(1f)),
+                                new NDList(manager.create(new float[] {1f, 2f})));
+                CompletableFuture<List<NDList>> future = predictor.batchPredictAsync(inputs);
+                CompletionException e =
+                        Assert.expectThrows(CompletionException.class, future::join);
+                Assert.assertTrue(e.getCause() instanceof TranslateException);
+            }
+        }
+    }
+
+    @Test
+    public void testPredictAll() {
+        try (Model model = Model.newInstance("identity");
+                NDManager manager = NDManager.newBaseManager()) {
+            model.setBlock(new LambdaBlock(list -> new NDList(list.singletonOrThrow().add(1))));
+            Metrics metrics = new Metrics();
+            try (Predictor<NDList, NDList> predictor =
+                    model.newPredictor(new NoopTranslator(Batchifier.STACK))) {
+                predictor.setMetrics(metrics);
+                List<NDList> inputs = new ArrayList<>();
+                for (int i = 0; i < 10; ++i) {
+                    inputs.add(new NDList(manager.create((float) i)));
+                }
+                float[] outputs;
+                try (Stream<NDList> stream = predictor.predictAll(inputs.iterator(), 3)) {
+                    outputs =
+                            Utils.toFloatArray(
+                                    stream.map(list -> list.singletonOrThrow().getFloat())
+                                            .collect(Collectors.toList()));
+                }
+                Assert.assertEquals(outputs, new float[] {1, 2, 3, 4, 5, 6, 7, 8, 9, 10});
+                Assert.assertEquals(metrics.getMetric("Preprocess").size(), 4);
+                Assert.assertEquals(metrics.getMetric("Postprocess").size(), 4);
+
+                Assert.assertFalse(
+                        predictor.predictAll(Collections.emptyIterator(), 3).findAny().isPresent());
+            }
+        }
+    }
+
+    @Test
+    public void testCancel() {
+        ExecutorService process = Executors.newSingleThreadExecutor();
+        CountDownLatch latch = new CountDownLatch(1);
+        try (Model model = Model.newInstance("identity");
+                NDManager manager = NDManager.newBaseManager()) {
+            AtomicInteger calls = new AtomicInteger();
+            model.setBlock(
+                    new LambdaBlock(
+                            list -> {
+                                calls.incrementAndGet();
+                                return new NDList(list.singletonOrThrow().neg());
+                            }));
+            try (Predictor<NDList, NDList> predictor =
+                    model.newPredictor(new NoopTranslator(Batchifier.STACK))) {
+                predictor.setProcessExecutor(process);
+                // holds the pre-processing until the predictions are cancelled
+                process.execute(
+                        () -> {
+                            try {
+                                latch.await();
+                            } catch (InterruptedException e) {
+                                Thread.currentThread().interrupt();
+                            }
+                        });
+                List<NDList> inputs = Collections.singletonList(new NDList(manager.create(1f)));
+                CompletableFuture<List<NDList>> batch = predictor.batchPredictAsync(inputs);
+                CompletableFuture<NDList> single = predictor.predictAsync(inputs.get(0));
+                Assert.assertTrue(batch.cancel(false));
+                Assert.assertTrue(single.cancel(false));
+                latch.countDown();
+
+                NDList output = predictor.predictAsync(new NDList(manager.create(2f))).join();
+                Assert.assertEquals(output.singletonOrThrow().getFloat(), -2f);
+                Assert.assertEquals(calls.get(), 1);
+            }
+        } finally {
+            latch.countDown();
+            process.shutdown();
+        }
+    }
+
+    @Test
+    public void testBuckets() throws TranslateException {
+        try (Model model = Model.newInstance("identity");
+                NDManager manager = NDManager.newBaseManager()) {
+            List<Shape> shapes = Collections.synchronizedList(new ArrayList<>());
+            model.setBlock(
+                    new LambdaBlock(
+                            list -> {
+                                shapes.add(list.singletonOrThrow().getShape());
+                                return new NDList(list.singletonOrThrow().mul(2));
+                            }));
+            PaddingStackBatchifier batchifier =
+                    PaddingStackBatchifier.builder()
+                            .addPad(0, 0, m -> m.create(0f))
+                            .optSequenceBuckets(8, 4)
+                            .optBatchBuckets(2, 4)
+                            .build();
+
+            Map<String, Long> latencies =
+                    batchifier.warmup(model, new NDList(manager.ones(new Shape(6))));
+            Assert.assertEquals(
+                    latencies.keySet(), new HashSet<>(Arrays.asList("2x4", "4x4", "2x8", "4x8")));
+            Assert.assertEquals(shapes.size(), 4);
+            Assert.assertTrue(shapes.contains(new Shape(2, 4)));
+            Assert.assertTrue(shapes.contains(new Shape(4, 8)));
+            shapes.clear();
+
+            Metrics metrics = new Metrics();
+            try (Predictor<NDList, NDList> predictor =
+                    model.newPredictor(new NoopTranslator(batchifier))) {
+                predictor.setMetrics(metrics);
+                List<NDList> inputs =
+                        Arrays.asList(
+                                new NDList(manager.create(new float[] {1, 2, 3})),
+                                new NDList(manager.create(new float[] {1, 2, 3, 4, 5})),
+                                new NDList(manager.create(new float[] {1})));
+                List<NDList> outputs = predictor.batchPredict(inputs);
+                Assert.assertEquals(outputs.size(), 3);
+                Assert.assertEquals(
+                        outputs.get(1).singletonOrThrow().toFloatArray(),
+                        new float[] {2, 4, 6, 8, 10, 0, 0, 0});
+                Assert.assertEquals(shapes.get(0), new Shape(4, 8));
+
+                NDList input = new NDList(manager.create(new float[] {1, 2, 3}));
+                outputs = predictor.predictAsync(input).thenApply(Arrays::asList).join();
+                Assert.assertEquals(outputs.size(), 1);
+                Assert.assertEquals(shapes.get(1), new Shape(2, 4));
+
+                List<Metric> buckets = metrics.getMetric("BucketInference");
+                Assert.assertEquals(buckets.size(), 2);
+                Assert.assertEquals(buckets.get(0).getDimensions()[0].getValue(), "4x8");
+                Assert.assertEquals(buckets.get(1).getDimensions()[0].getValue(), "2x4");
+            }
+        }
+    }
+
+    @Test
+    public void testWarmupOnLoad() throws IOException, ModelException, TranslateException {
+        List<Shape> shapes = Collections.synchronizedList(new ArrayList<>());
+        Block block =
+                new LambdaBlock(
+                        list -> {
+                            shapes.add(list.singletonOrThrow().getShape());
+                            return new NDList(list.singletonOrThrow().mul(2));
+                        });
+        PaddingStackBatchifier batchifier =
+                PaddingStackBatchifier.builder()
+                        .addPad(0, 0, m -> m.create(0f))
+                        .optSequenceBuckets(8, 4)
+                        .optBatchBuckets(2, 4)
+                        .build();
+        Path modelDir = Paths.get("build/model");
+        Files.createDirectories(modelDir);
+
+        try (NDManager manager = NDManager.newBaseManager()) {
+            Criteria<NDList, NDList> criteria =
+                    Criteria.builder()
+                            .setTypes(NDList.class, NDList.class)
+                            .optModelPath(modelDir)
+                            .optBlock(block)
+                            .optOption("hasParameter", "false")
+                            .optTranslator(new NoopTranslator(batchifier))
+                            .optArgument("warmup", new NDList(manager.ones(new Shape(6))))
+                            .build();
+            try (ZooModel<NDList, NDList> model = criteria.loadModel()) {
+                // every bucket ran once the model is loaded
+                Assert.assertEquals(model.getTranslator().getBatchifier(), batchifier);
+                Assert.assertEquals(shapes.size(), 4);
+                Assert.assertTrue(shapes.contains(new Shape(2, 4)));
+                Assert.assertTrue(shapes.contains(new Shape(4, 8)));
+            }
+
+            Criteria<NDList, NDList> invalid =
+                    criteria.toBuilder().optArgument("warmup", "not an NDList").build();
+            Assert.assertThrows(IllegalArgumentException.class, invalid::loadModel);
+        }
+    }
+
+    @Test
+    public void testExecutors() {
+        ExecutorService process = Executors.newFixedThreadPool(2);
+        ExecutorService inference = Executors.newSingleThreadExecutor();
+        try (Model model = Model.newInstance("identity");
+                NDManager manager = NDManager.newBaseManager()) {
+            model.setBlock(new LambdaBlock(list -> new NDList(list.singletonOrThrow().neg())));
+            try (Predictor<NDList, NDList> predictor = model.newPredictor(new NoopTranslator())) {
+                predictor.setProcessExecutor(process);
+                predictor.setInferenceExecutor(inference);
+                NDList output = predictor.predictAsync(new NDList(manager.create(3f))).join();
+                Assert.assertEquals(output.singletonOrThrow().getFloat(), -3f);
+            }
+            Assert.assertFalse(inference.isShutdown());
+        } finally {
+            process.shutdown();
+            inference.shutdown();
+        }
+    }
+}
@@ -66,6 +66,59 @@ public class MetricsTest {
         Assert.assertEquals(metrics.getMetric("m1").size(), 1);
     }
 
+    @Test
+    public void testHistogramMetrics() {
+        Metrics metrics = new Metrics();
+        metrics.addMetric("m1", 5L, Unit.MICROSECONDS);
+        metrics.useHistogram("m1");
+        Assert.assertTrue(metrics.hasMetric("m1"));
+        for (int i = 1; i <= 1000; ++i) {
+            metrics.addMetric("m1", i, Unit.MICROSECONDS);
+        }
+        Assert.assertEquals(metrics.latestMetric("m1").getValue().intValue(), 1000);
+        Assert.assertEquals(metrics.getMetric("m1").size(), 1);
+        Assert.assertEquals(metrics.mean("m1"), 500505d / 1001, 0.0001);
+
+        Metric p50 = metrics.percentile("m1", 50);
+        Assert.assertEquals(p50.getMetricName(), "m1_p50");
+        Assert.assertEquals(p50.getUnit(), Unit.MICROSECONDS);
+        Assert.assertEquals(p50.getValue(), 500, 500 * 0.01);
+        Assert.assertEquals(metrics.percentile("m1", 99).getValue(), 990, 990 * 0.01);
+        Assert.assertEquals(metrics.percentile("m1", 100).getValue(), 1000d);
+        Assert.assertTrue(metrics.getMetricNames().contains("m1"));
+
+        metrics.useHistogram("m2");
+        Assert.assertFalse(metrics.hasMetric("m2"));
+        Assert.assertFalse(metrics.getMetricNames().contains("m2"));
+        Assert.assertThrows(() -> metrics.percentile("m2", 50));
+
+        metrics.addMetric("m2", -2.5);
+        metrics.addMetric("m2", 0);
+        metrics.addMetric("m2", 2.5);
+        Assert.assertEquals(metrics.percentile("m2", 0).getValue(), -2.5);
+        Assert.assertEquals(metrics.percentile("m2", 50).getValue(), 0d);
+
+        Metrics interval = new Metrics();
+        interval.useHistogram("m3");
+        interval.setLimit(10);
+        interval.setOnLimit(
+                (m, n) -> {
+                    // the callback sees the completed interval
+                    Histogram.Snapshot completed = m.getIntervalSnapshot(n);
+                    Assert.assertEquals(completed.getCount(), 10);
+                    Assert.assertEquals(completed.percentile(100), 10d);
+                });
+        for (int i = 1; i <= 15; ++i) {
+            interval.addMetric("m3", i);
+        }
+        Histogram.Snapshot snapshot = interval.getIntervalSnapshot("m3");
+        Assert.assertNotNull(snapshot);
+        Assert.assertEquals(snapshot.getCount(), 10);
+        Assert.assertEquals(snapshot.mean(), 5.5);
+        Assert.assertEquals(interval.mean("m3"), 13d);
+        Assert.assertEquals(interval.percentile("m3", 0).getValue(), 11, 11 * 0.01);
+    }
+
     @Test
     public void testParseMetrics() {
         String line = "Disk.Gigabytes:311|#Host:localhost,Model:resnet|1650953744320";
@@ -0,0 +1,91 @@
+/*
+ * Copyright 2024 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ * with the License. A copy of the License is located at
+ *
+ * http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES
+ * OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package ai.djl.modality;
+
+import ai.djl.ndarray.NDArray;
+import ai.djl.ndarray.NDManager;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+public class ClassificationsTest {
+
+    @Test
+    public void testTopK() {
+        List<String> classNames = Arrays.asList("a", "b", "c", "d", "e", "f");
+        double[] probs = {0.1, 0.3, 0.05, 0.3, 0.2, 0.05};
+        Classifications classifications = new Classifications(classNames, probs);
+        Assert.assertEquals(names(classifications.topK(3)), Arrays.asList("b", "d", "e"));
+        Assert.assertEquals(names(classifications.topK(1)), Arrays.asList("b"));
+        Assert.assertEquals(
+                names(classifications.topK(10)), Arrays.asList("b", "d", "e", "a", "c", "f"));
+        Assert.assertTrue(classifications.topK(0).isEmpty());
+        Assert.assertEquals(classifications.best().getClassName(), "b");
+        Assert.assertEquals(classifications.getProbabilities().get(4), 0.2);
+
+        // boxed probabilities give the same result
+        List<Double> boxed = Arrays.stream(probs).boxed().collect(Collectors.toList());
+        Classifications expected = new Classifications(classNames, boxed);
+        Assert.assertEquals(classifications.toJson(), expected.toJson());
+        Assert.assertEquals(
+                classifications.toJson(),
+                "[\n"
+                        + "  {\n"
+                        + "    \"className\": \"b\",\n"
+                        + "    \"probability\": 0.3\n"
+                        + "  },\n"
+                        + "  {\n"
+                        + "    \"className\": \"d\",\n"
+                        + "    \"probability\": 0.3\n"
+                        + "  },\n"
+                        + "  {\n"
+                        + "    \"className\": \"e\",\n"
+                        + "    \"probability\": 0.2\n"
+                        + "  },\n"
+                        + "  {\n"
+                        + "    \"className\": \"a\",\n"
+                        + "    \"probability\": 0.1\n"
+                        + "  },\n"
+                        + "  {\n"
+                        + "    \"className\": \"c\",\n"
+                        + "    \"probability\": 0.05\n"
+                        + "  }\n"
+                        + "]\n");
+
+        try (NDManager manager = NDManager.newBaseManager()) {
+            classifications =
+                    new Classifications(classNames, manager.create(new float[] {1, 6, 5, 4, 3, 2}));
+            Assert.assertEquals(names(classifications.topK(2)), Arrays.asList("b", "c"));
+            Assert.assertEquals(classifications.getProbabilities().get(0), 1.0);
+
+            NDArray batch = manager.create(new float[] {1, 6, 5, 4, 3, 2, 2, 1, 3, 9, 8, 7});
+            batch = batch.reshape(2, 6);
+            List<Classifications> top = Classifications.topK(classNames, batch, 2);
+            Assert.assertEquals(top.size(), 2);
+            Assert.assertEquals(top.get(0).getClassNames(), Arrays.asList("b", "c"));
+            Assert.assertEquals(top.get(1).getClassNames(), Arrays.asList("d", "e"));
+            Assert.assertEquals(top.get(1).best().getProbability(), 9.0);
+            Assert.assertFalse(batch.isReleased());
+        }
+    }
+
+    private static List<String> names(List<Classifications.Classification> items) {
+        return items.stream()
+                .map(Classifications.Classification::getClassName)
+                .collect(Collectors.toList());
+    }
+}
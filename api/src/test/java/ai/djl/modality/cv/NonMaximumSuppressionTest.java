@@ -0,0 +1,101 @@
+/*
+ * Copyright 2024 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ * with the License. A copy of the License is located at
+ *
+ * http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES
+ * OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package ai.djl.modality.cv;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+public class NonMaximumSuppressionTest {
+
+    private static final float[] BOXES = {
+        0, 0, 10, 10, // 0
+        1, 1, 11, 11, // 1, overlaps 0
+        20, 20, 30, 30, // 2
+        0, 0, 10, 10, // 3, same as 0 but another class
+        21, 21, 31, 31 // 4, overlaps 2
+    };
+    private static final int[] CLASSES = {0, 0, 0, 1, 0};
+
+    @Test
+    public void testNms() {
+        float[] scores = {0.9f, 0.8f, 0.7f, 0.6f, 0.95f};
+        NonMaximumSuppression nms = NonMaximumSuppression.builder().optIouThreshold(0.5f).build();
+        Assert.assertEquals(nms.apply(BOXES, scores, CLASSES), new int[] {4, 0, 3});
+
+        nms = NonMaximumSuppression.builder().optClassAgnostic(true).build();
+        Assert.assertEquals(nms.apply(BOXES, scores, CLASSES), new int[] {4, 0});
+        Assert.assertEquals(nms.apply(BOXES, scores, null), new int[] {4, 0});
+
+        nms = NonMaximumSuppression.builder().optScoreThreshold(0.75f).optMaxDetections(1).build();
+        Assert.assertEquals(nms.apply(BOXES, scores, CLASSES), new int[] {4});
+        Assert.assertEquals(nms.apply(BOXES, scores, CLASSES, 3), new int[] {0});
+        Assert.assertEquals(nms.apply(BOXES, scores, CLASSES, 0), new int[0]);
+
+        int[][] batch =
+                NonMaximumSuppression.builder()
+                        .build()
+                        .apply(
+                                Arrays.asList(BOXES, BOXES),
+                                Arrays.asList(scores, new float[] {0.1f, 0.2f, 0.3f, 0.4f, 0.5f}),
+                                Collections.nCopies(2, CLASSES));
+        Assert.assertEquals(batch[0], new int[] {4, 0, 3});
+        Assert.assertEquals(batch[1], new int[] {4, 3, 1});
+    }
+
+    @Test
+    public void testSoftNms() {
+        float[] scores = {0.9f, 0.8f, 0.7f, 0.6f, 0.95f};
+        NonMaximumSuppression nms =
+                NonMaximumSuppression.builder()
+                        .optSoftNmsSigma(0.5f)
+                        .optScoreThreshold(0.1f)
+                        .build();
+        int[] kept = nms.apply(BOXES, scores, CLASSES);
+        // overlapping boxes are kept with a decayed score
+        Assert.assertEquals(kept, new int[] {4, 0, 3, 1, 2});
+        Assert.assertEquals(scores[4], 0.95f);
+        Assert.assertEquals(scores[0], 0.9f);
+        float iou = NonMaximumSuppression.iou(BOXES, 0, 1);
+        Assert.assertEquals(scores[1], 0.8f * (float) Math.exp(-iou * iou / 0.5f), 1e-6f);
+        Assert.assertTrue(scores[2] < 0.7f);
+    }
+
+    @Test
+    public void testIou() {
+        Assert.assertEquals(NonMaximumSuppression.iou(BOXES, 0, 3), 1f);
+        Assert.assertEquals(NonMaximumSuppression.iou(BOXES, 0, 2), 0f);
+        Assert.assertEquals(NonMaximumSuppression.iou(BOXES, 0, 1), 81f / 119f, 1e-6f);
+    }
+
+    @Test
+    public void testIouChange() {
+        // the second box covers 8 of the 20 units of the first one, an IoU of exactly 0.4
+        float[] boxes = {0, 0, 10, 2, 0, 0, 4, 2};
+        float[] scores = {0.9f, 0.8f};
+        float iou = NonMaximumSuppression.iou(boxes, 0, 1);
+        Assert.assertEquals(iou, 0.4f);
+        // the former YoloV5Translator.boxIou kept the box, 0.4 in double is below 0.4f
+        Assert.assertTrue(8d / 20d < 0.4f);
+        // the IoU is now computed in float and suppresses when it reaches the threshold
+        NonMaximumSuppression nms = NonMaximumSuppression.builder().optIouThreshold(0.4f).build();
+        Assert.assertEquals(nms.apply(boxes, scores, null), new int[] {0});
+
+        // identical empty boxes don't overlap, the former 0 / 0 IoU suppressed the second one
+        float[] empty = {5, 5, 5, 5, 5, 5, 5, 5};
+        Assert.assertEquals(NonMaximumSuppression.iou(empty, 0, 1), 0f);
+        Assert.assertEquals(nms.apply(empty, scores, null), new int[] {0, 1});
+    }
+}
@@ -13,20 +13,30 @@
 package ai.djl.modality.cv.translator;
 
 import ai.djl.Model;
+import ai.djl.ModelException;
+import ai.djl.inference.Predictor;
 import ai.djl.modality.Input;
 import ai.djl.modality.Output;
 import ai.djl.modality.cv.Image;
+import ai.djl.modality.cv.ImageFactory;
 import ai.djl.modality.cv.output.DetectedObjects;
+import ai.djl.ndarray.NDList;
+import ai.djl.ndarray.NDManager;
+import ai.djl.ndarray.types.Shape;
+import ai.djl.nn.LambdaBlock;
 import ai.djl.translate.BasicTranslator;
+import ai.djl.translate.TranslateException;
 import ai.djl.translate.Translator;
 
 import org.testng.Assert;
 import org.testng.annotations.BeforeClass;
 import org.testng.annotations.Test;
 
+import java.io.IOException;
 import java.io.InputStream;
 import java.net.URL;
 import java.nio.file.Path;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -44,6 +54,40 @@ public class YoloV8TranslatorFactoryTest {
         Assert.assertEquals(factory.getSupportedTypes().size(), 5);
     }
 
+    @Test
+    public void testProcessOutput() throws ModelException, IOException, TranslateException {
+        // columns: center x, center y, width, height, then the class probabilities
+        float[] output = {
+            10, 12, 40, //
+            10, 12, 40, //
+            10, 10, 10, //
+            10, 10, 10, //
+            0.9f, 0.1f, 0.3f, //
+            0.1f, 0.8f, 0.1f
+        };
+        try (Model model = Model.newInstance("test")) {
+            model.setBlock(
+                    new LambdaBlock(
+                            list -> {
+                                NDManager manager = list.getManager();
+                                return new NDList(manager.create(output, new Shape(1, 6, 3)));
+                            }));
+            YoloV8Translator translator =
+                    YoloV8Translator.builder(Collections.singletonMap("synset", "cat,dog")).build();
+            Image image = ImageFactory.getInstance().fromPixels(new int[4], 2, 2);
+            try (Predictor<Image, DetectedObjects> predictor = model.newPredictor(translator)) {
+                DetectedObjects detections = predictor.predict(image);
+                Assert.assertEquals(detections.getNumberOfObjects(), 3);
+                DetectedObjects.DetectedObject cat = detections.item(0);
+                Assert.assertEquals(cat.getClassName(), "cat");
+                Assert.assertEquals(cat.getProbability(), 0.9, 1e-6);
+                Assert.assertEquals(cat.getBoundingBox().getBounds().getX(), 5.0);
+                Assert.assertEquals(detections.item(1).getClassName(), "dog");
+                Assert.assertEquals(detections.item(2).getClassName(), "cat");
+            }
+        }
+    }
+
     @Test
     public void testNewInstance() {
         Map<String, String> arguments = new HashMap<>();
@@ -0,0 +1,85 @@
+/*
+ * Copyright 2024 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ * with the License. A copy of the License is located at
+ *
+ * http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES
+ * OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package ai.djl.modality.nlp;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+
+public class CompactVocabularyTest {
+
+    @Test
+    public void testLookup() {
+        List<String> sentence = Arrays.asList("a", "b", "b", "c", "Aa", "BB", "c", "ünï", "");
+        DefaultVocabulary.Builder builder =
+                DefaultVocabulary.builder().add(sentence).optUnknownToken("[UNK]");
+        DefaultVocabulary expected = builder.build();
+        CompactVocabulary vocabulary = builder.buildCompact();
+
+        Assert.assertEquals(vocabulary.size(), expected.size());
+        for (long i = -1; i <= expected.size(); ++i) {
+            Assert.assertEquals(vocabulary.getToken(i), expected.getToken(i));
+        }
+        for (String token : Arrays.asList("a", "BB", "Aa", "ünï", "", "[UNK]", "d", "aa")) {
+            Assert.assertEquals(vocabulary.contains(token), expected.contains(token), token);
+            Assert.assertEquals(vocabulary.getIndex(token), expected.getIndex(token), token);
+        }
+        Assert.assertEquals(
+                vocabulary.getIndices(Arrays.asList("c", "d", "a")),
+                new long[] {2, expected.getIndex("[UNK]"), 0});
+
+        // pruned vocabulary
+        CompactVocabulary pruned =
+                DefaultVocabulary.builder().add(sentence).optMinFrequency(2).buildCompact();
+        Assert.assertEquals(pruned.size(), 2);
+        Assert.assertEquals(pruned.getToken(1), "c");
+        Assert.assertThrows(IllegalStateException.class, () -> pruned.getIndex("a"));
+    }
+
+    @Test
+    public void testSaveLoad() throws IOException {
+        StringBuilder sb = new StringBuilder();
+        String[] tokens = new String[5000];
+        for (int i = 0; i < tokens.length; ++i) {
+            sb.append((char) ('a' + i % 26));
+            tokens[i] = sb.toString() + i;
+        }
+        CompactVocabulary vocabulary =
+                DefaultVocabulary.builder()
+                        .add(Arrays.asList(tokens))
+                        .optUnknownToken()
+                        .buildCompact();
+
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        vocabulary.save(bos);
+        CompactVocabulary loaded =
+                CompactVocabulary.load(new ByteArrayInputStream(bos.toByteArray()));
+        Assert.assertEquals(loaded.size(), tokens.length + 1);
+        for (int i = 0; i < tokens.length; ++i) {
+            Assert.assertEquals(loaded.getIndex(tokens[i]), i);
+            Assert.assertEquals(loaded.getToken(i), tokens[i]);
+        }
+        Assert.assertEquals(loaded.getIndex("missing"), tokens.length);
+
+        byte[] data = bos.toByteArray();
+        data[2] = 'X';
+        Assert.assertThrows(
+                IllegalArgumentException.class,
+                () -> CompactVocabulary.load(new ByteArrayInputStream(data)));
+    }
+}
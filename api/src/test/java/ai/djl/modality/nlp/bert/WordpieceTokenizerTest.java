@@ -0,0 +1,114 @@
+/*
+ * Copyright 2024 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ * with the License. A copy of the License is located at
+ *
+ * http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES
+ * OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package ai.djl.modality.nlp.bert;
+
+import ai.djl.modality.nlp.DefaultVocabulary;
+import ai.djl.modality.nlp.Vocabulary;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+public class WordpieceTokenizerTest {
+
+    @Test
+    public void testTokenize() {
+        List<String> tokens =
+                Arrays.asList("[UNK]", "un", "##aff", "##able", "a", "##a", "##b", "aff", "##");
+        WordpieceTokenizer tokenizer =
+                new WordpieceTokenizer(new DefaultVocabulary(tokens), "[UNK]", 10);
+
+        Assert.assertEquals(
+                tokenizer.tokenize(" unaffable  aff   unx ab ##aff ## aaaaaaaaaaaa "),
+                Arrays.asList(
+                        "un", "##aff", "##able", "aff", "[UNK]", "a", "##b", "##aff", "##",
+                        "[UNK]"));
+        Assert.assertEquals(tokenizer.encode("unaffable abc"), new int[] {1, 2, 3, 0});
+        Assert.assertEquals(
+                tokenizer.encodeBatch(Arrays.asList("un", "aff ab")).get(1), new int[] {7, 4, 6});
+    }
+
+    @Test
+    public void testSameAsVocabularyLookup() {
+        Random random = new Random(42);
+        List<String> tokens = new ArrayList<>();
+        tokens.add("[UNK]");
+        for (int i = 0; i < 500; ++i) {
+            String piece = randomWord(random, 1 + random.nextInt(4));
+            tokens.add(random.nextBoolean() ? piece : "##" + piece);
+        }
+        DefaultVocabulary vocabulary = new DefaultVocabulary(tokens);
+        WordpieceTokenizer trie = new WordpieceTokenizer(vocabulary, "[UNK]", 12);
+        // a Vocabulary other than DefaultVocabulary is looked up token by token
+        WordpieceTokenizer lookup = new WordpieceTokenizer(new Lookup(vocabulary), "[UNK]", 12);
+
+        List<String> sentences = new ArrayList<>();
+        for (int i = 0; i < 200; ++i) {
+            StringBuilder sb = new StringBuilder();
+            for (int j = 0; j < 10; ++j) {
+                sb.append(randomWord(random, 1 + random.nextInt(14))).append(' ');
+            }
+            sentences.add(sb.toString());
+        }
+        for (String sentence : sentences) {
+            Assert.assertEquals(trie.tokenize(sentence), lookup.tokenize(sentence));
+            Assert.assertEquals(trie.encode(sentence), lookup.encode(sentence));
+        }
+        Assert.assertEquals(trie.tokenizeBatch(sentences), lookup.tokenizeBatch(sentences));
+    }
+
+    private static String randomWord(Random random, int length) {
+        char[] chars = new char[length];
+        for (int i = 0; i < length; ++i) {
+            chars[i] = (char) ('a' + random.nextInt(3));
+        }
+        return new String(chars);
+    }
+
+    private static final class Lookup implements Vocabulary {
+
+        private Vocabulary vocabulary;
+
+        Lookup(Vocabulary vocabulary) {
+            this.vocabulary = vocabulary;
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public String getToken(long index) {
+            return vocabulary.getToken(index);
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public boolean contains(String token) {
+            return vocabulary.contains(token);
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public long getIndex(String token) {
+            return vocabulary.getIndex(token);
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public long size() {
+            return vocabulary.size();
+        }
+    }
+}
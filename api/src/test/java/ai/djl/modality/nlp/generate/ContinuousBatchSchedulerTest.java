@@ -0,0 +1,173 @@
+/*
+ * Copyright 2020 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ * with the License. A copy of the License is located at
+ *
+ * http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES
+ * OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package ai.djl.modality.nlp.generate;
+
+import ai.djl.inference.streaming.ChunkedBytesSupplier;
+import ai.djl.metric.Metrics;
+import ai.djl.ndarray.NDArray;
+import ai.djl.ndarray.NDList;
+import ai.djl.ndarray.NDManager;
+import ai.djl.ndarray.types.Shape;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+public class ContinuousBatchSchedulerTest {
+
+    @Test
+    public void testComputeAttentionMask() {
+        try (NDManager manager = NDManager.newBaseManager()) {
+            SearchConfig config = new SearchConfig();
+            config.setPadTokenId(0);
+            NDArray inputIds = manager.create(new long[] {0, 0, 5, 3, 4, 5}, new Shape(2, 3));
+            NDArray offSets = SeqBatchScheduler.computeOffSets(inputIds, config);
+            Assert.assertEquals(offSets.getShape(), new Shape(2, 1));
+            Assert.assertEquals(offSets.toLongArray(), new long[] {2, 0});
+
+            NDArray mask = SeqBatchScheduler.computeAttentionMask(inputIds, config);
+            Assert.assertEquals(mask.getShape(), new Shape(2, 3));
+            Assert.assertEquals(mask.toLongArray(), new long[] {0, 0, 1, 1, 1, 1});
+        }
+    }
+
+    @Test
+    public void testContinuousBatching() throws InterruptedException {
+        try (NDManager manager = NDManager.newBaseManager()) {
+            SearchConfig config = new SearchConfig();
+            config.setPadTokenId(0);
+            config.setMaxSeqLength(4);
+            Metrics metrics = new Metrics();
+            try (ContinuousBatchScheduler generator =
+                    ContinuousBatchScheduler.builder(new CountingScheduler(config), manager)
+                            .optMaxBatchSize(2)
+                            .optTokenBudget(4)
+                            .optMetrics(metrics)
+                            .build()) {
+                ChunkedBytesSupplier first = generator.submit(new long[] {1, 2});
+                ChunkedBytesSupplier second = generator.submit(new long[] {7});
+                ChunkedBytesSupplier third = generator.submit(new long[] {20, 21, 22});
+
+                Assert.assertEquals(readTokens(first), new long[] {3, 4});
+                Assert.assertEquals(readTokens(second), new long[] {8, 9, 10});
+                Assert.assertEquals(readTokens(third), new long[] {23});
+            }
+            Assert.assertEquals(metrics.getMetric("TimeToFirstToken").size(), 3);
+            Assert.assertEquals(metrics.getMetric("InterTokenLatency").size(), 3);
+            Assert.assertEquals(metrics.getMetric("BatchSize").size(), 3);
+        }
+    }
+
+    @Test
+    public void testSubmitWhileClosing() throws InterruptedException {
+        try (NDManager manager = NDManager.newBaseManager()) {
+            SearchConfig config = new SearchConfig();
+            config.setPadTokenId(0);
+            config.setMaxSeqLength(4);
+            List<ChunkedBytesSupplier> outputs = Collections.synchronizedList(new ArrayList<>());
+            ContinuousBatchScheduler generator =
+                    ContinuousBatchScheduler.builder(new CountingScheduler(config), manager)
+                            .optMaxBatchSize(1)
+                            .build();
+            Thread submitter =
+                    new Thread(
+                            () -> {
+                                try {
+                                    while (true) {
+                                        outputs.add(generator.submit(new long[] {1}));
+                                    }
+                                } catch (IllegalStateException e) {
+                                    // closed
+                                }
+                            });
+            submitter.start();
+            while (outputs.size() < 10) {
+                Thread.sleep(1);
+            }
+            generator.close();
+            submitter.join();
+
+            // every accepted request is ended, none is left in the queue
+            for (ChunkedBytesSupplier output : outputs) {
+                readTokens(output);
+            }
+            Assert.assertEquals(generator.getQueueSize(), 0);
+            Assert.assertThrows(
+                    IllegalStateException.class, () -> generator.submit(new long[] {1}));
+        }
+    }
+
+    private static long[] readTokens(ChunkedBytesSupplier supplier) throws InterruptedException {
+        List<Long> tokens = new ArrayList<>();
+        while (supplier.hasNext()) {
+            byte[] chunk = supplier.nextChunk(1, TimeUnit.MINUTES);
+            if (chunk.length > 0) {
+                tokens.add(ByteBuffer.wrap(chunk).getLong());
+            }
+        }
+        return tokens.stream().mapToLong(Long::longValue).toArray();
+    }
+
+    /** A scheduler whose next token is always the last token plus one. */
+    private static final class CountingScheduler extends SeqBatchScheduler {
+
+        CountingScheduler(SearchConfig config) {
+            super(null, config);
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public SeqBatcher initForward(NDArray inputIds, NDArray batchUids) {
+            manager = inputIds.getManager();
+            NDArray offSets = computeOffSets(inputIds, config);
+            BatchTensorList data = new CountingBatchTensorList(inputIds, new long[] {1});
+            return new SeqBatcher(data, batchUids, offSets, manager);
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        protected NDArray inferenceCall() {
+            NDArray pastOutputIds = seqBatcher.getData().getPastOutputIds();
+            NDArray outputIds = pastOutputIds.get(":, -1:").add(1);
+            NDArray next = pastOutputIds.concat(outputIds, 1);
+            seqBatcher.data = new CountingBatchTensorList(next, new long[] {1});
+            seqBatcher.seqLength++;
+            seqBatcher.exitCriteria(outputIds, config.getMaxSeqLength(), config.getEosTokenId());
+            return outputIds;
+        }
+    }
+
+    private static final class CountingBatchTensorList extends BatchTensorList {
+
+        CountingBatchTensorList(NDArray pastOutputIds, long[] seqDimOrder) {
+            super(pastOutputIds, null, null, seqDimOrder);
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public BatchTensorList fromList(NDList inputList, long[] seqDimOrder) {
+            return new CountingBatchTensorList(inputList.get(0), seqDimOrder);
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public NDList getList() {
+            return new NDList(getPastOutputIds());
+        }
+    }
+}
@@ -0,0 +1,51 @@
+/*
+ * Copyright 2024 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ * with the License. A copy of the License is located at
+ *
+ * http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES
+ * OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package ai.djl.ndarray;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.UUID;
+
+public class BaseNDManagerTest {
+
+    @Test
+    public void testNewUid() {
+        String uid = BaseNDManager.newUid();
+        Assert.assertEquals(UUID.fromString(uid).toString(), uid);
+        Assert.assertNotEquals(BaseNDManager.newUid(), uid);
+    }
+
+    @Test
+    public void testLiveArrays() {
+        try (NDManager manager = NDManager.newBaseManager()) {
+            BaseNDManager base = (BaseNDManager) manager;
+            NDArray a = manager.create(new float[] {1, 2, 3});
+            NDArray b = manager.create(new int[] {1, 2});
+            try (NDManager sub = manager.newSubManager()) {
+                sub.create(new float[] {1});
+                Assert.assertEquals(base.getLiveArrayCount(), 2);
+                Assert.assertEquals(base.getLiveBytes(), 20);
+
+                b.attach(sub);
+                Assert.assertEquals(base.getLiveArrayCount(), 1);
+                Assert.assertEquals(((BaseNDManager) sub).getLiveArrayCount(), 2);
+            }
+            Assert.assertTrue(b.isReleased());
+
+            a.close();
+            Assert.assertEquals(base.getLiveArrayCount(), 0);
+            Assert.assertEquals(base.getLiveBytes(), 0);
+        }
+    }
+}
@@ -0,0 +1,91 @@
+/*
+ * Copyright 2024 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ * with the License. A copy of the License is located at
+ *
+ * http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES
+ * OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package ai.djl.ndarray;
+
+import ai.djl.ndarray.types.DataType;
+import ai.djl.ndarray.types.Shape;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+public class DirectBufferPoolTest {
+
+    @Test
+    public void testAcquireRelease() {
+        DirectBufferPool pool =
+                DirectBufferPool.builder().optMaxBytes(2048).optMaxBufferSize(1024).build();
+        ByteBuffer buf = pool.acquire(100);
+        Assert.assertTrue(buf.isDirect());
+        Assert.assertEquals(buf.capacity(), 128);
+        Assert.assertEquals(pool.getOutstandingBytes(), 128);
+        buf.putInt(0, 42);
+        pool.release(buf);
+        Assert.assertEquals(pool.getOutstandingBytes(), 0);
+        Assert.assertEquals(pool.getPooledBytes(), 128);
+
+        ByteBuffer reused = pool.acquire(120);
+        Assert.assertSame(reused, buf);
+        Assert.assertEquals(reused.getInt(0), 0);
+        Assert.assertEquals(pool.getHitCount(), 1);
+        Assert.assertEquals(pool.getMissCount(), 1);
+
+        // larger than the largest size class
+        ByteBuffer large = pool.acquire(2000);
+        Assert.assertEquals(large.capacity(), 2000);
+        pool.release(large);
+        pool.release(reused);
+        Assert.assertEquals(pool.getPooledBytes(), 128);
+
+        // over the memory cap
+        ByteBuffer[] buffers = new ByteBuffer[3];
+        for (int i = 0; i < buffers.length; ++i) {
+            buffers[i] = pool.acquire(1024);
+        }
+        for (ByteBuffer b : buffers) {
+            pool.release(b);
+        }
+        Assert.assertEquals(pool.getPooledBytes(), 128 + 1024);
+        Assert.assertEquals(pool.getOutstandingBytes(), 0);
+
+        pool.clear();
+        Assert.assertEquals(pool.getPooledBytes(), 0);
+    }
+
+    @Test
+    public void testManagerPool() {
+        DirectBufferPool pool = DirectBufferPool.builder().build();
+        try (NDManager manager = NDManager.newBaseManager()) {
+            ((BaseNDManager) manager).setBufferPool(pool);
+            try (NDManager sub = manager.newSubManager()) {
+                ByteBuffer bb = sub.allocateDirect(12);
+                Assert.assertEquals(bb.capacity(), 12);
+                Assert.assertEquals(bb.order(), ByteOrder.nativeOrder());
+                bb.putFloat(1f).putFloat(2f).putFloat(3f);
+                bb.rewind();
+                NDArray array = sub.create(bb, new Shape(3), DataType.FLOAT32);
+                Assert.assertEquals(array.toFloatArray(), new float[] {1f, 2f, 3f});
+                Assert.assertEquals(pool.getOutstandingBytes(), 64);
+            }
+            Assert.assertEquals(pool.getOutstandingBytes(), 0);
+            Assert.assertEquals(pool.getPooledBytes(), 64);
+
+            try (NDManager sub = manager.newSubManager()) {
+                Assert.assertEquals(sub.allocateDirect(12).getFloat(0), 0f);
+                Assert.assertEquals(pool.getHitCount(), 1);
+            }
+        }
+    }
+}
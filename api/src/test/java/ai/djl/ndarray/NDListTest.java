@@ -13,12 +13,16 @@
 package ai.djl.ndarray;
 
 import ai.djl.Device;
+import ai.djl.util.Utils;
 
 import org.testng.Assert;
 import org.testng.annotations.Test;
 
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
 
 public class NDListTest {
 
@@ -50,4 +54,36 @@ public class NDListTest {
             Assert.assertEquals(list.get(0).toByteArray(), new byte[] {0, 1, 2, 3, 4, 5});
         }
     }
+
+    @Test
+    public void testLoadMmap() throws IOException {
+        Path dir = Files.createTempDirectory("ndlist");
+        try (NDManager manager = NDManager.newBaseManager(Device.cpu())) {
+            NDArray a = manager.arange(12f).reshape(3, 4);
+            a.setName("a");
+            NDArray b = manager.create(new long[] {1, 2, 3});
+            NDList list = new NDList(a, b);
+            for (NDList.Encoding encoding : NDList.Encoding.values()) {
+                Path file = dir.resolve("list." + encoding.name());
+                try (OutputStream os = Files.newOutputStream(file)) {
+                    list.encode(os, encoding);
+                }
+                for (boolean mmap : new boolean[] {true, false}) {
+                    NDList loaded = NDList.load(manager, file, mmap);
+                    Assert.assertEquals(loaded.size(), 2);
+                    Assert.assertEquals(loaded.get(0).getName(), "a");
+                    Assert.assertEquals(loaded.get(0).getShape(), a.getShape());
+                    Assert.assertEquals(loaded.get(0).toFloatArray(), a.toFloatArray());
+                    Assert.assertEquals(loaded.get(1).toLongArray(), b.toLongArray());
+                }
+            }
+
+            byte[] data = list.encode(NDList.Encoding.SAFETENSORS);
+            Assert.assertEquals(data[8], '{');
+            long headerSize = data.length - 12 * 4 - 3 * 8;
+            Assert.assertEquals(headerSize % 64, 0);
+        } finally {
+            Utils.deleteQuietly(dir);
+        }
+    }
 }
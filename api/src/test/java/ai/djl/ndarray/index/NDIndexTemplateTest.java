@@ -0,0 +1,77 @@
+/*
+ * Copyright 2024 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ * with the License. A copy of the License is located at
+ *
+ * http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES
+ * OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package ai.djl.ndarray.index;
+
+import ai.djl.ndarray.index.dim.NDIndexAll;
+import ai.djl.ndarray.index.dim.NDIndexFixed;
+import ai.djl.ndarray.index.dim.NDIndexNull;
+import ai.djl.ndarray.index.dim.NDIndexSlice;
+import ai.djl.ndarray.index.full.NDIndexFullSlice;
+import ai.djl.ndarray.types.Shape;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class NDIndexTemplateTest {
+
+    @Test
+    public void testBind() {
+        NDIndexTemplate template = NDIndex.compile("{}, :, {}:{}:2, null, -1");
+        Assert.assertSame(NDIndex.compile("{}, :, {}:{}:2, null, -1"), template);
+        Assert.assertEquals(template.getArgCount(), 3);
+
+        NDIndex index = template.bind(1, 2L, 5);
+        Assert.assertEquals(index.getRank(), 5);
+        Assert.assertEquals(((NDIndexFixed) index.get(0)).getIndex(), 1);
+        Assert.assertTrue(index.get(1) instanceof NDIndexAll);
+        NDIndexSlice slice = (NDIndexSlice) index.get(2);
+        Assert.assertEquals(slice.getMin(), Long.valueOf(2));
+        Assert.assertEquals(slice.getMax(), Long.valueOf(5));
+        Assert.assertEquals(slice.getStep(), Long.valueOf(2));
+        Assert.assertTrue(index.get(3) instanceof NDIndexNull);
+        Assert.assertEquals(((NDIndexFixed) index.get(4)).getIndex(), -1);
+        Assert.assertNull(index.getTemplate());
+
+        Assert.assertThrows(IllegalArgumentException.class, () -> template.bind(1, 2));
+        Assert.assertThrows(IllegalArgumentException.class, () -> template.bind(1, 2, "3"));
+        Assert.assertThrows(IllegalArgumentException.class, () -> NDIndex.compile("1, a"));
+        Assert.assertThrows(IllegalArgumentException.class, () -> NDIndex.compile("..., 1, ..."));
+    }
+
+    @Test
+    public void testEllipsis() {
+        NDIndex index = new NDIndex("{}, ..., 2", 0);
+        Assert.assertEquals(index.getRank(), 2);
+        Assert.assertEquals(index.getEllipsisIndex(), 1);
+        Assert.assertEquals(index.getIndices().size(), 2);
+    }
+
+    @Test
+    public void testFullSlice() {
+        NDIndex index = new NDIndex(":, :-1");
+        NDIndexTemplate template = index.getTemplate();
+        Assert.assertNotNull(template);
+
+        Shape shape = new Shape(3, 4);
+        NDIndexFullSlice fullSlice = NDIndexFullSlice.fromIndex(index, shape).get();
+        Assert.assertEquals(fullSlice.getMax(), new long[] {3, 3});
+        Assert.assertSame(
+                NDIndexFullSlice.fromIndex(new NDIndex(":, :-1"), shape).get(), fullSlice);
+        Assert.assertEquals(
+                NDIndexFullSlice.fromIndex(index, new Shape(2, 2)).get().getShape(),
+                new Shape(2, 1));
+
+        index.addAllDim();
+        Assert.assertNull(index.getTemplate());
+    }
+}
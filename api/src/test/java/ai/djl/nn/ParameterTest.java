@@ -0,0 +1,85 @@
+/*
+ * Copyright 2024 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ * with the License. A copy of the License is located at
+ *
+ * http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES
+ * OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package ai.djl.nn;
+
+import ai.djl.Device;
+import ai.djl.MalformedModelException;
+import ai.djl.ndarray.MappedDataInputStream;
+import ai.djl.ndarray.NDArray;
+import ai.djl.ndarray.NDManager;
+import ai.djl.ndarray.types.DataType;
+import ai.djl.ndarray.types.Shape;
+import ai.djl.nn.core.Linear;
+import ai.djl.util.Utils;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+public class ParameterTest {
+
+    @Test
+    public void testMappedLoad() throws IOException, MalformedModelException {
+        Path file = Files.createTempFile("linear", ".params");
+        try (NDManager manager = NDManager.newBaseManager(Device.cpu())) {
+            Block block = Linear.builder().setUnits(3).build();
+            block.initialize(manager, DataType.FLOAT32, new Shape(2, 4));
+            try (DataOutputStream dos = new DataOutputStream(Files.newOutputStream(file))) {
+                block.saveParameters(dos);
+            }
+
+            Block loaded = Linear.builder().setUnits(3).build();
+            try (MappedDataInputStream mis = new MappedDataInputStream(file)) {
+                loaded.loadParameters(manager, mis);
+                Assert.assertEquals(mis.position(), mis.length());
+            }
+            Parameter expected = block.getParameters().get("weight");
+            Parameter weight = loaded.getParameters().get("weight");
+            Assert.assertTrue(weight.isInitialized());
+            Assert.assertEquals(weight.getShape(), new Shape(3, 4));
+            Assert.assertEquals(
+                    weight.getArray().toFloatArray(), expected.getArray().toFloatArray());
+            Assert.assertEquals(
+                    loaded.getParameters().get("bias").getArray().toFloatArray(),
+                    block.getParameters().get("bias").getArray().toFloatArray());
+
+            // the loaded values replace the array of an initialized block
+            Block initialized = Linear.builder().setUnits(3).build();
+            initialized.initialize(manager, DataType.FLOAT32, new Shape(2, 4));
+            NDArray initial = initialized.getParameters().get("weight").getArray();
+            try (MappedDataInputStream mis = new MappedDataInputStream(file)) {
+                initialized.loadParameters(manager, mis);
+            }
+            Assert.assertTrue(initial.isReleased());
+            Assert.assertEquals(
+                    initialized.getParameters().get("weight").getArray().toFloatArray(),
+                    expected.getArray().toFloatArray());
+
+            // a closed parameter is never materialized
+            Block closed = Linear.builder().setUnits(3).build();
+            try (MappedDataInputStream mis = new MappedDataInputStream(file)) {
+                closed.loadParameters(manager, mis);
+            }
+            Parameter param = closed.getParameters().get("weight");
+            param.close();
+            Assert.assertFalse(param.isInitialized());
+            Assert.assertThrows(UninitializedParameterException.class, param::getArray);
+        } finally {
+            Utils.deleteQuietly(file);
+        }
+    }
+}
@@ -0,0 +1,132 @@
+/*
+ * Copyright 2024 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ * with the License. A copy of the License is located at
+ *
+ * http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES
+ * OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package ai.djl.repository;
+
+import ai.djl.util.Utils;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.FileTime;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Stream;
+
+public class ArtifactCacheTest {
+
+    @Test
+    public void testEviction() throws IOException {
+        Path cacheDir = Paths.get("build/cache/artifact");
+        Utils.deleteQuietly(cacheDir);
+        byte[] model = new byte[100_000];
+        new Random(1).nextBytes(model);
+
+        ArtifactCache cache = new ArtifactCache(cacheDir, 250_000);
+        Path dir1 = newResource(cacheDir.resolve("model/a/0.0.1"), model, 1);
+        Path dir2 = newResource(cacheDir.resolve("model/a/0.0.2"), model, 2);
+        Path dir3 = newResource(cacheDir.resolve("model/b/0.0.1"), new byte[100_000], 3);
+        Assert.assertFalse(cache.contains(cacheDir));
+        Assert.assertTrue(cache.contains(dir1));
+
+        cache.add(dir1);
+        cache.add(dir2);
+        cache.add(dir3);
+        boolean hardLinks = FileSystems.getDefault().supportedFileAttributeViews().contains("unix");
+        if (hardLinks) {
+            // identical files are shared
+            Assert.assertTrue(
+                    Files.isSameFile(dir1.resolve("model.bin"), dir2.resolve("model.bin")));
+            Assert.assertEquals(cache.getSize(), 200_006);
+        } else {
+            Assert.assertEquals(cache.getSize(), 300_006);
+        }
+        Assert.assertEquals(cache.evict(), Collections.emptyList());
+
+        setLastAccess(cache, dir1, 1000);
+        setLastAccess(cache, dir2, 2000);
+        setLastAccess(cache, dir3, 3000);
+        ArtifactCache small = new ArtifactCache(cacheDir, 150_000);
+        List<Path> evicted;
+        try (ArtifactCache.Lock lock = small.lock(dir1)) {
+            Assert.assertNotNull(lock);
+            // dir1 is in use, and evicting dir2 doesn't free the file it shares with dir1
+            evicted = small.evict();
+        }
+        Assert.assertEquals(evicted.size(), 2);
+        Assert.assertTrue(evicted.contains(dir2));
+        Assert.assertTrue(evicted.contains(dir3));
+        Assert.assertTrue(Files.exists(dir1.resolve("model.bin")));
+        Assert.assertEquals(small.getSize(), 100_001);
+        if (hardLinks) {
+            // the shared file of dir3 is not used anymore
+            try (Stream<Path> stream = Files.list(cacheDir.resolve(".blobs"))) {
+                Assert.assertEquals(stream.count(), 1);
+            }
+        }
+        Utils.deleteQuietly(cacheDir);
+    }
+
+    @Test
+    public void testUse() throws IOException {
+        Path cacheDir = Paths.get("build/cache/use");
+        Utils.deleteQuietly(cacheDir);
+        Path dir1 = newResource(cacheDir.resolve("model/a/0.0.1"), new byte[100_000], 1);
+        Path dir2 = newResource(cacheDir.resolve("model/b/0.0.1"), new byte[100_000], 2);
+        ArtifactCache unlimited = new ArtifactCache(cacheDir, 0);
+        unlimited.add(dir1);
+        unlimited.add(dir2);
+        // without a maximum size the files are never shared, nor evicted
+        Assert.assertTrue(Files.notExists(cacheDir.resolve(".blobs")));
+        Assert.assertEquals(unlimited.evict(), Collections.emptyList());
+
+        setLastAccess(unlimited, dir1, 1000);
+        setLastAccess(unlimited, dir2, 2000);
+        ArtifactCache cache = new ArtifactCache(cacheDir, 1);
+        try (ArtifactCache.Lock use1 = cache.use(dir1);
+                ArtifactCache.Lock use2 = cache.use(dir1)) {
+            Assert.assertNotNull(use1);
+            Assert.assertNotNull(use2);
+            Assert.assertEquals(cache.evict(), Collections.singletonList(dir2));
+        }
+        Assert.assertTrue(Files.exists(dir1));
+        Assert.assertEquals(cache.evict(), Collections.singletonList(dir1));
+        Utils.deleteQuietly(cacheDir);
+    }
+
+    private static Path newResource(Path dir, byte[] model, int synset) throws IOException {
+        Files.createDirectories(dir);
+        Files.write(dir.resolve("model.bin"), model);
+        Files.write(dir.resolve("synset.txt"), new byte[synset]);
+        return dir.toAbsolutePath();
+    }
+
+    private static void setLastAccess(ArtifactCache cache, Path dir, long time) throws IOException {
+        cache.touch(dir);
+        Path cacheDir = dir.getParent().getParent().getParent();
+        try (Stream<Path> stream = Files.list(cacheDir.resolve(".entries"))) {
+            for (Path entry : (Iterable<Path>) stream::iterator) {
+                String path = new String(Files.readAllBytes(entry), StandardCharsets.UTF_8);
+                if (cacheDir.resolve(path).equals(dir)) {
+                    Files.setLastModifiedTime(entry, FileTime.fromMillis(time));
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,210 @@
+/*
+ * Copyright 2024 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ * with the License. A copy of the License is located at
+ *
+ * http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES
+ * OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package ai.djl.repository;
+
+import ai.djl.util.Hex;
+import ai.djl.util.Utils;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+public class HttpDownloaderTest {
+
+    private HttpServer server;
+    private volatile byte[] content;
+    private volatile String etag;
+    private List<String> ranges;
+    private List<String> ifRanges;
+    private AtomicInteger failures;
+
+    @BeforeClass
+    public void setUp() throws IOException {
+        content = newContent(1);
+        etag = "\"1\"";
+        ranges = new CopyOnWriteArrayList<>();
+        ifRanges = new CopyOnWriteArrayList<>();
+        failures = new AtomicInteger();
+
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/", this::handle);
+        server.start();
+    }
+
+    @AfterClass
+    public void tearDown() {
+        server.stop(0);
+    }
+
+    @Test
+    public void testResume() throws IOException, NoSuchAlgorithmException {
+        Repository repo = newRepository("resume.zip");
+        Artifact artifact = repo.resolve(repo.getResources().get(0), null);
+        Artifact.Item item = artifact.getFiles().values().iterator().next();
+        item.setSha1Hash(Hex.toHexString(MessageDigest.getInstance("SHA1").digest(content)));
+        Path resourceDir = repo.getResourceDirectory(artifact);
+        Utils.deleteQuietly(resourceDir);
+
+        ranges.clear();
+        failures.set(1);
+        Assert.assertThrows(IOException.class, () -> repo.prepare(artifact));
+        Assert.assertTrue(Files.notExists(resourceDir));
+
+        repo.prepare(artifact);
+        Assert.assertEquals(ranges.size(), 2);
+        Assert.assertEquals(ranges.get(0), "bytes=0-" + (content.length - 1));
+        Assert.assertEquals(
+                ranges.get(1), "bytes=" + content.length / 2 + '-' + (content.length - 1));
+        Assert.assertEquals(Files.size(resourceDir.resolve("model.bin")), 100_000);
+        Path downloadDir = resourceDir.resolveSibling(resourceDir.toFile().getName() + ".download");
+        Assert.assertTrue(Files.notExists(downloadDir));
+        Utils.deleteQuietly(resourceDir);
+    }
+
+    @Test
+    public void testChangedResource() throws IOException, NoSuchAlgorithmException {
+        Repository repo = newRepository("changed.zip");
+        Artifact artifact = repo.resolve(repo.getResources().get(0), null);
+        Artifact.Item item = artifact.getFiles().values().iterator().next();
+        Path resourceDir = repo.getResourceDirectory(artifact);
+        Utils.deleteQuietly(resourceDir);
+
+        byte[] original = content;
+        try {
+            ranges.clear();
+            ifRanges.clear();
+            failures.set(1);
+            Assert.assertThrows(IOException.class, () -> repo.prepare(artifact));
+            Assert.assertEquals(ifRanges.get(0), "\"1\"");
+
+            // the part file of the first version must not be resumed
+            content = newContent(2);
+            etag = "\"2\"";
+            item.setSha1Hash(Hex.toHexString(MessageDigest.getInstance("SHA1").digest(content)));
+            ranges.clear();
+            repo.prepare(artifact);
+            Assert.assertEquals(ranges.size(), 1);
+            Assert.assertEquals(ranges.get(0), "bytes=0-" + (content.length - 1));
+            Assert.assertEquals(ifRanges.get(ifRanges.size() - 1), "\"2\"");
+            Utils.deleteQuietly(resourceDir);
+        } finally {
+            content = original;
+            etag = "\"1\"";
+        }
+    }
+
+    @Test
+    public void testParallelChunks() throws IOException {
+        System.setProperty("DJL_DOWNLOAD_CHUNK_SIZE", "16384");
+        try {
+            Repository repo = newRepository("chunks.zip");
+            Artifact artifact = repo.resolve(repo.getResources().get(0), null);
+            Path resourceDir = repo.getResourceDirectory(artifact);
+            Utils.deleteQuietly(resourceDir);
+
+            ranges.clear();
+            failures.set(0);
+            repo.prepare(artifact);
+            Assert.assertEquals(ranges.size(), 4);
+            List<String> lines = Utils.readLines(resourceDir.resolve("synset.txt"));
+            Assert.assertEquals(lines.get(1), "dog");
+            Assert.assertEquals(Files.size(resourceDir.resolve("model.bin")), 100_000);
+            Utils.deleteQuietly(resourceDir);
+        } finally {
+            System.clearProperty("DJL_DOWNLOAD_CHUNK_SIZE");
+        }
+    }
+
+    private static byte[] newContent(int seed) throws IOException {
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        try (ZipOutputStream zos = new ZipOutputStream(bos)) {
+            byte[] data = new byte[100_000];
+            new Random(seed).nextBytes(data);
+            zos.putNextEntry(new ZipEntry("model.bin"));
+            zos.write(data);
+            zos.putNextEntry(new ZipEntry("synset.txt"));
+            zos.write("cat\ndog\n".getBytes(StandardCharsets.UTF_8));
+        }
+        return bos.toByteArray();
+    }
+
+    private Repository newRepository(String fileName) {
+        String url = "http://127.0.0.1:" + server.getAddress().getPort() + '/' + fileName;
+        return Repository.newInstance("test", url);
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        byte[] content = this.content;
+        exchange.getResponseHeaders().add("Accept-Ranges", "bytes");
+        exchange.getResponseHeaders().add("ETag", etag);
+        if ("HEAD".equals(exchange.getRequestMethod())) {
+            exchange.getResponseHeaders().add("Content-Length", String.valueOf(content.length));
+            exchange.sendResponseHeaders(200, -1);
+            exchange.close();
+            return;
+        }
+
+        String range = exchange.getRequestHeaders().getFirst("Range");
+        String ifRange = exchange.getRequestHeaders().getFirst("If-Range");
+        if (ifRange != null) {
+            ifRanges.add(ifRange);
+            if (!ifRange.equals(etag)) {
+                // the resource has changed, send all of it
+                range = null;
+            }
+        }
+        int start = 0;
+        int end = content.length - 1;
+        int code = 200;
+        if (range != null) {
+            ranges.add(range);
+            String[] tokens = range.substring("bytes=".length()).split("-");
+            start = Integer.parseInt(tokens[0]);
+            end = Integer.parseInt(tokens[1]);
+            code = 206;
+            exchange.getResponseHeaders()
+                    .add("Content-Range", "bytes " + start + '-' + end + '/' + content.length);
+        }
+        int length = end - start + 1;
+        exchange.sendResponseHeaders(code, length);
+        try (OutputStream os = exchange.getResponseBody()) {
+            if (failures.getAndDecrement() > 0) {
+                // drop the connection in the middle of the response
+                os.write(content, start, length / 2);
+                os.flush();
+                return;
+            }
+            os.write(content, start, length);
+        }
+    }
+}
@@ -24,7 +24,10 @@ import java.net.URLClassLoader;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.Collections;
 import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 public class JarRepositoryTest {
 
@@ -59,4 +62,55 @@ public class JarRepositoryTest {
             Thread.currentThread().setContextClassLoader(null);
         }
     }
+
+    @Test
+    public void testReadOnlyCache() throws IOException {
+        Path path = Paths.get("build/tmp/readonly");
+        Files.createDirectories(path);
+        Path dir = path.resolve("testDir");
+        Files.createDirectories(dir);
+        Files.write(dir.resolve("synset.txt"), new byte[1]);
+        Path testFile = path.resolve("readonly.zip");
+        ZipUtils.zip(dir, testFile, false);
+        Path jarFile = path.resolve("readonly.jar");
+        ZipUtils.zip(testFile, jarFile, false);
+
+        Path cacheDir = Paths.get("build/cache/readonly").toAbsolutePath();
+        Utils.deleteQuietly(cacheDir);
+        URL[] url = {jarFile.toUri().toURL()};
+        System.setProperty("DJL_CACHE_DIR", cacheDir.toString());
+        try {
+            Thread.currentThread().setContextClassLoader(new URLClassLoader(url));
+            Repository repo = Repository.newInstance("test", "jar:///readonly.zip?hash=2");
+            Artifact artifact = repo.resolve(repo.getResources().get(0), null);
+            repo.prepare(artifact);
+
+            // a pre-populated cache is used as is without a maximum size
+            setWritable(cacheDir, false);
+            repo.prepare(artifact);
+            Assert.assertNull(repo.use(artifact));
+            try (Stream<Path> stream = Files.walk(cacheDir)) {
+                List<Path> written =
+                        stream.filter(p -> p.toString().endsWith(".lock"))
+                                .collect(Collectors.toList());
+                Assert.assertEquals(written, Collections.emptyList());
+            }
+            Assert.assertTrue(Files.notExists(cacheDir.resolve("cache/repo/.entries")));
+        } finally {
+            setWritable(cacheDir, true);
+            System.clearProperty("DJL_CACHE_DIR");
+            Thread.currentThread().setContextClassLoader(null);
+            Utils.deleteQuietly(cacheDir);
+        }
+    }
+
+    private static void setWritable(Path dir, boolean writable) throws IOException {
+        try (Stream<Path> stream = Files.walk(dir)) {
+            for (Path file : (Iterable<Path>) stream::iterator) {
+                if (!file.toFile().setWritable(writable)) {
+                    throw new IOException("Failed to change the permissions of " + file);
+                }
+            }
+        }
+    }
 }
@@ -0,0 +1,211 @@
+/*
+ * Copyright 2024 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ * with the License. A copy of the License is located at
+ *
+ * http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES
+ * OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package ai.djl.translate;
+
+import ai.djl.Model;
+import ai.djl.inference.Predictor;
+import ai.djl.metric.Metrics;
+import ai.djl.ndarray.NDArray;
+import ai.djl.ndarray.NDList;
+import ai.djl.ndarray.NDManager;
+import ai.djl.ndarray.index.NDIndex;
+import ai.djl.ndarray.types.DataType;
+import ai.djl.ndarray.types.Shape;
+import ai.djl.nn.Block;
+import ai.djl.nn.LambdaBlock;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class PackingBatchifierTest {
+
+    @Test
+    public void testBatchify() {
+        try (NDManager manager = NDManager.newBaseManager()) {
+            NDList[] inputs = {
+                encoding(manager, 1, 3, 5), encoding(manager, 4, 1, 5), encoding(manager, 2, 5, 5)
+            };
+            PackingBatchifier batchifier = PackingBatchifier.builder().optMaxLength(6).build();
+            TranslatorContext ctx = new TestContext();
+            NDList batch = batchifier.batchify(ctx, inputs);
+
+            Assert.assertEquals(batch.size(), 3);
+            // the 5 and 1 tokens sequences fill the first row, the 3 tokens one the second
+            Assert.assertEquals(batch.get(0).getShape(), new Shape(2, 6));
+            Assert.assertEquals(
+                    batch.get(0).toLongArray(), new long[] {2, 2, 2, 2, 2, 4, 1, 1, 1, 0, 0, 0});
+            Assert.assertEquals(batch.get(0).getName(), "input_ids");
+            Assert.assertEquals(batch.get(1).getShape(), new Shape(2, 6, 6));
+            Assert.assertEquals(
+                    batch.get(1).get(1).toLongArray(),
+                    new long[] {
+                        1, 1, 1, 0, 0, 0, 1, 1, 1, 0, 0, 0, 1, 1, 1, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0,
+                        0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0
+                    });
+            Assert.assertEquals(batch.get(2).getName(), "position_ids");
+            Assert.assertEquals(
+                    batch.get(2).toLongArray(), new long[] {0, 1, 2, 3, 4, 0, 0, 1, 2, 0, 0, 0});
+
+            NDArray hidden = batch.get(0).toType(DataType.FLOAT32, false).expandDims(-1);
+            // the pooled output is as wide as the rows, but it is not a token level output
+            NDArray pooled = manager.ones(new Shape(2, 6));
+            NDList[] outputs = batchifier.unbatchify(ctx, new NDList(hidden, pooled));
+            Assert.assertEquals(outputs.length, 3);
+            Assert.assertEquals(outputs[0].singletonOrThrow().getShape(), new Shape(3, 1));
+            Assert.assertEquals(outputs[1].singletonOrThrow().toFloatArray(), new float[] {4});
+            Assert.assertEquals(outputs[2].singletonOrThrow().getShape(), new Shape(5, 1));
+
+            PackingBatchifier both = PackingBatchifier.builder().optTokenOutputs(0, 1).build();
+            outputs = both.unbatchify(ctx, new NDList(hidden, pooled));
+            Assert.assertEquals(outputs[2].size(), 2);
+            Assert.assertEquals(outputs[2].get(1).getShape(), new Shape(5));
+            Assert.assertThrows(
+                    IllegalArgumentException.class,
+                    () -> both.unbatchify(ctx, new NDList(hidden, manager.ones(new Shape(2, 4)))));
+
+            Assert.assertThrows(
+                    UnsupportedOperationException.class, () -> batchifier.unbatchify(batch));
+            Assert.assertThrows(
+                    UnsupportedOperationException.class, () -> batchifier.split(batch, 2, false));
+            Assert.assertThrows(
+                    IllegalStateException.class,
+                    () -> batchifier.unbatchify(new TestContext(), batch));
+        }
+    }
+
+    @Test
+    public void testIdenticalOutputs() throws TranslateException {
+        try (Model model = Model.newInstance("attention");
+                NDManager manager = NDManager.newBaseManager()) {
+            // a token attends to all the tokens of its sequence, and sees its position
+            model.setBlock(
+                    new LambdaBlock(
+                            list -> {
+                                NDArray ids = list.get(0).toType(DataType.FLOAT32, false);
+                                NDArray mask = list.get(1).toType(DataType.FLOAT32, false);
+                                Shape shape = ids.getShape();
+                                NDArray positions;
+                                if (list.size() > 2) {
+                                    positions = list.get(2).toType(DataType.FLOAT32, false);
+                                } else {
+                                    positions =
+                                            manager.arange((float) shape.get(1))
+                                                    .expandDims(0)
+                                                    .broadcast(shape);
+                                }
+                                if (mask.getShape().dimension() == 2) {
+                                    Shape square =
+                                            new Shape(shape.get(0), shape.get(1), shape.get(1));
+                                    mask = mask.expandDims(1).broadcast(square);
+                                }
+                                NDArray values = ids.mul(10).add(positions).expandDims(-1);
+                                NDArray hidden = mask.batchMatMul(values);
+                                hidden.setName("last_hidden_state");
+                                return new NDList(hidden);
+                            }));
+            List<NDList> inputs = new ArrayList<>();
+            int[] lengths = {7, 2, 3, 1, 5, 2};
+            for (int i = 0; i < lengths.length; ++i) {
+                inputs.add(encoding(manager, i + 1, lengths[i], 7));
+            }
+
+            List<NDList> expected;
+            try (Predictor<NDList, NDList> predictor =
+                    model.newPredictor(new NoopTranslator(Batchifier.STACK))) {
+                expected = predictor.batchPredict(inputs);
+            }
+            List<NDList> actual;
+            Batchifier packing = Batchifier.fromString("packing");
+            try (Predictor<NDList, NDList> predictor =
+                    model.newPredictor(new NoopTranslator(packing))) {
+                actual = predictor.batchPredict(inputs);
+            }
+            Assert.assertEquals(actual.size(), lengths.length);
+            for (int i = 0; i < lengths.length; ++i) {
+                NDArray array = expected.get(i).singletonOrThrow();
+                array = array.get(new NDIndex("0:{}", lengths[i]));
+                Assert.assertEquals(actual.get(i).get("last_hidden_state"), array);
+            }
+        }
+    }
+
+    private static NDList encoding(NDManager manager, long id, int length, int padded) {
+        long[] ids = new long[padded];
+        long[] mask = new long[padded];
+        for (int i = 0; i < length; ++i) {
+            ids[i] = id;
+            mask[i] = 1;
+        }
+        NDArray inputIds = manager.create(ids);
+        inputIds.setName("input_ids");
+        NDArray attentionMask = manager.create(mask);
+        attentionMask.setName("attention_mask");
+        return new NDList(inputIds, attentionMask);
+    }
+
+    private static final class TestContext implements TranslatorContext {
+
+        private Map<String, Object> attachments = new HashMap<>();
+
+        /** {@inheritDoc} */
+        @Override
+        public Model getModel() {
+            return null;
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public NDManager getNDManager() {
+            return null;
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public NDManager getPredictorManager() {
+            return null;
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public Block getBlock() {
+            return null;
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public Metrics getMetrics() {
+            return null;
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public Object getAttachment(String key) {
+            return attachments.get(key);
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public void setAttachment(String key, Object value) {
+            attachments.put(key, value);
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public void close() {}
+    }
+}
@@ -12,11 +12,28 @@
  */
 package ai.djl.basicdataset.tabular;
 
+import ai.djl.Device;
+import ai.djl.basicdataset.tabular.utils.ColumnarTable;
+import ai.djl.basicdataset.tabular.utils.DynamicBuffer;
+import ai.djl.basicdataset.tabular.utils.Feature;
+import ai.djl.basicdataset.tabular.utils.Featurizer;
+import ai.djl.ndarray.NDList;
+import ai.djl.ndarray.NDManager;
+import ai.djl.ndarray.types.Shape;
+import ai.djl.training.dataset.Batch;
+import ai.djl.training.dataset.DataIterable;
+import ai.djl.training.dataset.Sampler;
+import ai.djl.translate.Batchifier;
+import ai.djl.translate.Pipeline;
+import ai.djl.translate.StackBatchifier;
+import ai.djl.translate.TranslateException;
 import ai.djl.util.Progress;
 
 import org.apache.commons.csv.CSVFormat;
 import org.apache.commons.csv.CSVParser;
 import org.apache.commons.csv.CSVRecord;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import java.io.BufferedInputStream;
 import java.io.IOException;
@@ -24,29 +41,58 @@ import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.Reader;
 import java.net.MalformedURLException;
+import java.net.URISyntaxException;
 import java.net.URL;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
 import java.util.zip.GZIPInputStream;
 
-/** {@code CsvDataset} represents the dataset that stored in a .csv file. */
+/**
+ * {@code CsvDataset} represents the dataset that stored in a .csv file.
+ *
+ * <p>By default, all the {@link CSVRecord}s are kept in memory and the cells are featurized on
+ * every access. In columnar mode, the feature and label columns are parsed once into a {@link
+ * ColumnarTable}, where the columns of {@link Featurizer.FloatFeaturizer}s are stored as floats and
+ * the other columns are dictionary encoded. Batches are then featurized straight into a single
+ * {@code NDArray} per batch. With the columnar cache enabled, the table is saved next to a local
+ * CSV file and memory mapped, and later runs load it instead of parsing the CSV file again. The
+ * {@code csvRecords} are not available in columnar mode.
+ */
 public class CsvDataset extends TabularDataset {
 
+    private static final Logger logger = LoggerFactory.getLogger(CsvDataset.class);
+
     protected URL csvUrl;
     protected CSVFormat csvFormat;
     protected List<CSVRecord> csvRecords;
+    protected boolean columnar;
+    protected boolean columnarCache;
+    protected ColumnarTable columns;
 
     protected CsvDataset(CsvBuilder<?> builder) {
         super(builder);
         csvUrl = builder.csvUrl;
         csvFormat = builder.csvFormat;
+        columnar = builder.columnar;
+        columnarCache = builder.columnarCache;
     }
 
     /** {@inheritDoc} */
     @Override
     public String getCell(long rowIndex, String featureName) {
+        if (columns != null) {
+            int column = columns.getColumnIndex(featureName);
+            return columns.getString(Math.toIntExact(rowIndex), column);
+        }
         CSVRecord record = csvRecords.get(Math.toIntExact(rowIndex));
         return record.get(featureName);
     }
@@ -54,19 +100,179 @@ public class CsvDataset extends TabularDataset {
     /** {@inheritDoc} */
     @Override
     protected long availableSize() {
+        if (columns != null) {
+            return columns.size();
+        }
         return csvRecords.size();
     }
 
     /** {@inheritDoc} */
     @Override
     public void prepare(Progress progress) throws IOException {
-        try (Reader reader = new InputStreamReader(getCsvStream(), StandardCharsets.UTF_8)) {
-            CSVParser csvParser = new CSVParser(reader, csvFormat);
-            csvRecords = csvParser.getRecords();
+        if (columnar) {
+            if (columns != null) {
+                return;
+            }
+            columns = loadColumns();
+        } else {
+            try (Reader reader = new InputStreamReader(getCsvStream(), StandardCharsets.UTF_8)) {
+                CSVParser csvParser = new CSVParser(reader, csvFormat);
+                csvRecords = csvParser.getRecords();
+            }
         }
         prepareFeaturizers();
     }
 
+    /** {@inheritDoc} */
+    @Override
+    public NDList getRowFeatures(NDManager manager, long index, List<Feature> selected) {
+        if (columns == null) {
+            return super.getRowFeatures(manager, index, selected);
+        }
+        DynamicBuffer bb = new DynamicBuffer();
+        featurize(bb, Math.toIntExact(index), selected);
+        return new NDList(manager.create(bb.getBuffer(), new Shape(bb.getLength())));
+    }
+
+    /**
+     * Returns the designated features (either data or label features) of a batch of rows.
+     *
+     * <p>This requires the columnar mode. The rows are featurized into a single {@code NDArray} of
+     * shape (batch, featureLength), like the stacked output of {@link #getRowFeatures(NDManager,
+     * long, List)}.
+     *
+     * @param manager the manager used to create the arrays
+     * @param indices the indices of the requested rows
+     * @param selected the features to pull from the rows
+     * @return the features formatted as an {@link NDList}
+     */
+    public NDList getBatchFeatures(NDManager manager, long[] indices, List<Feature> selected) {
+        if (columns == null) {
+            throw new IllegalStateException("Batch features require the columnar mode.");
+        }
+        if (selected.isEmpty()) {
+            return new NDList();
+        }
+        DynamicBuffer bb = new DynamicBuffer();
+        for (long index : indices) {
+            featurize(bb, Math.toIntExact(index), selected);
+        }
+        Shape shape = new Shape(indices.length, bb.getLength() / indices.length);
+        return new NDList(manager.create(bb.getBuffer(), shape));
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Iterable<Batch> getData(
+            NDManager manager, Sampler sampler, ExecutorService executorService)
+            throws IOException, TranslateException {
+        if (!columnar
+                || !(dataBatchifier instanceof StackBatchifier)
+                || !(labelBatchifier instanceof StackBatchifier)) {
+            return super.getData(manager, sampler, executorService);
+        }
+        prepare();
+        return new ColumnarDataIterable(
+                this,
+                manager,
+                sampler,
+                dataBatchifier,
+                labelBatchifier,
+                pipeline,
+                targetPipeline,
+                executorService,
+                prefetchNumber,
+                device);
+    }
+
+    private void featurize(DynamicBuffer bb, int row, List<Feature> selected) {
+        for (Feature feature : selected) {
+            int column = columns.getColumnIndex(feature.getName());
+            Featurizer featurizer = feature.getFeaturizer();
+            if (columns.isNumeric(column) && featurizer instanceof Featurizer.FloatFeaturizer) {
+                ((Featurizer.FloatFeaturizer) featurizer)
+                        .featurize(bb, columns.getFloat(row, column));
+            } else {
+                featurizer.featurize(bb, columns.getString(row, column));
+            }
+        }
+    }
+
+    private ColumnarTable loadColumns() throws IOException {
+        Set<String> names = new LinkedHashSet<>();
+        Set<String> numeric = new HashSet<>();
+        List<Feature> selected = new ArrayList<>(features);
+        selected.addAll(labels);
+        for (Feature feature : selected) {
+            names.add(feature.getName());
+            if (feature.getFeaturizer() instanceof Featurizer.FloatFeaturizer) {
+                numeric.add(feature.getName());
+            }
+        }
+
+        Path cacheFile = getColumnarCacheFile();
+        if (cacheFile != null && isCacheValid(cacheFile)) {
+            try {
+                ColumnarTable table = ColumnarTable.load(cacheFile);
+                if (hasColumns(table, names, numeric)) {
+                    return table;
+                }
+            } catch (IOException e) {
+                logger.warn("Invalid columnar cache file: {}", cacheFile, e);
+            }
+        }
+
+        ColumnarTable table;
+        try (Reader reader = new InputStreamReader(getCsvStream(), StandardCharsets.UTF_8);
+                CSVParser csvParser = new CSVParser(reader, csvFormat)) {
+            List<String> headerNames = csvParser.getHeaderNames();
+            table = ColumnarTable.parse(csvParser, headerNames, new ArrayList<>(names), numeric);
+        }
+        if (cacheFile != null) {
+            try {
+                table.save(cacheFile);
+                return ColumnarTable.load(cacheFile);
+            } catch (IOException e) {
+                logger.warn("Failed to write columnar cache file: {}", cacheFile, e);
+            }
+        }
+        return table;
+    }
+
+    private Path getColumnarCacheFile() {
+        if (!columnarCache || !"file".equals(csvUrl.getProtocol())) {
+            return null;
+        }
+        try {
+            Path csvFile = Paths.get(csvUrl.toURI());
+            return csvFile.resolveSibling(csvFile.getFileName() + ".columns");
+        } catch (URISyntaxException e) {
+            return null;
+        }
+    }
+
+    private boolean isCacheValid(Path cacheFile) throws IOException {
+        if (!Files.isRegularFile(cacheFile)) {
+            return false;
+        }
+        String name = cacheFile.getFileName().toString();
+        Path csvFile = cacheFile.resolveSibling(name.substring(0, name.length() - 8));
+        return Files.getLastModifiedTime(cacheFile).compareTo(Files.getLastModifiedTime(csvFile))
+                >= 0;
+    }
+
+    private static boolean hasColumns(ColumnarTable table, Set<String> names, Set<String> numeric) {
+        List<String> columnNames = table.getColumnNames();
+        for (String name : names) {
+            int column = columnNames.indexOf(name);
+            // numeric columns fall back to dictionary encoding, but not the opposite
+            if (column < 0 || (table.isNumeric(column) && !numeric.contains(name))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     private InputStream getCsvStream() throws IOException {
         if (csvUrl.getFile().endsWith(".gz")) {
             return new GZIPInputStream(csvUrl.openStream());
@@ -89,6 +295,9 @@ public class CsvDataset extends TabularDataset {
      * @return a list of column name
      */
     public List<String> getColumnNames() {
+        if (columns != null) {
+            return columns.getHeaderNames();
+        }
         if (csvRecords.isEmpty()) {
             return Collections.emptyList();
         }
@@ -100,6 +309,8 @@ public class CsvDataset extends TabularDataset {
 
         protected URL csvUrl;
         protected CSVFormat csvFormat;
+        protected boolean columnar;
+        protected boolean columnarCache;
 
         /** {@inheritDoc} */
         @Override
@@ -149,6 +360,36 @@ public class CsvDataset extends TabularDataset {
             return self();
         }
 
+        /**
+         * Sets whether to parse the feature and label columns once into primitive column arrays
+         * instead of keeping the {@link CSVRecord}s, default is false.
+         *
+         * @param columnar true to use the columnar mode
+         * @return this builder
+         */
+        public T optColumnar(boolean columnar) {
+            this.columnar = columnar;
+            return self();
+        }
+
+        /**
+         * Sets whether to cache the parsed columns in a memory mapped file next to a local CSV
+         * file, default is false.
+         *
+         * <p>This also enables the columnar mode. The cache file is named after the CSV file with a
+         * {@code .columns} suffix and is rebuilt when the CSV file is newer.
+         *
+         * @param columnarCache true to use the columnar cache
+         * @return this builder
+         */
+        public T optColumnarCache(boolean columnarCache) {
+            this.columnarCache = columnarCache;
+            if (columnarCache) {
+                columnar = true;
+            }
+            return self();
+        }
+
         /**
          * Builds the new {@link CsvDataset}.
          *
@@ -158,4 +399,76 @@ public class CsvDataset extends TabularDataset {
             return new CsvDataset(this);
         }
     }
+
+    /**
+     * A {@link DataIterable} that featurizes each batch of a columnar {@link CsvDataset} at once.
+     */
+    private static final class ColumnarDataIterable extends DataIterable {
+
+        ColumnarDataIterable(
+                CsvDataset dataset,
+                NDManager manager,
+                Sampler sampler,
+                Batchifier dataBatchifier,
+                Batchifier labelBatchifier,
+                Pipeline pipeline,
+                Pipeline targetPipeline,
+                ExecutorService executor,
+                int preFetchNumber,
+                Device device) {
+            super(
+                    dataset,
+                    manager,
+                    sampler,
+                    dataBatchifier,
+                    labelBatchifier,
+                    pipeline,
+                    targetPipeline,
+                    executor,
+                    preFetchNumber,
+                    device);
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        protected Batch fetch(List<Long> indices, int progress) {
+            NDManager subManager = manager.newSubManager();
+            subManager.setName("dataIter fetch");
+            long[] rows = indices.stream().mapToLong(Long::longValue).toArray();
+            CsvDataset csv = (CsvDataset) dataset;
+
+            long begin = System.nanoTime();
+            NDList batchData = csv.getBatchFeatures(subManager, rows, csv.features);
+            NDList batchLabels = csv.getBatchFeatures(subManager, rows, csv.labels);
+            begin = addMetric("data-read", begin);
+
+            // apply transform
+            if (pipeline != null) {
+                batchData = pipeline.transform(batchData);
+            }
+            // apply label transform
+            if (targetPipeline != null) {
+                batchLabels = targetPipeline.transform(batchLabels);
+            }
+            if (pipeline != null || targetPipeline != null) {
+                begin = addMetric("data-transform", begin);
+            }
+            // pin to a specific device
+            if (device != null) {
+                batchData = batchData.toDevice(device, false);
+                batchLabels = batchLabels.toDevice(device, false);
+                addMetric("data-device", begin);
+            }
+            return new Batch(
+                    subManager,
+                    batchData,
+                    batchLabels,
+                    rows.length,
+                    dataBatchifier,
+                    labelBatchifier,
+                    progress,
+                    dataset.size(),
+                    indices);
+        }
+    }
 }
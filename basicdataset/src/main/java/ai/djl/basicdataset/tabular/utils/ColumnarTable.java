@@ -0,0 +1,449 @@
+/*
+ * Copyright 2024 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ * with the License. A copy of the License is located at
+ *
+ * http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES
+ * OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package ai.djl.basicdataset.tabular.utils;
+
+import org.apache.commons.csv.CSVRecord;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A table that stores selected columns of a CSV file in primitive arrays.
+ *
+ * <p>Numeric columns are stored as floats, the other columns are dictionary encoded as an int code
+ * per row plus the list of distinct values. A numeric column whose cells are not all written the
+ * way {@link #getString(int, int)} formats them, such as {@code 1.50}, also keeps its dictionary,
+ * so that the original strings are returned. The table can be saved to a cache file and loaded back
+ * with memory mapping, so that the column data does not live on the java heap.
+ */
+public final class ColumnarTable {
+
+    private static final int MAGIC = 0x444A4C43; // DJLC
+    private static final int VERSION = 2;
+
+    private List<String> headerNames;
+    private List<String> columnNames;
+    private Map<String, Integer> columnIndices;
+    private int size;
+    private FloatBuffer[] floats;
+    private IntBuffer[] codes;
+    private String[][] dictionaries;
+
+    private ColumnarTable(
+            List<String> headerNames,
+            List<String> columnNames,
+            int size,
+            FloatBuffer[] floats,
+            IntBuffer[] codes,
+            String[][] dictionaries) {
+        this.headerNames = headerNames;
+        this.columnNames = columnNames;
+        this.size = size;
+        this.floats = floats;
+        this.codes = codes;
+        this.dictionaries = dictionaries;
+        columnIndices = new HashMap<>();
+        for (int i = 0; i < columnNames.size(); ++i) {
+            columnIndices.put(columnNames.get(i), i);
+        }
+    }
+
+    /**
+     * Parses the records into columns in a single pass, without keeping the records.
+     *
+     * <p>A numeric column that contains a value that can't be parsed as a float is stored
+     * dictionary encoded instead.
+     *
+     * @param records the CSV records
+     * @param headerNames the header names of the CSV file
+     * @param columns the names of the columns to keep
+     * @param numeric the names of the columns to store as floats
+     * @return the table
+     */
+    public static ColumnarTable parse(
+            Iterable<CSVRecord> records,
+            List<String> headerNames,
+            List<String> columns,
+            Set<String> numeric) {
+        int numColumns = columns.size();
+        ColumnBuilder[] builders = new ColumnBuilder[numColumns];
+        for (int i = 0; i < numColumns; ++i) {
+            builders[i] = new ColumnBuilder(numeric.contains(columns.get(i)));
+        }
+        int size = 0;
+        for (CSVRecord record : records) {
+            for (int i = 0; i < numColumns; ++i) {
+                builders[i].add(record.get(columns.get(i)));
+            }
+            ++size;
+        }
+
+        FloatBuffer[] floats = new FloatBuffer[numColumns];
+        IntBuffer[] codes = new IntBuffer[numColumns];
+        String[][] dictionaries = new String[numColumns][];
+        for (int i = 0; i < numColumns; ++i) {
+            ColumnBuilder builder = builders[i];
+            if (builder.floats != null) {
+                floats[i] = FloatBuffer.wrap(builder.floats, 0, size).slice();
+            }
+            if (builder.codes != null) {
+                codes[i] = IntBuffer.wrap(builder.codes, 0, size).slice();
+                dictionaries[i] = builder.values.toArray(new String[0]);
+            }
+        }
+        return new ColumnarTable(
+                Collections.unmodifiableList(new ArrayList<>(headerNames)),
+                Collections.unmodifiableList(new ArrayList<>(columns)),
+                size,
+                floats,
+                codes,
+                dictionaries);
+    }
+
+    /**
+     * Loads a table saved by {@link #save(Path)} with the column data memory mapped.
+     *
+     * @param file the cache file
+     * @return the table
+     * @throws IOException if the file is not a valid cache file
+     */
+    public static ColumnarTable load(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer prefix = readFully(channel, 0, 12);
+            if (prefix.getInt() != MAGIC || prefix.getInt() != VERSION) {
+                throw new IOException("Invalid columnar cache file: " + file);
+            }
+            int headerLength = prefix.getInt();
+            if (headerLength < 0 || headerLength > channel.size() - 12) {
+                throw new IOException("Invalid columnar cache file: " + file);
+            }
+            ByteBuffer header = readFully(channel, 12, headerLength);
+            DataInputStream dis =
+                    new DataInputStream(new ByteArrayInputStream(header.array(), 0, headerLength));
+            int size = dis.readInt();
+            List<String> headerNames = readStrings(dis);
+            int numColumns = dis.readInt();
+            List<String> columnNames = new ArrayList<>(numColumns);
+            FloatBuffer[] floats = new FloatBuffer[numColumns];
+            IntBuffer[] codes = new IntBuffer[numColumns];
+            String[][] dictionaries = new String[numColumns][];
+            long position = 12L + headerLength;
+            long length = size * 4L;
+            for (int i = 0; i < numColumns; ++i) {
+                columnNames.add(dis.readUTF());
+                if (dis.readBoolean()) {
+                    floats[i] = map(channel, position, length, file).asFloatBuffer();
+                    position += length;
+                }
+                if (dis.readBoolean()) {
+                    codes[i] = map(channel, position, length, file).asIntBuffer();
+                    dictionaries[i] = readStrings(dis).toArray(new String[0]);
+                    position += length;
+                }
+            }
+            if (position != channel.size()) {
+                throw new IOException("Invalid columnar cache file: " + file);
+            }
+            return new ColumnarTable(
+                    Collections.unmodifiableList(headerNames),
+                    Collections.unmodifiableList(columnNames),
+                    size,
+                    floats,
+                    codes,
+                    dictionaries);
+        }
+    }
+
+    /**
+     * Saves the table to a cache file that can be loaded by {@link #load(Path)}.
+     *
+     * <p>The file is written to a temporary file first and then moved in place.
+     *
+     * @param file the cache file
+     * @throws IOException if the file cannot be written
+     */
+    public void save(Path file) throws IOException {
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        DataOutputStream dos = new DataOutputStream(bos);
+        dos.writeInt(size);
+        writeStrings(dos, headerNames);
+        dos.writeInt(columnNames.size());
+        for (int i = 0; i < columnNames.size(); ++i) {
+            dos.writeUTF(columnNames.get(i));
+            dos.writeBoolean(floats[i] != null);
+            dos.writeBoolean(codes[i] != null);
+            if (codes[i] != null) {
+                writeStrings(dos, Arrays.asList(dictionaries[i]));
+            }
+        }
+        dos.flush();
+        byte[] header = bos.toByteArray();
+
+        Path tmp = Files.createTempFile(file.toAbsolutePath().getParent(), "columns", ".tmp");
+        try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.WRITE)) {
+            ByteBuffer prefix = ByteBuffer.allocate(12 + header.length);
+            prefix.putInt(MAGIC).putInt(VERSION).putInt(header.length).put(header).flip();
+            writeFully(channel, prefix);
+            ByteBuffer bb = ByteBuffer.allocate(64 * 1024);
+            for (int i = 0; i < columnNames.size(); ++i) {
+                for (int row = 0; floats[i] != null && row < size; ++row) {
+                    bb.putFloat(floats[i].get(row));
+                    if (!bb.hasRemaining()) {
+                        bb.flip();
+                        writeFully(channel, bb);
+                        bb.clear();
+                    }
+                }
+                for (int row = 0; codes[i] != null && row < size; ++row) {
+                    bb.putInt(codes[i].get(row));
+                    if (!bb.hasRemaining()) {
+                        bb.flip();
+                        writeFully(channel, bb);
+                        bb.clear();
+                    }
+                }
+            }
+            bb.flip();
+            writeFully(channel, bb);
+        } catch (IOException e) {
+            Files.deleteIfExists(tmp);
+            throw e;
+        }
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    /**
+     * Returns the number of rows.
+     *
+     * @return the number of rows
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns all the header names of the CSV file, including the columns that are not stored.
+     *
+     * @return all the header names of the CSV file
+     */
+    public List<String> getHeaderNames() {
+        return headerNames;
+    }
+
+    /**
+     * Returns the names of the stored columns.
+     *
+     * @return the names of the stored columns
+     */
+    public List<String> getColumnNames() {
+        return columnNames;
+    }
+
+    /**
+     * Returns the index of a stored column.
+     *
+     * @param name the column name
+     * @return the index of the column
+     * @throws IllegalArgumentException if the column is not stored
+     */
+    public int getColumnIndex(String name) {
+        Integer index = columnIndices.get(name);
+        if (index == null) {
+            throw new IllegalArgumentException("Column not found: " + name);
+        }
+        return index;
+    }
+
+    /**
+     * Returns whether the column is stored as floats.
+     *
+     * @param column the column index
+     * @return whether the column is stored as floats
+     */
+    public boolean isNumeric(int column) {
+        return floats[column] != null;
+    }
+
+    /**
+     * Returns the value of a numeric cell.
+     *
+     * @param row the row index
+     * @param column the column index
+     * @return the value of the cell
+     */
+    public float getFloat(int row, int column) {
+        return floats[column].get(row);
+    }
+
+    /**
+     * Returns the value of a cell as it is written in the CSV file.
+     *
+     * @param row the row index
+     * @param column the column index
+     * @return the value of the cell
+     */
+    public String getString(int row, int column) {
+        if (codes[column] == null) {
+            return format(floats[column].get(row));
+        }
+        return dictionaries[column][codes[column].get(row)];
+    }
+
+    /**
+     * Formats a numeric cell, integral values are written without a fraction.
+     *
+     * @param value the value of the cell
+     * @return the formatted value
+     */
+    static String format(float value) {
+        if (value == Math.rint(value) && Math.abs(value) < 1e7f) {
+            return Long.toString((long) value);
+        }
+        return Float.toString(value);
+    }
+
+    private static ByteBuffer map(FileChannel channel, long position, long length, Path file)
+            throws IOException {
+        if (position + length > channel.size()) {
+            throw new IOException("Invalid columnar cache file: " + file);
+        }
+        return channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+    }
+
+    private static ByteBuffer readFully(FileChannel channel, long position, int length)
+            throws IOException {
+        ByteBuffer bb = ByteBuffer.allocate(length);
+        while (bb.hasRemaining()) {
+            if (channel.read(bb, position + bb.position()) < 0) {
+                throw new EOFException("Unexpected end of columnar cache file");
+            }
+        }
+        bb.flip();
+        return bb;
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer bb) throws IOException {
+        while (bb.hasRemaining()) {
+            channel.write(bb);
+        }
+    }
+
+    private static void writeStrings(DataOutputStream dos, List<String> values) throws IOException {
+        dos.writeInt(values.size());
+        for (String value : values) {
+            dos.writeUTF(value);
+        }
+    }
+
+    private static List<String> readStrings(DataInputStream dis) throws IOException {
+        int count = dis.readInt();
+        List<String> values = new ArrayList<>(count);
+        for (int i = 0; i < count; ++i) {
+            values.add(dis.readUTF());
+        }
+        return values;
+    }
+
+    /**
+     * Accumulates the values of a column while parsing.
+     *
+     * <p>A numeric column only starts its dictionary when a cell is not written the way {@link
+     * #format(float)} writes it. The cells before it are added to the dictionary from their floats,
+     * which gives back their exact strings.
+     */
+    private static final class ColumnBuilder {
+
+        float[] floats;
+        int[] codes;
+        Map<String, Integer> dictionary;
+        List<String> values;
+        int size;
+
+        ColumnBuilder(boolean numeric) {
+            if (numeric) {
+                floats = new float[1024];
+            } else {
+                startDictionary();
+            }
+        }
+
+        void add(String value) {
+            if (floats != null) {
+                try {
+                    float f = Float.parseFloat(value);
+                    if (size == floats.length) {
+                        floats = Arrays.copyOf(floats, size * 2);
+                    }
+                    floats[size] = f;
+                    if (codes == null && !format(f).equals(value)) {
+                        startDictionary();
+                    }
+                    if (codes != null) {
+                        addCode(value);
+                    }
+                    ++size;
+                    return;
+                } catch (NumberFormatException e) {
+                    if (codes == null) {
+                        startDictionary();
+                    }
+                    floats = null;
+                }
+            }
+            addCode(value);
+            ++size;
+        }
+
+        private void addCode(String value) {
+            Integer code = dictionary.get(value);
+            if (code == null) {
+                code = values.size();
+                dictionary.put(value, code);
+                values.add(value);
+            }
+            if (size == codes.length) {
+                codes = Arrays.copyOf(codes, size * 2);
+            }
+            codes[size] = code;
+        }
+
+        private void startDictionary() {
+            dictionary = new HashMap<>();
+            values = new ArrayList<>();
+            codes = new int[Math.max(1024, floats == null ? 0 : floats.length)];
+            int count = size;
+            for (size = 0; size < count; ++size) {
+                addCode(format(floats[size]));
+            }
+        }
+    }
+}
@@ -38,6 +38,23 @@ public interface Featurizer {
      */
     Object deFeaturize(float[] data);
 
+    /**
+     * A {@link Featurizer} whose input is a single number.
+     *
+     * <p>Columnar datasets store the inputs of these featurizers as floats and skip the string
+     * parsing.
+     */
+    interface FloatFeaturizer extends Featurizer {
+
+        /**
+         * Puts encoded data into the float buffer.
+         *
+         * @param buf the float buffer to be filled
+         * @param input the parsed numeric input
+         */
+        void featurize(DynamicBuffer buf, float input);
+    }
+
     /**
      * A {@link Featurizer} that only supports the data featurize operations, but not the full
      * deFeaturize operations used by labels.
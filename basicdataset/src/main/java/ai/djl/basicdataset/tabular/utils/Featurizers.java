@@ -103,7 +103,7 @@ public final class Featurizers {
         return new EpochDayFeaturizer(datePattern);
     }
 
-    private static final class NumericFeaturizer implements Featurizer {
+    private static final class NumericFeaturizer implements Featurizer.FloatFeaturizer {
 
         /** {@inheritDoc} */
         @Override
@@ -111,6 +111,12 @@ public final class Featurizers {
             buf.put(Float.parseFloat(input));
         }
 
+        /** {@inheritDoc} */
+        @Override
+        public void featurize(DynamicBuffer buf, float input) {
+            buf.put(input);
+        }
+
         /** {@inheritDoc} */
         @Override
         public int dataRequired() {
@@ -124,7 +130,8 @@ public final class Featurizers {
         }
     }
 
-    private static final class NormalizedNumericFeaturizer implements PreparedFeaturizer {
+    private static final class NormalizedNumericFeaturizer
+            implements PreparedFeaturizer, Featurizer.FloatFeaturizer {
 
         private float mean;
         private float std;
@@ -132,8 +139,13 @@ public final class Featurizers {
         /** {@inheritDoc} */
         @Override
         public void featurize(DynamicBuffer buf, String input) {
-            float value = (Float.parseFloat(input) - mean) / std;
-            buf.put(value);
+            featurize(buf, Float.parseFloat(input));
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public void featurize(DynamicBuffer buf, float input) {
+            buf.put((input - mean) / std);
         }
 
         /** {@inheritDoc} */
@@ -0,0 +1,128 @@
+/*
+ * Copyright 2013 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ * with the License. A copy of the License is located at
+ *
+ * http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES
+ * OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package ai.djl.basicdataset.tabular;
+
+import ai.djl.ndarray.NDList;
+import ai.djl.ndarray.NDManager;
+import ai.djl.ndarray.types.Shape;
+import ai.djl.training.dataset.Batch;
+import ai.djl.training.dataset.Record;
+import ai.djl.translate.TranslateException;
+import ai.djl.util.Utils;
+
+import org.apache.commons.csv.CSVFormat;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Iterator;
+
+public class CsvDatasetTest {
+
+    private Path csvFile;
+
+    @BeforeClass
+    public void setUp() throws IOException {
+        Path dir = Paths.get("build/csv_dataset");
+        Files.createDirectories(dir);
+        csvFile = dir.resolve("data.csv");
+        String csv =
+                "id,size,color,price\n"
+                        + "1,2.5,red,10\n"
+                        + "2,1,blue,20\n"
+                        + "3,4,red,30\n"
+                        + "4,NA,green,40\n";
+        Files.write(csvFile, csv.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @AfterClass
+    public void tearDown() {
+        Utils.deleteQuietly(Paths.get("build/csv_dataset"));
+    }
+
+    @Test
+    public void testColumnar() throws IOException, TranslateException {
+        try (NDManager manager = NDManager.newBaseManager()) {
+            CsvDataset expected = newDataset(false, false);
+            expected.prepare();
+            CsvDataset dataset = newDataset(true, false);
+            dataset.prepare();
+
+            Assert.assertEquals(dataset.size(), 4);
+            Assert.assertEquals(
+                    dataset.getColumnNames(), Arrays.asList("id", "size", "color", "price"));
+            Assert.assertEquals(dataset.getCell(3, "size"), "NA");
+            // the cells are returned as they are written
+            Assert.assertEquals(dataset.getCell(1, "size"), "1");
+            Assert.assertEquals(dataset.getCell(0, "price"), "10");
+            for (int i = 0; i < 3; ++i) {
+                Record record = dataset.get(manager, i);
+                Record row = expected.get(manager, i);
+                Assert.assertEquals(record.getData().head(), row.getData().head());
+                Assert.assertEquals(record.getLabels().head(), row.getLabels().head());
+            }
+
+            Iterator<Batch> it = dataset.getData(manager).iterator();
+            try (Batch batch = it.next()) {
+                NDList data = batch.getData();
+                Assert.assertEquals(data.size(), 1);
+                Assert.assertEquals(data.head().getShape(), new Shape(2, 4));
+                float[] values = {0, 0, 1, 2.5f, 1, 0, 0, 1};
+                Assert.assertEquals(data.head().toFloatArray(), values);
+                Assert.assertEquals(batch.getLabels().head().toFloatArray(), new float[] {10, 20});
+            }
+        }
+    }
+
+    @Test
+    public void testColumnarCache() throws IOException, TranslateException {
+        Path cacheFile = csvFile.resolveSibling("data.csv.columns");
+        Files.deleteIfExists(cacheFile);
+        try (NDManager manager = NDManager.newBaseManager()) {
+            CsvDataset dataset = newDataset(true, true);
+            dataset.prepare();
+            Assert.assertTrue(Files.isRegularFile(cacheFile));
+
+            CsvDataset cached = newDataset(true, true);
+            cached.prepare();
+            Assert.assertEquals(cached.size(), 4);
+            Assert.assertEquals(cached.getCell(1, "color"), "blue");
+            Assert.assertEquals(cached.getCell(2, "size"), "4");
+            Assert.assertEquals(cached.getCell(1, "price"), "20");
+            Assert.assertEquals(
+                    cached.get(manager, 2).getData().head(),
+                    dataset.get(manager, 2).getData().head());
+        }
+    }
+
+    private CsvDataset newDataset(boolean columnar, boolean cache) {
+        return CsvDataset.builder()
+                .optCsvFile(csvFile)
+                .setCsvFormat(
+                        CSVFormat.DEFAULT.builder().setHeader().setSkipHeaderRecord(true).build())
+                .addCategoricalFeature("color")
+                .addNumericFeature("size")
+                .addNumericLabel("price")
+                .optColumnar(columnar)
+                .optColumnarCache(cache)
+                .setSampling(2, false)
+                .build();
+    }
+}
@@ -0,0 +1,99 @@
+/*
+ * Copyright 2024 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ * with the License. A copy of the License is located at
+ *
+ * http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES
+ * OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package ai.djl.benchmark;
+
+import ai.djl.benchmark.stub.StubNDManager;
+import ai.djl.ndarray.NDList;
+import ai.djl.ndarray.NDManager;
+import ai.djl.ndarray.types.DataType;
+import ai.djl.ndarray.types.Shape;
+import ai.djl.translate.Batchifier;
+import ai.djl.translate.PaddingStackBatchifier;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/** Benchmarks the {@code StackBatchifier} and the {@link PaddingStackBatchifier}. */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BatchifierBenchmark {
+
+    @Param({"1", "8", "32"})
+    public int batchSize;
+
+    private NDList[] images;
+    private NDList batch;
+    private NDList[] sequences;
+    private Batchifier padding;
+
+    @Setup
+    public void setup() {
+        NDManager manager = new StubNDManager();
+        Shape shape = new Shape(3, 224, 224);
+        float[] data = new float[Math.toIntExact(shape.size())];
+        images = new NDList[batchSize];
+        for (int i = 0; i < batchSize; ++i) {
+            images[i] = new NDList(manager.create(data, shape));
+        }
+        batch = Batchifier.STACK.batchify(images);
+
+        Random random = new Random(1);
+        sequences = new NDList[batchSize];
+        for (int i = 0; i < batchSize; ++i) {
+            long[] ids = new long[16 + random.nextInt(112)];
+            sequences[i] = new NDList(manager.create(ids), manager.create(ids));
+        }
+        padding =
+                PaddingStackBatchifier.builder()
+                        .optIncludeValidLengths(false)
+                        .addPad(0, 0, m -> m.zeros(new Shape(), DataType.INT64))
+                        .addPad(1, 0, m -> m.zeros(new Shape(), DataType.INT64))
+                        .build();
+    }
+
+    @Benchmark
+    public NDList stack() {
+        return Batchifier.STACK.batchify(images);
+    }
+
+    @Benchmark
+    public NDList[] unstack() {
+        return Batchifier.STACK.unbatchify(batch);
+    }
+
+    @Benchmark
+    public NDList paddingStack() {
+        // padding updates the inputs in place, so each invocation starts from a shallow copy
+        NDList[] inputs = new NDList[sequences.length];
+        for (int i = 0; i < inputs.length; ++i) {
+            inputs[i] = new NDList(sequences[i]);
+        }
+        return padding.batchify(inputs);
+    }
+}
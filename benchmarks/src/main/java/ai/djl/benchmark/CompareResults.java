@@ -0,0 +1,116 @@
+/*
+ * Copyright 2024 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ * with the License. A copy of the License is located at
+ *
+ * http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES
+ * OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package ai.djl.benchmark;
+
+import ai.djl.util.JsonUtils;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Compares two JMH JSON result files, for example the results of two commits.
+ *
+ * <pre>
+ * ./gradlew :benchmarks:jmhCompare -Pbaseline=base.json -Pcurrent=build/reports/jmh/results.json
+ * </pre>
+ *
+ * <p>For each benchmark that exists in both files the relative change of the score is printed.
+ * Changes bigger than the threshold (10% by default) are flagged, a higher score is considered a
+ * regression for time based modes and an improvement for throughput modes.
+ */
+public final class CompareResults {
+
+    private CompareResults() {}
+
+    /**
+     * Compares two JMH JSON result files.
+     *
+     * @param args the baseline file, the current file and an optional threshold in percent
+     * @throws IOException if the result files cannot be read
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.out.println("Usage: CompareResults <baseline.json> <current.json> [threshold]");
+            return;
+        }
+        double threshold = args.length > 2 ? Double.parseDouble(args[2]) : 10;
+        Map<String, Score> baseline = load(Paths.get(args[0]));
+        Map<String, Score> current = load(Paths.get(args[1]));
+
+        int regressions = 0;
+        for (Map.Entry<String, Score> entry : current.entrySet()) {
+            Score before = baseline.get(entry.getKey());
+            Score after = entry.getValue();
+            if (before == null) {
+                System.out.printf(
+                        "%-90s %12.3f %-6s (new)%n", entry.getKey(), after.value, after.unit);
+                continue;
+            }
+            double change = (after.value - before.value) * 100 / before.value;
+            boolean higherIsBetter = !after.unit.endsWith("/op");
+            boolean worse = higherIsBetter ? change < -threshold : change > threshold;
+            boolean better = higherIsBetter ? change > threshold : change < -threshold;
+            String flag = "";
+            if (worse) {
+                flag = "REGRESSION";
+                ++regressions;
+            } else if (better) {
+                flag = "improved";
+            }
+            System.out.printf(
+                    "%-90s %12.3f -> %12.3f %-6s %+7.1f%% %s%n",
+                    entry.getKey(), before.value, after.value, after.unit, change, flag);
+        }
+        System.out.println(regressions + " regression(s) above " + threshold + "%.");
+    }
+
+    private static Map<String, Score> load(Path file) throws IOException {
+        Map<String, Score> scores = new TreeMap<>();
+        try (Reader reader = Files.newBufferedReader(file)) {
+            JsonArray array = JsonUtils.GSON.fromJson(reader, JsonArray.class);
+            for (JsonElement element : array) {
+                JsonObject result = element.getAsJsonObject();
+                StringBuilder sb = new StringBuilder(result.get("benchmark").getAsString());
+                JsonElement params = result.get("params");
+                if (params != null) {
+                    Map<String, String> values = new LinkedHashMap<>();
+                    for (Map.Entry<String, JsonElement> p : params.getAsJsonObject().entrySet()) {
+                        values.put(p.getKey(), p.getValue().getAsString());
+                    }
+                    sb.append(values);
+                }
+                JsonObject metric = result.getAsJsonObject("primaryMetric");
+                Score score = new Score();
+                score.value = metric.get("score").getAsDouble();
+                score.unit = metric.get("scoreUnit").getAsString();
+                scores.put(sb.toString(), score);
+            }
+        }
+        return scores;
+    }
+
+    private static final class Score {
+        double value;
+        String unit;
+    }
+}
@@ -0,0 +1,84 @@
+/*
+ * Copyright 2024 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ * with the License. A copy of the License is located at
+ *
+ * http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES
+ * OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package ai.djl.benchmark;
+
+import ai.djl.metric.Metric;
+import ai.djl.metric.Metrics;
+import ai.djl.metric.Unit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/** Benchmarks recording and aggregating {@link Metrics}. */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MetricsBenchmark {
+
+    @Param({"list", "histogram"})
+    public String aggregation;
+
+    private Metrics metrics;
+    private Metrics recorder;
+
+    @Setup
+    public void setup() {
+        metrics = new Metrics();
+        recorder = new Metrics();
+        // keep memory bounded while recording
+        recorder.setLimit(100_000);
+        if ("histogram".equals(aggregation)) {
+            metrics.useHistogram("Inference");
+            recorder.useHistogram("Inference");
+        }
+        for (int i = 0; i < 10_000; ++i) {
+            metrics.addMetric("Inference", i % 997, Unit.MICROSECONDS);
+        }
+    }
+
+    @Benchmark
+    public void addMetric() {
+        recorder.addMetric("Inference", 42L, Unit.MICROSECONDS);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public void addMetricConcurrent() {
+        recorder.addMetric("Inference", 42L, Unit.MICROSECONDS);
+    }
+
+    @Benchmark
+    public Metric percentile() {
+        return metrics.percentile("Inference", 90);
+    }
+
+    @Benchmark
+    public double mean() {
+        return metrics.mean("Inference");
+    }
+}
@@ -0,0 +1,68 @@
+/*
+ * Copyright 2024 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ * with the License. A copy of the License is located at
+ *
+ * http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES
+ * OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package ai.djl.benchmark;
+
+import ai.djl.ndarray.index.NDIndex;
+import ai.djl.ndarray.index.NDIndexTemplate;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/** Benchmarks parsing {@link NDIndex} strings and binding compiled {@link NDIndexTemplate}s. */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class NDIndexBenchmark {
+
+    private static final NDIndexTemplate TEMPLATE = NDIndex.compile("{}, :, {}:{}");
+
+    @Benchmark
+    public NDIndex parse(Spec spec) {
+        return new NDIndex(spec.index);
+    }
+
+    @Benchmark
+    public NDIndex parseWithArguments() {
+        return new NDIndex("{}, :, {}:{}", 3, 1, 5);
+    }
+
+    @Benchmark
+    public NDIndex bindCompiled() {
+        return TEMPLATE.bind(3, 1, 5);
+    }
+
+    @Benchmark
+    public NDIndex fromLongs() {
+        return new NDIndex(1, 2, 3);
+    }
+
+    @State(Scope.Benchmark)
+    public static class Spec {
+
+        @Param({":", ":,:-1", "1:3, :, -1", "..., 0:10:2, null"})
+        public String index;
+    }
+}
@@ -0,0 +1,89 @@
+/*
+ * Copyright 2024 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ * with the License. A copy of the License is located at
+ *
+ * http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES
+ * OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package ai.djl.benchmark;
+
+import ai.djl.engine.Engine;
+import ai.djl.ndarray.NDArray;
+import ai.djl.ndarray.NDManager;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the resource tracking of {@link NDManager}s.
+ *
+ * <p>Each operation mimics the lifecycle of a prediction: a sub-manager of the shared model manager
+ * is created, a few small arrays are created and attached to it, and the sub-manager is closed.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class NDManagerBenchmark {
+
+    private NDManager manager;
+    private float[] data;
+
+    @Setup
+    public void setup() {
+        manager = Engine.getEngine("JVM").newBaseManager();
+        data = new float[16];
+    }
+
+    @TearDown
+    public void tearDown() {
+        manager.close();
+    }
+
+    @Benchmark
+    public NDArray predictorLifecycle() {
+        return lifecycle();
+    }
+
+    @Benchmark
+    @Threads(32)
+    public NDArray predictorLifecycleConcurrent() {
+        return lifecycle();
+    }
+
+    @Benchmark
+    @Threads(32)
+    public NDArray attachDetachConcurrent() {
+        NDArray array = manager.create(data);
+        array.close();
+        return array;
+    }
+
+    private NDArray lifecycle() {
+        try (NDManager sub = manager.newSubManager()) {
+            NDArray input = sub.create(data);
+            NDArray output = input.add(input);
+            sub.create(1f);
+            return output;
+        }
+    }
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright 2024 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ * with the License. A copy of the License is located at
+ *
+ * http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES
+ * OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package ai.djl.benchmark;
+
+import ai.djl.benchmark.stub.StubNDManager;
+import ai.djl.ndarray.NDList;
+import ai.djl.ndarray.NDManager;
+import ai.djl.ndarray.types.Shape;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/** Benchmarks {@code NDSerializer} through {@link NDList#encode()} and {@link NDList#decode}. */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class NDSerializerBenchmark {
+
+    @Param({"1,512", "1,3,224,224"})
+    public String shape;
+
+    private NDManager manager;
+    private NDList list;
+    private byte[] encoded;
+    private byte[] npz;
+
+    @Setup
+    public void setup() throws IOException {
+        manager = new StubNDManager();
+        String[] tokens = shape.split(",");
+        long[] dims = new long[tokens.length];
+        for (int i = 0; i < dims.length; ++i) {
+            dims[i] = Long.parseLong(tokens[i]);
+        }
+        Shape s = new Shape(dims);
+        float[] data = new float[Math.toIntExact(s.size())];
+        for (int i = 0; i < data.length; ++i) {
+            data[i] = i * 0.5f;
+        }
+        list = new NDList(manager.create(data, s));
+        list.get(0).setName("data");
+        encoded = list.encode();
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        list.encode(bos, NDList.Encoding.NPZ);
+        npz = bos.toByteArray();
+    }
+
+    @Benchmark
+    public byte[] encode() {
+        return list.encode();
+    }
+
+    @Benchmark
+    public byte[] encodeNpz() throws IOException {
+        ByteArrayOutputStream bos = new ByteArrayOutputStream(npz.length);
+        list.encode(bos, NDList.Encoding.NPZ);
+        return bos.toByteArray();
+    }
+
+    @Benchmark
+    public NDList decode() {
+        return NDList.decode(manager, encoded);
+    }
+
+    @Benchmark
+    public NDList decodeStream() {
+        return NDList.decode(manager, new ByteArrayInputStream(encoded));
+    }
+
+    @Benchmark
+    public NDList decodeNpz() {
+        return NDList.decode(manager, npz);
+    }
+}
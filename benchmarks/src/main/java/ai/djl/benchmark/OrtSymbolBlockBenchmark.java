@@ -0,0 +1,89 @@
+/*
+ * Copyright 2024 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ * with the License. A copy of the License is located at
+ *
+ * http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES
+ * OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package ai.djl.benchmark;
+
+import ai.djl.MalformedModelException;
+import ai.djl.Model;
+import ai.djl.engine.Engine;
+import ai.djl.ndarray.NDList;
+import ai.djl.ndarray.NDManager;
+import ai.djl.ndarray.types.Shape;
+import ai.djl.training.ParameterStore;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the per-call overhead of the ONNX Runtime {@code OrtSymbolBlock}.
+ *
+ * <p>The model is an identity on a (1, 3, 224, 224) image, so the time is dominated by moving the
+ * input in and out of ONNX Runtime. The input is created by the pure Java {@code JVM} engine, which
+ * keeps its data in a Java heap buffer that must be staged in a direct buffer for ONNX Runtime. Run
+ * with {@code -prof gc} to see the allocations saved by {@code reuseInputBuffers}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class OrtSymbolBlockBenchmark {
+
+    @Param({"false", "true"})
+    public String reuseInputBuffers;
+
+    private Model model;
+    private ParameterStore parameterStore;
+    private NDManager manager;
+    private NDList input;
+
+    @Setup
+    public void setup() throws IOException, MalformedModelException {
+        model = Model.newInstance("identity", "OnnxRuntime");
+        try (InputStream is = OrtSymbolBlockBenchmark.class.getResourceAsStream("/identity.onnx")) {
+            model.load(is, Collections.singletonMap("reuseInputBuffers", reuseInputBuffers));
+        }
+        parameterStore = new ParameterStore();
+        manager = Engine.getEngine("JVM").newBaseManager();
+        Shape shape = new Shape(1, 3, 224, 224);
+        input = new NDList(manager.create(new float[Math.toIntExact(shape.size())], shape));
+    }
+
+    @TearDown
+    public void tearDown() {
+        manager.close();
+        model.close();
+    }
+
+    @Benchmark
+    public NDList forward() {
+        NDList output = model.getBlock().forward(parameterStore, input, false);
+        output.close();
+        return output;
+    }
+}
@@ -0,0 +1,76 @@
+/*
+ * Copyright 2024 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ * with the License. A copy of the License is located at
+ *
+ * http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES
+ * OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package ai.djl.benchmark;
+
+import ai.djl.ndarray.types.Shape;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/** Benchmarks common {@link Shape} operations. */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ShapeBenchmark {
+
+    private Shape shape = new Shape(32, 3, 224, 224);
+    private Shape other = new Shape(32, 3, 224, 224);
+    private long[] dims = {32, 3, 224, 224};
+
+    @Benchmark
+    public Shape create() {
+        return new Shape(dims);
+    }
+
+    @Benchmark
+    public long size() {
+        return shape.size();
+    }
+
+    @Benchmark
+    public Shape slice() {
+        return shape.slice(1);
+    }
+
+    @Benchmark
+    public Shape add() {
+        return shape.add(1);
+    }
+
+    @Benchmark
+    public boolean equalsShape() {
+        return shape.equals(other);
+    }
+
+    @Benchmark
+    public int hash() {
+        return shape.hashCode();
+    }
+
+    @Benchmark
+    public String string() {
+        return shape.toString();
+    }
+}
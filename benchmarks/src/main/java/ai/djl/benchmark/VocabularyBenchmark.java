@@ -0,0 +1,83 @@
+/*
+ * Copyright 2024 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ * with the License. A copy of the License is located at
+ *
+ * http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES
+ * OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package ai.djl.benchmark;
+
+import ai.djl.modality.nlp.CompactVocabulary;
+import ai.djl.modality.nlp.DefaultVocabulary;
+import ai.djl.modality.nlp.Vocabulary;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/** Benchmarks {@link DefaultVocabulary} and {@link CompactVocabulary} lookups. */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class VocabularyBenchmark {
+
+    @Param({"default", "compact"})
+    public String implementation;
+
+    private Vocabulary vocabulary;
+    private String[] tokens;
+    private int index;
+
+    @Setup
+    public void setup() {
+        DefaultVocabulary defaultVocabulary = WordpieceTokenizerBenchmark.buildVocabulary();
+        if ("compact".equals(implementation)) {
+            vocabulary = CompactVocabulary.of(defaultVocabulary, "[UNK]");
+        } else {
+            vocabulary = defaultVocabulary;
+        }
+        tokens = new String[1024];
+        for (int i = 0; i < tokens.length; ++i) {
+            tokens[i] = vocabulary.getToken((i * 31L) % vocabulary.size());
+        }
+    }
+
+    @Benchmark
+    public long getIndex() {
+        return vocabulary.getIndex(next());
+    }
+
+    @Benchmark
+    public boolean containsMissing() {
+        return vocabulary.contains("missing-token");
+    }
+
+    @Benchmark
+    public String getToken() {
+        index = (index + 1) & 1023;
+        return vocabulary.getToken(index * 29L);
+    }
+
+    private String next() {
+        index = (index + 1) & 1023;
+        return tokens[index];
+    }
+}
@@ -0,0 +1,91 @@
+/*
+ * Copyright 2024 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ * with the License. A copy of the License is located at
+ *
+ * http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES
+ * OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package ai.djl.benchmark;
+
+import ai.djl.modality.nlp.DefaultVocabulary;
+import ai.djl.modality.nlp.bert.WordpieceTokenizer;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/** Benchmarks {@link WordpieceTokenizer#tokenize(String)}. */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class WordpieceTokenizerBenchmark {
+
+    static final String TEXT =
+            "Deep Java Library is an open source, high level, engine agnostic Java framework for"
+                    + " deep learning. It is designed to be easy to get started with and simple to"
+                    + " use for Java developers. It provides a native Java development experience"
+                    + " and functions like any other regular Java library. Unbelievably, the"
+                    + " tokenization of uncharacteristically long words remains surprisingly"
+                    + " expensive.";
+
+    private WordpieceTokenizer tokenizer;
+
+    @Setup
+    public void setup() {
+        tokenizer = new WordpieceTokenizer(buildVocabulary(), "[UNK]", 200);
+    }
+
+    @Benchmark
+    public List<String> tokenize() {
+        return tokenizer.tokenize(TEXT);
+    }
+
+    /**
+     * Builds a vocabulary that covers {@link #TEXT} with whole words, prefixes and {@code ##}
+     * suffixes, so every word piece length is exercised.
+     *
+     * @return the vocabulary
+     */
+    static DefaultVocabulary buildVocabulary() {
+        List<String> tokens = new ArrayList<>(Arrays.asList("[UNK]", "[CLS]", "[SEP]", ",", "."));
+        for (String word : TEXT.toLowerCase().split("[^a-z]+")) {
+            if (word.length() <= 6) {
+                tokens.add(word);
+                tokens.add(word.substring(0, 1).toUpperCase() + word.substring(1));
+                continue;
+            }
+            // split long words into 3 character pieces
+            tokens.add(word.substring(0, 3));
+            tokens.add(word.substring(0, 1).toUpperCase() + word.substring(1, 3));
+            for (int i = 3; i < word.length(); i += 3) {
+                tokens.add("##" + word.substring(i, Math.min(i + 3, word.length())));
+            }
+        }
+        // pad the vocabulary to a realistic size
+        for (int i = 0; tokens.size() < 30000; ++i) {
+            tokens.add("tok" + i);
+            tokens.add("##" + i);
+        }
+        return new DefaultVocabulary(tokens);
+    }
+}
@@ -0,0 +1,287 @@
+/*
+ * Copyright 2024 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ * with the License. A copy of the License is located at
+ *
+ * http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES
+ * OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package ai.djl.benchmark.stub;
+
+import ai.djl.ndarray.NDArray;
+import ai.djl.ndarray.NDArrayAdapter;
+import ai.djl.ndarray.NDList;
+import ai.djl.ndarray.NDManager;
+import ai.djl.ndarray.internal.NDArrayEx;
+import ai.djl.ndarray.types.DataType;
+import ai.djl.ndarray.types.Shape;
+
+import java.lang.reflect.Proxy;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * An {@link NDArray} backed by a Java {@link ByteBuffer} in row-major order.
+ *
+ * <p>Only shape manipulation and data movement operations are implemented: {@code reshape}, {@code
+ * expandDims}, {@code squeeze}, {@code split}, {@code broadcast}, {@code stack} and {@code concat}.
+ * All other operations throw {@link UnsupportedOperationException}.
+ */
+public class StubNDArray extends NDArrayAdapter {
+
+    private ByteBuffer data;
+
+    StubNDArray(NDManager manager, ByteBuffer data, Shape shape, DataType dataType) {
+        super(manager, null, shape, dataType, null);
+        this.data = data;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public ByteBuffer toByteBuffer() {
+        ByteBuffer bb = data.duplicate().order(ByteOrder.nativeOrder());
+        bb.rewind();
+        return bb;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void intern(NDArray replaced) {
+        StubNDArray array = (StubNDArray) replaced;
+        data = array.data;
+        shape = array.shape;
+        dataType = array.dataType;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void detach() {}
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray duplicate() {
+        return manager.create(toByteBuffer(), shape, dataType);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray reshape(Shape shape) {
+        long[] dims = shape.getShape().clone();
+        int unknown = -1;
+        long known = 1;
+        for (int i = 0; i < dims.length; ++i) {
+            if (dims[i] == -1) {
+                unknown = i;
+            } else {
+                known *= dims[i];
+            }
+        }
+        if (unknown >= 0) {
+            dims[unknown] = this.shape.size() / known;
+        }
+        Shape target = new Shape(dims);
+        if (target.size() != this.shape.size()) {
+            throw new IllegalArgumentException("Cannot reshape " + this.shape + " to " + shape);
+        }
+        return new StubNDArray(manager, data, target, dataType);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray expandDims(int axis) {
+        long[] dims = shape.getShape();
+        if (axis < 0) {
+            axis += dims.length + 1;
+        }
+        long[] expanded = new long[dims.length + 1];
+        System.arraycopy(dims, 0, expanded, 0, axis);
+        expanded[axis] = 1;
+        System.arraycopy(dims, axis, expanded, axis + 1, dims.length - axis);
+        return new StubNDArray(manager, data, new Shape(expanded), dataType);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray squeeze(int[] axes) {
+        long[] dims = shape.getShape();
+        boolean[] removed = new boolean[dims.length];
+        for (int axis : axes) {
+            if (axis < 0) {
+                axis += dims.length;
+            }
+            if (dims[axis] != 1) {
+                throw new IllegalArgumentException("Cannot squeeze axis " + axis + " of " + shape);
+            }
+            removed[axis] = true;
+        }
+        List<Long> squeezed = new ArrayList<>();
+        for (int i = 0; i < dims.length; ++i) {
+            if (!removed[i]) {
+                squeezed.add(dims[i]);
+            }
+        }
+        return new StubNDArray(manager, data, new Shape(squeezed), dataType);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDList split(long sections, int axis) {
+        long[] dims = shape.getShape();
+        long axisSize = dims[axis < 0 ? axis + dims.length : axis];
+        if (axisSize % sections != 0) {
+            throw new IllegalArgumentException("array split does not result in an equal division");
+        }
+        long step = axisSize / sections;
+        long[] indices = new long[Math.toIntExact(sections) - 1];
+        for (int i = 0; i < indices.length; ++i) {
+            indices[i] = step * (i + 1);
+        }
+        return split(indices, axis);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDList split(long[] indices, int axis) {
+        long[] dims = shape.getShape();
+        if (axis < 0) {
+            axis += dims.length;
+        }
+        int elementSize = dataType.getNumOfBytes();
+        long outer = new Shape(dims).slice(0, axis).size();
+        long inner = new Shape(dims).slice(axis + 1).size() * elementSize;
+        long axisSize = dims[axis];
+        NDList list = new NDList(indices.length + 1);
+        long begin = 0;
+        for (int i = 0; i <= indices.length; ++i) {
+            long end = i < indices.length ? Math.min(indices[i], axisSize) : axisSize;
+            long rows = Math.max(end - begin, 0);
+            long[] part = dims.clone();
+            part[axis] = rows;
+            ByteBuffer bb = allocate(outer * rows * inner);
+            for (long o = 0; o < outer; ++o) {
+                long offset = (o * axisSize + begin) * inner;
+                copy(data, offset, bb, rows * inner);
+            }
+            bb.rewind();
+            list.add(new StubNDArray(manager, bb, new Shape(part), dataType));
+            begin = end;
+        }
+        return list;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray broadcast(Shape shape) {
+        long[] target = shape.getShape();
+        long[] source = new long[target.length];
+        long[] own = this.shape.getShape();
+        int pad = target.length - own.length;
+        for (int i = 0; i < target.length; ++i) {
+            source[i] = i < pad ? 1 : own[i - pad];
+            if (source[i] != 1 && source[i] != target[i]) {
+                throw new IllegalArgumentException(
+                        "Cannot broadcast " + this.shape + " to " + shape);
+            }
+        }
+        long[] strides = new long[target.length];
+        long stride = 1;
+        for (int i = target.length - 1; i >= 0; --i) {
+            strides[i] = source[i] == 1 ? 0 : stride;
+            stride *= source[i];
+        }
+        int elementSize = dataType.getNumOfBytes();
+        long size = shape.size();
+        ByteBuffer bb = allocate(size * elementSize);
+        long[] index = new long[target.length];
+        for (long i = 0; i < size; ++i) {
+            long offset = 0;
+            for (int d = 0; d < target.length; ++d) {
+                offset += index[d] * strides[d];
+            }
+            copy(data, offset * elementSize, bb, elementSize);
+            for (int d = target.length - 1; d >= 0; --d) {
+                if (++index[d] < target[d]) {
+                    break;
+                }
+                index[d] = 0;
+            }
+        }
+        bb.rewind();
+        return new StubNDArray(manager, bb, shape, dataType);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArrayEx getNDArrayInternal() {
+        return (NDArrayEx)
+                Proxy.newProxyInstance(
+                        getClass().getClassLoader(),
+                        new Class<?>[] {NDArrayEx.class},
+                        (proxy, method, args) -> {
+                            String name = method.getName();
+                            if (args != null && args.length == 2 && args[0] instanceof NDList) {
+                                int axis = (Integer) args[1];
+                                if ("stack".equals(name)) {
+                                    NDList list = new NDList(expandDims(axis));
+                                    for (NDArray array : (NDList) args[0]) {
+                                        list.add(array.expandDims(axis));
+                                    }
+                                    return concat(list, axis);
+                                } else if ("concat".equals(name)) {
+                                    NDList list = new NDList(this);
+                                    list.addAll((NDList) args[0]);
+                                    return concat(list, axis);
+                                }
+                            }
+                            throw new UnsupportedOperationException(
+                                    "Not supported by StubNDArray: " + name);
+                        });
+    }
+
+    private NDArray concat(NDList arrays, int axis) {
+        long[] dims = arrays.head().getShape().getShape().clone();
+        if (axis < 0) {
+            axis += dims.length;
+        }
+        int elementSize = dataType.getNumOfBytes();
+        long outer = new Shape(dims).slice(0, axis).size();
+        long total = 0;
+        long[] chunks = new long[arrays.size()];
+        for (int i = 0; i < chunks.length; ++i) {
+            Shape s = arrays.get(i).getShape();
+            total += s.get(axis);
+            chunks[i] = s.slice(axis).size() * elementSize;
+        }
+        dims[axis] = total;
+        Shape shape = new Shape(dims);
+        ByteBuffer bb = allocate(shape.size() * elementSize);
+        ByteBuffer[] sources = new ByteBuffer[chunks.length];
+        for (int i = 0; i < chunks.length; ++i) {
+            sources[i] = ((StubNDArray) arrays.get(i)).data;
+        }
+        for (long o = 0; o < outer; ++o) {
+            for (int i = 0; i < chunks.length; ++i) {
+                copy(sources[i], o * chunks[i], bb, chunks[i]);
+            }
+        }
+        bb.rewind();
+        return new StubNDArray(manager, bb, shape, dataType);
+    }
+
+    private static ByteBuffer allocate(long size) {
+        return ByteBuffer.allocate(Math.toIntExact(size)).order(ByteOrder.nativeOrder());
+    }
+
+    private static void copy(ByteBuffer src, long offset, ByteBuffer dest, long length) {
+        ByteBuffer view = src.duplicate();
+        view.position(Math.toIntExact(offset));
+        view.limit(Math.toIntExact(offset + length));
+        dest.put(view);
+    }
+}
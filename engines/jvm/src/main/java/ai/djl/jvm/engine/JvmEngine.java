@@ -0,0 +1,100 @@
+/*
+ * Copyright 2024 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ * with the License. A copy of the License is located at
+ *
+ * http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES
+ * OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package ai.djl.jvm.engine;
+
+import ai.djl.Device;
+import ai.djl.Model;
+import ai.djl.engine.Engine;
+import ai.djl.ndarray.NDManager;
+
+/**
+ * The {@code JvmEngine} is a pure Java implementation of the {@link Engine} that runs on the CPU
+ * without any native library.
+ *
+ * <p>It implements the core {@link ai.djl.ndarray.NDArray} operations, which is enough to run pre
+ * and post-processing, and small models built from DJL blocks such as {@link
+ * ai.djl.nn.core.Linear}. Operations that are not implemented are delegated to the alternative
+ * engine if one is available.
+ *
+ * <p>To get an instance of the {@code JvmEngine} when it is not the default Engine, call {@link
+ * Engine#getEngine(String)} with the Engine name "JVM".
+ */
+public final class JvmEngine extends Engine {
+
+    public static final String ENGINE_NAME = "JVM";
+    static final int RANK = 20;
+
+    private Engine alternativeEngine;
+    private boolean initialized;
+
+    private JvmEngine() {}
+
+    static Engine newInstance() {
+        return new JvmEngine();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Engine getAlternativeEngine() {
+        if (!initialized && !Boolean.getBoolean("ai.djl.jvm.disable_alternative")) {
+            Engine engine = Engine.getInstance();
+            if (engine.getRank() < getRank()) {
+                alternativeEngine = engine;
+            }
+            initialized = true;
+        }
+        return alternativeEngine;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public String getEngineName() {
+        return ENGINE_NAME;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public int getRank() {
+        return RANK;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public String getVersion() {
+        return getDjlVersion();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public boolean hasCapability(String capability) {
+        return false;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Model newModel(String name, Device device) {
+        return new JvmModel(name, newBaseManager(device));
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDManager newBaseManager() {
+        return newBaseManager(null);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDManager newBaseManager(Device device) {
+        return JvmNDManager.getSystemManager().newSubManager(device);
+    }
+}
@@ -0,0 +1,68 @@
+/*
+ * Copyright 2024 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ * with the License. A copy of the License is located at
+ *
+ * http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES
+ * OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package ai.djl.jvm.engine;
+
+import ai.djl.BaseModel;
+import ai.djl.MalformedModelException;
+import ai.djl.Model;
+import ai.djl.ndarray.NDManager;
+import ai.djl.ndarray.types.DataType;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Map;
+
+/**
+ * {@code JvmModel} is the pure Java implementation of {@link Model}.
+ *
+ * <p>The JVM engine has no model format of its own, the {@link ai.djl.nn.Block} must be set before
+ * the model is loaded, and its parameters are loaded from a DJL {@code .params} file.
+ */
+public class JvmModel extends BaseModel {
+
+    /**
+     * Constructs a new Model on a given device.
+     *
+     * @param modelName the model name
+     * @param manager the {@link NDManager} to holds the NDArray
+     */
+    JvmModel(String modelName, NDManager manager) {
+        super(modelName);
+        dataType = DataType.FLOAT32;
+        this.manager = manager;
+        manager.setName("JvmModel");
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void load(Path modelPath, String prefix, Map<String, ?> options)
+            throws IOException, MalformedModelException {
+        setModelDir(modelPath);
+        wasLoaded = true;
+        if (block == null) {
+            throw new UnsupportedOperationException(
+                    "JVM engine can only load the parameters of a Block, use setBlock() first");
+        }
+        if (options != null && "false".equals(options.get("hasParameter"))) {
+            return;
+        }
+        if (prefix == null) {
+            prefix = modelName;
+        }
+        Path paramFile = paramPathResolver(prefix, options);
+        if (paramFile == null) {
+            throw new IOException("Parameter file not found in: " + modelDir);
+        }
+        readParameters(paramFile, options);
+    }
+}
@@ -0,0 +1,1595 @@
+/*
+ * Copyright 2024 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ * with the License. A copy of the License is located at
+ *
+ * http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES
+ * OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package ai.djl.jvm.engine;
+
+import ai.djl.jvm.engine.Kernels.Binary;
+import ai.djl.jvm.engine.Kernels.Reduce;
+import ai.djl.jvm.engine.Kernels.Unary;
+import ai.djl.ndarray.BaseNDManager;
+import ai.djl.ndarray.NDArray;
+import ai.djl.ndarray.NDArrayAdapter;
+import ai.djl.ndarray.NDList;
+import ai.djl.ndarray.NDManager;
+import ai.djl.ndarray.index.NDIndex;
+import ai.djl.ndarray.internal.NDArrayEx;
+import ai.djl.ndarray.types.DataType;
+import ai.djl.ndarray.types.Shape;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.DoubleUnaryOperator;
+import java.util.function.Function;
+import java.util.function.LongUnaryOperator;
+
+/**
+ * {@code JvmNDArray} is the pure Java implementation of {@link NDArray}.
+ *
+ * <p>The data is stored in row-major order in a {@link ByteBuffer}, either on the Java heap or off
+ * heap. Shape only operations like {@link #reshape(Shape)} share the buffer with the original
+ * array, all other operations return a new array.
+ */
+public class JvmNDArray extends NDArrayAdapter {
+
+    private static final int UNARY_COST = 4;
+
+    private ByteBuffer data;
+
+    JvmNDArray(
+            NDManager manager,
+            NDManager alternativeManager,
+            ByteBuffer data,
+            Shape shape,
+            DataType dataType) {
+        super(manager, alternativeManager, shape, dataType, BaseNDManager.newUid());
+        this.data = data;
+        manager.attachInternal(uid, this);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public ByteBuffer toByteBuffer() {
+        if (isClosed) {
+            throw new IllegalStateException("Native resource has been release already.");
+        }
+        ByteBuffer bb = data.duplicate().order(ByteOrder.nativeOrder());
+        bb.rewind();
+        return bb;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void intern(NDArray replaced) {
+        JvmNDArray array = (JvmNDArray) replaced;
+        data = array.data;
+        shape = array.shape;
+        dataType = array.dataType;
+        replaced.close();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void detach() {
+        manager.detachInternal(getUid());
+        manager = JvmNDManager.getSystemManager();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void setRequiresGradient(boolean requiresGrad) {
+        // gradients are not supported, accept the call so that blocks can be initialized
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray duplicate() {
+        ByteBuffer bb = getJvmManager().allocate(data.capacity());
+        bb.put(toByteBuffer());
+        bb.rewind();
+        return getJvmManager().newArray(bb, shape, dataType);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray toType(DataType dataType, boolean copy) {
+        if (dataType.equals(this.dataType) || !JvmNDManager.isSupported(dataType)) {
+            return super.toType(dataType, copy);
+        }
+        JvmNDManager jvmManager = getJvmManager();
+        if (this.dataType == DataType.FLOAT32 || dataType == DataType.FLOAT32) {
+            return jvmManager.fromFloats(floats(), shape, dataType);
+        }
+        if (!this.dataType.isFloating()) {
+            return jvmManager.fromLongs(longs(), shape, dataType);
+        }
+        return jvmManager.fromDoubles(doubles(), shape, dataType);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray get(NDIndex index) {
+        return get(manager, index);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void set(NDIndex index, NDArray value) {
+        getNDArrayInternal().getIndexer(manager).set(this, index, value);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void set(NDIndex index, Number value) {
+        getNDArrayInternal().getIndexer(manager).set(this, index, value);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void set(NDIndex index, Function<NDArray, NDArray> function) {
+        NDArray array = get(index);
+        set(index, function.apply(array));
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void setScalar(NDIndex index, Number value) {
+        getNDArrayInternal().getIndexer(manager).setScalar(this, index, value);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void set(NDArray index, Number value) {
+        if (!index.getDataType().isBoolean()) {
+            super.set(index, value);
+            return;
+        }
+        try (NDArray fill = manager.full(shape, value.floatValue(), dataType)) {
+            inplace((JvmNDArray) fill.getNDArrayInternal().where(index, this));
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray take(NDManager manager, NDArray index) {
+        long[] indices = getJvmManager().from(index).indices();
+        JvmNDArray result = select(1, intSize(), 1, indices, index.getShape());
+        if (manager != this.manager) {
+            result.attach(manager);
+        }
+        return result;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray gather(NDArray index, int axis) {
+        JvmNDArray idx = getJvmManager().from(index);
+        int dims = shape.dimension();
+        axis = normalizeAxis(axis, dims);
+        if (idx.shape.dimension() != dims) {
+            throw new IllegalArgumentException(
+                    "Index " + idx.shape + " must have the same rank as the array " + shape);
+        }
+        // only the leading part of the other axes is read, like torch.gather
+        long[] view = idx.shape.getShape().clone();
+        view[axis] = shape.get(axis);
+        ByteBuffer src = data;
+        if (!shape.equals(new Shape(view))) {
+            for (int i = 0; i < dims; ++i) {
+                if (view[i] > shape.get(i)) {
+                    throw new IllegalArgumentException(
+                            "Index " + idx.shape + " is larger than the array " + shape);
+                }
+            }
+            long[] step = new long[dims];
+            Arrays.fill(step, 1);
+            try (JvmNDArray part = slice(new long[dims], step, new Shape(view))) {
+                src = part.data;
+            }
+        }
+        int outer = Math.toIntExact(idx.shape.slice(0, axis).size());
+        int inner = Math.toIntExact(idx.shape.slice(axis + 1).size());
+        int width = dataType.getNumOfBytes();
+        ByteBuffer bb = getJvmManager().allocate(idx.intSize() * width);
+        int axisSize = (int) shape.get(axis);
+        int indexSize = (int) idx.shape.get(axis);
+        Kernels.gatherAxis(src, bb, outer, axisSize, inner, idx.indices(), indexSize, width);
+        return getJvmManager().newArray(bb, idx.shape, dataType);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray booleanMask(NDArray index, int axis) {
+        Shape maskShape = index.getShape();
+        int dims = shape.dimension();
+        if (dims == 0) {
+            throw new IllegalArgumentException("booleanMask is not supported on scalar arrays");
+        }
+        axis = normalizeAxis(axis, dims);
+        int end = axis + maskShape.dimension();
+        if (end > dims || !shape.slice(axis, end).equals(maskShape)) {
+            throw new IllegalArgumentException(
+                    "Mask shape " + maskShape + " does not match array shape " + shape);
+        }
+        double[] mask = getJvmManager().from(index).doubles();
+        long[] indices = new long[mask.length];
+        int count = 0;
+        for (int i = 0; i < mask.length; ++i) {
+            if (mask[i] != 0) {
+                indices[count++] = i;
+            }
+        }
+        indices = Arrays.copyOf(indices, count);
+        int outer = Math.toIntExact(shape.slice(0, axis).size());
+        int inner = Math.toIntExact(shape.slice(end).size());
+        Shape target = shape.slice(0, axis).addAll(new Shape(count)).addAll(shape.slice(end));
+        int width = dataType.getNumOfBytes();
+        ByteBuffer bb = getJvmManager().allocate(outer * count * inner * width);
+        Kernels.select(data, bb, outer, mask.length, inner, indices, width);
+        return getJvmManager().newArray(bb, target, dataType);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray eq(Number n) {
+        return binary(Binary.EQ, n, false);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray eq(NDArray other) {
+        return binary(Binary.EQ, other, false);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray neq(Number n) {
+        return binary(Binary.NEQ, n, false);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray neq(NDArray other) {
+        return binary(Binary.NEQ, other, false);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray gt(Number n) {
+        return binary(Binary.GT, n, false);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray gt(NDArray other) {
+        return binary(Binary.GT, other, false);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray gte(Number n) {
+        return binary(Binary.GTE, n, false);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray gte(NDArray other) {
+        return binary(Binary.GTE, other, false);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray lt(Number n) {
+        return binary(Binary.LT, n, false);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray lt(NDArray other) {
+        return binary(Binary.LT, other, false);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray lte(Number n) {
+        return binary(Binary.LTE, n, false);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray lte(NDArray other) {
+        return binary(Binary.LTE, other, false);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray add(Number n) {
+        return binary(Binary.ADD, n, false);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray add(NDArray other) {
+        return binary(Binary.ADD, other, false);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray sub(Number n) {
+        return binary(Binary.SUB, n, false);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray sub(NDArray other) {
+        return binary(Binary.SUB, other, false);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray mul(Number n) {
+        return binary(Binary.MUL, n, false);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray mul(NDArray other) {
+        return binary(Binary.MUL, other, false);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray div(Number n) {
+        return binary(Binary.DIV, n, false);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray div(NDArray other) {
+        return binary(Binary.DIV, other, false);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray mod(Number n) {
+        return binary(Binary.MOD, n, false);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray mod(NDArray other) {
+        return binary(Binary.MOD, other, false);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray pow(Number n) {
+        return binary(Binary.POW, n, false);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray pow(NDArray other) {
+        return binary(Binary.POW, other, false);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray xlogy(NDArray other) {
+        return binary(Binary.XLOGY, other, false);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray atan2(NDArray other) {
+        return binary(Binary.ATAN2, other, false);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray addi(Number n) {
+        return inplace(binary(Binary.ADD, n, false));
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray addi(NDArray other) {
+        return inplace(binary(Binary.ADD, other, false));
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray subi(Number n) {
+        return inplace(binary(Binary.SUB, n, false));
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray subi(NDArray other) {
+        return inplace(binary(Binary.SUB, other, false));
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray muli(Number n) {
+        return inplace(binary(Binary.MUL, n, false));
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray muli(NDArray other) {
+        return inplace(binary(Binary.MUL, other, false));
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray divi(Number n) {
+        return inplace(binary(Binary.DIV, n, false));
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray divi(NDArray other) {
+        return inplace(binary(Binary.DIV, other, false));
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray modi(Number n) {
+        return inplace(binary(Binary.MOD, n, false));
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray modi(NDArray other) {
+        return inplace(binary(Binary.MOD, other, false));
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray powi(Number n) {
+        return inplace(binary(Binary.POW, n, false));
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray powi(NDArray other) {
+        return inplace(binary(Binary.POW, other, false));
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray sign() {
+        return unary(Unary.SIGN);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray signi() {
+        return inplace(unary(Unary.SIGN));
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray maximum(Number n) {
+        return binary(Binary.MAXIMUM, n, false);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray maximum(NDArray other) {
+        return binary(Binary.MAXIMUM, other, false);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray minimum(Number n) {
+        return binary(Binary.MINIMUM, n, false);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray minimum(NDArray other) {
+        return binary(Binary.MINIMUM, other, false);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray neg() {
+        return unary(Unary.NEG);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray negi() {
+        return inplace(unary(Unary.NEG));
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray abs() {
+        return unary(Unary.ABS);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray square() {
+        return unary(Unary.SQUARE);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray sqrt() {
+        return unary(Unary.SQRT);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray cbrt() {
+        return unary(Unary.CBRT);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray floor() {
+        return unary(Unary.FLOOR);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray ceil() {
+        return unary(Unary.CEIL);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray round() {
+        return unary(Unary.ROUND);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray trunc() {
+        return unary(Unary.TRUNC);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray exp() {
+        return unary(Unary.EXP);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray log() {
+        return unary(Unary.LOG);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray log10() {
+        return unary(Unary.LOG10);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray log2() {
+        return unary(Unary.LOG2);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray sin() {
+        return unary(Unary.SIN);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray cos() {
+        return unary(Unary.COS);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray tan() {
+        return unary(Unary.TAN);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray asin() {
+        return unary(Unary.ASIN);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray acos() {
+        return unary(Unary.ACOS);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray atan() {
+        return unary(Unary.ATAN);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray sinh() {
+        return unary(Unary.SINH);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray cosh() {
+        return unary(Unary.COSH);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray tanh() {
+        return unary(Unary.TANH);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray asinh() {
+        return unary(Unary.ASINH);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray acosh() {
+        return unary(Unary.ACOSH);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray atanh() {
+        return unary(Unary.ATANH);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray toDegrees() {
+        return unary(Unary.DEGREES);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray toRadians() {
+        return unary(Unary.RADIANS);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray erf() {
+        return unary(Unary.ERF);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray max() {
+        return reduce(Reduce.MAX, allAxes(), false, dataType);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray max(int[] axes, boolean keepDims) {
+        return reduce(Reduce.MAX, axes, keepDims, dataType);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray min() {
+        return reduce(Reduce.MIN, allAxes(), false, dataType);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray min(int[] axes, boolean keepDims) {
+        return reduce(Reduce.MIN, axes, keepDims, dataType);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray sum() {
+        return sum(allAxes(), false);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray sum(int[] axes, boolean keepDims) {
+        // like numpy, integers are summed as int64, so that int8 sums don't overflow
+        DataType type = dataType.isFloating() ? dataType : DataType.INT64;
+        return reduce(Reduce.SUM, axes, keepDims, type);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray prod() {
+        return prod(allAxes(), false);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray prod(int[] axes, boolean keepDims) {
+        DataType type = dataType.isFloating() ? dataType : DataType.INT64;
+        return reduce(Reduce.PROD, axes, keepDims, type);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray mean() {
+        return mean(allAxes(), false);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray mean(int[] axes, boolean keepDims) {
+        DataType type = dataType.isFloating() ? dataType : DataType.FLOAT32;
+        return reduce(Reduce.MEAN, axes, keepDims, type);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray argMax() {
+        return reshape(-1).argMax(0);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray argMax(int axis) {
+        return reduce(Reduce.ARGMAX, new int[] {axis}, false, DataType.INT64);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray argMin() {
+        return reshape(-1).argMin(0);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray argMin(int axis) {
+        return reduce(Reduce.ARGMIN, new int[] {axis}, false, DataType.INT64);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDList topK(int k, int axis, boolean largest, boolean sorted) {
+        int dims = shape.dimension();
+        axis = normalizeAxis(axis, dims);
+        int axisSize = (int) shape.get(axis);
+        if (k < 0 || k > axisSize) {
+            throw new IllegalArgumentException("k is out of range: " + k);
+        }
+        // move the axis last, so that each row is contiguous
+        int[] perm = new int[dims];
+        int[] inverse = new int[dims];
+        long[] target = new long[dims];
+        for (int i = 0, j = 0; i < dims; ++i) {
+            if (i != axis) {
+                perm[j++] = i;
+            }
+        }
+        perm[dims - 1] = axis;
+        for (int i = 0; i < dims; ++i) {
+            inverse[perm[i]] = i;
+            target[i] = i == dims - 1 ? k : shape.get(perm[i]);
+        }
+        ByteBuffer in = permute(perm);
+        int size = intSize();
+        int rows = axisSize == 0 ? 0 : size / axisSize;
+        Comparator<Integer> order;
+        if (dataType.isFloating()) {
+            double[] values = Kernels.toDoubles(in, dataType, size);
+            // like PyTorch, NaN is the largest value
+            order = (a, b) -> Double.compare(values[a], values[b]);
+        } else {
+            long[] values = Kernels.toLongs(in, dataType, size);
+            order = (a, b) -> Long.compare(values[a], values[b]);
+        }
+        if (largest) {
+            order = order.reversed();
+        }
+        int width = dataType.getNumOfBytes();
+        ByteBuffer bb = getJvmManager().allocate(rows * k * width);
+        long[] indices = new long[rows * k];
+        Integer[] row = new Integer[axisSize];
+        for (int r = 0; r < rows; ++r) {
+            int begin = r * axisSize;
+            for (int i = 0; i < axisSize; ++i) {
+                row[i] = begin + i;
+            }
+            Arrays.sort(row, order);
+            for (int i = 0; i < k; ++i) {
+                indices[r * k + i] = row[i] - begin;
+                Kernels.copyElement(in, row[i], bb, r * k + i, width);
+            }
+        }
+        Shape topShape = new Shape(target);
+        JvmNDManager jvmManager = getJvmManager();
+        try (NDArray values = jvmManager.newArray(bb, topShape, dataType);
+                NDArray index = jvmManager.fromLongs(indices, topShape, DataType.INT64)) {
+            return new NDList(values.transpose(inverse), index.transpose(inverse));
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDList split(long sections, int axis) {
+        axis = normalizeAxis(axis, shape.dimension());
+        long axisSize = shape.get(axis);
+        if (sections <= 0 || axisSize % sections != 0) {
+            throw new IllegalArgumentException("array split does not result in an equal division");
+        }
+        long step = axisSize / sections;
+        long[] indices = new long[Math.toIntExact(sections) - 1];
+        for (int i = 0; i < indices.length; ++i) {
+            indices[i] = step * (i + 1);
+        }
+        return split(indices, axis);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDList split(long[] indices, int axis) {
+        int dims = shape.dimension();
+        axis = normalizeAxis(axis, dims);
+        long axisSize = shape.get(axis);
+        long[] min = new long[dims];
+        long[] step = new long[dims];
+        Arrays.fill(step, 1);
+        long[] part = shape.getShape().clone();
+        NDList list = new NDList(indices.length + 1);
+        long begin = 0;
+        for (int i = 0; i <= indices.length; ++i) {
+            long end = i < indices.length ? Math.min(indices[i], axisSize) : axisSize;
+            min[axis] = begin;
+            part[axis] = Math.max(end - begin, 0);
+            list.add(slice(min, step, new Shape(part.clone())));
+            begin = Math.max(begin, end);
+        }
+        return list;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray flatten() {
+        return reshape(-1);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray flatten(int startDim, int endDim) {
+        int dims = shape.dimension();
+        startDim = normalizeAxis(startDim, dims);
+        endDim = normalizeAxis(endDim, dims);
+        Shape target =
+                shape.slice(0, startDim)
+                        .addAll(new Shape(shape.slice(startDim, endDim + 1).size()))
+                        .addAll(shape.slice(endDim + 1));
+        return reshape(target);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray reshape(Shape shape) {
+        long[] dims = shape.getShape().clone();
+        int unknown = -1;
+        long known = 1;
+        for (int i = 0; i < dims.length; ++i) {
+            if (dims[i] == -1) {
+                if (unknown >= 0) {
+                    throw new IllegalArgumentException("Only one dimension can be -1: " + shape);
+                }
+                unknown = i;
+            } else {
+                known *= dims[i];
+            }
+        }
+        if (unknown >= 0) {
+            dims[unknown] = known == 0 ? 0 : this.shape.size() / known;
+        }
+        Shape target = new Shape(dims);
+        if (target.size() != this.shape.size()) {
+            throw new IllegalArgumentException("Cannot reshape " + this.shape + " to " + shape);
+        }
+        return getJvmManager().newArray(data, target, dataType);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray expandDims(int axis) {
+        long[] dims = shape.getShape();
+        axis = normalizeAxis(axis, dims.length + 1);
+        long[] expanded = new long[dims.length + 1];
+        System.arraycopy(dims, 0, expanded, 0, axis);
+        expanded[axis] = 1;
+        System.arraycopy(dims, axis, expanded, axis + 1, dims.length - axis);
+        return getJvmManager().newArray(data, new Shape(expanded), dataType);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray squeeze(int[] axes) {
+        long[] dims = shape.getShape();
+        if (dims.length == 0) {
+            return getJvmManager().newArray(data, shape, dataType);
+        }
+        boolean[] removed = new boolean[dims.length];
+        for (int axis : axes) {
+            axis = normalizeAxis(axis, dims.length);
+            if (dims[axis] != 1) {
+                throw new IllegalArgumentException("Cannot squeeze axis " + axis + " of " + shape);
+            }
+            removed[axis] = true;
+        }
+        List<Long> squeezed = new ArrayList<>();
+        for (int i = 0; i < dims.length; ++i) {
+            if (!removed[i]) {
+                squeezed.add(dims[i]);
+            }
+        }
+        return getJvmManager().newArray(data, new Shape(squeezed), dataType);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray logicalAnd(NDArray other) {
+        return binary(Binary.AND, other, false);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray logicalOr(NDArray other) {
+        return binary(Binary.OR, other, false);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray logicalXor(NDArray other) {
+        return binary(Binary.XOR, other, false);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray logicalNot() {
+        return unary(Unary.NOT);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray softmax(int axis) {
+        return softmax(axis, false);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray logSoftmax(int axis) {
+        return softmax(axis, true);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray isInfinite() {
+        return unary(Unary.IS_INFINITE);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray isNaN() {
+        return unary(Unary.IS_NAN);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray dot(NDArray other) {
+        int dims = shape.dimension();
+        int otherDims = other.getShape().dimension();
+        if (dims == 0 || otherDims == 0) {
+            return mul(other);
+        }
+        if (otherDims == 1 || (dims <= 2 && otherDims == 2)) {
+            return matMul(other);
+        }
+        return super.dot(other);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray matMul(NDArray other) {
+        JvmNDArray b = getJvmManager().from(other);
+        if (shape.isScalar() || b.shape.isScalar()) {
+            throw new IllegalArgumentException("matMul does not support scalar arrays");
+        }
+        Shape left = shape.dimension() == 1 ? new Shape(1, shape.get(0)) : shape;
+        Shape right = b.shape.dimension() == 1 ? new Shape(b.shape.get(0), 1) : b.shape;
+        int m = (int) left.get(left.dimension() - 2);
+        int k = (int) left.tail();
+        int n = (int) right.tail();
+        if (right.get(right.dimension() - 2) != k) {
+            throw new IllegalArgumentException(
+                    "Incompatible shapes for matMul: " + shape + " and " + b.shape);
+        }
+        Shape batch =
+                broadcastShape(
+                        left.slice(0, left.dimension() - 2), right.slice(0, right.dimension() - 2));
+        int batches = Math.toIntExact(batch.size());
+        Shape target = batch;
+        if (shape.dimension() > 1) {
+            target = target.add(m);
+        }
+        if (b.shape.dimension() > 1) {
+            target = target.add(n);
+        }
+        DataType type = promote(dataType, b.dataType);
+        ByteBuffer x = expand(data, left, batch.addAll(new Shape(m, k)));
+        ByteBuffer y = b.expand(b.data, right, batch.addAll(new Shape(k, n)));
+        if (type == DataType.FLOAT32) {
+            float[] xf = Kernels.toFloats(x, dataType, batches * m * k);
+            float[] yf = Kernels.toFloats(y, b.dataType, batches * k * n);
+            float[] out = new float[batches * m * n];
+            for (int i = 0; i < batches; ++i) {
+                Kernels.gemm(xf, i * m * k, yf, i * k * n, out, i * m * n, m, k, n, false);
+            }
+            return getJvmManager().fromFloats(out, target, type);
+        }
+        if (!type.isFloating()) {
+            long[] xl = Kernels.toLongs(x, dataType, batches * m * k);
+            long[] yl = Kernels.toLongs(y, b.dataType, batches * k * n);
+            long[] out = new long[batches * m * n];
+            for (int i = 0; i < batches; ++i) {
+                Kernels.gemm(xl, i * m * k, yl, i * k * n, out, i * m * n, m, k, n, false);
+            }
+            return getJvmManager().fromLongs(out, target, type);
+        }
+        double[] xd = Kernels.toDoubles(x, dataType, batches * m * k);
+        double[] yd = Kernels.toDoubles(y, b.dataType, batches * k * n);
+        double[] out = new double[batches * m * n];
+        for (int i = 0; i < batches; ++i) {
+            Kernels.gemm(xd, i * m * k, yd, i * k * n, out, i * m * n, m, k, n, false);
+        }
+        return getJvmManager().fromDoubles(out, target, type);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray batchMatMul(NDArray other) {
+        if (shape.dimension() == 3 && other.getShape().dimension() == 3) {
+            return matMul(other);
+        }
+        return super.batchMatMul(other);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray clip(Number min, Number max) {
+        if (!dataType.isFloating() && !isFloating(min) && !isFloating(max)) {
+            long low = min.longValue();
+            long high = max.longValue();
+            return mapLongs(x -> Math.min(Math.max(x, low), high), dataType);
+        }
+        double low = min.doubleValue();
+        double high = max.doubleValue();
+        return map(x -> Math.min(Math.max(x, low), high), dataType);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray transpose() {
+        int dims = shape.dimension();
+        int[] axes = new int[dims];
+        for (int i = 0; i < dims; ++i) {
+            axes[i] = dims - 1 - i;
+        }
+        return transpose(axes);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray transpose(int... axes) {
+        int dims = shape.dimension();
+        if (axes.length != dims) {
+            throw new IllegalArgumentException(
+                    "Axes " + Arrays.toString(axes) + " do not match the shape " + shape);
+        }
+        int[] perm = new int[dims];
+        boolean[] seen = new boolean[dims];
+        long[] target = new long[dims];
+        for (int i = 0; i < dims; ++i) {
+            perm[i] = normalizeAxis(axes[i], dims);
+            if (seen[perm[i]]) {
+                throw new IllegalArgumentException("Repeated axis in " + Arrays.toString(axes));
+            }
+            seen[perm[i]] = true;
+            target[i] = shape.get(perm[i]);
+        }
+        return getJvmManager().newArray(permute(perm), new Shape(target), dataType);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray broadcast(Shape shape) {
+        if (shape.equals(this.shape)) {
+            return duplicate();
+        }
+        return getJvmManager().newArray(expand(data, this.shape, shape), shape, dataType);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArrayEx getNDArrayInternal() {
+        return new JvmNDArrayEx(this);
+    }
+
+    JvmNDManager getJvmManager() {
+        if (manager instanceof JvmNDManager) {
+            return (JvmNDManager) manager;
+        }
+        return JvmNDManager.getSystemManager();
+    }
+
+    NDManager getAlternativeManager() {
+        // attach() falls back to the own manager when there is no alternative engine
+        return alternativeManager == manager ? null : alternativeManager;
+    }
+
+    int intSize() {
+        return Math.toIntExact(shape.size());
+    }
+
+    float[] floats() {
+        return Kernels.toFloats(data, dataType, intSize());
+    }
+
+    double[] doubles() {
+        return Kernels.toDoubles(data, dataType, intSize());
+    }
+
+    long[] longs() {
+        return Kernels.toLongs(data, dataType, intSize());
+    }
+
+    long[] indices() {
+        return longs();
+    }
+
+    ByteBuffer getData() {
+        return data;
+    }
+
+    JvmNDArray unary(Unary op) {
+        DataType type;
+        if (op == Unary.NOT || op == Unary.IS_NAN || op == Unary.IS_INFINITE) {
+            type = DataType.BOOLEAN;
+        } else if (op.isFloating() && !dataType.isFloating()) {
+            type = DataType.FLOAT32;
+        } else {
+            type = dataType;
+        }
+        if (!dataType.isFloating() && !type.isFloating()) {
+            return mapLongs(op, type);
+        }
+        return map(op, type);
+    }
+
+    JvmNDArray map(DoubleUnaryOperator op, DataType type) {
+        int n = intSize();
+        if (type == DataType.FLOAT32 || dataType == DataType.FLOAT32) {
+            float[] in = floats();
+            float[] out = new float[n];
+            Kernels.parallelFor(n, UNARY_COST, (from, to) -> Kernels.unary(op, in, out, from, to));
+            return getJvmManager().fromFloats(out, shape, type);
+        }
+        double[] in = doubles();
+        double[] out = new double[n];
+        Kernels.parallelFor(n, UNARY_COST, (from, to) -> Kernels.unary(op, in, out, from, to));
+        return getJvmManager().fromDoubles(out, shape, type);
+    }
+
+    JvmNDArray mapLongs(LongUnaryOperator op, DataType type) {
+        int n = intSize();
+        long[] in = longs();
+        long[] out = new long[n];
+        Kernels.parallelFor(n, UNARY_COST, (from, to) -> Kernels.unary(op, in, out, from, to));
+        return getJvmManager().fromLongs(out, shape, type);
+    }
+
+    JvmNDArray binary(Binary op, Number n, boolean reverse) {
+        DataType type = dataType;
+        boolean floating = isFloating(n);
+        if (!dataType.isFloating() && floating) {
+            type = DataType.FLOAT32;
+        } else if (dataType.isBoolean() && !op.isLogical()) {
+            type = DataType.INT64;
+        }
+        DataType outType = op.isLogical() ? DataType.BOOLEAN : type;
+        int size = intSize();
+        if (type == DataType.FLOAT32) {
+            float[] a = floats();
+            float s = n.floatValue();
+            float[] out = new float[size];
+            Kernels.parallelFor(
+                    size, 1, (from, to) -> Kernels.binary(op, a, s, out, reverse, from, to));
+            return getJvmManager().fromFloats(out, shape, outType);
+        }
+        if (!type.isFloating()) {
+            long[] a = longs();
+            long s = n.longValue();
+            long[] out = new long[size];
+            Kernels.parallelFor(
+                    size, 1, (from, to) -> Kernels.binary(op, a, s, out, reverse, from, to));
+            return getJvmManager().fromLongs(out, shape, outType);
+        }
+        double[] a = doubles();
+        double s = n.doubleValue();
+        double[] out = new double[size];
+        Kernels.parallelFor(
+                size, 1, (from, to) -> Kernels.binary(op, a, s, out, reverse, from, to));
+        return getJvmManager().fromDoubles(out, shape, outType);
+    }
+
+    JvmNDArray binary(Binary op, NDArray other, boolean reverse) {
+        JvmNDArray rhs = getJvmManager().from(other);
+        JvmNDArray x = reverse ? rhs : this;
+        JvmNDArray y = reverse ? this : rhs;
+        DataType type = promote(x.dataType, y.dataType);
+        if (type.isBoolean() && !op.isLogical()) {
+            type = DataType.INT64;
+        }
+        DataType outType = op.isLogical() ? DataType.BOOLEAN : type;
+        Shape target = broadcastShape(x.shape, y.shape);
+        int size = Math.toIntExact(target.size());
+        boolean scalarY = y.intSize() == 1 && x.shape.equals(target);
+        boolean scalarX = x.intSize() == 1 && y.shape.equals(target);
+        if (type == DataType.FLOAT32) {
+            float[] out = new float[size];
+            if (scalarY) {
+                float[] a = x.floats();
+                float s = y.floats()[0];
+                Kernels.parallelFor(
+                        size, 1, (from, to) -> Kernels.binary(op, a, s, out, false, from, to));
+            } else if (scalarX) {
+                float[] a = y.floats();
+                float s = x.floats()[0];
+                Kernels.parallelFor(
+                        size, 1, (from, to) -> Kernels.binary(op, a, s, out, true, from, to));
+            } else {
+                float[] a = Kernels.toFloats(x.expand(x.data, x.shape, target), x.dataType, size);
+                float[] b = Kernels.toFloats(y.expand(y.data, y.shape, target), y.dataType, size);
+                Kernels.parallelFor(size, 1, (from, to) -> Kernels.binary(op, a, b, out, from, to));
+            }
+            return getJvmManager().fromFloats(out, target, outType);
+        }
+        if (!type.isFloating()) {
+            long[] out = new long[size];
+            if (scalarY) {
+                long[] a = x.longs();
+                long s = y.longs()[0];
+                Kernels.parallelFor(
+                        size, 1, (from, to) -> Kernels.binary(op, a, s, out, false, from, to));
+            } else if (scalarX) {
+                long[] a = y.longs();
+                long s = x.longs()[0];
+                Kernels.parallelFor(
+                        size, 1, (from, to) -> Kernels.binary(op, a, s, out, true, from, to));
+            } else {
+                long[] a = Kernels.toLongs(x.expand(x.data, x.shape, target), x.dataType, size);
+                long[] b = Kernels.toLongs(y.expand(y.data, y.shape, target), y.dataType, size);
+                Kernels.parallelFor(size, 1, (from, to) -> Kernels.binary(op, a, b, out, from, to));
+            }
+            return getJvmManager().fromLongs(out, target, outType);
+        }
+        double[] out = new double[size];
+        if (scalarY) {
+            double[] a = x.doubles();
+            double s = y.doubles()[0];
+            Kernels.parallelFor(
+                    size, 1, (from, to) -> Kernels.binary(op, a, s, out, false, from, to));
+        } else if (scalarX) {
+            double[] a = y.doubles();
+            double s = x.doubles()[0];
+            Kernels.parallelFor(
+                    size, 1, (from, to) -> Kernels.binary(op, a, s, out, true, from, to));
+        } else {
+            double[] a = Kernels.toDoubles(x.expand(x.data, x.shape, target), x.dataType, size);
+            double[] b = Kernels.toDoubles(y.expand(y.data, y.shape, target), y.dataType, size);
+            Kernels.parallelFor(size, 1, (from, to) -> Kernels.binary(op, a, b, out, from, to));
+        }
+        return getJvmManager().fromDoubles(out, target, outType);
+    }
+
+    JvmNDArray inplace(JvmNDArray result) {
+        if (!result.shape.equals(shape)) {
+            result.close();
+            throw new IllegalArgumentException(
+                    "Cannot update array of shape " + shape + " in place with " + result.shape);
+        }
+        if (result.dataType == dataType) {
+            ByteBuffer bb = data.duplicate();
+            bb.rewind();
+            bb.put(result.toByteBuffer());
+        } else if (dataType == DataType.FLOAT32) {
+            Kernels.write(result.floats(), dataType, data);
+        } else if (!result.dataType.isFloating()) {
+            Kernels.write(result.longs(), dataType, data);
+        } else {
+            Kernels.write(result.doubles(), dataType, data);
+        }
+        result.close();
+        return this;
+    }
+
+    JvmNDArray reduce(Reduce op, int[] axes, boolean keepDims, DataType type) {
+        int dims = shape.dimension();
+        if (dims == 0) {
+            JvmNDArray flat = (JvmNDArray) reshape(1);
+            return flat.reduce(op, new int[] {0}, false, type);
+        }
+        boolean[] reduced = new boolean[dims];
+        for (int axis : axes) {
+            reduced[normalizeAxis(axis, dims)] = true;
+        }
+        int[] perm = new int[dims];
+        int index = 0;
+        int outer = 1;
+        int inner = 1;
+        List<Long> target = new ArrayList<>();
+        for (int i = 0; i < dims; ++i) {
+            if (!reduced[i]) {
+                perm[index++] = i;
+                outer *= (int) shape.get(i);
+                target.add(shape.get(i));
+            } else if (keepDims) {
+                target.add(1L);
+            }
+        }
+        for (int i = 0; i < dims; ++i) {
+            if (reduced[i]) {
+                perm[index++] = i;
+                inner *= (int) shape.get(i);
+            }
+        }
+        if (inner == 0 && outer > 0 && op != Reduce.SUM && op != Reduce.PROD && op != Reduce.MEAN) {
+            throw new IllegalArgumentException("Cannot reduce an empty axis with " + op);
+        }
+        int rowSize = inner;
+        if (!dataType.isFloating() && op != Reduce.MEAN) {
+            long[] in = Kernels.toLongs(permute(perm), dataType, intSize());
+            long[] out = new long[outer];
+            Kernels.parallelFor(
+                    outer, rowSize, (from, to) -> Kernels.reduce(op, in, out, rowSize, from, to));
+            return getJvmManager().fromLongs(out, new Shape(target), type);
+        }
+        double[] in = Kernels.toDoubles(permute(perm), dataType, intSize());
+        double[] out = new double[outer];
+        Kernels.parallelFor(
+                outer, rowSize, (from, to) -> Kernels.reduce(op, in, out, rowSize, from, to));
+        return getJvmManager().fromDoubles(out, new Shape(target), type);
+    }
+
+    JvmNDArray softmax(int axis, boolean log) {
+        int dims = shape.dimension();
+        if (dims == 0) {
+            JvmNDArray flat = (JvmNDArray) reshape(1);
+            return (JvmNDArray) flat.softmax(0, log).reshape(shape);
+        }
+        axis = normalizeAxis(axis, dims);
+        int[] perm = new int[dims];
+        int[] inverse = new int[dims];
+        long[] permuted = new long[dims];
+        for (int i = 0, j = 0; i < dims; ++i) {
+            if (i != axis) {
+                perm[j++] = i;
+            }
+        }
+        perm[dims - 1] = axis;
+        for (int i = 0; i < dims; ++i) {
+            inverse[perm[i]] = i;
+            permuted[i] = shape.get(perm[i]);
+        }
+        int inner = (int) shape.get(axis);
+        int outer = inner == 0 ? 0 : intSize() / inner;
+        ByteBuffer in = permute(perm);
+        JvmNDArray result;
+        if (dataType == DataType.FLOAT64) {
+            double[] x = Kernels.toDoubles(in, dataType, intSize());
+            double[] out = new double[x.length];
+            Kernels.parallelFor(
+                    outer, inner * 8L, (from, to) -> Kernels.softmax(x, out, inner, log, from, to));
+            result = getJvmManager().fromDoubles(out, new Shape(permuted), dataType);
+        } else {
+            float[] x = Kernels.toFloats(in, dataType, intSize());
+            float[] out = new float[x.length];
+            Kernels.parallelFor(
+                    outer, inner * 8L, (from, to) -> Kernels.softmax(x, out, inner, log, from, to));
+            result = getJvmManager().fromFloats(out, new Shape(permuted), DataType.FLOAT32);
+        }
+        if (axis == dims - 1) {
+            return result;
+        }
+        try (JvmNDArray tmp = result) {
+            return (JvmNDArray) tmp.transpose(inverse);
+        }
+    }
+
+    JvmNDArray slice(long[] min, long[] step, Shape target) {
+        int[] strides = Kernels.strides(Kernels.toIntShape(shape.getShape()));
+        int offset = 0;
+        int[] viewStrides = new int[strides.length];
+        for (int i = 0; i < strides.length; ++i) {
+            offset += (int) min[i] * strides[i];
+            viewStrides[i] = (int) step[i] * strides[i];
+        }
+        int width = dataType.getNumOfBytes();
+        ByteBuffer bb = getJvmManager().allocate(Math.toIntExact(target.size()) * width);
+        Kernels.gather(data, offset, viewStrides, Kernels.toIntShape(target.getShape()), bb, width);
+        return getJvmManager().newArray(bb, target, dataType);
+    }
+
+    void assign(long[] min, long[] step, Shape target, JvmNDArray value) {
+        int[] strides = Kernels.strides(Kernels.toIntShape(shape.getShape()));
+        int offset = 0;
+        int[] viewStrides = new int[strides.length];
+        for (int i = 0; i < strides.length; ++i) {
+            offset += (int) min[i] * strides[i];
+            viewStrides[i] = (int) step[i] * strides[i];
+        }
+        // a value of the squeezed shape has the same layout as the full slice
+        Shape from = value.shape.size() == target.size() ? target : value.shape;
+        ByteBuffer src;
+        if (value.dataType == dataType) {
+            src = expand(value.data, from, target);
+        } else {
+            try (NDArray converted = value.toType(dataType, false)) {
+                src = expand(((JvmNDArray) converted).data, from, target);
+            }
+        }
+        int width = dataType.getNumOfBytes();
+        Kernels.scatter(
+                src, data, offset, viewStrides, Kernels.toIntShape(target.getShape()), width);
+    }
+
+    JvmNDArray select(int outer, int axisSize, int inner, long[] indices, Shape target) {
+        int width = dataType.getNumOfBytes();
+        ByteBuffer bb = getJvmManager().allocate(outer * indices.length * inner * width);
+        Kernels.select(data, bb, outer, axisSize, inner, indices, width);
+        return getJvmManager().newArray(bb, target, dataType);
+    }
+
+    /**
+     * Returns the data of this array broadcast from {@code from} to {@code to}.
+     *
+     * @param src the data to broadcast
+     * @param from the shape of the data
+     * @param to the target shape
+     * @return the broadcast data, {@code src} itself if the shapes are equal
+     */
+    ByteBuffer expand(ByteBuffer src, Shape from, Shape to) {
+        if (from.equals(to)) {
+            return src;
+        }
+        long[] own = from.getShape();
+        int[] target = Kernels.toIntShape(to.getShape());
+        int pad = target.length - own.length;
+        if (pad < 0) {
+            throw new IllegalArgumentException("Cannot broadcast " + from + " to " + to);
+        }
+        int[] ownStrides = Kernels.strides(Kernels.toIntShape(own));
+        int[] strides = new int[target.length];
+        for (int i = pad; i < target.length; ++i) {
+            long dim = own[i - pad];
+            if (dim == target[i]) {
+                strides[i] = ownStrides[i - pad];
+            } else if (dim != 1) {
+                throw new IllegalArgumentException("Cannot broadcast " + from + " to " + to);
+            }
+        }
+        int width = dataType.getNumOfBytes();
+        ByteBuffer bb = getJvmManager().allocate(Math.toIntExact(to.size()) * width);
+        Kernels.gather(src, 0, strides, target, bb, width);
+        return bb;
+    }
+
+    private ByteBuffer permute(int[] perm) {
+        boolean identity = true;
+        for (int i = 0; i < perm.length; ++i) {
+            if (perm[i] != i) {
+                identity = false;
+                break;
+            }
+        }
+        if (identity) {
+            return data;
+        }
+        int[] dims = Kernels.toIntShape(shape.getShape());
+        int[] strides = Kernels.strides(dims);
+        int[] target = new int[perm.length];
+        int[] viewStrides = new int[perm.length];
+        for (int i = 0; i < perm.length; ++i) {
+            target[i] = dims[perm[i]];
+            viewStrides[i] = strides[perm[i]];
+        }
+        int width = dataType.getNumOfBytes();
+        ByteBuffer bb = getJvmManager().allocate(intSize() * width);
+        Kernels.gather(data, 0, viewStrides, target, bb, width);
+        return bb;
+    }
+
+    private int[] allAxes() {
+        int[] axes = new int[shape.dimension()];
+        for (int i = 0; i < axes.length; ++i) {
+            axes[i] = i;
+        }
+        return axes;
+    }
+
+    static int normalizeAxis(int axis, int dims) {
+        int ret = axis < 0 ? axis + dims : axis;
+        if (ret < 0 || ret >= Math.max(dims, 1)) {
+            throw new IllegalArgumentException(
+                    "Axis " + axis + " is out of bounds for array of dimension " + dims);
+        }
+        return ret;
+    }
+
+    static Shape broadcastShape(Shape a, Shape b) {
+        if (a.equals(b)) {
+            return a;
+        }
+        int dims = Math.max(a.dimension(), b.dimension());
+        long[] target = new long[dims];
+        for (int i = 0; i < dims; ++i) {
+            int ia = a.dimension() - dims + i;
+            int ib = b.dimension() - dims + i;
+            long da = ia < 0 ? 1 : a.get(ia);
+            long db = ib < 0 ? 1 : b.get(ib);
+            if (da != db && da != 1 && db != 1) {
+                throw new IllegalArgumentException(
+                        "Shapes " + a + " and " + b + " cannot be broadcast together");
+            }
+            target[i] = da == 1 ? db : da;
+        }
+        return new Shape(target);
+    }
+
+    private static boolean isFloating(Number n) {
+        return n instanceof Float || n instanceof Double;
+    }
+
+    static DataType promote(DataType a, DataType b) {
+        if (a == b) {
+            return a;
+        }
+        if (a == DataType.FLOAT64 || b == DataType.FLOAT64) {
+            return DataType.FLOAT64;
+        }
+        if (a == DataType.FLOAT32 || b == DataType.FLOAT32) {
+            return DataType.FLOAT32;
+        }
+        if (a == DataType.INT64 || b == DataType.INT64) {
+            return DataType.INT64;
+        }
+        if (a == DataType.BOOLEAN) {
+            return b;
+        }
+        if (b == DataType.BOOLEAN) {
+            return a;
+        }
+        return DataType.INT32;
+    }
+}
@@ -0,0 +1,994 @@
+/*
+ * Copyright 2024 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ * with the License. A copy of the License is located at
+ *
+ * http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES
+ * OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package ai.djl.jvm.engine;
+
+import ai.djl.jvm.engine.Kernels.Binary;
+import ai.djl.jvm.engine.Kernels.Reduce;
+import ai.djl.jvm.engine.Kernels.Unary;
+import ai.djl.ndarray.NDArray;
+import ai.djl.ndarray.NDList;
+import ai.djl.ndarray.NDManager;
+import ai.djl.ndarray.index.NDArrayIndexer;
+import ai.djl.ndarray.internal.NDArrayEx;
+import ai.djl.ndarray.types.DataType;
+import ai.djl.ndarray.types.Shape;
+import ai.djl.ndarray.types.SparseFormat;
+import ai.djl.nn.recurrent.RNN;
+import ai.djl.util.RandomUtils;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/** {@code JvmNDArrayEx} is the pure Java implementation of {@link NDArrayEx}. */
+public class JvmNDArrayEx implements NDArrayEx {
+
+    private JvmNDArray array;
+
+    /**
+     * Constructs a {@code JvmNDArrayEx} given a {@link NDArray}.
+     *
+     * @param array the array
+     */
+    JvmNDArrayEx(JvmNDArray array) {
+        this.array = array;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray rdiv(Number n) {
+        return array.binary(Binary.DIV, n, true);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray rdiv(NDArray b) {
+        return array.binary(Binary.DIV, b, true);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray rdivi(Number n) {
+        return array.inplace(array.binary(Binary.DIV, n, true));
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray rdivi(NDArray b) {
+        return array.inplace(array.binary(Binary.DIV, b, true));
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray rsub(Number n) {
+        return array.binary(Binary.SUB, n, true);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray rsub(NDArray b) {
+        return array.binary(Binary.SUB, b, true);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray rsubi(Number n) {
+        return array.inplace(array.binary(Binary.SUB, n, true));
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray rsubi(NDArray b) {
+        return array.inplace(array.binary(Binary.SUB, b, true));
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray rmod(Number n) {
+        return array.binary(Binary.MOD, n, true);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray rmod(NDArray b) {
+        return array.binary(Binary.MOD, b, true);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray rmodi(Number n) {
+        return array.inplace(array.binary(Binary.MOD, n, true));
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray rmodi(NDArray b) {
+        return array.inplace(array.binary(Binary.MOD, b, true));
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray rpow(Number n) {
+        return array.binary(Binary.POW, n, true);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray rpowi(Number n) {
+        return array.inplace(array.binary(Binary.POW, n, true));
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray relu() {
+        return array.unary(Unary.RELU);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray sigmoid() {
+        return array.unary(Unary.SIGMOID);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray tanh() {
+        return array.unary(Unary.TANH);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray softPlus() {
+        return array.unary(Unary.SOFT_PLUS);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray softSign() {
+        return array.unary(Unary.SOFT_SIGN);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray leakyRelu(float alpha) {
+        return array.map(x -> x > 0 ? x : x * alpha, floatingType());
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray elu(float alpha) {
+        return array.map(x -> x > 0 ? x : alpha * (Math.exp(x) - 1), floatingType());
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray selu() {
+        return array.unary(Unary.SELU);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray gelu() {
+        return array.unary(Unary.GELU);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray maxPool(Shape kernelShape, Shape stride, Shape padding, boolean ceilMode) {
+        return fallback(m -> ex(m).maxPool(kernelShape, stride, padding, ceilMode));
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray globalMaxPool() {
+        return globalPool(Reduce.MAX, array.getDataType());
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray avgPool(
+            Shape kernelShape,
+            Shape stride,
+            Shape padding,
+            boolean ceilMode,
+            boolean countIncludePad) {
+        return fallback(
+                m -> ex(m).avgPool(kernelShape, stride, padding, ceilMode, countIncludePad));
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray globalAvgPool() {
+        return globalPool(Reduce.MEAN, floatingType());
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray lpPool(
+            float normType, Shape kernelShape, Shape stride, Shape padding, boolean ceilMode) {
+        return fallback(m -> ex(m).lpPool(normType, kernelShape, stride, padding, ceilMode));
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray globalLpPool(float normType) {
+        return fallback(m -> ex(m).globalLpPool(normType));
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void adadeltaUpdate(
+            NDList inputs,
+            NDList weights,
+            float weightDecay,
+            float rescaleGrad,
+            float clipGrad,
+            float rho,
+            float epsilon) {
+        fallbackUpdate(
+                inputs,
+                weights,
+                (in, w) ->
+                        ex(in).adadeltaUpdate(
+                                        in, w, weightDecay, rescaleGrad, clipGrad, rho, epsilon));
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void adagradUpdate(
+            NDList inputs,
+            NDList weights,
+            float learningRate,
+            float weightDecay,
+            float rescaleGrad,
+            float clipGrad,
+            float epsilon) {
+        fallbackUpdate(
+                inputs,
+                weights,
+                (in, w) ->
+                        ex(in).adagradUpdate(
+                                        in,
+                                        w,
+                                        learningRate,
+                                        weightDecay,
+                                        rescaleGrad,
+                                        clipGrad,
+                                        epsilon));
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void adamUpdate(
+            NDList inputs,
+            NDList weights,
+            float learningRate,
+            float learningRateBiasCorrection,
+            float weightDecay,
+            float rescaleGrad,
+            float clipGrad,
+            float beta1,
+            float beta2,
+            float epsilon,
+            boolean lazyUpdate,
+            boolean adamw) {
+        fallbackUpdate(
+                inputs,
+                weights,
+                (in, w) ->
+                        ex(in).adamUpdate(
+                                        in,
+                                        w,
+                                        learningRate,
+                                        learningRateBiasCorrection,
+                                        weightDecay,
+                                        rescaleGrad,
+                                        clipGrad,
+                                        beta1,
+                                        beta2,
+                                        epsilon,
+                                        lazyUpdate,
+                                        adamw));
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void nagUpdate(
+            NDList inputs,
+            NDList weights,
+            float learningRate,
+            float weightDecay,
+            float rescaleGrad,
+            float clipGrad,
+            float momentum) {
+        fallbackUpdate(
+                inputs,
+                weights,
+                (in, w) ->
+                        ex(in).nagUpdate(
+                                        in,
+                                        w,
+                                        learningRate,
+                                        weightDecay,
+                                        rescaleGrad,
+                                        clipGrad,
+                                        momentum));
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void rmspropUpdate(
+            NDList inputs,
+            NDList weights,
+            float learningRate,
+            float weightDecay,
+            float rescaleGrad,
+            float clipGrad,
+            float rho,
+            float momentum,
+            float epsilon,
+            boolean centered) {
+        fallbackUpdate(
+                inputs,
+                weights,
+                (in, w) ->
+                        ex(in).rmspropUpdate(
+                                        in,
+                                        w,
+                                        learningRate,
+                                        weightDecay,
+                                        rescaleGrad,
+                                        clipGrad,
+                                        rho,
+                                        momentum,
+                                        epsilon,
+                                        centered));
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void sgdUpdate(
+            NDList inputs,
+            NDList weights,
+            float learningRate,
+            float weightDecay,
+            float rescaleGrad,
+            float clipGrad,
+            float momentum,
+            boolean lazyUpdate) {
+        fallbackUpdate(
+                inputs,
+                weights,
+                (in, w) ->
+                        ex(in).sgdUpdate(
+                                        in,
+                                        w,
+                                        learningRate,
+                                        weightDecay,
+                                        rescaleGrad,
+                                        clipGrad,
+                                        momentum,
+                                        lazyUpdate));
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDList convolution(
+            NDArray input,
+            NDArray weight,
+            NDArray bias,
+            Shape stride,
+            Shape padding,
+            Shape dilation,
+            int groups) {
+        return fallbackList(
+                m ->
+                        ex(m).convolution(
+                                        from(m, input),
+                                        from(m, weight),
+                                        from(m, bias),
+                                        stride,
+                                        padding,
+                                        dilation,
+                                        groups));
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDList deconvolution(
+            NDArray input,
+            NDArray weight,
+            NDArray bias,
+            Shape stride,
+            Shape padding,
+            Shape outPadding,
+            Shape dilation,
+            int groups) {
+        return fallbackList(
+                m ->
+                        ex(m).deconvolution(
+                                        from(m, input),
+                                        from(m, weight),
+                                        from(m, bias),
+                                        stride,
+                                        padding,
+                                        outPadding,
+                                        dilation,
+                                        groups));
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDList linear(NDArray input, NDArray weight, NDArray bias) {
+        JvmNDManager manager = array.getJvmManager();
+        JvmNDArray x = manager.from(input);
+        JvmNDArray w = manager.from(weight);
+        Shape inputShape = x.getShape();
+        int k = (int) inputShape.tail();
+        int n = (int) w.getShape().get(0);
+        if (w.getShape().dimension() != 2 || w.getShape().get(1) != k) {
+            throw new IllegalArgumentException(
+                    "Incompatible shapes for linear: " + inputShape + " and " + w.getShape());
+        }
+        int m = k == 0 ? 0 : x.intSize() / k;
+        Shape target = inputShape.slice(0, inputShape.dimension() - 1).add(n);
+        float[] out = new float[m * n];
+        if (bias != null) {
+            float[] b = manager.from(bias).floats();
+            for (int i = 0; i < m; ++i) {
+                System.arraycopy(b, 0, out, i * n, n);
+            }
+        }
+        Kernels.gemm(x.floats(), 0, w.floats(), 0, out, 0, m, k, n, true);
+        return new NDList(manager.fromFloats(out, target, DataType.FLOAT32));
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDList embedding(NDArray input, NDArray weight, SparseFormat sparse) {
+        if (!sparse.equals(SparseFormat.DENSE) && !sparse.equals(SparseFormat.COO)) {
+            throw new IllegalArgumentException("JVM engine only supports DENSE and COO");
+        }
+        JvmNDManager manager = array.getJvmManager();
+        JvmNDArray x = manager.from(input);
+        JvmNDArray w = manager.from(weight);
+        Shape weightShape = w.getShape();
+        Shape target = x.getShape().addAll(weightShape.slice(1));
+        return new NDList(
+                w.select(
+                        1,
+                        (int) weightShape.get(0),
+                        w.intSize() / (int) weightShape.get(0),
+                        x.indices(),
+                        target));
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDList prelu(NDArray input, NDArray alpha) {
+        JvmNDManager manager = array.getJvmManager();
+        try (NDArray zero = manager.zeros(new Shape(), input.getDataType());
+                NDArray negative = input.minimum(zero);
+                NDArray positive = input.maximum(zero);
+                NDArray scaled = negative.mul(alpha)) {
+            return new NDList(positive.add(scaled));
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDList dropout(NDArray input, float rate, boolean training) {
+        JvmNDArray x = array.getJvmManager().from(input);
+        if (!training || rate <= 0) {
+            return new NDList(x.duplicate());
+        }
+        float scale = 1 / (1 - rate);
+        float[] values = x.floats();
+        for (int i = 0; i < values.length; ++i) {
+            values[i] = RandomUtils.random() < rate ? 0 : values[i] * scale;
+        }
+        return new NDList(array.getJvmManager().fromFloats(values, x.getShape(), DataType.FLOAT32));
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDList layerNorm(
+            NDArray input, Shape normalizedShape, NDArray gamma, NDArray beta, float eps) {
+        JvmNDManager manager = array.getJvmManager();
+        JvmNDArray x = manager.from(input);
+        int inner = Math.toIntExact(normalizedShape.size());
+        int outer = inner == 0 ? 0 : x.intSize() / inner;
+        float[] values = x.floats();
+        float[] g = gamma == null ? null : manager.from(gamma).floats();
+        float[] b = beta == null ? null : manager.from(beta).floats();
+        Kernels.parallelFor(
+                outer,
+                inner * 4L,
+                (from, to) -> {
+                    for (int i = from; i < to; ++i) {
+                        int offset = i * inner;
+                        double mean = 0;
+                        for (int j = 0; j < inner; ++j) {
+                            mean += values[offset + j];
+                        }
+                        mean /= inner;
+                        double var = 0;
+                        for (int j = 0; j < inner; ++j) {
+                            double d = values[offset + j] - mean;
+                            var += d * d;
+                        }
+                        float scale = (float) (1 / Math.sqrt(var / inner + eps));
+                        float shift = (float) mean;
+                        for (int j = 0; j < inner; ++j) {
+                            float v = (values[offset + j] - shift) * scale;
+                            if (g != null) {
+                                v *= g[j];
+                            }
+                            if (b != null) {
+                                v += b[j];
+                            }
+                            values[offset + j] = v;
+                        }
+                    }
+                });
+        return new NDList(manager.fromFloats(values, x.getShape(), DataType.FLOAT32));
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDList batchNorm(
+            NDArray input,
+            NDArray runningMean,
+            NDArray runningVar,
+            NDArray gamma,
+            NDArray beta,
+            int axis,
+            float momentum,
+            float eps,
+            boolean training) {
+        if (training) {
+            throw new UnsupportedOperationException("JVM engine does not support training");
+        }
+        JvmNDManager manager = array.getJvmManager();
+        JvmNDArray x = manager.from(input);
+        Shape shape = x.getShape();
+        axis = JvmNDArray.normalizeAxis(axis, shape.dimension());
+        int channels = (int) shape.get(axis);
+        int inner = Math.toIntExact(shape.slice(axis + 1).size());
+        float[] mean = manager.from(runningMean).floats();
+        float[] var = manager.from(runningVar).floats();
+        float[] g = gamma == null ? null : manager.from(gamma).floats();
+        float[] b = beta == null ? null : manager.from(beta).floats();
+        float[] scale = new float[channels];
+        float[] shift = new float[channels];
+        for (int c = 0; c < channels; ++c) {
+            scale[c] = (float) (1 / Math.sqrt(var[c] + eps)) * (g == null ? 1 : g[c]);
+            shift[c] = (b == null ? 0 : b[c]) - mean[c] * scale[c];
+        }
+        float[] values = x.floats();
+        int rows = inner == 0 ? 0 : values.length / inner;
+        Kernels.parallelFor(
+                rows,
+                inner,
+                (from, to) -> {
+                    for (int r = from; r < to; ++r) {
+                        int c = r % channels;
+                        float s = scale[c];
+                        float t = shift[c];
+                        int offset = r * inner;
+                        for (int i = offset; i < offset + inner; ++i) {
+                            values[i] = values[i] * s + t;
+                        }
+                    }
+                });
+        return new NDList(manager.fromFloats(values, shape, DataType.FLOAT32));
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDList rnn(
+            NDArray input,
+            NDArray state,
+            NDList params,
+            boolean hasBiases,
+            int numLayers,
+            RNN.Activation activation,
+            double dropRate,
+            boolean training,
+            boolean bidirectional,
+            boolean batchFirst) {
+        return fallbackList(
+                m ->
+                        ex(m).rnn(
+                                        from(m, input),
+                                        from(m, state),
+                                        from(m, params),
+                                        hasBiases,
+                                        numLayers,
+                                        activation,
+                                        dropRate,
+                                        training,
+                                        bidirectional,
+                                        batchFirst));
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDList gru(
+            NDArray input,
+            NDArray state,
+            NDList params,
+            boolean hasBiases,
+            int numLayers,
+            double dropRate,
+            boolean training,
+            boolean bidirectional,
+            boolean batchFirst) {
+        return fallbackList(
+                m ->
+                        ex(m).gru(
+                                        from(m, input),
+                                        from(m, state),
+                                        from(m, params),
+                                        hasBiases,
+                                        numLayers,
+                                        dropRate,
+                                        training,
+                                        bidirectional,
+                                        batchFirst));
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDList lstm(
+            NDArray input,
+            NDList states,
+            NDList params,
+            boolean hasBiases,
+            int numLayers,
+            double dropRate,
+            boolean training,
+            boolean bidirectional,
+            boolean batchFirst) {
+        return fallbackList(
+                m ->
+                        ex(m).lstm(
+                                        from(m, input),
+                                        from(m, states),
+                                        from(m, params),
+                                        hasBiases,
+                                        numLayers,
+                                        dropRate,
+                                        training,
+                                        bidirectional,
+                                        batchFirst));
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray resize(int width, int height, int interpolation) {
+        if (interpolation > 1) {
+            throw new UnsupportedOperationException(
+                    "JVM engine only supports nearest and bilinear interpolation");
+        }
+        Shape shape = array.getShape();
+        int dims = shape.dimension();
+        if (dims != 3 && dims != 4) {
+            throw new IllegalArgumentException("Expect HWC or NHWC image, got: " + shape);
+        }
+        int h = (int) shape.get(dims - 3);
+        int w = (int) shape.get(dims - 2);
+        int ch = (int) shape.get(dims - 1);
+        int batch = dims == 4 ? (int) shape.get(0) : 1;
+        float[] out = new float[batch * height * width * ch];
+        Kernels.resize(array.floats(), out, batch, h, w, ch, height, width, interpolation == 1);
+        DataType dataType = array.getDataType();
+        if (!dataType.isFloating()) {
+            for (int i = 0; i < out.length; ++i) {
+                out[i] = Math.round(out[i]);
+            }
+        }
+        long[] target = shape.getShape().clone();
+        target[dims - 3] = height;
+        target[dims - 2] = width;
+        return array.getJvmManager().fromFloats(out, new Shape(target), dataType);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray randomFlipLeftRight() {
+        return fallback(m -> ex(m).randomFlipLeftRight());
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray randomFlipTopBottom() {
+        return fallback(m -> ex(m).randomFlipTopBottom());
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray randomBrightness(float brightness) {
+        return fallback(m -> ex(m).randomBrightness(brightness));
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray randomHue(float hue) {
+        return fallback(m -> ex(m).randomHue(hue));
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray randomColorJitter(
+            float brightness, float contrast, float saturation, float hue) {
+        return fallback(m -> ex(m).randomColorJitter(brightness, contrast, saturation, hue));
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArrayIndexer getIndexer(NDManager manager) {
+        return new JvmNDArrayIndexer(array.getJvmManager());
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray where(NDArray condition, NDArray other) {
+        JvmNDManager manager = array.getJvmManager();
+        JvmNDArray cond = manager.from(condition);
+        JvmNDArray y = manager.from(other);
+        DataType dataType = JvmNDArray.promote(array.getDataType(), y.getDataType());
+        Shape target = JvmNDArray.broadcastShape(array.getShape(), y.getShape());
+        Shape condShape = cond.getShape();
+        int pad = target.dimension() - condShape.dimension();
+        if (pad > 0 && condShape.equals(target.slice(0, condShape.dimension()))) {
+            // a condition on the leading axes selects whole sub-arrays
+            long[] padded = new long[target.dimension()];
+            Arrays.fill(padded, 1L);
+            System.arraycopy(condShape.getShape(), 0, padded, 0, condShape.dimension());
+            condShape = new Shape(padded);
+        }
+        target = JvmNDArray.broadcastShape(condShape, target);
+        int size = Math.toIntExact(target.size());
+        long[] c =
+                Kernels.toLongs(
+                        cond.expand(cond.getData(), condShape, target), cond.getDataType(), size);
+        ByteBuffer x = array.expand(array.getData(), array.getShape(), target);
+        ByteBuffer z = y.expand(y.getData(), y.getShape(), target);
+        if (!dataType.isFloating()) {
+            long[] a = Kernels.toLongs(x, array.getDataType(), size);
+            long[] b = Kernels.toLongs(z, y.getDataType(), size);
+            for (int i = 0; i < size; ++i) {
+                a[i] = c[i] != 0 ? a[i] : b[i];
+            }
+            return manager.fromLongs(a, target, dataType);
+        }
+        double[] a = Kernels.toDoubles(x, array.getDataType(), size);
+        double[] b = Kernels.toDoubles(z, y.getDataType(), size);
+        for (int i = 0; i < size; ++i) {
+            a[i] = c[i] != 0 ? a[i] : b[i];
+        }
+        return manager.fromDoubles(a, target, dataType);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray stack(NDList arrays, int axis) {
+        NDArray[] expanded = new NDArray[arrays.size() + 1];
+        expanded[0] = array.expandDims(axis);
+        for (int i = 0; i < arrays.size(); ++i) {
+            expanded[i + 1] = arrays.get(i).expandDims(axis);
+        }
+        return concat(expanded, axis);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray concat(NDList arrays, int axis) {
+        NDArray[] all = new NDArray[arrays.size() + 1];
+        all[0] = array;
+        for (int i = 0; i < arrays.size(); ++i) {
+            all[i + 1] = arrays.get(i);
+        }
+        return concat(all, axis);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDList multiBoxTarget(
+            NDList inputs,
+            float iouThreshold,
+            float ignoreLabel,
+            float negativeMiningRatio,
+            float negativeMiningThreshold,
+            int minNegativeSamples) {
+        return fallbackList(
+                m ->
+                        ex(m).multiBoxTarget(
+                                        from(m, inputs),
+                                        iouThreshold,
+                                        ignoreLabel,
+                                        negativeMiningRatio,
+                                        negativeMiningThreshold,
+                                        minNegativeSamples));
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDList multiBoxPrior(
+            List<Float> sizes,
+            List<Float> ratios,
+            List<Float> steps,
+            List<Float> offsets,
+            boolean clip) {
+        return fallbackList(m -> ex(m).multiBoxPrior(sizes, ratios, steps, offsets, clip));
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDList multiBoxDetection(
+            NDList inputs,
+            boolean clip,
+            float threshold,
+            int backgroundId,
+            float nmsThreshold,
+            boolean forceSuppress,
+            int nmsTopK) {
+        return fallbackList(
+                m ->
+                        ex(m).multiBoxDetection(
+                                        from(m, inputs),
+                                        clip,
+                                        threshold,
+                                        backgroundId,
+                                        nmsThreshold,
+                                        forceSuppress,
+                                        nmsTopK));
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public JvmNDArray getArray() {
+        return array;
+    }
+
+    private NDArrayEx ex(NDManager manager) {
+        return manager.from(array).getNDArrayInternal();
+    }
+
+    private static NDArrayEx ex(NDList list) {
+        return list.head().getNDArrayInternal();
+    }
+
+    private static NDArray from(NDManager manager, NDArray array) {
+        return array == null ? null : manager.from(array);
+    }
+
+    private static NDList from(NDManager manager, NDList list) {
+        NDList ret = new NDList(list.size());
+        for (NDArray array : list) {
+            ret.add(manager.from(array));
+        }
+        return ret;
+    }
+
+    private NDArray fallback(Function<NDManager, NDArray> op) {
+        return fallbackList(m -> new NDList(op.apply(m))).singletonOrThrow();
+    }
+
+    /**
+     * Runs an operator that the JVM engine doesn't implement on the alternative engine, and copies
+     * the results back to JVM arrays.
+     *
+     * @param op the operator, which receives a temporary manager of the alternative engine
+     * @return the results of the operator
+     */
+    private NDList fallbackList(Function<NDManager, NDList> op) {
+        NDManager alternative = array.getAlternativeManager();
+        if (alternative == null) {
+            throw new UnsupportedOperationException(
+                    "This operation is not supported by the JVM engine, add an engine such as"
+                            + " PyTorch to the classpath to use it");
+        }
+        JvmNDManager manager = array.getJvmManager();
+        try (NDManager sub = alternative.newSubManager()) {
+            NDList result = op.apply(sub);
+            NDList ret = new NDList(result.size());
+            for (NDArray a : result) {
+                ret.add(manager.from(a));
+            }
+            return ret;
+        }
+    }
+
+    private void fallbackUpdate(NDList inputs, NDList weights, BiConsumer<NDList, NDList> op) {
+        fallbackList(
+                m -> {
+                    NDList in = from(m, inputs);
+                    NDList w = from(m, weights);
+                    op.accept(in, w);
+                    // the optimizers update the weights and their states in place
+                    for (int i = 0; i < inputs.size(); ++i) {
+                        inputs.get(i).set(in.get(i).toByteBuffer());
+                    }
+                    for (int i = 0; i < weights.size(); ++i) {
+                        weights.get(i).set(w.get(i).toByteBuffer());
+                    }
+                    return new NDList();
+                });
+    }
+
+    private DataType floatingType() {
+        DataType dataType = array.getDataType();
+        return dataType.isFloating() ? dataType : DataType.FLOAT32;
+    }
+
+    private NDArray globalPool(Reduce op, DataType dataType) {
+        int dims = array.getShape().dimension();
+        if (dims < 3) {
+            throw new IllegalArgumentException("Expect NC* input, got: " + array.getShape());
+        }
+        int[] axes = new int[dims - 2];
+        for (int i = 0; i < axes.length; ++i) {
+            axes[i] = i + 2;
+        }
+        return array.reduce(op, axes, false, dataType);
+    }
+
+    private NDArray concat(NDArray[] arrays, int axis) {
+        JvmNDManager manager = array.getJvmManager();
+        Shape first = arrays[0].getShape();
+        int dims = first.dimension();
+        if (dims == 0) {
+            throw new IllegalArgumentException("Scalar arrays cannot be concatenated");
+        }
+        axis = JvmNDArray.normalizeAxis(axis, dims);
+        DataType dataType = array.getDataType();
+        int width = dataType.getNumOfBytes();
+        int outer = Math.toIntExact(first.slice(0, axis).size());
+        long axisSize = 0;
+        JvmNDArray[] parts = new JvmNDArray[arrays.length];
+        for (int i = 0; i < arrays.length; ++i) {
+            Shape shape = arrays[i].getShape();
+            if (shape.dimension() != dims
+                    || !shape.slice(0, axis).equals(first.slice(0, axis))
+                    || !shape.slice(axis + 1).equals(first.slice(axis + 1))) {
+                throw new IllegalArgumentException(
+                        "Cannot concat arrays of shape " + first + " and " + shape);
+            }
+            JvmNDArray part = manager.from(arrays[i]);
+            if (part.getDataType() != dataType) {
+                part = (JvmNDArray) part.toType(dataType, false);
+            }
+            parts[i] = part;
+            axisSize += shape.get(axis);
+        }
+        long[] target = first.getShape().clone();
+        target[axis] = axisSize;
+        Shape shape = new Shape(target);
+        ByteBuffer bb = manager.allocate(Math.toIntExact(shape.size()) * width);
+        for (int o = 0; o < outer; ++o) {
+            for (JvmNDArray part : parts) {
+                int chunk = part.intSize() / Math.max(outer, 1) * width;
+                ByteBuffer src = part.getData().duplicate();
+                src.position(o * chunk);
+                src.limit(o * chunk + chunk);
+                bb.put(src);
+            }
+        }
+        bb.rewind();
+        return manager.newArray(bb, shape, dataType);
+    }
+}
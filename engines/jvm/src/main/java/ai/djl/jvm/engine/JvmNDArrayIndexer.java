@@ -0,0 +1,135 @@
+/*
+ * Copyright 2024 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ * with the License. A copy of the License is located at
+ *
+ * http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES
+ * OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package ai.djl.jvm.engine;
+
+import ai.djl.ndarray.NDArray;
+import ai.djl.ndarray.index.NDArrayIndexer;
+import ai.djl.ndarray.index.full.NDIndexFullPick;
+import ai.djl.ndarray.index.full.NDIndexFullSlice;
+import ai.djl.ndarray.index.full.NDIndexFullTake;
+import ai.djl.ndarray.types.Shape;
+
+import java.util.Arrays;
+
+/** The {@link NDArrayIndexer} used by the {@link JvmNDArray}. */
+public class JvmNDArrayIndexer extends NDArrayIndexer {
+
+    private JvmNDManager manager;
+
+    JvmNDArrayIndexer(JvmNDManager manager) {
+        this.manager = manager;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray get(NDArray array, NDIndexFullPick fullPick) {
+        JvmNDArray x = manager.from(array);
+        NDArray index = fullPick.getIndices();
+        Shape indexShape = index.getShape();
+        Shape shape = x.getShape();
+        int dims = shape.dimension();
+        if (indexShape.dimension() != dims) {
+            long[] padded = new long[dims];
+            Arrays.fill(padded, 1L);
+            int offset = -1;
+            for (int i = 0; i + indexShape.dimension() <= dims; ++i) {
+                if (indexShape.equals(shape.slice(i, i + indexShape.dimension()))) {
+                    offset = i;
+                    break;
+                }
+            }
+            if (offset < 0) {
+                throw new IllegalArgumentException(
+                        "Cannot expand index of shape " + indexShape + " to " + shape);
+            }
+            System.arraycopy(indexShape.getShape(), 0, padded, offset, indexShape.dimension());
+            index = index.reshape(new Shape(padded));
+        }
+        return x.gather(index, fullPick.getAxis());
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray get(NDArray array, NDIndexFullTake fullTake) {
+        JvmNDArray x = manager.from(array);
+        Shape shape = x.getShape();
+        int axis = fullTake.getAxis();
+        long[] indices = manager.from(fullTake.getIndices()).indices();
+        int outer = Math.toIntExact(shape.slice(0, axis).size());
+        int inner = Math.toIntExact(shape.slice(axis + 1).size());
+        long[] target = shape.getShape().clone();
+        target[axis] = indices.length;
+        return x.select(outer, (int) shape.get(axis), inner, indices, new Shape(target));
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray get(NDArray array, NDIndexFullSlice fullSlice) {
+        JvmNDArray x = manager.from(array);
+        long[] min = fullSlice.getMin().clone();
+        Shape shape = clamp(x.getShape(), min, fullSlice);
+        JvmNDArray result = x.slice(min, fullSlice.getStep(), shape);
+        int[] toSqueeze = fullSlice.getToSqueeze();
+        if (toSqueeze.length == 0) {
+            return result;
+        }
+        try (NDArray tmp = result) {
+            return tmp.squeeze(toSqueeze);
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void set(NDArray array, NDIndexFullSlice fullSlice, NDArray value) {
+        JvmNDArray x = (JvmNDArray) array;
+        long[] min = fullSlice.getMin().clone();
+        Shape shape = clamp(x.getShape(), min, fullSlice);
+        x.assign(min, fullSlice.getStep(), shape, manager.from(value));
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void set(NDArray array, NDIndexFullSlice fullSlice, Number value) {
+        JvmNDArray x = (JvmNDArray) array;
+        long[] min = fullSlice.getMin().clone();
+        Shape shape = clamp(x.getShape(), min, fullSlice);
+        try (NDArray fill = manager.full(new Shape(), value.floatValue(), x.getDataType())) {
+            x.assign(min, fullSlice.getStep(), shape, (JvmNDArray) fill);
+        }
+    }
+
+    /**
+     * Clamps the slice to the bounds of the array like numpy does, {@link NDIndexFullSlice} keeps
+     * the raw bounds of the index.
+     *
+     * @param target the shape of the array
+     * @param min the start of each axis, updated in place
+     * @param fullSlice the slice
+     * @return the shape of the slice
+     */
+    private static Shape clamp(Shape target, long[] min, NDIndexFullSlice fullSlice) {
+        long[] max = fullSlice.getMax();
+        long[] step = fullSlice.getStep();
+        long[] shape = new long[min.length];
+        for (int i = 0; i < min.length; ++i) {
+            if (step[i] <= 0) {
+                throw new UnsupportedOperationException("JVM engine only supports positive steps");
+            }
+            long size = target.get(i);
+            min[i] = Math.min(Math.max(min[i], 0), size);
+            long end = Math.min(Math.max(max[i], 0), size);
+            shape[i] = Math.max(0, (end - min[i] + step[i] - 1) / step[i]);
+        }
+        return new Shape(shape);
+    }
+}
@@ -0,0 +1,258 @@
+/*
+ * Copyright 2024 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ * with the License. A copy of the License is located at
+ *
+ * http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES
+ * OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package ai.djl.jvm.engine;
+
+import ai.djl.Device;
+import ai.djl.engine.Engine;
+import ai.djl.ndarray.BaseNDManager;
+import ai.djl.ndarray.NDArray;
+import ai.djl.ndarray.NDManager;
+import ai.djl.ndarray.types.DataType;
+import ai.djl.ndarray.types.Shape;
+import ai.djl.util.RandomUtils;
+
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+
+/**
+ * {@code JvmNDManager} is the pure Java implementation of {@link NDManager}.
+ *
+ * <p>Arrays are stored in Java heap buffers by default, which are cheap to allocate and are
+ * reclaimed by the garbage collector. Set the system property {@code ai.djl.jvm.off_heap} to {@code
+ * true}, or use {@link #newSubManager(Device, boolean)}, to store arrays in direct buffers instead.
+ */
+public class JvmNDManager extends BaseNDManager {
+
+    private static final JvmNDManager SYSTEM_MANAGER = new SystemManager();
+
+    private boolean offHeap;
+
+    private JvmNDManager(NDManager parent, Device device, boolean offHeap) {
+        super(parent, device);
+        this.offHeap = offHeap;
+    }
+
+    static JvmNDManager getSystemManager() {
+        return SYSTEM_MANAGER;
+    }
+
+    /**
+     * Returns whether the arrays of this manager are stored outside the Java heap.
+     *
+     * @return whether the arrays of this manager are stored outside the Java heap
+     */
+    public boolean isOffHeap() {
+        return offHeap;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public JvmNDArray from(NDArray array) {
+        if (array == null || array instanceof JvmNDArray) {
+            return (JvmNDArray) array;
+        }
+        JvmNDArray result =
+                (JvmNDArray) create(array.toByteBuffer(), array.getShape(), array.getDataType());
+        result.setName(array.getName());
+        return result;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDManager newSubManager(Device device) {
+        return newSubManager(device, offHeap);
+    }
+
+    /**
+     * Creates a child {@code JvmNDManager} with the specified storage.
+     *
+     * @param device the default {@link Device}
+     * @param offHeap whether to store the arrays outside the Java heap
+     * @return a child {@code JvmNDManager}
+     */
+    public NDManager newSubManager(Device device, boolean offHeap) {
+        JvmNDManager manager = new JvmNDManager(this, device, offHeap);
+        attachInternal(manager.uid, manager);
+        return manager;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Engine getEngine() {
+        return Engine.getEngine(JvmEngine.ENGINE_NAME);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray create(Buffer data, Shape shape, DataType dataType) {
+        if (!isSupported(dataType)) {
+            if (alternativeManager != null) {
+                return alternativeManager.create(data, shape, dataType);
+            }
+            throw new UnsupportedOperationException("Unsupported data type: " + dataType);
+        }
+        int size = Math.toIntExact(shape.size());
+        BaseNDManager.validateBuffer(data, dataType, size);
+        ByteBuffer bb = allocate(size * dataType.getNumOfBytes());
+        BaseNDManager.copyBuffer(data, bb);
+        return newArray(bb, shape, dataType);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray zeros(Shape shape, DataType dataType) {
+        if (!isSupported(dataType)) {
+            return super.zeros(shape, dataType);
+        }
+        int size = Math.toIntExact(shape.size());
+        return newArray(allocate(size * dataType.getNumOfBytes()), shape, dataType);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray full(Shape shape, float value, DataType dataType) {
+        double[] values = new double[Math.toIntExact(shape.size())];
+        Arrays.fill(values, value);
+        return fromDoubles(values, shape, dataType);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray arange(float start, float stop, float step, DataType dataType) {
+        if (step == 0) {
+            throw new IllegalArgumentException("step cannot be 0");
+        }
+        int size = Math.max(0, (int) Math.ceil((stop - start) / step));
+        double[] values = new double[size];
+        for (int i = 0; i < size; ++i) {
+            values[i] = start + (double) i * step;
+        }
+        return fromDoubles(values, new Shape(size), dataType);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray eye(int rows, int cols, int k, DataType dataType) {
+        double[] values = new double[rows * cols];
+        for (int i = 0; i < rows; ++i) {
+            int j = i + k;
+            if (j >= 0 && j < cols) {
+                values[i * cols + j] = 1;
+            }
+        }
+        return fromDoubles(values, new Shape(rows, cols), dataType);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray linspace(float start, float stop, int num, boolean endpoint) {
+        if (num < 0) {
+            throw new IllegalArgumentException("Num argument must be non-negative");
+        }
+        float[] values = new float[num];
+        double step = (stop - start) / (double) (endpoint ? num - 1 : num);
+        for (int i = 0; i < num; ++i) {
+            values[i] = (float) (start + i * step);
+        }
+        if (endpoint && num > 1) {
+            values[num - 1] = stop;
+        }
+        return fromFloats(values, new Shape(num), DataType.FLOAT32);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray randomInteger(long low, long high, Shape shape, DataType dataType) {
+        long[] values = new long[Math.toIntExact(shape.size())];
+        long range = high - low;
+        for (int i = 0; i < values.length; ++i) {
+            values[i] = low + (long) (RandomUtils.random() * range);
+        }
+        return fromLongs(values, shape, dataType);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray randomUniform(float low, float high, Shape shape, DataType dataType) {
+        double[] values = new double[Math.toIntExact(shape.size())];
+        for (int i = 0; i < values.length; ++i) {
+            values[i] = low + RandomUtils.random() * (high - low);
+        }
+        return fromDoubles(values, shape, dataType);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray randomNormal(float loc, float scale, Shape shape, DataType dataType) {
+        double[] values = new double[Math.toIntExact(shape.size())];
+        for (int i = 0; i < values.length; ++i) {
+            values[i] = loc + RandomUtils.nextGaussian() * scale;
+        }
+        return fromDoubles(values, shape, dataType);
+    }
+
+    ByteBuffer allocate(int capacity) {
+        if (offHeap) {
+            // array storage may outlive this manager, so it is never taken from the buffer pool
+            return ByteBuffer.allocateDirect(capacity).order(ByteOrder.nativeOrder());
+        }
+        return ByteBuffer.allocate(capacity).order(ByteOrder.nativeOrder());
+    }
+
+    JvmNDArray newArray(ByteBuffer data, Shape shape, DataType dataType) {
+        return new JvmNDArray(this, alternativeManager, data, shape, dataType);
+    }
+
+    JvmNDArray fromFloats(float[] values, Shape shape, DataType dataType) {
+        ByteBuffer bb = allocate(values.length * dataType.getNumOfBytes());
+        Kernels.write(values, dataType, bb);
+        return newArray(bb, shape, dataType);
+    }
+
+    JvmNDArray fromDoubles(double[] values, Shape shape, DataType dataType) {
+        ByteBuffer bb = allocate(values.length * dataType.getNumOfBytes());
+        Kernels.write(values, dataType, bb);
+        return newArray(bb, shape, dataType);
+    }
+
+    JvmNDArray fromLongs(long[] values, Shape shape, DataType dataType) {
+        ByteBuffer bb = allocate(values.length * dataType.getNumOfBytes());
+        Kernels.write(values, dataType, bb);
+        return newArray(bb, shape, dataType);
+    }
+
+    static boolean isSupported(DataType dataType) {
+        switch (dataType) {
+            case FLOAT32:
+            case FLOAT64:
+            case INT8:
+            case UINT8:
+            case INT32:
+            case INT64:
+            case BOOLEAN:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    /** The SystemManager is the root {@link JvmNDManager} of which all others are children. */
+    private static final class SystemManager extends JvmNDManager implements SystemNDManager {
+
+        SystemManager() {
+            super(null, null, Boolean.getBoolean("ai.djl.jvm.off_heap"));
+        }
+    }
+}
@@ -0,0 +1,1387 @@
+/*
+ * Copyright 2024 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ * with the License. A copy of the License is located at
+ *
+ * http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES
+ * OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package ai.djl.jvm.engine;
+
+import ai.djl.ndarray.types.DataType;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.DoubleUnaryOperator;
+import java.util.function.LongUnaryOperator;
+import java.util.stream.IntStream;
+
+/**
+ * The primitive array kernels of the JVM engine.
+ *
+ * <p>Every kernel works on a {@code [from, to)} range of a flat array with a plain counted loop, so
+ * the JIT compiler can unroll and vectorize the common cases. {@link #parallelFor(int, long,
+ * Range)} splits large workloads over the common {@link ForkJoinPool}.
+ *
+ * <p>{@link DataType#FLOAT32} arrays are computed with {@code float[]}, {@link DataType#FLOAT64}
+ * arrays with {@code double[]}, and the integer and boolean arrays with {@code long[]}, so that
+ * {@code int64} values above 2<sup>53</sup> stay exact. Only the operators that produce floating
+ * point values widen integers to {@code double}.
+ */
+final class Kernels {
+
+    private static final int PARALLELISM = ForkJoinPool.getCommonPoolParallelism();
+    private static final long GRAIN = Long.getLong("ai.djl.jvm.parallel_grain", 32768);
+
+    private Kernels() {}
+
+    /**
+     * Runs the range over {@code [0, size)}, in parallel if the total work is large enough.
+     *
+     * @param size the number of items
+     * @param cost the estimated work of each item
+     * @param range the range to run
+     */
+    static void parallelFor(int size, long cost, Range range) {
+        long work = size * Math.max(cost, 1);
+        if (PARALLELISM < 2 || size < 2 || work < GRAIN * 2) {
+            range.apply(0, size);
+            return;
+        }
+        int tasks = (int) Math.min(Math.min(size, PARALLELISM * 4L), work / GRAIN);
+        int chunk = (size + tasks - 1) / tasks;
+        IntStream.range(0, tasks)
+                .parallel()
+                .forEach(
+                        t -> {
+                            int from = t * chunk;
+                            int to = Math.min(size, from + chunk);
+                            if (from < to) {
+                                range.apply(from, to);
+                            }
+                        });
+    }
+
+    static int[] strides(int[] shape) {
+        int[] strides = new int[shape.length];
+        int stride = 1;
+        for (int i = shape.length - 1; i >= 0; --i) {
+            strides[i] = stride;
+            stride *= shape[i];
+        }
+        return strides;
+    }
+
+    static int[] toIntShape(long[] shape) {
+        int[] ret = new int[shape.length];
+        for (int i = 0; i < shape.length; ++i) {
+            ret[i] = Math.toIntExact(shape[i]);
+        }
+        return ret;
+    }
+
+    static float[] toFloats(ByteBuffer bb, DataType type, int size) {
+        float[] out = new float[size];
+        ByteBuffer buf = bb.duplicate().order(ByteOrder.nativeOrder());
+        buf.rewind();
+        if (type == DataType.FLOAT32) {
+            buf.asFloatBuffer().get(out);
+            return out;
+        }
+        double[] values = toDoubles(bb, type, size);
+        for (int i = 0; i < size; ++i) {
+            out[i] = (float) values[i];
+        }
+        return out;
+    }
+
+    static double[] toDoubles(ByteBuffer bb, DataType type, int size) {
+        double[] out = new double[size];
+        ByteBuffer buf = bb.duplicate().order(ByteOrder.nativeOrder());
+        buf.rewind();
+        switch (type) {
+            case FLOAT64:
+                buf.asDoubleBuffer().get(out);
+                break;
+            case FLOAT32:
+                FloatBuffer fb = buf.asFloatBuffer();
+                for (int i = 0; i < size; ++i) {
+                    out[i] = fb.get(i);
+                }
+                break;
+            case INT32:
+                IntBuffer ib = buf.asIntBuffer();
+                for (int i = 0; i < size; ++i) {
+                    out[i] = ib.get(i);
+                }
+                break;
+            case INT64:
+                LongBuffer lb = buf.asLongBuffer();
+                for (int i = 0; i < size; ++i) {
+                    out[i] = lb.get(i);
+                }
+                break;
+            case INT8:
+                for (int i = 0; i < size; ++i) {
+                    out[i] = buf.get(i);
+                }
+                break;
+            case UINT8:
+                for (int i = 0; i < size; ++i) {
+                    out[i] = buf.get(i) & 0xFF;
+                }
+                break;
+            case BOOLEAN:
+                for (int i = 0; i < size; ++i) {
+                    out[i] = buf.get(i) == 0 ? 0 : 1;
+                }
+                break;
+            default:
+                throw new IllegalArgumentException("Unsupported data type: " + type);
+        }
+        return out;
+    }
+
+    static long[] toLongs(ByteBuffer bb, DataType type, int size) {
+        long[] out = new long[size];
+        ByteBuffer buf = bb.duplicate().order(ByteOrder.nativeOrder());
+        buf.rewind();
+        switch (type) {
+            case INT64:
+                buf.asLongBuffer().get(out);
+                break;
+            case INT32:
+                IntBuffer ib = buf.asIntBuffer();
+                for (int i = 0; i < size; ++i) {
+                    out[i] = ib.get(i);
+                }
+                break;
+            case INT8:
+                for (int i = 0; i < size; ++i) {
+                    out[i] = buf.get(i);
+                }
+                break;
+            case UINT8:
+                for (int i = 0; i < size; ++i) {
+                    out[i] = buf.get(i) & 0xFF;
+                }
+                break;
+            case BOOLEAN:
+                for (int i = 0; i < size; ++i) {
+                    out[i] = buf.get(i) == 0 ? 0 : 1;
+                }
+                break;
+            default:
+                double[] values = toDoubles(bb, type, size);
+                for (int i = 0; i < size; ++i) {
+                    out[i] = (long) values[i];
+                }
+                break;
+        }
+        return out;
+    }
+
+    static void write(float[] values, DataType type, ByteBuffer bb) {
+        if (type == DataType.FLOAT32) {
+            ByteBuffer buf = bb.duplicate().order(ByteOrder.nativeOrder());
+            buf.rewind();
+            buf.asFloatBuffer().put(values);
+            return;
+        }
+        double[] converted = new double[values.length];
+        for (int i = 0; i < values.length; ++i) {
+            converted[i] = values[i];
+        }
+        write(converted, type, bb);
+    }
+
+    static void write(double[] values, DataType type, ByteBuffer bb) {
+        ByteBuffer buf = bb.duplicate().order(ByteOrder.nativeOrder());
+        buf.rewind();
+        int size = values.length;
+        switch (type) {
+            case FLOAT64:
+                buf.asDoubleBuffer().put(values);
+                break;
+            case FLOAT32:
+                FloatBuffer fb = buf.asFloatBuffer();
+                for (int i = 0; i < size; ++i) {
+                    fb.put(i, (float) values[i]);
+                }
+                break;
+            case INT32:
+                IntBuffer ib = buf.asIntBuffer();
+                for (int i = 0; i < size; ++i) {
+                    ib.put(i, (int) values[i]);
+                }
+                break;
+            case INT64:
+                LongBuffer lb = buf.asLongBuffer();
+                for (int i = 0; i < size; ++i) {
+                    lb.put(i, (long) values[i]);
+                }
+                break;
+            case INT8:
+            case UINT8:
+                for (int i = 0; i < size; ++i) {
+                    buf.put(i, (byte) (long) values[i]);
+                }
+                break;
+            case BOOLEAN:
+                for (int i = 0; i < size; ++i) {
+                    buf.put(i, values[i] == 0 ? (byte) 0 : (byte) 1);
+                }
+                break;
+            default:
+                throw new IllegalArgumentException("Unsupported data type: " + type);
+        }
+    }
+
+    static void write(long[] values, DataType type, ByteBuffer bb) {
+        ByteBuffer buf = bb.duplicate().order(ByteOrder.nativeOrder());
+        buf.rewind();
+        int size = values.length;
+        switch (type) {
+            case INT64:
+                buf.asLongBuffer().put(values);
+                break;
+            case INT32:
+                IntBuffer ib = buf.asIntBuffer();
+                for (int i = 0; i < size; ++i) {
+                    ib.put(i, (int) values[i]);
+                }
+                break;
+            case INT8:
+            case UINT8:
+                for (int i = 0; i < size; ++i) {
+                    buf.put(i, (byte) values[i]);
+                }
+                break;
+            case BOOLEAN:
+                for (int i = 0; i < size; ++i) {
+                    buf.put(i, values[i] == 0 ? (byte) 0 : (byte) 1);
+                }
+                break;
+            default:
+                double[] converted = new double[size];
+                for (int i = 0; i < size; ++i) {
+                    converted[i] = values[i];
+                }
+                write(converted, type, bb);
+                break;
+        }
+    }
+
+    /**
+     * Copies a strided view of {@code src} into the contiguous {@code dest}.
+     *
+     * @param src the source buffer
+     * @param offset the element offset of the view in the source
+     * @param strides the element strides of the view in the source, 0 to broadcast an axis
+     * @param shape the shape of the view
+     * @param dest the contiguous destination buffer
+     * @param width the number of bytes of each element
+     */
+    static void gather(
+            ByteBuffer src, int offset, int[] strides, int[] shape, ByteBuffer dest, int width) {
+        walk(dest, src, offset, strides, shape, width, false);
+    }
+
+    /**
+     * Copies the contiguous {@code src} into a strided view of {@code dest}.
+     *
+     * @param src the contiguous source buffer
+     * @param dest the destination buffer
+     * @param offset the element offset of the view in the destination
+     * @param strides the element strides of the view in the destination
+     * @param shape the shape of the view
+     * @param width the number of bytes of each element
+     */
+    static void scatter(
+            ByteBuffer src, ByteBuffer dest, int offset, int[] strides, int[] shape, int width) {
+        walk(src, dest, offset, strides, shape, width, true);
+    }
+
+    private static void walk(
+            ByteBuffer flat,
+            ByteBuffer strided,
+            int offset,
+            int[] strides,
+            int[] shape,
+            int width,
+            boolean toStrided) {
+        int dims = shape.length;
+        int size = 1;
+        for (int s : shape) {
+            size *= s;
+        }
+        if (size == 0) {
+            return;
+        }
+        if (dims == 0) {
+            copy(flat, 0, strided, offset, width, toStrided);
+            return;
+        }
+        int inner = shape[dims - 1];
+        int innerStride = strides[dims - 1];
+        int[] index = new int[dims];
+        int base = offset;
+        int pos = 0;
+        for (int row = 0, rows = size / inner; row < rows; ++row) {
+            if (innerStride == 1) {
+                copyRange(flat, pos, strided, base, inner * width, width, toStrided);
+            } else {
+                for (int i = 0, p = base; i < inner; ++i, p += innerStride) {
+                    copy(flat, pos + i, strided, p, width, toStrided);
+                }
+            }
+            pos += inner;
+            for (int d = dims - 2; d >= 0; --d) {
+                base += strides[d];
+                if (++index[d] < shape[d]) {
+                    break;
+                }
+                base -= strides[d] * shape[d];
+                index[d] = 0;
+            }
+        }
+    }
+
+    private static void copy(
+            ByteBuffer flat, int i, ByteBuffer strided, int j, int width, boolean toStrided) {
+        if (toStrided) {
+            copyElement(flat, i, strided, j, width);
+        } else {
+            copyElement(strided, j, flat, i, width);
+        }
+    }
+
+    static void copyElement(ByteBuffer src, int from, ByteBuffer dest, int to, int width) {
+        int i = from * width;
+        int j = to * width;
+        switch (width) {
+            case 1:
+                dest.put(j, src.get(i));
+                break;
+            case 2:
+                dest.putShort(j, src.getShort(i));
+                break;
+            case 4:
+                dest.putInt(j, src.getInt(i));
+                break;
+            case 8:
+                dest.putLong(j, src.getLong(i));
+                break;
+            default:
+                for (int b = 0; b < width; ++b) {
+                    dest.put(j + b, src.get(i + b));
+                }
+                break;
+        }
+    }
+
+    private static void copyRange(
+            ByteBuffer flat,
+            int i,
+            ByteBuffer strided,
+            int j,
+            int length,
+            int width,
+            boolean toStrided) {
+        ByteBuffer src = (toStrided ? flat : strided).duplicate();
+        ByteBuffer dest = (toStrided ? strided : flat).duplicate();
+        int from = (toStrided ? i : j) * width;
+        src.limit(from + length);
+        src.position(from);
+        dest.position((toStrided ? j : i) * width);
+        dest.put(src);
+    }
+
+    /**
+     * Selects the {@code indices} along the middle axis of a {@code [outer, axisSize, inner]}
+     * array.
+     *
+     * @param src the source buffer
+     * @param dest the destination buffer of {@code [outer, indices.length, inner]} elements
+     * @param outer the product of the dimensions before the axis
+     * @param axisSize the size of the axis
+     * @param inner the product of the dimensions after the axis
+     * @param indices the indices to select, negative indices count from the end
+     * @param width the number of bytes of each element
+     */
+    static void select(
+            ByteBuffer src,
+            ByteBuffer dest,
+            int outer,
+            int axisSize,
+            int inner,
+            long[] indices,
+            int width) {
+        int pos = 0;
+        for (int o = 0; o < outer; ++o) {
+            for (long index : indices) {
+                int i = checkIndex(index, axisSize);
+                int from = (o * axisSize + i) * inner;
+                if (inner == 1) {
+                    copyElement(src, from, dest, pos, width);
+                } else {
+                    copyRange(dest, pos, src, from, inner * width, width, false);
+                }
+                pos += inner;
+            }
+        }
+    }
+
+    /**
+     * Gathers the elements along the middle axis of a {@code [outer, axisSize, inner]} array with a
+     * {@code [outer, indexSize, inner]} index array.
+     *
+     * @param src the source buffer
+     * @param dest the destination buffer of {@code [outer, indexSize, inner]} elements
+     * @param outer the product of the dimensions before the axis
+     * @param axisSize the size of the axis
+     * @param inner the product of the dimensions after the axis
+     * @param indices the indices along the axis
+     * @param indexSize the size of the axis of the indices
+     * @param width the number of bytes of each element
+     */
+    static void gatherAxis(
+            ByteBuffer src,
+            ByteBuffer dest,
+            int outer,
+            int axisSize,
+            int inner,
+            long[] indices,
+            int indexSize,
+            int width) {
+        int pos = 0;
+        for (int o = 0; o < outer; ++o) {
+            for (int j = 0; j < indexSize; ++j) {
+                for (int i = 0; i < inner; ++i) {
+                    int index = checkIndex(indices[pos], axisSize);
+                    copyElement(src, (o * axisSize + index) * inner + i, dest, pos, width);
+                    ++pos;
+                }
+            }
+        }
+    }
+
+    private static int checkIndex(long index, int size) {
+        long i = index < 0 ? index + size : index;
+        if (i < 0 || i >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for " + size);
+        }
+        return (int) i;
+    }
+
+    static void unary(DoubleUnaryOperator op, float[] in, float[] out, int from, int to) {
+        if (op == Unary.RELU) {
+            for (int i = from; i < to; ++i) {
+                out[i] = Math.max(in[i], 0f);
+            }
+        } else if (op == Unary.NEG) {
+            for (int i = from; i < to; ++i) {
+                out[i] = -in[i];
+            }
+        } else if (op == Unary.ABS) {
+            for (int i = from; i < to; ++i) {
+                out[i] = Math.abs(in[i]);
+            }
+        } else if (op == Unary.SQUARE) {
+            for (int i = from; i < to; ++i) {
+                out[i] = in[i] * in[i];
+            }
+        } else {
+            for (int i = from; i < to; ++i) {
+                out[i] = (float) op.applyAsDouble(in[i]);
+            }
+        }
+    }
+
+    static void unary(DoubleUnaryOperator op, double[] in, double[] out, int from, int to) {
+        for (int i = from; i < to; ++i) {
+            out[i] = op.applyAsDouble(in[i]);
+        }
+    }
+
+    static void unary(LongUnaryOperator op, long[] in, long[] out, int from, int to) {
+        for (int i = from; i < to; ++i) {
+            out[i] = op.applyAsLong(in[i]);
+        }
+    }
+
+    static void binary(Binary op, float[] a, float[] b, float[] out, int from, int to) {
+        switch (op) {
+            case ADD:
+                for (int i = from; i < to; ++i) {
+                    out[i] = a[i] + b[i];
+                }
+                break;
+            case SUB:
+                for (int i = from; i < to; ++i) {
+                    out[i] = a[i] - b[i];
+                }
+                break;
+            case MUL:
+                for (int i = from; i < to; ++i) {
+                    out[i] = a[i] * b[i];
+                }
+                break;
+            case DIV:
+                for (int i = from; i < to; ++i) {
+                    out[i] = a[i] / b[i];
+                }
+                break;
+            default:
+                for (int i = from; i < to; ++i) {
+                    out[i] = (float) op.apply(a[i], b[i]);
+                }
+                break;
+        }
+    }
+
+    static void binary(
+            Binary op, float[] a, float b, float[] out, boolean reverse, int from, int to) {
+        if (reverse) {
+            for (int i = from; i < to; ++i) {
+                out[i] = (float) op.apply(b, a[i]);
+            }
+            return;
+        }
+        switch (op) {
+            case ADD:
+                for (int i = from; i < to; ++i) {
+                    out[i] = a[i] + b;
+                }
+                break;
+            case SUB:
+                for (int i = from; i < to; ++i) {
+                    out[i] = a[i] - b;
+                }
+                break;
+            case MUL:
+                for (int i = from; i < to; ++i) {
+                    out[i] = a[i] * b;
+                }
+                break;
+            case DIV:
+                for (int i = from; i < to; ++i) {
+                    out[i] = a[i] / b;
+                }
+                break;
+            default:
+                for (int i = from; i < to; ++i) {
+                    out[i] = (float) op.apply(a[i], b);
+                }
+                break;
+        }
+    }
+
+    static void binary(Binary op, double[] a, double[] b, double[] out, int from, int to) {
+        for (int i = from; i < to; ++i) {
+            out[i] = op.apply(a[i], b[i]);
+        }
+    }
+
+    static void binary(
+            Binary op, double[] a, double b, double[] out, boolean reverse, int from, int to) {
+        if (reverse) {
+            for (int i = from; i < to; ++i) {
+                out[i] = op.apply(b, a[i]);
+            }
+        } else {
+            for (int i = from; i < to; ++i) {
+                out[i] = op.apply(a[i], b);
+            }
+        }
+    }
+
+    static void binary(Binary op, long[] a, long[] b, long[] out, int from, int to) {
+        switch (op) {
+            case ADD:
+                for (int i = from; i < to; ++i) {
+                    out[i] = a[i] + b[i];
+                }
+                break;
+            case MUL:
+                for (int i = from; i < to; ++i) {
+                    out[i] = a[i] * b[i];
+                }
+                break;
+            default:
+                for (int i = from; i < to; ++i) {
+                    out[i] = op.apply(a[i], b[i]);
+                }
+                break;
+        }
+    }
+
+    static void binary(Binary op, long[] a, long b, long[] out, boolean reverse, int from, int to) {
+        if (reverse) {
+            for (int i = from; i < to; ++i) {
+                out[i] = op.apply(b, a[i]);
+            }
+        } else {
+            for (int i = from; i < to; ++i) {
+                out[i] = op.apply(a[i], b);
+            }
+        }
+    }
+
+    /**
+     * Reduces each contiguous row of {@code inner} elements into a single value.
+     *
+     * @param op the reduction
+     * @param in the input of {@code outer * inner} elements
+     * @param out the output of {@code outer} elements
+     * @param inner the number of elements of each row
+     * @param from the first row
+     * @param to the last row, exclusive
+     */
+    static void reduce(Reduce op, double[] in, double[] out, int inner, int from, int to) {
+        for (int o = from; o < to; ++o) {
+            int begin = o * inner;
+            int end = begin + inner;
+            double acc;
+            switch (op) {
+                case SUM:
+                case MEAN:
+                    acc = 0;
+                    for (int i = begin; i < end; ++i) {
+                        acc += in[i];
+                    }
+                    if (op == Reduce.MEAN) {
+                        acc /= inner;
+                    }
+                    break;
+                case PROD:
+                    acc = 1;
+                    for (int i = begin; i < end; ++i) {
+                        acc *= in[i];
+                    }
+                    break;
+                case MAX:
+                    acc = Double.NEGATIVE_INFINITY;
+                    for (int i = begin; i < end; ++i) {
+                        acc = Math.max(acc, in[i]);
+                    }
+                    break;
+                case MIN:
+                    acc = Double.POSITIVE_INFINITY;
+                    for (int i = begin; i < end; ++i) {
+                        acc = Math.min(acc, in[i]);
+                    }
+                    break;
+                case ARGMAX:
+                case ARGMIN:
+                    // like numpy, the first NaN is both the maximum and the minimum
+                    boolean argMax = op == Reduce.ARGMAX;
+                    int arg = begin;
+                    for (int i = begin; i < end; ++i) {
+                        double value = in[i];
+                        if (Double.isNaN(value)) {
+                            arg = i;
+                            break;
+                        }
+                        if (argMax ? value > in[arg] : value < in[arg]) {
+                            arg = i;
+                        }
+                    }
+                    acc = arg - begin;
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unsupported reduction: " + op);
+            }
+            out[o] = acc;
+        }
+    }
+
+    /**
+     * Reduces each contiguous row of {@code inner} integers into a single value, the {@link
+     * Reduce#MEAN} is computed with {@link #reduce(Reduce, double[], double[], int, int, int)}.
+     *
+     * @param op the reduction
+     * @param in the input of {@code outer * inner} elements
+     * @param out the output of {@code outer} elements
+     * @param inner the number of elements of each row
+     * @param from the first row
+     * @param to the last row, exclusive
+     */
+    static void reduce(Reduce op, long[] in, long[] out, int inner, int from, int to) {
+        for (int o = from; o < to; ++o) {
+            int begin = o * inner;
+            int end = begin + inner;
+            long acc;
+            switch (op) {
+                case SUM:
+                    acc = 0;
+                    for (int i = begin; i < end; ++i) {
+                        acc += in[i];
+                    }
+                    break;
+                case PROD:
+                    acc = 1;
+                    for (int i = begin; i < end; ++i) {
+                        acc *= in[i];
+                    }
+                    break;
+                case MAX:
+                    acc = Long.MIN_VALUE;
+                    for (int i = begin; i < end; ++i) {
+                        acc = Math.max(acc, in[i]);
+                    }
+                    break;
+                case MIN:
+                    acc = Long.MAX_VALUE;
+                    for (int i = begin; i < end; ++i) {
+                        acc = Math.min(acc, in[i]);
+                    }
+                    break;
+                case ARGMAX:
+                    int max = begin;
+                    for (int i = begin + 1; i < end; ++i) {
+                        if (in[i] > in[max]) {
+                            max = i;
+                        }
+                    }
+                    acc = max - begin;
+                    break;
+                case ARGMIN:
+                    int min = begin;
+                    for (int i = begin + 1; i < end; ++i) {
+                        if (in[i] < in[min]) {
+                            min = i;
+                        }
+                    }
+                    acc = min - begin;
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unsupported reduction: " + op);
+            }
+            out[o] = acc;
+        }
+    }
+
+    static void softmax(float[] in, float[] out, int inner, boolean log, int from, int to) {
+        for (int o = from; o < to; ++o) {
+            int begin = o * inner;
+            int end = begin + inner;
+            float max = Float.NEGATIVE_INFINITY;
+            for (int i = begin; i < end; ++i) {
+                max = Math.max(max, in[i]);
+            }
+            double sum = 0;
+            for (int i = begin; i < end; ++i) {
+                float e = (float) Math.exp(in[i] - max);
+                out[i] = e;
+                sum += e;
+            }
+            if (log) {
+                float offset = (float) (max + Math.log(sum));
+                for (int i = begin; i < end; ++i) {
+                    out[i] = in[i] - offset;
+                }
+            } else {
+                float scale = (float) (1 / sum);
+                for (int i = begin; i < end; ++i) {
+                    out[i] *= scale;
+                }
+            }
+        }
+    }
+
+    static void softmax(double[] in, double[] out, int inner, boolean log, int from, int to) {
+        for (int o = from; o < to; ++o) {
+            int begin = o * inner;
+            int end = begin + inner;
+            double max = Double.NEGATIVE_INFINITY;
+            for (int i = begin; i < end; ++i) {
+                max = Math.max(max, in[i]);
+            }
+            double sum = 0;
+            for (int i = begin; i < end; ++i) {
+                double e = Math.exp(in[i] - max);
+                out[i] = e;
+                sum += e;
+            }
+            if (log) {
+                double offset = max + Math.log(sum);
+                for (int i = begin; i < end; ++i) {
+                    out[i] = in[i] - offset;
+                }
+            } else {
+                for (int i = begin; i < end; ++i) {
+                    out[i] /= sum;
+                }
+            }
+        }
+    }
+
+    /**
+     * Computes {@code c = a * b} for a {@code [m, k]} matrix {@code a} and a {@code [k, n]} matrix
+     * {@code b}, or a {@code [n, k]} matrix {@code b} if {@code transB} is set.
+     *
+     * @param a the left matrix
+     * @param aOff the offset of the left matrix
+     * @param b the right matrix
+     * @param bOff the offset of the right matrix
+     * @param c the zero initialized output matrix
+     * @param cOff the offset of the output matrix
+     * @param m the number of rows of {@code a}
+     * @param k the number of columns of {@code a}
+     * @param n the number of columns of {@code c}
+     * @param transB whether {@code b} is stored transposed
+     */
+    static void gemm(
+            float[] a,
+            int aOff,
+            float[] b,
+            int bOff,
+            float[] c,
+            int cOff,
+            int m,
+            int k,
+            int n,
+            boolean transB) {
+        if (m >= PARALLELISM) {
+            parallelFor(
+                    m,
+                    (long) k * n,
+                    (from, to) -> gemm(a, aOff, b, bOff, c, cOff, k, n, transB, from, to, 0, n));
+        } else {
+            parallelFor(
+                    n,
+                    (long) k * m,
+                    (from, to) -> gemm(a, aOff, b, bOff, c, cOff, k, n, transB, 0, m, from, to));
+        }
+    }
+
+    private static void gemm(
+            float[] a,
+            int aOff,
+            float[] b,
+            int bOff,
+            float[] c,
+            int cOff,
+            int k,
+            int n,
+            boolean transB,
+            int i0,
+            int i1,
+            int j0,
+            int j1) {
+        for (int i = i0; i < i1; ++i) {
+            int ai = aOff + i * k;
+            int ci = cOff + i * n;
+            if (transB) {
+                for (int j = j0; j < j1; ++j) {
+                    int bj = bOff + j * k;
+                    float s0 = 0;
+                    float s1 = 0;
+                    float s2 = 0;
+                    float s3 = 0;
+                    int p = 0;
+                    for (; p + 3 < k; p += 4) {
+                        s0 += a[ai + p] * b[bj + p];
+                        s1 += a[ai + p + 1] * b[bj + p + 1];
+                        s2 += a[ai + p + 2] * b[bj + p + 2];
+                        s3 += a[ai + p + 3] * b[bj + p + 3];
+                    }
+                    for (; p < k; ++p) {
+                        s0 += a[ai + p] * b[bj + p];
+                    }
+                    c[ci + j] = (s0 + s1) + (s2 + s3);
+                }
+            } else {
+                for (int p = 0; p < k; ++p) {
+                    float av = a[ai + p];
+                    int bp = bOff + p * n;
+                    for (int j = j0; j < j1; ++j) {
+                        c[ci + j] += av * b[bp + j];
+                    }
+                }
+            }
+        }
+    }
+
+    static void gemm(
+            double[] a,
+            int aOff,
+            double[] b,
+            int bOff,
+            double[] c,
+            int cOff,
+            int m,
+            int k,
+            int n,
+            boolean transB) {
+        parallelFor(
+                m,
+                (long) k * n,
+                (from, to) -> {
+                    for (int i = from; i < to; ++i) {
+                        int ai = aOff + i * k;
+                        int ci = cOff + i * n;
+                        for (int p = 0; p < k; ++p) {
+                            double av = a[ai + p];
+                            for (int j = 0; j < n; ++j) {
+                                int bi = transB ? bOff + j * k + p : bOff + p * n + j;
+                                c[ci + j] += av * b[bi];
+                            }
+                        }
+                    }
+                });
+    }
+
+    static void gemm(
+            long[] a,
+            int aOff,
+            long[] b,
+            int bOff,
+            long[] c,
+            int cOff,
+            int m,
+            int k,
+            int n,
+            boolean transB) {
+        parallelFor(
+                m,
+                (long) k * n,
+                (from, to) -> {
+                    for (int i = from; i < to; ++i) {
+                        int ai = aOff + i * k;
+                        int ci = cOff + i * n;
+                        for (int p = 0; p < k; ++p) {
+                            long av = a[ai + p];
+                            for (int j = 0; j < n; ++j) {
+                                int bi = transB ? bOff + j * k + p : bOff + p * n + j;
+                                c[ci + j] += av * b[bi];
+                            }
+                        }
+                    }
+                });
+    }
+
+    /**
+     * Resizes a batch of images in {@code HWC} layout.
+     *
+     * @param in the input images
+     * @param out the output images
+     * @param batch the number of images
+     * @param h the input height
+     * @param w the input width
+     * @param ch the number of channels
+     * @param outH the output height
+     * @param outW the output width
+     * @param bilinear whether to use bilinear interpolation instead of nearest neighbor
+     */
+    static void resize(
+            float[] in,
+            float[] out,
+            int batch,
+            int h,
+            int w,
+            int ch,
+            int outH,
+            int outW,
+            boolean bilinear) {
+        float scaleY = (float) h / outH;
+        float scaleX = (float) w / outW;
+        parallelFor(
+                batch * outH,
+                (long) outW * ch * 4,
+                (from, to) -> {
+                    for (int row = from; row < to; ++row) {
+                        int img = row / outH;
+                        int y = row % outH;
+                        int src = img * h * w * ch;
+                        int dest = row * outW * ch;
+                        if (!bilinear) {
+                            int sy = Math.min((int) (y * scaleY), h - 1);
+                            for (int x = 0; x < outW; ++x) {
+                                int sx = Math.min((int) (x * scaleX), w - 1);
+                                System.arraycopy(
+                                        in, src + (sy * w + sx) * ch, out, dest + x * ch, ch);
+                            }
+                            continue;
+                        }
+                        float fy = Math.max((y + 0.5f) * scaleY - 0.5f, 0);
+                        int y0 = Math.min((int) fy, h - 1);
+                        int y1 = Math.min(y0 + 1, h - 1);
+                        float wy = fy - y0;
+                        for (int x = 0; x < outW; ++x) {
+                            float fx = Math.max((x + 0.5f) * scaleX - 0.5f, 0);
+                            int x0 = Math.min((int) fx, w - 1);
+                            int x1 = Math.min(x0 + 1, w - 1);
+                            float wx = fx - x0;
+                            int p00 = src + (y0 * w + x0) * ch;
+                            int p01 = src + (y0 * w + x1) * ch;
+                            int p10 = src + (y1 * w + x0) * ch;
+                            int p11 = src + (y1 * w + x1) * ch;
+                            for (int c = 0; c < ch; ++c) {
+                                float top = in[p00 + c] + (in[p01 + c] - in[p00 + c]) * wx;
+                                float bottom = in[p10 + c] + (in[p11 + c] - in[p10 + c]) * wx;
+                                out[dest + x * ch + c] = top + (bottom - top) * wy;
+                            }
+                        }
+                    }
+                });
+    }
+
+    /** A range of work items. */
+    @FunctionalInterface
+    interface Range {
+
+        /**
+         * Processes the items in {@code [from, to)}.
+         *
+         * @param from the first item
+         * @param to the last item, exclusive
+         */
+        void apply(int from, int to);
+    }
+
+    /** The element-wise unary operators. */
+    enum Unary implements DoubleUnaryOperator, LongUnaryOperator {
+        NEG,
+        ABS,
+        SIGN,
+        SQUARE,
+        SQRT,
+        CBRT,
+        FLOOR,
+        CEIL,
+        ROUND,
+        TRUNC,
+        EXP,
+        LOG,
+        LOG10,
+        LOG2,
+        SIN,
+        COS,
+        TAN,
+        ASIN,
+        ACOS,
+        ATAN,
+        SINH,
+        COSH,
+        TANH,
+        ASINH,
+        ACOSH,
+        ATANH,
+        DEGREES,
+        RADIANS,
+        NOT,
+        IS_NAN,
+        IS_INFINITE,
+        RELU,
+        SIGMOID,
+        SOFT_PLUS,
+        SOFT_SIGN,
+        GELU,
+        SELU,
+        ERF;
+
+        private static final double SELU_ALPHA = 1.6732632423543772;
+        private static final double SELU_SCALE = 1.0507009873554805;
+
+        /** {@inheritDoc} */
+        @Override
+        public double applyAsDouble(double x) {
+            switch (this) {
+                case NEG:
+                    return -x;
+                case ABS:
+                    return Math.abs(x);
+                case SIGN:
+                    return Math.signum(x);
+                case SQUARE:
+                    return x * x;
+                case SQRT:
+                    return Math.sqrt(x);
+                case CBRT:
+                    return Math.cbrt(x);
+                case FLOOR:
+                    return Math.floor(x);
+                case CEIL:
+                    return Math.ceil(x);
+                case ROUND:
+                    return Math.rint(x);
+                case TRUNC:
+                    return x < 0 ? Math.ceil(x) : Math.floor(x);
+                case EXP:
+                    return Math.exp(x);
+                case LOG:
+                    return Math.log(x);
+                case LOG10:
+                    return Math.log10(x);
+                case LOG2:
+                    return Math.log(x) / Math.log(2);
+                case SIN:
+                    return Math.sin(x);
+                case COS:
+                    return Math.cos(x);
+                case TAN:
+                    return Math.tan(x);
+                case ASIN:
+                    return Math.asin(x);
+                case ACOS:
+                    return Math.acos(x);
+                case ATAN:
+                    return Math.atan(x);
+                case SINH:
+                    return Math.sinh(x);
+                case COSH:
+                    return Math.cosh(x);
+                case TANH:
+                    return Math.tanh(x);
+                case ASINH:
+                    return Math.log(x + Math.sqrt(x * x + 1));
+                case ACOSH:
+                    return Math.log(x + Math.sqrt(x * x - 1));
+                case ATANH:
+                    return 0.5 * Math.log((1 + x) / (1 - x));
+                case DEGREES:
+                    return Math.toDegrees(x);
+                case RADIANS:
+                    return Math.toRadians(x);
+                case NOT:
+                    return x == 0 ? 1 : 0;
+                case IS_NAN:
+                    return Double.isNaN(x) ? 1 : 0;
+                case IS_INFINITE:
+                    return Double.isInfinite(x) ? 1 : 0;
+                case RELU:
+                    return Math.max(x, 0);
+                case SIGMOID:
+                    return 1 / (1 + Math.exp(-x));
+                case SOFT_PLUS:
+                    return Math.max(x, 0) + Math.log1p(Math.exp(-Math.abs(x)));
+                case SOFT_SIGN:
+                    return x / (1 + Math.abs(x));
+                case GELU:
+                    return 0.5 * x * (1 + erf(x / Math.sqrt(2)));
+                case SELU:
+                    return x > 0 ? SELU_SCALE * x : SELU_SCALE * SELU_ALPHA * Math.expm1(x);
+                case ERF:
+                    return erf(x);
+                default:
+                    throw new IllegalStateException("Unsupported operator: " + this);
+            }
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public long applyAsLong(long x) {
+            switch (this) {
+                case NEG:
+                    return -x;
+                case ABS:
+                    return Math.abs(x);
+                case SIGN:
+                    return Long.signum(x);
+                case SQUARE:
+                    return x * x;
+                case FLOOR:
+                case CEIL:
+                case ROUND:
+                case TRUNC:
+                    return x;
+                case RELU:
+                    return Math.max(x, 0);
+                case NOT:
+                    return x == 0 ? 1 : 0;
+                case IS_NAN:
+                case IS_INFINITE:
+                    return 0;
+                default:
+                    return (long) applyAsDouble(x);
+            }
+        }
+
+        /**
+         * Returns whether the operator produces floating point values for integer input.
+         *
+         * @return whether the operator produces floating point values for integer input
+         */
+        boolean isFloating() {
+            switch (this) {
+                case NEG:
+                case ABS:
+                case SIGN:
+                case SQUARE:
+                case FLOOR:
+                case CEIL:
+                case ROUND:
+                case TRUNC:
+                case RELU:
+                    return false;
+                default:
+                    return true;
+            }
+        }
+
+        private static double erf(double x) {
+            // Abramowitz and Stegun 7.1.26, maximum error 1.5e-7
+            double t = 1 / (1 + 0.3275911 * Math.abs(x));
+            double y =
+                    1
+                            - (((((1.061405429 * t - 1.453152027) * t) + 1.421413741) * t
+                                                            - 0.284496736)
+                                                    * t
+                                            + 0.254829592)
+                                    * t
+                                    * Math.exp(-x * x);
+            return x < 0 ? -y : y;
+        }
+    }
+
+    /** The element-wise binary operators. */
+    enum Binary {
+        ADD,
+        SUB,
+        MUL,
+        DIV,
+        MOD,
+        POW,
+        MAXIMUM,
+        MINIMUM,
+        ATAN2,
+        XLOGY,
+        EQ,
+        NEQ,
+        GT,
+        GTE,
+        LT,
+        LTE,
+        AND,
+        OR,
+        XOR;
+
+        double apply(double a, double b) {
+            switch (this) {
+                case ADD:
+                    return a + b;
+                case SUB:
+                    return a - b;
+                case MUL:
+                    return a * b;
+                case DIV:
+                    return a / b;
+                case MOD:
+                    return a - Math.floor(a / b) * b;
+                case POW:
+                    return Math.pow(a, b);
+                case MAXIMUM:
+                    return Math.max(a, b);
+                case MINIMUM:
+                    return Math.min(a, b);
+                case ATAN2:
+                    return Math.atan2(a, b);
+                case XLOGY:
+                    return a == 0 ? 0 : a * Math.log(b);
+                case EQ:
+                    return a == b ? 1 : 0;
+                case NEQ:
+                    return a != b ? 1 : 0;
+                case GT:
+                    return a > b ? 1 : 0;
+                case GTE:
+                    return a >= b ? 1 : 0;
+                case LT:
+                    return a < b ? 1 : 0;
+                case LTE:
+                    return a <= b ? 1 : 0;
+                case AND:
+                    return a != 0 && b != 0 ? 1 : 0;
+                case OR:
+                    return a != 0 || b != 0 ? 1 : 0;
+                case XOR:
+                    return (a != 0) != (b != 0) ? 1 : 0;
+                default:
+                    throw new IllegalStateException("Unsupported operator: " + this);
+            }
+        }
+
+        long apply(long a, long b) {
+            switch (this) {
+                case ADD:
+                    return a + b;
+                case SUB:
+                    return a - b;
+                case MUL:
+                    return a * b;
+                case DIV:
+                    return b == 0 ? (long) apply((double) a, 0) : a / b;
+                case MOD:
+                    return b == 0 ? 0 : Math.floorMod(a, b);
+                case POW:
+                    return b < 0 ? (long) Math.pow(a, b) : pow(a, b);
+                case MAXIMUM:
+                    return Math.max(a, b);
+                case MINIMUM:
+                    return Math.min(a, b);
+                case EQ:
+                    return a == b ? 1 : 0;
+                case NEQ:
+                    return a != b ? 1 : 0;
+                case GT:
+                    return a > b ? 1 : 0;
+                case GTE:
+                    return a >= b ? 1 : 0;
+                case LT:
+                    return a < b ? 1 : 0;
+                case LTE:
+                    return a <= b ? 1 : 0;
+                case AND:
+                    return a != 0 && b != 0 ? 1 : 0;
+                case OR:
+                    return a != 0 || b != 0 ? 1 : 0;
+                case XOR:
+                    return (a != 0) != (b != 0) ? 1 : 0;
+                default:
+                    return (long) apply((double) a, (double) b);
+            }
+        }
+
+        private static long pow(long base, long exponent) {
+            long result = 1;
+            while (exponent > 0) {
+                if ((exponent & 1) != 0) {
+                    result *= base;
+                }
+                base *= base;
+                exponent >>= 1;
+            }
+            return result;
+        }
+
+        /**
+         * Returns whether the operator produces a boolean result.
+         *
+         * @return whether the operator produces a boolean result
+         */
+        boolean isLogical() {
+            return ordinal() >= EQ.ordinal();
+        }
+    }
+
+    /** The reductions over the innermost axis. */
+    enum Reduce {
+        SUM,
+        MEAN,
+        PROD,
+        MAX,
+        MIN,
+        ARGMAX,
+        ARGMIN
+    }
+}
@@ -0,0 +1,286 @@
+/*
+ * Copyright 2024 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ * with the License. A copy of the License is located at
+ *
+ * http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES
+ * OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+
+package ai.djl.jvm.engine;
+
+import ai.djl.Device;
+import ai.djl.engine.Engine;
+import ai.djl.ndarray.NDArray;
+import ai.djl.ndarray.NDArrays;
+import ai.djl.ndarray.NDList;
+import ai.djl.ndarray.NDManager;
+import ai.djl.ndarray.index.NDIndex;
+import ai.djl.ndarray.types.DataType;
+import ai.djl.ndarray.types.Shape;
+import ai.djl.nn.Activation;
+import ai.djl.nn.Block;
+import ai.djl.nn.SequentialBlock;
+import ai.djl.nn.core.Linear;
+import ai.djl.training.ParameterStore;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class JvmNDArrayTest {
+
+    private static final float EPS = 1e-5f;
+
+    @Test
+    public void testEngine() {
+        Engine engine = Engine.getEngine(JvmEngine.ENGINE_NAME);
+        Assert.assertEquals(engine.getEngineName(), JvmEngine.ENGINE_NAME);
+        try (NDManager manager = engine.newBaseManager()) {
+            Assert.assertTrue(manager instanceof JvmNDManager);
+            NDArray array = manager.create(new float[] {1f, 2f});
+            Assert.assertTrue(array instanceof JvmNDArray);
+            Assert.assertEquals(array.getDevice(), Device.cpu());
+        }
+    }
+
+    @Test
+    public void testArithmetic() {
+        try (NDManager manager = newManager()) {
+            NDArray a = manager.create(new float[] {1f, 2f, 3f, 4f}, new Shape(2, 2));
+            NDArray b = manager.create(new float[] {10f, 20f});
+            assertArray(a.add(b), 11f, 22f, 13f, 24f);
+            assertArray(a.sub(1), 0f, 1f, 2f, 3f);
+            assertArray(a.mul(b), 10f, 40f, 30f, 80f);
+            assertArray(b.div(a), 10f, 10f, 10f / 3, 5f);
+            assertArray(a.neg().abs(), 1f, 2f, 3f, 4f);
+            assertArray(a.pow(2), 1f, 4f, 9f, 16f);
+            assertArray(a.getNDArrayInternal().rsub(10), 9f, 8f, 7f, 6f);
+
+            NDArray ints = manager.create(new int[] {-7, 7});
+            Assert.assertEquals(ints.mod(3).toIntArray(), new int[] {2, 1});
+            NDArray scaled = ints.div(2f);
+            Assert.assertEquals(scaled.getDataType(), DataType.FLOAT32);
+            assertArray(scaled, -3.5f, 3.5f);
+
+            NDArray gt = a.gt(2);
+            Assert.assertEquals(gt.getDataType(), DataType.BOOLEAN);
+            Assert.assertEquals(gt.toBooleanArray(), new boolean[] {false, false, true, true});
+
+            a.addi(1);
+            assertArray(a, 2f, 3f, 4f, 5f);
+        }
+    }
+
+    @Test
+    public void testReduction() {
+        try (NDManager manager = newManager()) {
+            NDArray a = manager.arange(6f).reshape(2, 3);
+            Assert.assertEquals(a.sum().getFloat(), 15f);
+            assertArray(a.sum(new int[] {0}), 3f, 5f, 7f);
+            assertArray(a.mean(new int[] {1}, true), 1f, 4f);
+            Assert.assertEquals(a.mean(new int[] {1}, true).getShape(), new Shape(2, 1));
+            assertArray(a.max(new int[] {1}), 2f, 5f);
+            Assert.assertEquals(a.argMax(1).toLongArray(), new long[] {2, 2});
+            Assert.assertEquals(a.argMin().getLong(), 0L);
+
+            NDList top = a.topK(1, 0);
+            assertArray(top.get(0), 3f, 4f, 5f);
+            Assert.assertEquals(top.get(1).toLongArray(), new long[] {1, 1, 1});
+            top = a.topK(2, 1, false, true);
+            assertArray(top.get(0), 0f, 1f, 3f, 4f);
+            Assert.assertEquals(top.get(1).getShape(), new Shape(2, 2));
+
+            NDArray nan = manager.create(new float[] {1f, Float.NaN, 3f, Float.NaN});
+            Assert.assertEquals(nan.argMax().getLong(), 1L);
+            Assert.assertEquals(nan.argMin().getLong(), 1L);
+
+            NDArray bytes = manager.create(new byte[] {100, 100, 100});
+            NDArray sum = bytes.sum();
+            Assert.assertEquals(sum.getDataType(), DataType.INT64);
+            Assert.assertEquals(sum.getLong(), 300L);
+        }
+    }
+
+    @Test
+    public void testInt64() {
+        try (NDManager manager = newManager()) {
+            long big = 123456789012345678L;
+            NDArray a = manager.create(new long[] {big, big + 1});
+            NDArray b = manager.create(new long[] {big + 1, big + 1});
+            Assert.assertEquals(a.eq(b).toBooleanArray(), new boolean[] {false, true});
+            Assert.assertFalse(a.get(0).eq(big + 1).getBoolean());
+            Assert.assertEquals(a.add(1).toLongArray(), new long[] {big + 1, big + 2});
+            Assert.assertEquals(b.sub(a).toLongArray(), new long[] {1, 0});
+            Assert.assertEquals(a.sum().getLong(), big * 2 + 1);
+            Assert.assertEquals(a.max().getLong(), big + 1);
+            Assert.assertEquals(a.argMax().getLong(), 1L);
+            Assert.assertEquals(a.neg().toLongArray(), new long[] {-big, -big - 1});
+            Assert.assertEquals(
+                    a.toType(DataType.INT32, false).toType(DataType.INT64, false).toLongArray(),
+                    new long[] {(int) big, (int) (big + 1)});
+            Assert.assertEquals(
+                    manager.create(new long[] {-7, 7}).mod(3).toLongArray(), new long[] {2, 1});
+            Assert.assertEquals(manager.create(new long[] {3}).pow(3).getLong(), 27L);
+        }
+    }
+
+    @Test
+    public void testAlternativeEngine() {
+        try (NDManager manager = newManager()) {
+            NDArray array = manager.ones(new Shape(1, 1, 4, 4));
+            // there is no alternative engine on the test classpath
+            Assert.assertThrows(
+                    UnsupportedOperationException.class,
+                    () ->
+                            array.getNDArrayInternal()
+                                    .maxPool(
+                                            new Shape(2, 2),
+                                            new Shape(2, 2),
+                                            new Shape(0, 0),
+                                            false));
+        }
+    }
+
+    @Test
+    public void testMatMul() {
+        try (NDManager manager = newManager()) {
+            NDArray a = manager.arange(6f).reshape(2, 3);
+            NDArray b = manager.arange(12f).reshape(3, 4);
+            NDArray c = a.matMul(b);
+            Assert.assertEquals(c.getShape(), new Shape(2, 4));
+            assertArray(c, 20f, 23f, 26f, 29f, 56f, 68f, 80f, 92f);
+            assertArray(a.transpose().matMul(a), 9f, 12f, 15f, 12f, 17f, 22f, 15f, 22f, 29f);
+
+            NDArray v = manager.create(new float[] {1f, 1f, 1f});
+            assertArray(a.dot(v), 3f, 12f);
+            NDArray batch =
+                    manager.ones(new Shape(5, 2, 3)).batchMatMul(manager.ones(new Shape(5, 3, 2)));
+            Assert.assertEquals(batch.getShape(), new Shape(5, 2, 2));
+            Assert.assertEquals(batch.sum().getFloat(), 60f);
+
+            NDArray big = manager.ones(new Shape(64, 96));
+            NDArray product = big.matMul(manager.ones(new Shape(96, 80)));
+            Assert.assertEquals(product.max().getFloat(), 96f);
+            Assert.assertEquals(product.min().getFloat(), 96f);
+        }
+    }
+
+    @Test
+    public void testSoftmax() {
+        try (NDManager manager = newManager()) {
+            NDArray a = manager.create(new float[] {1f, 2f, 3f, 1f, 1f, 1f}, new Shape(2, 3));
+            NDArray softmax = a.softmax(1);
+            float[] expected = {0.09003057f, 0.24472847f, 0.66524096f, 1 / 3f, 1 / 3f, 1 / 3f};
+            assertArray(softmax, expected);
+            assertArray(a.logSoftmax(1).exp(), expected);
+            assertArray(a.softmax(0).sum(new int[] {0}), 1f, 1f, 1f);
+        }
+    }
+
+    @Test
+    public void testIndexing() {
+        try (NDManager manager = newManager()) {
+            NDArray a = manager.arange(12f).reshape(3, 4);
+            assertArray(a.get("1"), 4f, 5f, 6f, 7f);
+            assertArray(a.get(":, 1::2"), 1f, 3f, 5f, 7f, 9f, 11f);
+            Assert.assertEquals(a.get(":, 1::2").getShape(), new Shape(3, 2));
+            assertArray(
+                    a.get(new NDIndex("{}", manager.create(new long[] {2, 0}))),
+                    8f,
+                    9f,
+                    10f,
+                    11f,
+                    0f,
+                    1f,
+                    2f,
+                    3f);
+            NDArray picked =
+                    a.get(
+                            new NDIndex()
+                                    .addAllDim()
+                                    .addPickDim(manager.create(new long[] {3, 0, 1})));
+            assertArray(picked.flatten(), 3f, 4f, 9f);
+
+            a.set(new NDIndex("0"), 100);
+            a.set(new NDIndex(":, 3"), manager.create(new float[] {-1f, -2f, -3f}));
+            assertArray(a.get(":, 3"), -1f, -2f, -3f);
+            Assert.assertEquals(a.getFloat(0, 0), 100f);
+
+            NDArray masked = a.get(a.lt(0));
+            assertArray(masked, -1f, -2f, -3f);
+
+            NDList parts = a.split(new long[] {1}, 0);
+            Assert.assertEquals(parts.get(1).getShape(), new Shape(2, 4));
+            NDArray joined = NDArrays.concat(parts);
+            Assert.assertEquals(joined.toFloatArray(), a.toFloatArray());
+            Assert.assertEquals(
+                    NDArrays.stack(new NDList(parts.get(0), parts.get(0))).getShape(),
+                    new Shape(2, 1, 4));
+        }
+    }
+
+    @Test
+    public void testBlockForward() {
+        try (NDManager manager = newManager()) {
+            SequentialBlock block = new SequentialBlock();
+            block.add(Linear.builder().setUnits(8).build());
+            block.add(Activation::relu);
+            block.add(Linear.builder().setUnits(2).build());
+            block.initialize(manager, DataType.FLOAT32, new Shape(4, 16));
+
+            NDArray input = manager.randomUniform(-1f, 1f, new Shape(4, 16));
+            NDArray out = forward(block, manager, input).singletonOrThrow();
+            Assert.assertEquals(out.getShape(), new Shape(4, 2));
+
+            NDArray w1 =
+                    block.getChildren().get(0).getValue().getParameters().get("weight").getArray();
+            NDArray b1 =
+                    block.getChildren().get(0).getValue().getParameters().get("bias").getArray();
+            NDArray w2 =
+                    block.getChildren().get(2).getValue().getParameters().get("weight").getArray();
+            NDArray b2 =
+                    block.getChildren().get(2).getValue().getParameters().get("bias").getArray();
+            NDArray hidden = input.matMul(w1.transpose()).add(b1).maximum(0);
+            NDArray expected = hidden.matMul(w2.transpose()).add(b2);
+            assertArray(out, expected.toFloatArray());
+        }
+    }
+
+    @Test
+    public void testOffHeap() {
+        JvmNDManager root = JvmNDManager.getSystemManager();
+        try (NDManager heap = root.newSubManager(Device.cpu(), false);
+                NDManager direct = root.newSubManager(Device.cpu(), true)) {
+            Assert.assertTrue(((JvmNDManager) direct).isOffHeap());
+            Assert.assertTrue(((JvmNDManager) direct.newSubManager()).isOffHeap());
+            NDArray a = heap.arange(10f);
+            NDArray b = direct.arange(10f);
+            Assert.assertFalse(a.toByteBuffer().isDirect());
+            Assert.assertTrue(b.toByteBuffer().isDirect());
+            Assert.assertEquals(a.mul(2).toFloatArray(), b.mul(2).toFloatArray());
+            Assert.assertEquals(
+                    b.toType(DataType.INT32, false).toIntArray(),
+                    a.toType(DataType.INT32, false).toIntArray());
+        }
+    }
+
+    private static NDList forward(Block block, NDManager manager, NDArray input) {
+        return block.forward(new ParameterStore(manager, false), new NDList(input), false);
+    }
+
+    private static NDManager newManager() {
+        return Engine.getEngine(JvmEngine.ENGINE_NAME).newBaseManager();
+    }
+
+    private static void assertArray(NDArray actual, float... expected) {
+        float[] values = actual.toFloatArray();
+        Assert.assertEquals(values.length, expected.length);
+        for (int i = 0; i < values.length; ++i) {
+            Assert.assertEquals(values[i], expected[i], EPS * Math.max(1, Math.abs(expected[i])));
+        }
+    }
+}
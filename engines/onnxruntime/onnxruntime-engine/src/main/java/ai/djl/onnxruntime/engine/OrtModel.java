@@ -16,6 +16,7 @@ import ai.djl.BaseModel;
 import ai.djl.Device;
 import ai.djl.MalformedModelException;
 import ai.djl.Model;
+import ai.djl.ndarray.DirectBufferPool;
 import ai.djl.ndarray.NDManager;
 import ai.djl.ndarray.types.DataType;
 import ai.djl.util.Utils;
@@ -83,7 +84,7 @@ public class OrtModel extends BaseModel {
         try {
             SessionOptions ortOptions = getSessionOptions(options);
             OrtSession session = env.createSession(modelFile.toString(), ortOptions);
-            block = new OrtSymbolBlock(session, (OrtNDManager) manager);
+            block = newBlock(session, options);
         } catch (OrtException e) {
             throw new MalformedModelException("ONNX Model cannot be loaded", e);
         }
@@ -102,12 +103,20 @@ public class OrtModel extends BaseModel {
             byte[] buf = Utils.toByteArray(is);
             SessionOptions ortOptions = getSessionOptions(options);
             OrtSession session = env.createSession(buf, ortOptions);
-            block = new OrtSymbolBlock(session, (OrtNDManager) manager);
+            block = newBlock(session, options);
         } catch (OrtException e) {
             throw new MalformedModelException("ONNX Model cannot be loaded", e);
         }
     }
 
+    private OrtSymbolBlock newBlock(OrtSession session, Map<String, ?> options) {
+        OrtSymbolBlock symbolBlock = new OrtSymbolBlock(session, (OrtNDManager) manager);
+        if (options != null && Boolean.parseBoolean((String) options.get("reuseInputBuffers"))) {
+            symbolBlock.setBufferPool(DirectBufferPool.builder().build());
+        }
+        return symbolBlock;
+    }
+
     private Path findModelFile(String... prefixes) {
         if (Files.isRegularFile(modelDir)) {
             Path file = modelDir;
@@ -27,8 +27,6 @@ import ai.onnxruntime.OrtUtil;
 import ai.onnxruntime.TensorInfo;
 
 import java.nio.Buffer;
-import java.nio.ByteBuffer;
-import java.nio.ByteOrder;
 import java.nio.charset.Charset;
 
 /** {@code OrtNDManager} is the ONNX Runtime implementation of {@link NDManager}. */
@@ -47,12 +45,6 @@ public class OrtNDManager extends BaseNDManager {
         return SYSTEM_MANAGER;
     }
 
-    /** {@inheritDoc} */
-    @Override
-    public ByteBuffer allocateDirect(int capacity) {
-        return ByteBuffer.allocateDirect(capacity).order(ByteOrder.nativeOrder());
-    }
-
     /** {@inheritDoc} */
     @Override
     public OrtNDArray from(NDArray array) {
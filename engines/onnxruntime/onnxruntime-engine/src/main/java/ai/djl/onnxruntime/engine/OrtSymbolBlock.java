@@ -14,6 +14,7 @@
 package ai.djl.onnxruntime.engine;
 
 import ai.djl.engine.EngineException;
+import ai.djl.ndarray.DirectBufferPool;
 import ai.djl.ndarray.NDArray;
 import ai.djl.ndarray.NDList;
 import ai.djl.ndarray.NDManager;
@@ -33,11 +34,16 @@ import ai.onnxruntime.OrtException;
 import ai.onnxruntime.OrtSession;
 
 import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
-import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * {@code OrtSymbolBlock} is the ONNX Runtime implementation of {@link SymbolBlock}.
@@ -49,6 +55,8 @@ public class OrtSymbolBlock extends AbstractSymbolBlock implements AutoCloseable
 
     private OrtSession session;
     private OrtNDManager manager;
+    private List<String> inputNames;
+    private DirectBufferPool bufferPool;
 
     /**
      * Constructs a {@code OrtSymbolBlock}.
@@ -63,9 +71,26 @@ public class OrtSymbolBlock extends AbstractSymbolBlock implements AutoCloseable
     public OrtSymbolBlock(OrtSession session, OrtNDManager manager) {
         this.session = session;
         this.manager = manager;
+        inputNames = new ArrayList<>(session.getInputNames());
         manager.attachInternal(UUID.randomUUID().toString(), this);
     }
 
+    /**
+     * Sets the {@link DirectBufferPool} used to stage the inputs that are not already in an ONNX
+     * Runtime compatible buffer.
+     *
+     * <p>Inputs from another engine whose data is not in a native order direct buffer must be
+     * copied to one before they can be fed to ONNX Runtime. With a pool, the copies reuse pooled
+     * buffers for each input size instead of allocating new direct memory on every call. Inputs
+     * that are already in a compatible buffer are passed to ONNX Runtime without copy either way.
+     *
+     * @param bufferPool the {@link DirectBufferPool}, or {@code null} to allocate a new buffer on
+     *     every call
+     */
+    public void setBufferPool(DirectBufferPool bufferPool) {
+        this.bufferPool = bufferPool;
+    }
+
     /** {@inheritDoc} */
     @Override
     public void removeLastBlock() {
@@ -79,14 +104,16 @@ public class OrtSymbolBlock extends AbstractSymbolBlock implements AutoCloseable
             NDList inputs,
             boolean training,
             PairList<String, Object> params) {
-        List<String> inputNames = new ArrayList<>(session.getInputNames());
         if (inputs.size() != inputNames.size()) {
             throw new IllegalArgumentException("Input mismatch, looking for: " + inputNames);
         }
 
-        Map<String, OnnxTensor> container = new ConcurrentHashMap<>();
+        Map<String, OnnxTensor> container = new HashMap<>(inputNames.size() * 2);
         // forward
         try (OrtNDManager sub = (OrtNDManager) manager.newSubManager()) {
+            if (bufferPool != null) {
+                sub.setBufferPool(bufferPool);
+            }
             // If input data has name
             if (inputs.get(0).getName() != null) {
                 for (NDArray input : inputs) {
@@ -98,14 +125,12 @@ public class OrtSymbolBlock extends AbstractSymbolBlock implements AutoCloseable
                     if (!inputNames.contains(name)) {
                         throw new IllegalArgumentException("Invalid input tensor name: " + name);
                     }
-                    OrtNDArray ortNDArray = sub.from(input);
-                    container.put(name, ortNDArray.getTensor());
+                    container.put(name, toTensor(sub, input));
                 }
             } else {
                 // feed data in to match names
                 for (int i = 0; i < inputNames.size(); ++i) {
-                    OrtNDArray ortNDArray = sub.from(inputs.get(i));
-                    container.put(inputNames.get(i), ortNDArray.getTensor());
+                    container.put(inputNames.get(i), toTensor(sub, inputs.get(i)));
                 }
             }
 
@@ -118,11 +143,30 @@ public class OrtSymbolBlock extends AbstractSymbolBlock implements AutoCloseable
         }
     }
 
+    private OnnxTensor toTensor(OrtNDManager sub, NDArray input) {
+        if (input instanceof OrtNDArray) {
+            return ((OrtNDArray) input).getTensor();
+        }
+        DataType dataType = input.getDataType();
+        if (bufferPool == null || dataType == DataType.BOOLEAN || dataType == DataType.STRING) {
+            return sub.from(input).getTensor();
+        }
+        ByteBuffer data = input.toByteBuffer();
+        if (!data.isDirect() || data.order() != ByteOrder.nativeOrder()) {
+            // the buffer goes back to the pool when the sub manager is closed after the run
+            ByteBuffer buf = sub.allocateDirect(data.remaining());
+            buf.put(data);
+            buf.rewind();
+            data = buf;
+        }
+        return sub.create(data, input.getShape(), dataType).getTensor();
+    }
+
     /** {@inheritDoc} */
     @Override
     public PairList<String, Shape> describeInput() {
         PairList<String, Shape> result = new PairList<>();
-        for (String name : session.getInputNames()) {
+        for (String name : inputNames) {
             result.add(name, null);
         }
         return result;
@@ -135,7 +179,6 @@ public class OrtSymbolBlock extends AbstractSymbolBlock implements AutoCloseable
             if ((value instanceof OnnxTensor)) {
                 output.add(manager.createInternal((OnnxTensor) value));
             } else if (value instanceof OnnxSequence) {
-                // TODO: avoid memory copying to heap
                 OnnxSequence seq = (OnnxSequence) value;
                 if (seq.getInfo().isSequenceOfMaps()) {
                     output.add(seq2Nd(seq));
@@ -149,41 +192,62 @@ public class OrtSymbolBlock extends AbstractSymbolBlock implements AutoCloseable
         return output;
     }
 
-    @SuppressWarnings("unchecked")
     private NDArray seq2Nd(OnnxSequence seq) {
         try {
-            List<OnnxMap> values = (List<OnnxMap>) seq.getValue();
-            DataType dp;
-            List<Object> finalData = new ArrayList<>();
-            OnnxJavaType type = seq.getInfo().mapInfo.valueType;
-            for (OnnxMap map : values) {
-                finalData.addAll(((Map<Object, Object>) map.getValue()).values());
+            List<? extends OnnxValue> values = seq.getValue();
+            int size = 0;
+            for (OnnxValue map : values) {
+                size += ((OnnxMap) map).size();
             }
-            Shape shape = new Shape(values.size(), finalData.size() / values.size());
-            ByteBuffer buffer = ByteBuffer.allocate(finalData.size() * type.size);
+            OnnxJavaType type = seq.getInfo().mapInfo.valueType;
+            Shape shape = new Shape(values.size(), size / values.size());
+            // decodes the map values straight into the tensor buffer
+            ByteBuffer buffer =
+                    ByteBuffer.allocateDirect(size * type.size).order(ByteOrder.nativeOrder());
             switch (type) {
                 case FLOAT:
-                    finalData.forEach(ele -> buffer.putFloat((Float) ele));
-                    buffer.rewind();
-                    return manager.create(buffer.asFloatBuffer(), shape, DataType.FLOAT32);
+                    FloatBuffer fb = buffer.asFloatBuffer();
+                    for (OnnxValue map : values) {
+                        for (Object value : ((OnnxMap) map).getValue().values()) {
+                            fb.put((Float) value);
+                        }
+                    }
+                    return manager.create(buffer, shape, DataType.FLOAT32);
                 case DOUBLE:
-                    finalData.forEach(ele -> buffer.putDouble((Double) ele));
-                    buffer.rewind();
-                    return manager.create(buffer.asDoubleBuffer(), shape, DataType.FLOAT64);
+                    DoubleBuffer db = buffer.asDoubleBuffer();
+                    for (OnnxValue map : values) {
+                        for (Object value : ((OnnxMap) map).getValue().values()) {
+                            db.put((Double) value);
+                        }
+                    }
+                    return manager.create(buffer, shape, DataType.FLOAT64);
                 case BOOL:
                 case INT8:
-                    dp = (type == OnnxJavaType.BOOL) ? DataType.BOOLEAN : DataType.INT8;
-                    finalData.forEach(ele -> buffer.put((Byte) ele));
+                    for (OnnxValue map : values) {
+                        for (Object value : ((OnnxMap) map).getValue().values()) {
+                            buffer.put((Byte) value);
+                        }
+                    }
                     buffer.rewind();
-                    return manager.create(buffer, shape, dp);
+                    DataType dataType =
+                            type == OnnxJavaType.BOOL ? DataType.BOOLEAN : DataType.INT8;
+                    return manager.create(buffer, shape, dataType);
                 case INT32:
-                    finalData.forEach(ele -> buffer.putInt((Integer) ele));
-                    buffer.rewind();
-                    return manager.create(buffer.asIntBuffer(), shape, DataType.INT32);
+                    IntBuffer ib = buffer.asIntBuffer();
+                    for (OnnxValue map : values) {
+                        for (Object value : ((OnnxMap) map).getValue().values()) {
+                            ib.put((Integer) value);
+                        }
+                    }
+                    return manager.create(buffer, shape, DataType.INT32);
                 case INT64:
-                    finalData.forEach(ele -> buffer.putLong((Long) ele));
-                    buffer.rewind();
-                    return manager.create(buffer.asLongBuffer(), shape, DataType.INT64);
+                    LongBuffer lb = buffer.asLongBuffer();
+                    for (OnnxValue map : values) {
+                        for (Object value : ((OnnxMap) map).getValue().values()) {
+                            lb.put((Long) value);
+                        }
+                    }
+                    return manager.create(buffer, shape, DataType.INT64);
                 default:
                     throw new UnsupportedOperationException("type is not supported: " + type);
             }
@@ -12,6 +12,7 @@
  */
 package ai.djl.onnxruntime.engine;
 
+import ai.djl.MalformedModelException;
 import ai.djl.Model;
 import ai.djl.ModelException;
 import ai.djl.engine.Engine;
@@ -24,6 +25,7 @@ import ai.djl.ndarray.types.Shape;
 import ai.djl.onnxruntime.zoo.tabular.softmax_regression.IrisFlower;
 import ai.djl.repository.zoo.Criteria;
 import ai.djl.repository.zoo.ZooModel;
+import ai.djl.training.ParameterStore;
 import ai.djl.translate.TranslateException;
 import ai.onnxruntime.OrtException;
 
@@ -38,6 +40,8 @@ import java.lang.reflect.Field;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.Collections;
+import java.util.Map;
 import java.util.Properties;
 
 public class OrtTest {
@@ -137,6 +141,27 @@ public class OrtTest {
         }
     }
 
+    @Test
+    public void testReuseInputBuffers() throws IOException, MalformedModelException {
+        Path modelFile = Paths.get("../../tensorrt/src/test/resources/identity.onnx");
+        Map<String, String> options = Collections.singletonMap("reuseInputBuffers", "true");
+        // the JVM engine keeps the data in heap buffers, which are copied to pooled buffers
+        try (Model model = Model.newInstance("identity", "OnnxRuntime");
+                NDManager manager = Engine.getEngine("JVM").newBaseManager()) {
+            model.load(modelFile, null, options);
+            ParameterStore parameterStore = new ParameterStore();
+            for (int i = 0; i < 3; ++i) {
+                float[] data = {i, i + 1, i + 2, i + 3};
+                NDArray x = manager.create(data, new Shape(1, 1, 2, 2));
+                if (i == 2) {
+                    x.setName("x");
+                }
+                NDList output = model.getBlock().forward(parameterStore, new NDList(x), false);
+                Assert.assertEquals(output.singletonOrThrow().toFloatArray(), data);
+            }
+        }
+    }
+
     @Test
     public void testStringTensor() throws ModelException, IOException, TranslateException {
         setAlternativeEngineDisabled(true);
@@ -24,7 +24,6 @@ import ai.djl.pytorch.jni.JniUtils;
 
 import java.nio.Buffer;
 import java.nio.ByteBuffer;
-import java.nio.ByteOrder;
 import java.nio.charset.Charset;
 
 /** {@code PtNDManager} is the PyTorch implementation of {@link NDManager}. */
@@ -40,12 +39,6 @@ public class PtNDManager extends BaseNDManager {
         return SYSTEM_MANAGER;
     }
 
-    /** {@inheritDoc} */
-    @Override
-    public ByteBuffer allocateDirect(int capacity) {
-        return ByteBuffer.allocateDirect(capacity).order(ByteOrder.nativeOrder());
-    }
-
     /** {@inheritDoc} */
     @Override
     public PtNDArray from(NDArray array) {
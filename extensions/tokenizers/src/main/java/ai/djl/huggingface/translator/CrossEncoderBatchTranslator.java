@@ -51,16 +51,16 @@ public class CrossEncoderBatchTranslator implements NoBatchifyTranslator<StringP
         for (int i = 0; i < encodings.length; ++i) {
             batch[i] = encodings[i].toNDList(manager, includeTokenTypes);
         }
-        return batchifier.batchify(batch);
+        return batchifier.batchify(ctx, batch);
     }
 
     /** {@inheritDoc} */
     @Override
     public float[][] processOutput(TranslatorContext ctx, NDList list) {
-        NDList[] batch = batchifier.unbatchify(list);
+        NDList[] batch = batchifier.unbatchify(ctx, list);
         float[][] ret = new float[batch.length][];
         for (int i = 0; i < batch.length; ++i) {
-            NDArray logits = list.get(0);
+            NDArray logits = batch[i].get(0);
             NDArray result = logits.getNDArrayInternal().sigmoid();
             ret[i] = result.toFloatArray();
         }
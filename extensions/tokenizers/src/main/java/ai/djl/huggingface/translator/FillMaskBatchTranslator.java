@@ -54,13 +54,13 @@ public class FillMaskBatchTranslator implements NoBatchifyTranslator<String[], C
             maskIndices[i] = FillMaskTranslator.getMaskIndex(indices, maskToken, maskTokenId);
             batch[i] = encodings[i].toNDList(manager, false);
         }
-        return batchifier.batchify(batch);
+        return batchifier.batchify(ctx, batch);
     }
 
     /** {@inheritDoc} */
     @Override
     public Classifications[] processOutput(TranslatorContext ctx, NDList list) {
-        NDList[] batch = batchifier.unbatchify(list);
+        NDList[] batch = batchifier.unbatchify(ctx, list);
         int[] maskIndices = (int[]) ctx.getAttachment("maskIndices");
         Classifications[] ret = new Classifications[maskIndices.length];
         for (int i = 0; i < batch.length; ++i) {
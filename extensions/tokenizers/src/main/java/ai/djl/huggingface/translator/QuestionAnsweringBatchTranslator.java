@@ -50,13 +50,13 @@ public class QuestionAnsweringBatchTranslator implements NoBatchifyTranslator<QA
         for (int i = 0; i < encodings.length; ++i) {
             batch[i] = encodings[i].toNDList(manager, includeTokenTypes);
         }
-        return batchifier.batchify(batch);
+        return batchifier.batchify(ctx, batch);
     }
 
     /** {@inheritDoc} */
     @Override
     public String[] processOutput(TranslatorContext ctx, NDList list) {
-        NDList[] batch = batchifier.unbatchify(list);
+        NDList[] batch = batchifier.unbatchify(ctx, list);
         Encoding[] encodings = (Encoding[]) ctx.getAttachment("encodings");
         String[] ret = new String[encodings.length];
         for (int i = 0; i < encodings.length; ++i) {
@@ -58,13 +58,13 @@ public class TextClassificationBatchTranslator
         for (int i = 0; i < encodings.length; ++i) {
             batch[i] = encodings[i].toNDList(manager, false);
         }
-        return batchifier.batchify(batch);
+        return batchifier.batchify(ctx, batch);
     }
 
     /** {@inheritDoc} */
     @Override
     public Classifications[] processOutput(TranslatorContext ctx, NDList list) {
-        NDList[] batch = batchifier.unbatchify(list);
+        NDList[] batch = batchifier.unbatchify(ctx, list);
         Classifications[] ret = new Classifications[batch.length];
         for (int i = 0; i < batch.length; ++i) {
             ret[i] = TextClassificationTranslator.toClassifications(config, batch[i]);
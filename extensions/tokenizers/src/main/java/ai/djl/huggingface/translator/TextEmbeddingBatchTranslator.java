@@ -50,13 +50,13 @@ public class TextEmbeddingBatchTranslator implements NoBatchifyTranslator<String
         for (int i = 0; i < encodings.length; ++i) {
             batch[i] = encodings[i].toNDList(manager, false);
         }
-        return batchifier.batchify(batch);
+        return batchifier.batchify(ctx, batch);
     }
 
     /** {@inheritDoc} */
     @Override
     public float[][] processOutput(TranslatorContext ctx, NDList list) {
-        NDList[] batch = batchifier.unbatchify(list);
+        NDList[] batch = batchifier.unbatchify(ctx, list);
         Encoding[] encoding = (Encoding[]) ctx.getAttachment("encodings");
         NDManager manager = ctx.getNDManager();
         float[][] ret = new float[batch.length][];
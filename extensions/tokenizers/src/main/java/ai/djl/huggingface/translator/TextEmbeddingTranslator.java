@@ -24,6 +24,7 @@ import ai.djl.translate.Translator;
 import ai.djl.translate.TranslatorContext;
 
 import java.io.IOException;
+import java.util.Arrays;
 import java.util.Map;
 
 /** The translator for Huggingface text embedding model. */
@@ -92,6 +93,11 @@ public class TextEmbeddingTranslator implements Translator<String, float[]> {
             embedding = list.head();
         }
         long[] attentionMask = encoding.getAttentionMask();
+        int tokens = (int) embedding.getShape().get(0);
+        if (attentionMask.length > tokens) {
+            // a packed batch only returns the unpadded tokens
+            attentionMask = Arrays.copyOf(attentionMask, tokens);
+        }
         NDArray inputAttentionMask = manager.create(attentionMask).toType(DataType.FLOAT32, true);
         switch (pooling) {
             case "mean":
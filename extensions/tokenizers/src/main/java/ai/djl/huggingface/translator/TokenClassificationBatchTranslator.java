@@ -60,13 +60,13 @@ public class TokenClassificationBatchTranslator
         for (int i = 0; i < encodings.length; ++i) {
             batch[i] = encodings[i].toNDList(manager, false);
         }
-        return batchifier.batchify(batch);
+        return batchifier.batchify(ctx, batch);
     }
 
     /** {@inheritDoc} */
     @Override
     public NamedEntity[][] processOutput(TranslatorContext ctx, NDList list) {
-        NDList[] batch = batchifier.unbatchify(list);
+        NDList[] batch = batchifier.unbatchify(ctx, list);
         Encoding[] encodings = (Encoding[]) ctx.getAttachment("encodings");
         NamedEntity[][] ret = new NamedEntity[encodings.length][];
         for (int i = 0; i < encodings.length; ++i) {
@@ -21,6 +21,7 @@ import ai.djl.modality.Output;
 import ai.djl.ndarray.NDArray;
 import ai.djl.ndarray.NDList;
 import ai.djl.ndarray.NDManager;
+import ai.djl.ndarray.types.DataType;
 import ai.djl.ndarray.types.Shape;
 import ai.djl.nn.Block;
 import ai.djl.nn.LambdaBlock;
@@ -239,4 +240,77 @@ public class TextEmbeddingTranslatorTest {
             Assertions.assertAlmostEquals(res[0][0], 0.05103);
         }
     }
+
+    @Test
+    public void testPackingBatchifier() throws ModelException, IOException, TranslateException {
+        String[] text = {
+            "This is an example sentence", "Hi", "This is the third and much longer sentence"
+        };
+
+        // a token attends to all the tokens of its sequence, and sees its position
+        Block block =
+                new LambdaBlock(
+                        a -> {
+                            NDManager manager = a.getManager();
+                            NDArray ids = a.get(0).toType(DataType.FLOAT32, false);
+                            NDArray mask = a.get(1).toType(DataType.FLOAT32, false);
+                            Shape shape = ids.getShape();
+                            NDArray positions;
+                            if (a.size() > 2) {
+                                positions = a.get(2).toType(DataType.FLOAT32, false);
+                            } else {
+                                positions =
+                                        manager.arange((float) shape.get(1))
+                                                .expandDims(0)
+                                                .broadcast(shape);
+                            }
+                            if (mask.getShape().dimension() == 2) {
+                                Shape square = new Shape(shape.get(0), shape.get(1), shape.get(1));
+                                mask = mask.expandDims(1).broadcast(square);
+                            }
+                            NDArray values = ids.add(positions).expandDims(-1);
+                            NDArray arr =
+                                    mask.batchMatMul(values).mul(manager.ones(new Shape(1, 1, 4)));
+                            arr.setName("last_hidden_state");
+                            // as wide as the rows, but not a token level output
+                            NDArray pooled = mask.sum(new int[] {2});
+                            pooled.setName("pooler_output");
+                            return new NDList(arr, pooled);
+                        },
+                        "model");
+        Path modelDir = Paths.get("build/model");
+        Files.createDirectories(modelDir);
+
+        float[][] expected = embed(modelDir, block, "stack", text);
+        float[][] actual = embed(modelDir, block, "packing", text);
+        Assert.assertEquals(actual.length, text.length);
+        for (int i = 0; i < text.length; ++i) {
+            Assert.assertEquals(actual[i].length, 4);
+            for (int j = 0; j < actual[i].length; ++j) {
+                Assertions.assertAlmostEquals(actual[i][j], expected[i][j]);
+            }
+        }
+    }
+
+    private static float[][] embed(Path modelDir, Block block, String batchifier, String[] text)
+            throws ModelException, IOException, TranslateException {
+        Criteria<String[], float[][]> criteria =
+                Criteria.builder()
+                        .setTypes(String[].class, float[][].class)
+                        .optModelPath(modelDir)
+                        .optBlock(block)
+                        .optEngine("PyTorch")
+                        .optArgument("tokenizer", "bert-base-uncased")
+                        .optArgument("padding", "true")
+                        .optArgument("normalize", "false")
+                        .optArgument("batchifier", batchifier)
+                        .optOption("hasParameter", "false")
+                        .optTranslatorFactory(new TextEmbeddingTranslatorFactory())
+                        .build();
+
+        try (ZooModel<String[], float[][]> model = criteria.loadModel();
+                Predictor<String[], float[][]> predictor = model.newPredictor()) {
+            return predictor.predict(text);
+        }
+    }
 }
@@ -15,6 +15,7 @@ package ai.djl.integration.tests.modality.cv;
 import ai.djl.integration.util.TestUtils;
 import ai.djl.modality.cv.Image;
 import ai.djl.modality.cv.ImageFactory;
+import ai.djl.modality.cv.util.NDImageUtils;
 import ai.djl.ndarray.NDArray;
 import ai.djl.ndarray.NDManager;
 import ai.djl.ndarray.types.DataType;
@@ -56,4 +57,24 @@ public class BufferedImageFactoryTest {
             Assertions.assertAlmostEquals(array, converted);
         }
     }
+
+    @Test
+    public void testToTensor() {
+        try (NDManager manager = NDManager.newBaseManager(TestUtils.getEngine())) {
+            float[] mean = {0.485f, 0.456f, 0.406f};
+            float[] std = {0.229f, 0.224f, 0.225f};
+            NDArray array = manager.arange(0.0f, 24.0f).reshape(3, 2, 4).mul(10);
+            Image image = ImageFactory.getInstance().fromNDArray(array);
+            NDArray tensor = image.toTensor(manager, Image.Flag.COLOR, mean, std);
+            NDArray expected =
+                    NDImageUtils.toNormalizedTensor(image.toNDArray(manager), mean, std, false);
+            Assert.assertEquals(tensor.getShape(), new Shape(3, 2, 4));
+            Assertions.assertAlmostEquals(tensor, expected);
+
+            tensor = image.toTensor(manager, Image.Flag.GRAYSCALE, null, null);
+            expected = NDImageUtils.toNormalizedTensor(image.toNDArray(manager), null, null, true);
+            Assert.assertEquals(tensor.getShape(), new Shape(1, 2, 4));
+            Assertions.assertAlmostEquals(tensor, expected);
+        }
+    }
 }
@@ -96,6 +96,50 @@ public class NDImageUtilsTest {
         }
     }
 
+    @Test
+    public void testToNormalizedTensor() {
+        try (NDManager manager = NDManager.newBaseManager(TestUtils.getEngine())) {
+            float[] mean = {0.485f, 0.456f, 0.406f};
+            float[] std = {0.229f, 0.224f, 0.225f};
+            NDArray image =
+                    manager.randomUniform(0, 255, new Shape(4, 2, 3)).toType(DataType.UINT8, false);
+            NDArray result = NDImageUtils.toNormalizedTensor(image, mean, std, false);
+            NDArray expected =
+                    image.toType(DataType.FLOAT32, false)
+                            .div(255f)
+                            .sub(manager.create(mean))
+                            .div(manager.create(std))
+                            .transpose(2, 0, 1);
+            Assert.assertEquals(result.getDataType(), DataType.FLOAT32);
+            Assertions.assertAlmostEquals(result, expected);
+
+            // test 4D N, H, W, C without normalization
+            NDArray batchImages = manager.randomUniform(0, 255, new Shape(5, 4, 2, 3));
+            result = NDImageUtils.toNormalizedTensor(batchImages, null, null, false);
+            expected = batchImages.div(255f).transpose(0, 3, 1, 2);
+            Assertions.assertAlmostEquals(result, expected);
+
+            // test grayscale
+            result = NDImageUtils.toNormalizedTensor(image, mean, std, true);
+            Assert.assertEquals(result.getShape(), new Shape(1, 4, 2));
+            expected =
+                    image.toType(DataType.FLOAT32, false)
+                            .mul(manager.create(new float[] {0.299f, 0.587f, 0.114f}))
+                            .sum(new int[] {2}, true)
+                            .div(255f)
+                            .sub(mean[0])
+                            .div(std[0])
+                            .transpose(2, 0, 1);
+            Assertions.assertAlmostEquals(result, expected);
+
+            Assert.assertThrows(
+                    IllegalArgumentException.class,
+                    () ->
+                            NDImageUtils.toNormalizedTensor(
+                                    manager.ones(new Shape(3, 4)), mean, std, false));
+        }
+    }
+
     @Test
     public void testResize() {
         TestUtils.requiresEngine("MXNet", "PyTorch", "TensorFlow");
@@ -15,6 +15,7 @@ package ai.djl.integration.tests.training;
 import ai.djl.Model;
 import ai.djl.basicdataset.cv.classification.Cifar10;
 import ai.djl.integration.util.TestUtils;
+import ai.djl.metric.Metrics;
 import ai.djl.ndarray.NDArray;
 import ai.djl.ndarray.NDManager;
 import ai.djl.ndarray.types.DataType;
@@ -33,6 +34,7 @@ import ai.djl.training.dataset.RandomSampler;
 import ai.djl.training.dataset.SequenceSampler;
 import ai.djl.training.initializer.Initializer;
 import ai.djl.training.loss.Loss;
+import ai.djl.translate.Pipeline;
 import ai.djl.translate.TranslateException;
 import ai.djl.util.Pair;
 
@@ -299,6 +301,60 @@ public class DatasetTest {
         }
     }
 
+    @Test
+    public void testPrefetchMetrics() throws IOException, InterruptedException, TranslateException {
+        try (Model model = Model.newInstance("model", TestUtils.getEngine())) {
+            model.setBlock(Blocks.identityBlock());
+            NDManager manager = model.getNDManager();
+
+            ExecutorService executor = Executors.newFixedThreadPool(2);
+            ArrayDataset dataset =
+                    new ArrayDataset.Builder()
+                            .setData(manager.arange(200f).reshape(100, 2))
+                            .optLabels(manager.arange(100f))
+                            .setSampling(10, false)
+                            .optPipeline(new Pipeline(array -> array.mul(2)))
+                            .optPrefetchNumber(3)
+                            .build();
+
+            TrainingConfig threadedConfig = config().optExecutorService(executor);
+            try (Trainer trainer = model.newTrainer(threadedConfig)) {
+                Metrics metrics = new Metrics();
+                trainer.setMetrics(metrics);
+                int count = 0;
+                for (Batch batch : trainer.iterateDataset(dataset)) {
+                    Assert.assertEquals(
+                            batch.getData().head().toFloatArray()[1], (count * 20 + 1) * 2f);
+                    batch.close();
+                    ++count;
+                }
+                Assert.assertEquals(count, 10);
+                Assert.assertEquals(metrics.getMetric("data-wait").size(), 10);
+                Assert.assertEquals(metrics.getMetric("data-read").size(), 10);
+                Assert.assertEquals(metrics.getMetric("data-transform").size(), 10);
+
+                ArrayDataset broken =
+                        new ArrayDataset.Builder()
+                                .setData(manager.arange(20f))
+                                .setSampling(10, false)
+                                .optPipeline(
+                                        new Pipeline(
+                                                array -> {
+                                                    throw new IllegalArgumentException("bad");
+                                                }))
+                                .build();
+                IllegalStateException e =
+                        Assert.expectThrows(
+                                IllegalStateException.class,
+                                () -> trainer.iterateDataset(broken).iterator().next());
+                Assert.assertTrue(e.getMessage().contains("indices"), e.getMessage());
+            } finally {
+                executor.shutdown();
+                executor.awaitTermination(Long.MAX_VALUE, TimeUnit.SECONDS);
+            }
+        }
+    }
+
     @Test
     public void testDatasetToArray() throws IOException, TranslateException {
         TestUtils.requiresEngine("MXNet", "PyTorch", "TensorFlow");
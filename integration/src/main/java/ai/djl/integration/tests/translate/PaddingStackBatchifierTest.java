@@ -100,6 +100,37 @@ public class PaddingStackBatchifierTest {
         }
     }
 
+    @Test
+    public void testBatchifyWithBuckets() {
+        try (NDManager manager = NDManager.newBaseManager(TestUtils.getEngine())) {
+            NDList[] input = new NDList[3];
+            for (int i = 0; i < 3; i++) {
+                input[i] =
+                        new NDList(manager.ones(new Shape(10, i + 3)), manager.create((float) i));
+            }
+            PaddingStackBatchifier batchifier =
+                    PaddingStackBatchifier.builder()
+                            .optIncludeValidLengths(true)
+                            .addPad(0, 1, (mngr) -> mngr.zeros(new Shape(1)))
+                            .optSequenceBuckets(4, 8, 16)
+                            .optBatchBuckets(1, 2, 4)
+                            .build();
+            NDList actual = batchifier.batchify(input);
+
+            Assert.assertEquals(actual.size(), 3);
+            Assert.assertEquals(actual.get(0).getShape(), new Shape(4, 10, 8));
+            Assert.assertEquals(actual.get(1), manager.create(new float[] {0, 1, 2, 2}));
+            Assert.assertEquals(actual.get(2), manager.create(new long[] {3, 4, 5, 5}));
+            Assert.assertEquals(batchifier.getBucket(actual), "4x8");
+
+            // sizes beyond the largest bucket are kept
+            input = new NDList[] {new NDList(manager.ones(new Shape(10, 20)), manager.create(0f))};
+            actual = batchifier.batchify(input);
+            Assert.assertEquals(actual.get(0).getShape(), new Shape(1, 10, 20));
+            Assert.assertEquals(batchifier.getBucket(actual), "1x20");
+        }
+    }
+
     @Test
     public void testUnbatchify() {
         try (NDManager manager = NDManager.newBaseManager(TestUtils.getEngine())) {